@@ -0,0 +1,103 @@
+package com.webapp.backend;
+
+import org.springframework.core.MethodParameter;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.http.server.ServletServerHttpResponse;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+import com.webapp.backend.service.CatalogVersions;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Ürün ve kategori GET isteklerinde koşullu yanıt. ETag, controller çalışmadan önce
+ * bellekteki sürüm sayaçlarından hesaplanır (CatalogVersions); If-None-Match eşleşirse
+ * 304 döner ve hiçbir veritabanı sorgusu ya da DTO dönüşümü çalışmaz. ETag veri okunmadan önce alındığı için, okuma sırasında
+ * gelen bir yazma en kötü ihtimalle bir sonraki istekte fazladan 200'e yol açar.
+ * 200 yanıtlarında ETag başlığı gövde yazılırken eklenir (ResponseBodyAdvice); controller'dan önce
+ * eklenseydi Spring, ResponseEntity yanıtlarında If-None-Match'i kendi zayıf karşılaştırmasıyla
+ * yeniden değerlendirip W/ önekli doğrulayıcılara da 304 dönerdi.
+ */
+@ControllerAdvice
+public class CatalogETagInterceptor implements HandlerInterceptor, ResponseBodyAdvice<Object> {
+
+    private static final String PRODUCTS_PATH = "/api/products/";
+    private static final String ETAG_ATTRIBUTE = CatalogETagInterceptor.class.getName() + ".eTag";
+
+    private final CatalogVersions catalogVersions;
+
+    public CatalogETagInterceptor(CatalogVersions catalogVersions) {
+        this.catalogVersions = catalogVersions;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (!"GET".equals(request.getMethod())) {
+            return true;
+        }
+
+        String eTag = eTagFor(request.getRequestURI());
+        if (matches(request.getHeader(HttpHeaders.IF_NONE_MATCH), eTag)) {
+            response.setStatus(HttpStatus.NOT_MODIFIED.value());
+            response.setHeader(HttpHeaders.ETAG, eTag);
+            return false;
+        }
+        request.setAttribute(ETAG_ATTRIBUTE, eTag);
+        return true;
+    }
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return true;
+    }
+
+    @Override
+    public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType,
+            Class<? extends HttpMessageConverter<?>> selectedConverterType, ServerHttpRequest request,
+            ServerHttpResponse response) {
+        // Hata gövdelerine ETag eklenmez
+        if (request instanceof ServletServerHttpRequest servletRequest
+                && response instanceof ServletServerHttpResponse servletResponse
+                && servletResponse.getServletResponse().getStatus() == HttpStatus.OK.value()
+                && servletRequest.getServletRequest().getAttribute(ETAG_ATTRIBUTE) instanceof String eTag) {
+            response.getHeaders().setETag(eTag);
+        }
+        return body;
+    }
+
+    private String eTagFor(String path) {
+        if (path.startsWith(PRODUCTS_PATH)) {
+            String rest = path.substring(PRODUCTS_PATH.length());
+            if (!rest.isEmpty() && rest.chars().allMatch(Character::isDigit)) {
+                return catalogVersions.productETag(Long.valueOf(rest));
+            }
+        }
+        return catalogVersions.catalogETag();
+    }
+
+    /**
+     * If-None-Match virgülle ayrılmış liste veya * olabilir. Üretilen ETag'ler güçlü olduğundan
+     * karşılaştırma da güçlüdür: W/ önekli zayıf bir doğrulayıcı hiçbir zaman eşleşmez.
+     */
+    private static boolean matches(String ifNoneMatch, String eTag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String value = candidate.trim();
+            if (value.equals("*") || value.equals(eTag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -1,11 +1,16 @@
 package com.webapp.backend; // Use your actual package name
 
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.web.servlet.config.annotation.CorsRegistry;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
 @Configuration
 public class WebConfig implements WebMvcConfigurer {
+
+    @Autowired
+    private CatalogETagInterceptor catalogETagInterceptor;
     
     @Override
     public void addCorsMappings(CorsRegistry registry) {
@@ -13,6 +18,17 @@ public class WebConfig implements WebMvcConfigurer {
                 .allowedOrigins("http://localhost:4200")
                 .allowedMethods("GET", "POST", "PUT", "DELETE", "OPTIONS")
                 .allowedHeaders("*")
+                .exposedHeaders("ETag")
                 .allowCredentials(true);
     }
-}
\ No newline at end of file
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        // İçe aktarma iş durumu, dışa aktarım akışı, öneriler ve flash-sale durumu katalog sürümüne
+        // bağlı değildir; bunlar için ETag üretilmez
+        registry.addInterceptor(catalogETagInterceptor)
+                .addPathPatterns("/api/products/**", "/api/categories/**")
+                .excludePathPatterns("/api/products/import/**", "/api/products/export",
+                        "/api/products/suggest", "/api/products/*/flash-sale");
+    }
+}
@@ -24,6 +24,7 @@ import com.webapp.backend.exception.ResourceNotFoundException;
 import com.webapp.backend.model.User;
 import com.webapp.backend.security.JwtUtil;
 import com.webapp.backend.security.UserDetailsImpl;
+import com.webapp.backend.service.CartService;
 import com.webapp.backend.service.UserService;
 
 import jakarta.validation.Valid;
@@ -41,6 +42,9 @@ public class AuthController {
     @Autowired
     JwtUtil jwtUtils;
 
+    @Autowired
+    CartService cartService;
+
     @PostMapping("/signin")
     public ResponseEntity<JwtResponseDto> authenticateUser(@Valid @RequestBody LoginDto loginDto) {
         // E-posta ile kimlik doğrulama
@@ -80,6 +84,11 @@ public class AuthController {
             user.getLastName()
         );
 
+        // Misafir sepeti varsa kullanıcının sepetine ekle
+        if (loginDto.getGuestCart() != null) {
+            responseDto.setMergedCartItems(cartService.mergeGuestCart(user.getId(), loginDto.getGuestCart()));
+        }
+
         return ResponseEntity.ok(responseDto);
     }
 
@@ -132,6 +141,10 @@ public class AuthController {
             savedUser.getLastName()
         );
 
+        if (registerDto.getGuestCart() != null) {
+            responseDto.setMergedCartItems(cartService.mergeGuestCart(savedUser.getId(), registerDto.getGuestCart()));
+        }
+
         return ResponseEntity.ok(responseDto);
     }
 }
\ No newline at end of file
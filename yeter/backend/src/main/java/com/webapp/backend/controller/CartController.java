@@ -1,10 +1,5 @@
 package com.webapp.backend.controller;
 
-import java.time.LocalDateTime;
-import java.util.ArrayList;
-import java.util.List;
-import java.util.stream.Collectors;
-
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.CrossOrigin;
@@ -13,24 +8,34 @@ import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import com.webapp.backend.dto.CartBulkRequest;
+import com.webapp.backend.dto.CartBulkResponseDto;
 import com.webapp.backend.dto.CartResponseDto;
+import com.webapp.backend.dto.GuestCartResponseDto;
 import com.webapp.backend.exception.ResourceNotFoundException;
 import com.webapp.backend.exception.BadRequestException;
-import com.webapp.backend.model.Cart;
-import com.webapp.backend.model.CartItem;
+import com.webapp.backend.exception.ServiceUnavailableException;
 import com.webapp.backend.model.User;
 import com.webapp.backend.service.CartService;
 import com.webapp.backend.service.UserService;
 
+import jakarta.validation.Valid;
+
 @CrossOrigin(origins = "http://localhost:4200")
 @RestController
 @RequestMapping("/api/cart")
 public class CartController {
 
+    private static final int MAX_BULK_OPERATIONS = 1000;
+    // Misafir sepeti token'ı bu başlıkta gönderilir; ilk istekte boş bırakılabilir
+    public static final String GUEST_CART_HEADER = "X-Guest-Cart";
+
     private final CartService cartService;
     private final UserService userService;
 
@@ -40,13 +45,63 @@ public class CartController {
         this.userService = userService;
     }
 
+    /**
+     * Misafir sepeti uçları kimlik doğrulama gerektirmez. Sepet istemcinin gönderdiği imzalı token'da
+     * tutulur, her yanıt yeni token'ı döndürür; veritabanına hiçbir şey yazılmaz.
+     */
+    @GetMapping("/guest")
+    public ResponseEntity<GuestCartResponseDto> getGuestCart(
+            @RequestHeader(value = GUEST_CART_HEADER, required = false) String token) {
+        return ResponseEntity.ok(cartService.getGuestCart(token));
+    }
+
+    @PostMapping("/guest/product/{productId}")
+    public ResponseEntity<GuestCartResponseDto> addProductToGuestCart(
+            @RequestHeader(value = GUEST_CART_HEADER, required = false) String token,
+            @PathVariable Long productId,
+            @RequestParam(defaultValue = "1") Integer quantity) {
+        if (quantity < 1) {
+            throw new BadRequestException("Miktar en az 1 olmalıdır");
+        }
+        try {
+            return ResponseEntity.ok(cartService.addProductToGuestCart(token, productId, quantity));
+        } catch (Exception e) {
+            throw new BadRequestException(e.getMessage());
+        }
+    }
+
+    @PutMapping("/guest/product/{productId}")
+    public ResponseEntity<GuestCartResponseDto> updateGuestProductQuantity(
+            @RequestHeader(value = GUEST_CART_HEADER, required = false) String token,
+            @PathVariable Long productId,
+            @RequestParam Integer quantity) {
+        try {
+            return ResponseEntity.ok(cartService.updateGuestProductQuantity(token, productId, quantity));
+        } catch (Exception e) {
+            throw new BadRequestException(e.getMessage());
+        }
+    }
+
+    @DeleteMapping("/guest/product/{productId}")
+    public ResponseEntity<GuestCartResponseDto> removeProductFromGuestCart(
+            @RequestHeader(value = GUEST_CART_HEADER, required = false) String token,
+            @PathVariable Long productId) {
+        return ResponseEntity.ok(cartService.removeProductFromGuestCart(token, productId));
+    }
+
     @GetMapping("/{userId}")
-    public ResponseEntity<CartResponseDto> getUserCart(@PathVariable Long userId) {
+    public ResponseEntity<CartResponseDto> getUserCart(
+            @PathVariable Long userId,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "" + CartService.DEFAULT_PAGE_SIZE) int size) {
+        if (page < 0 || size < 1 || size > CartService.MAX_PAGE_SIZE) {
+            throw new BadRequestException("page 0 veya daha büyük, size 1 ile " + CartService.MAX_PAGE_SIZE
+                    + " arasında olmalıdır");
+        }
         User user = userService.findById(userId)
                 .orElseThrow(() -> new ResourceNotFoundException("User", "id", userId));
         
-        Cart cart = cartService.getCartByUser(user);
-        CartResponseDto cartResponseDto = convertToDto(cart);
+        CartResponseDto cartResponseDto = cartService.getCart(user.getId(), page, size);
         return ResponseEntity.ok(cartResponseDto);
     }
 
@@ -60,9 +115,10 @@ public class CartController {
                 .orElseThrow(() -> new ResourceNotFoundException("User", "id", userId));
         
         try {
-            Cart cart = cartService.addProductToCart(user, productId, quantity);
-            CartResponseDto cartResponseDto = convertToDto(cart);
+            CartResponseDto cartResponseDto = cartService.addProductToCart(user.getId(), productId, quantity);
             return ResponseEntity.ok(cartResponseDto);
+        } catch (ServiceUnavailableException e) {
+            throw e;
         } catch (Exception e) {
             throw new BadRequestException(e.getMessage());
         }
@@ -78,9 +134,10 @@ public class CartController {
                 .orElseThrow(() -> new ResourceNotFoundException("User", "id", userId));
         
         try {
-            Cart cart = cartService.updateProductQuantity(user, productId, quantity);
-            CartResponseDto cartResponseDto = convertToDto(cart);
+            CartResponseDto cartResponseDto = cartService.updateProductQuantity(user.getId(), productId, quantity);
             return ResponseEntity.ok(cartResponseDto);
+        } catch (ServiceUnavailableException e) {
+            throw e;
         } catch (Exception e) {
             throw new BadRequestException(e.getMessage());
         }
@@ -94,18 +151,33 @@ public class CartController {
         User user = userService.findById(userId)
                 .orElseThrow(() -> new ResourceNotFoundException("User", "id", userId));
         
-        Cart cart = cartService.removeProductFromCart(user, productId);
-        CartResponseDto cartResponseDto = convertToDto(cart);
+        CartResponseDto cartResponseDto = cartService.removeProductFromCart(user.getId(), productId);
         return ResponseEntity.ok(cartResponseDto);
     }
 
+    /**
+     * Yeniden sipariş ve hızlı sipariş için çok sayıda ekleme/güncelleme/çıkarma işlemini tek istekte uygular.
+     * Her işlemin sonucu ayrı döner; başarısız işlemler isteğin tamamını başarısız yapmaz.
+     */
+    @PostMapping("/{userId}/bulk")
+    public ResponseEntity<CartBulkResponseDto> applyBulk(
+            @PathVariable Long userId,
+            @Valid @RequestBody CartBulkRequest request) {
+        if (request.getOperations().size() > MAX_BULK_OPERATIONS) {
+            throw new BadRequestException("Tek istekte en fazla " + MAX_BULK_OPERATIONS + " sepet işlemi yapılabilir");
+        }
+        User user = userService.findById(userId)
+                .orElseThrow(() -> new ResourceNotFoundException("User", "id", userId));
+
+        return ResponseEntity.ok(cartService.applyBulk(user.getId(), request.getOperations()));
+    }
+
     @DeleteMapping("/{userId}/clear")
     public ResponseEntity<CartResponseDto> clearCart(@PathVariable Long userId) {
         User user = userService.findById(userId)
                 .orElseThrow(() -> new ResourceNotFoundException("User", "id", userId));
         
-        Cart cart = cartService.clearCart(user);
-        CartResponseDto cartResponseDto = convertToDto(cart);
+        CartResponseDto cartResponseDto = cartService.clearCart(user.getId());
         return ResponseEntity.ok(cartResponseDto);
     }
     
@@ -114,64 +186,7 @@ public class CartController {
         User user = userService.findById(userId)
                 .orElseThrow(() -> new ResourceNotFoundException("User", "id", userId));
         
-        Double total = cartService.getCartTotal(user);
+        Double total = cartService.getCartTotal(user.getId());
         return ResponseEntity.ok(total);
     }
-    
-    /**
-     * Cart entity'sini CartResponseDto'ya dönüştürür
-     */
-    private CartResponseDto convertToDto(Cart cart) {
-        CartResponseDto dto = new CartResponseDto();
-        dto.setId(cart.getId());
-        dto.setUserId(cart.getUser().getId());
-        dto.setTotalPrice(calculateTotalPrice(cart));
-        dto.setUpdatedAt(LocalDateTime.now());
-        
-        // Sepet ürünlerini dönüştür
-        if (cart.getCartItems() != null) {
-            List<CartResponseDto.CartItemDto> itemDtos = cart.getCartItems().stream()
-                    .map(this::convertCartItemToDto)
-                    .collect(Collectors.toList());
-            dto.setItems(itemDtos);
-        } else {
-            dto.setItems(new ArrayList<>());
-        }
-        
-        return dto;
-    }
-    
-    /**
-     * CartItem entity'sini CartItemDto'ya dönüştürür
-     */
-    private CartResponseDto.CartItemDto convertCartItemToDto(CartItem item) {
-        CartResponseDto.ProductSummaryDto productDto = new CartResponseDto.ProductSummaryDto(
-            item.getProduct().getId(),
-            item.getProduct().getName(),
-            item.getProduct().getPrice(),
-            item.getProduct().getImage_url()
-        );
-        
-        Double subtotal = item.getQuantity() * item.getProduct().getPrice();
-        
-        return new CartResponseDto.CartItemDto(
-            item.getId(),
-            productDto,
-            item.getQuantity(),
-            subtotal
-        );
-    }
-    
-    /**
-     * Sepetteki toplam fiyatı hesaplar
-     */
-    private Double calculateTotalPrice(Cart cart) {
-        if (cart.getCartItems() == null || cart.getCartItems().isEmpty()) {
-            return 0.0;
-        }
-        
-        return cart.getCartItems().stream()
-                .mapToDouble(item -> item.getQuantity() * item.getProduct().getPrice())
-                .sum();
-    }
-}
\ No newline at end of file
+}
@@ -0,0 +1,57 @@
+package com.webapp.backend.controller;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.webapp.backend.service.AbandonedCartSweeper;
+import com.webapp.backend.service.CartStore;
+import com.webapp.backend.service.CatalogIdFilter;
+import com.webapp.backend.service.CheckoutService;
+import com.webapp.backend.service.FlashSaleStock;
+import com.webapp.backend.service.ProductCache;
+
+/**
+ * Katalog önbellek ve indekslerinin çalışma zamanı sayaçları. Kimlik doğrulaması gerektirir.
+ */
+@CrossOrigin(origins = "http://localhost:4200")
+@RestController
+@RequestMapping("/api/admin/metrics")
+public class CatalogMetricsController {
+
+    private final ProductCache productCache;
+    private final CatalogIdFilter idFilter;
+    private final CartStore cartStore;
+    private final AbandonedCartSweeper cartSweeper;
+    private final FlashSaleStock flashSaleStock;
+    private final CheckoutService checkoutService;
+
+    @Autowired
+    public CatalogMetricsController(ProductCache productCache, CatalogIdFilter idFilter, CartStore cartStore,
+            AbandonedCartSweeper cartSweeper, FlashSaleStock flashSaleStock, CheckoutService checkoutService) {
+        this.productCache = productCache;
+        this.idFilter = idFilter;
+        this.cartStore = cartStore;
+        this.cartSweeper = cartSweeper;
+        this.flashSaleStock = flashSaleStock;
+        this.checkoutService = checkoutService;
+    }
+
+    @GetMapping
+    public ResponseEntity<Map<String, Object>> getMetrics() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("productCache", productCache.getMetrics());
+        metrics.put("idFilter", idFilter.getMetrics());
+        metrics.put("cartStore", cartStore.getMetrics());
+        metrics.put("cartSweeper", cartSweeper.getMetrics());
+        metrics.put("flashSale", flashSaleStock.getMetrics());
+        metrics.put("checkout", checkoutService.getMetrics());
+        return ResponseEntity.ok(metrics);
+    }
+}
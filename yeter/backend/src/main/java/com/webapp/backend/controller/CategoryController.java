@@ -3,7 +3,6 @@ package com.webapp.backend.controller;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
@@ -19,10 +18,12 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
 import com.webapp.backend.dto.CategoryDto;
+import com.webapp.backend.dto.CategorySummaryDto;
 import com.webapp.backend.exception.DuplicateResourceException;
 import com.webapp.backend.exception.ResourceNotFoundException;
 import com.webapp.backend.model.Category;
 import com.webapp.backend.service.CategoryService;
+import com.webapp.backend.service.CategorySummarySnapshot;
 
 @CrossOrigin(origins = "http://localhost:4200")
 @RestController
@@ -30,27 +31,31 @@ import com.webapp.backend.service.CategoryService;
 public class CategoryController {
 
     private final CategoryService categoryService;
+    private final CategorySummarySnapshot summarySnapshot;
 
     @Autowired
-    public CategoryController(CategoryService categoryService) {
+    public CategoryController(CategoryService categoryService, CategorySummarySnapshot summarySnapshot) {
         this.categoryService = categoryService;
+        this.summarySnapshot = summarySnapshot;
     }
 
     @GetMapping
     public ResponseEntity<List<CategoryDto>> getAllCategories() {
-        List<Category> categories = categoryService.findAllCategories();
-        List<CategoryDto> categoryDtos = categories.stream()
-            .map(CategoryDto::new)
-            .collect(Collectors.toList());
-        return ResponseEntity.ok(categoryDtos);
+        return ResponseEntity.ok(categoryService.findAllCategoryViews());
+    }
+
+    /**
+     * Menü ve filtreler için ürün listesi içermeyen kategori özetleri
+     */
+    @GetMapping("/summary")
+    public ResponseEntity<List<CategorySummaryDto>> getCategorySummaries() {
+        return ResponseEntity.ok(summarySnapshot.getSummaries());
     }
 
     @GetMapping("/{id}")
     public ResponseEntity<CategoryDto> getCategoryById(@PathVariable Long id) {
-        Category category = categoryService.findById(id)
+        CategoryDto categoryDto = categoryService.findCategoryView(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Category", "id", id));
-        
-        CategoryDto categoryDto = new CategoryDto(category);
         return ResponseEntity.ok(categoryDto);
     }
 
@@ -23,7 +23,9 @@ import com.webapp.backend.exception.CouponException;
 import com.webapp.backend.exception.ErrorCodes;
 import com.webapp.backend.exception.ResourceNotFoundException;
 import com.webapp.backend.model.Coupon;
+import com.webapp.backend.service.CartService;
 import com.webapp.backend.service.CouponService;
+import com.webapp.backend.service.UserService;
 
 @CrossOrigin(origins = "http://localhost:4200")
 @RestController
@@ -32,6 +34,12 @@ public class CouponController {
 
     @Autowired
     private CouponService couponService;
+
+    @Autowired
+    private CartService cartService;
+
+    @Autowired
+    private UserService userService;
     
     /**
      * Tüm kuponları getirme endpoint'i (Admin)
@@ -242,6 +250,15 @@ public class CouponController {
         if (code == null || code.trim().isEmpty()) {
             throw new CouponException("Kupon kodu boş olamaz", ErrorCodes.COUPON_INVALID);
         }
+
+        // Kullanıcı belirtildiyse istemcinin gönderdiği tutar yerine sepetin ara toplamı kullanılır
+        if (applyRequest.getUserId() != null) {
+            Long userId = applyRequest.getUserId();
+            userService.findById(userId).orElseThrow(() -> new ResourceNotFoundException("User", "id", userId));
+            applyRequest.setCartTotal(cartService.getCartSubtotal(userId));
+        } else if (applyRequest.getCartTotal() == null) {
+            throw new CouponException("Sepet tutarı veya kullanıcı belirtilmelidir", ErrorCodes.COUPON_INVALID);
+        }
         
         // Kupon doğruluğunu kontrol et
         if (!couponService.isValidCoupon(code, applyRequest.getCartTotal())) {
@@ -1,11 +1,13 @@
 package com.webapp.backend.controller;
 
+import java.io.IOException;
 import java.util.List;
 import java.util.Optional;
 import java.util.stream.Collectors;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -14,10 +16,15 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import com.webapp.backend.dto.CheckoutStatusDto;
+import com.webapp.backend.dto.CursorPageDto;
 import com.webapp.backend.dto.OrderRequestDto;
 import com.webapp.backend.dto.OrderResponseDto;
+import com.webapp.backend.exception.BadRequestException;
 import com.webapp.backend.exception.ErrorCodes;
 import com.webapp.backend.exception.OrderException;
 import com.webapp.backend.exception.ResourceNotFoundException;
@@ -31,6 +38,7 @@ import com.webapp.backend.model.PaymentStatus;
 import com.webapp.backend.model.User;
 import com.webapp.backend.service.AddressService;
 import com.webapp.backend.service.CartService;
+import com.webapp.backend.service.CheckoutService;
 import com.webapp.backend.service.CouponService;
 import com.webapp.backend.service.OrderService;
 import com.webapp.backend.service.UserService;
@@ -40,6 +48,10 @@ import com.webapp.backend.service.UserService;
 @RequestMapping("/api/orders")
 public class OrderController {
 
+    private static final int DEFAULT_SELLER_ORDER_LIMIT = 20;
+    private static final int MAX_SELLER_ORDER_LIMIT = 100;
+    private static final long CHECKOUT_EVENTS_TIMEOUT_MILLIS = 60_000L;
+
     @Autowired
     private OrderService orderService;
     
@@ -55,6 +67,9 @@ public class OrderController {
     @Autowired
     private CouponService couponService;
     
+    @Autowired
+    private CheckoutService checkoutService;
+    
     /**
      * Sipariş oluşturma endpoint'i
      */
@@ -120,6 +135,67 @@ public class OrderController {
         }
     }
     
+    /**
+     * Asenkron sipariş oluşturma: istek doğrulanıp kuyruğa alınır ve 202 ile bir handle döner.
+     * Sonuç /{userId}/checkout/{checkoutId} üzerinden sorgulanır veya /events ile SSE olarak izlenir.
+     * Kuyruk doluysa 429 döner.
+     */
+    @PostMapping(value = "/{userId}", params = "async=true")
+    public ResponseEntity<CheckoutStatusDto> createOrderAsync(
+            @PathVariable Long userId,
+            @RequestBody OrderRequestDto orderRequest) {
+        User user = userService.findById(userId)
+                .orElseThrow(() -> new ResourceNotFoundException("User", "id", userId));
+        
+        CheckoutStatusDto status = checkoutService.submit(user, orderRequest);
+        return ResponseEntity.status(HttpStatus.ACCEPTED)
+                .header("Location", "/api/orders/" + userId + "/checkout/" + status.getCheckoutId())
+                .body(status);
+    }
+    
+    @GetMapping("/{userId}/checkout/{checkoutId}")
+    public ResponseEntity<CheckoutStatusDto> getCheckoutStatus(
+            @PathVariable Long userId,
+            @PathVariable String checkoutId) {
+        CheckoutStatusDto status = checkoutService.getStatus(userId, checkoutId)
+                .orElseThrow(() -> new ResourceNotFoundException("Checkout", "id", checkoutId));
+        return ResponseEntity.ok(status);
+    }
+    
+    /**
+     * Asenkron siparişin aşama değişikliklerini "checkout" olayları olarak akıtır; son durumda akış kapanır
+     */
+    @GetMapping(value = "/{userId}/checkout/{checkoutId}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamCheckoutStatus(
+            @PathVariable Long userId,
+            @PathVariable String checkoutId) {
+        SseEmitter emitter = new SseEmitter(CHECKOUT_EVENTS_TIMEOUT_MILLIS);
+        // Önce abone olunur, sonra güncel durum okunur; aradaki bir geçiş kaçırılmaz
+        Runnable unsubscribe = checkoutService.subscribe(checkoutId, status -> sendCheckoutEvent(emitter, status));
+        emitter.onCompletion(unsubscribe);
+        emitter.onTimeout(unsubscribe);
+        emitter.onError(error -> unsubscribe.run());
+        
+        CheckoutStatusDto current = checkoutService.getStatus(userId, checkoutId).orElse(null);
+        if (current == null) {
+            unsubscribe.run();
+            throw new ResourceNotFoundException("Checkout", "id", checkoutId);
+        }
+        sendCheckoutEvent(emitter, current);
+        return emitter;
+    }
+    
+    private void sendCheckoutEvent(SseEmitter emitter, CheckoutStatusDto status) {
+        try {
+            emitter.send(SseEmitter.event().name("checkout").data(status, MediaType.APPLICATION_JSON));
+            if (status.isFinished()) {
+                emitter.complete();
+            }
+        } catch (IOException | IllegalStateException e) {
+            emitter.completeWithError(e);
+        }
+    }
+    
     /**
      * Kullanıcıya ait siparişleri getirme endpoint'i
      */
@@ -253,23 +329,26 @@ public class OrderController {
     }
     
     /**
-     * Satıcının ürünlerini içeren siparişleri getirme endpoint'i
+     * Satıcının ürünlerini içeren siparişleri getirme endpoint'i; en yeni sipariş önce gelir.
+     * Sonraki sayfa için yanıttaki nextCursor "after" parametresi olarak gönderilir.
      */
     @GetMapping("/seller/{sellerId}")
-    public ResponseEntity<List<OrderResponseDto>> getSellerOrders(@PathVariable Long sellerId) {
+    public ResponseEntity<CursorPageDto<OrderResponseDto>> getSellerOrders(
+            @PathVariable Long sellerId,
+            @RequestParam(required = false) Long after,
+            @RequestParam(defaultValue = "" + DEFAULT_SELLER_ORDER_LIMIT) int limit) {
+        if (limit < 1 || limit > MAX_SELLER_ORDER_LIMIT) {
+            throw new BadRequestException("limit 1 ile " + MAX_SELLER_ORDER_LIMIT + " arasında olmalıdır");
+        }
         // Satıcıyı bul
-        User seller = userService.findById(sellerId)
-                .orElseThrow(() -> new ResourceNotFoundException("Seller", "id", sellerId));
-        
-        // Satıcının siparişlerini getir
-        List<Order> orders = orderService.getOrdersContainingSellerProducts(seller);
-        
-        // OrderResponseDto listesine dönüştür
-        List<OrderResponseDto> orderDtos = orders.stream()
-                .map(this::convertToDto)
-                .collect(Collectors.toList());
-        
-        return ResponseEntity.ok(orderDtos);
+        if (!userService.existsById(sellerId)) {
+            throw new ResourceNotFoundException("Seller", "id", sellerId);
+        }
+
+        // Satıcının siparişlerini getir ve OrderResponseDto'ya dönüştür
+        CursorPageDto<OrderResponseDto> page = orderService.getSellerOrders(sellerId, after, limit)
+                .map(this::convertToDto);
+        return ResponseEntity.ok(page);
     }
     
     /**
@@ -324,7 +403,8 @@ public class OrderController {
                     itemDto.setQuantity(item.getQuantity());
                     itemDto.setPrice(item.getPrice());
                     itemDto.setSubtotal(item.getPrice().multiply(java.math.BigDecimal.valueOf(item.getQuantity())));
-                    itemDto.setSellerId(item.getProduct().getSeller().getId());
+                    itemDto.setSellerId(item.getSellerId() != null ? item.getSellerId()
+                            : item.getProduct().getSeller().getId());
                     return itemDto;
                 })
                 .collect(Collectors.toList());
@@ -1,14 +1,17 @@
 package com.webapp.backend.controller;
 
+import java.io.IOException;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
-import java.util.stream.Collectors;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -20,17 +23,33 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import com.webapp.backend.dto.CursorPageDto;
+import com.webapp.backend.dto.ProductBatchRequest;
+import com.webapp.backend.dto.ProductBatchResponseDto;
+import com.webapp.backend.dto.ProductFilterRequest;
+import com.webapp.backend.dto.ProductFilterResponseDto;
+import com.webapp.backend.dto.ProductImportStatusDto;
+import com.webapp.backend.dto.ProductPageRequest;
 import com.webapp.backend.dto.ProductRequestDto;
 import com.webapp.backend.dto.ProductResponseDto;
+import com.webapp.backend.dto.SuggestionDto;
 import com.webapp.backend.exception.ResourceNotFoundException;
 import com.webapp.backend.exception.BadRequestException;
 import com.webapp.backend.model.Category;
 import com.webapp.backend.model.Product;
+import com.webapp.backend.model.Role;
 import com.webapp.backend.model.User;
+import com.webapp.backend.service.CatalogFileFormat;
 import com.webapp.backend.service.CategoryService;
+import com.webapp.backend.service.FlashSaleStock;
+import com.webapp.backend.service.ProductExportService;
+import com.webapp.backend.service.ProductFacetIndex;
+import com.webapp.backend.service.ProductImportService;
 import com.webapp.backend.service.ProductService;
 import com.webapp.backend.service.UserService;
 
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 
 @CrossOrigin(origins = "http://localhost:4200")
@@ -38,78 +57,243 @@ import jakarta.validation.Valid;
 @RequestMapping("/api/products")
 public class ProductController {
 
+    private static final int MAX_SUGGESTIONS = 20;
+    private static final int MAX_BATCH_IDS_IN_QUERY = 100;
+    private static final int MAX_BATCH_IDS = 1000;
+
     private final ProductService productService;
     private final CategoryService categoryService;
     private final UserService userService;
+    private final ProductExportService exportService;
+    private final ProductImportService importService;
+    private final FlashSaleStock flashSaleStock;
 
     @Autowired
-    public ProductController(ProductService productService, CategoryService categoryService, UserService userService) {
+    public ProductController(ProductService productService, CategoryService categoryService, UserService userService,
+            ProductExportService exportService, ProductImportService importService, FlashSaleStock flashSaleStock) {
         this.productService = productService;
         this.categoryService = categoryService;
         this.userService = userService;
+        this.exportService = exportService;
+        this.importService = importService;
+        this.flashSaleStock = flashSaleStock;
     }
 
     @GetMapping
-    public ResponseEntity<List<ProductResponseDto>> getAllProducts() {
-        List<Product> products = productService.findAllProducts();
-        List<ProductResponseDto> productDtos = products.stream()
-                .map(this::convertToDto)
-                .collect(Collectors.toList());
-        return ResponseEntity.ok(productDtos);
+    public ResponseEntity<CursorPageDto<ProductResponseDto>> getAllProducts(
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) String after,
+            @RequestParam(required = false) String sort,
+            @RequestParam(required = false) String direction) {
+        ProductPageRequest pageRequest = ProductPageRequest.of(limit, sort, direction, after);
+        return ResponseEntity.ok(productService.findAllProducts(pageRequest));
+    }
+
+    /**
+     * Tüm kataloğu NDJSON (varsayılan) veya CSV olarak akıtır. Feed entegrasyonları içindir.
+     */
+    @GetMapping("/export")
+    public void exportProducts(@RequestParam(required = false) String format, HttpServletResponse response)
+            throws IOException {
+        CatalogFileFormat exportFormat = CatalogFileFormat.from(format);
+        response.setContentType(exportFormat.getContentType());
+        response.setCharacterEncoding("UTF-8");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                "attachment; filename=\"products." + exportFormat.getExtension() + "\"");
+        exportService.export(exportFormat, response.getOutputStream());
+    }
+
+    /**
+     * Toplu ürün içe aktarma. Gövde text/csv veya application/x-ndjson olarak akıtılır;
+     * iş arka planda çalışır ve durumu /import/{jobId} üzerinden izlenir. Yönetici satırlardaki
+     * seller_id değerlerini kullanır; satıcının içe aktardığı tüm ürünler kendi adına eklenir.
+     */
+    @PostMapping(value = "/import", consumes = { "text/csv", "application/x-ndjson" })
+    public ResponseEntity<ProductImportStatusDto> importProducts(HttpServletRequest request) throws IOException {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        Long sellerId = null;
+        if (!isAdmin(authentication)) {
+            Optional<User> seller = currentUser(authentication);
+            if (seller.isEmpty()) {
+                return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+            }
+            sellerId = seller.get().getId();
+        }
+        CatalogFileFormat format = CatalogFileFormat.fromContentType(request.getContentType());
+        ProductImportStatusDto status = importService.submit(format, request.getInputStream(), sellerId);
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(status);
+    }
+
+    /**
+     * Satıcı yalnızca kendi başlattığı işleri görebilir
+     */
+    @GetMapping("/import/{jobId}")
+    public ResponseEntity<ProductImportStatusDto> getImportStatus(@PathVariable String jobId) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        Long sellerId = isAdmin(authentication) ? null
+                : currentUser(authentication).map(User::getId).orElse(null);
+        ProductImportStatusDto status = importService.getStatus(jobId)
+                .filter(job -> isAdmin(authentication) || (sellerId != null && sellerId.equals(job.getSellerId())))
+                .orElseThrow(() -> new ResourceNotFoundException("Import job", "id", jobId));
+        return ResponseEntity.ok(status);
     }
 
     @GetMapping("/{id}")
     public ResponseEntity<ProductResponseDto> getProductById(@PathVariable Long id) {
-        Product product = productService.findById(id)
+        ProductResponseDto productDto = productService.findProductView(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Product", "id", id));
-        ProductResponseDto productDto = convertToDto(product);
         return ResponseEntity.ok(productDto);
     }
 
     @GetMapping("/category/{categoryId}")
-    public ResponseEntity<List<ProductResponseDto>> getProductsByCategory(@PathVariable Long categoryId) {
-        Category category = categoryService.findById(categoryId)
-                .orElseThrow(() -> new ResourceNotFoundException("Category", "id", categoryId));
-                
-        List<Product> products = productService.findByCategory(category);
-        List<ProductResponseDto> productDtos = products.stream()
-                .map(this::convertToDto)
-                .collect(Collectors.toList());
-        return ResponseEntity.ok(productDtos);
+    public ResponseEntity<CursorPageDto<ProductResponseDto>> getProductsByCategory(
+            @PathVariable Long categoryId,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) String after,
+            @RequestParam(required = false) String sort,
+            @RequestParam(required = false) String direction) {
+        if (!categoryService.existsById(categoryId)) {
+            throw new ResourceNotFoundException("Category", "id", categoryId);
+        }
+
+        ProductPageRequest pageRequest = ProductPageRequest.of(limit, sort, direction, after);
+        return ResponseEntity.ok(productService.findByCategory(categoryId, pageRequest));
     }
 
     @GetMapping("/search")
-    public ResponseEntity<List<ProductResponseDto>> searchProducts(@RequestParam String name) {
-        List<Product> products = productService.findByNameContainingIgnoreCase(name);
-        List<ProductResponseDto> productDtos = products.stream()
-                .map(this::convertToDto)
-                .collect(Collectors.toList());
-        return ResponseEntity.ok(productDtos);
+    public ResponseEntity<CursorPageDto<ProductResponseDto>> searchProducts(
+            @RequestParam String name,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) String after,
+            @RequestParam(required = false) String sort,
+            @RequestParam(required = false) String direction) {
+        ProductPageRequest pageRequest = ProductPageRequest.of(limit, sort, direction, after,
+                ProductPageRequest.SortKey.RELEVANCE);
+        return ResponseEntity.ok(productService.searchProducts(name, pageRequest));
+    }
+
+    @GetMapping("/suggest")
+    public ResponseEntity<List<SuggestionDto>> suggest(
+            @RequestParam String prefix,
+            @RequestParam(defaultValue = "8") int limit) {
+        if (limit < 1 || limit > MAX_SUGGESTIONS) {
+            throw new BadRequestException("limit 1 ile " + MAX_SUGGESTIONS + " arasında olmalıdır");
+        }
+        return ResponseEntity.ok(productService.suggest(prefix, limit));
+    }
+
+    /**
+     * Sepet, favori ve karşılaştırma ekranları için toplu ürün getirme: ?ids=3,1,2
+     */
+    @GetMapping("/batch")
+    public ResponseEntity<ProductBatchResponseDto> getProductsBatch(@RequestParam List<Long> ids) {
+        return ResponseEntity.ok(findProductsBatch(ids, MAX_BATCH_IDS_IN_QUERY));
+    }
+
+    /**
+     * URL uzunluğu sınırına takılan uzun id listeleri için gövdeli varyant
+     */
+    @PostMapping("/batch")
+    public ResponseEntity<ProductBatchResponseDto> getProductsBatch(@Valid @RequestBody ProductBatchRequest request) {
+        return ResponseEntity.ok(findProductsBatch(request.getIds(), MAX_BATCH_IDS));
+    }
+
+    private ProductBatchResponseDto findProductsBatch(List<Long> ids, int maxIds) {
+        if (ids.isEmpty() || ids.contains(null)) {
+            throw new BadRequestException("ids boş olamaz ve geçerli ürün id'leri içermelidir");
+        }
+        if (ids.size() > maxIds) {
+            throw new BadRequestException("Tek istekte en fazla " + maxIds + " ürün istenebilir");
+        }
+        return productService.findProductViews(ids);
     }
 
     @GetMapping("/price")
-    public ResponseEntity<List<ProductResponseDto>> getProductsByPriceRange(
+    public ResponseEntity<CursorPageDto<ProductResponseDto>> getProductsByPriceRange(
             @RequestParam(required = false) Double min,
-            @RequestParam(required = false) Double max) {
+            @RequestParam(required = false) Double max,
+            @RequestParam(required = false) Long categoryId,
+            @RequestParam(defaultValue = "false") boolean inStock,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) String after,
+            @RequestParam(required = false) String sort,
+            @RequestParam(required = false) String direction) {
         Double minPrice = min != null ? min : 0.0;
         Double maxPrice = max != null ? max : Double.MAX_VALUE;
-        List<Product> products = productService.findByPriceBetween(minPrice, maxPrice);
-        List<ProductResponseDto> productDtos = products.stream()
-                .map(this::convertToDto)
-                .collect(Collectors.toList());
-        return ResponseEntity.ok(productDtos);
+        ProductPageRequest pageRequest = ProductPageRequest.of(limit, sort, direction, after,
+                ProductPageRequest.SortKey.PRICE);
+        if (pageRequest.getSortKey() == ProductPageRequest.SortKey.RELEVANCE) {
+            throw new BadRequestException("relevance sıralaması yalnızca arama için kullanılabilir");
+        }
+        return ResponseEntity.ok(productService.findByPriceBetween(minPrice, maxPrice, categoryId, inStock,
+                pageRequest));
+    }
+
+    /**
+     * Kategori, satıcı, fiyat bandı ve stok filtrelerini birlikte uygular; facet sayılarını da döndürür
+     */
+    @GetMapping("/filter")
+    public ResponseEntity<ProductFilterResponseDto> filterProducts(
+            @RequestParam(required = false) List<Long> categoryId,
+            @RequestParam(required = false) List<Long> sellerId,
+            @RequestParam(required = false) List<Integer> priceBand,
+            @RequestParam(defaultValue = "false") boolean inStock,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) String after) {
+        ProductFilterRequest filter = new ProductFilterRequest();
+        if (categoryId != null) {
+            filter.setCategoryIds(categoryId);
+        }
+        if (sellerId != null) {
+            filter.setSellerIds(sellerId);
+        }
+        if (priceBand != null) {
+            filter.setPriceBands(priceBand);
+        }
+        filter.setInStockOnly(inStock);
+
+        ProductPageRequest pageRequest = ProductPageRequest.of(limit, null, null, after);
+        ProductFacetIndex.FacetResult result = productService.filterProducts(filter, pageRequest);
+        List<ProductResponseDto> products = productService.findViewsByIdInOrder(result.getProductIds());
+
+        // İmleç indeks sayfasının son id'sinden üretilir; görünümü bulunamayan ürünler sayfadan düşse de
+        // sonraki sayfa kaldığı yerden devam eder
+        List<Long> pageIds = result.getProductIds();
+        String nextCursor = result.isHasMore() && !pageIds.isEmpty()
+                ? pageRequest.cursorAfter(pageIds.get(pageIds.size() - 1))
+                : null;
+        CursorPageDto<ProductResponseDto> page = new CursorPageDto<>(
+                products, nextCursor, result.isHasMore(), pageRequest.getLimit());
+
+        ProductFilterResponseDto response = new ProductFilterResponseDto();
+        response.setProducts(page);
+        response.setTotal(result.getTotal());
+        result.getCategoryCounts().forEach((id, count) ->
+                response.getCategories().add(new ProductFilterResponseDto.FacetCountDto(id, count)));
+        result.getSellerCounts().forEach((id, count) ->
+                response.getSellers().add(new ProductFilterResponseDto.FacetCountDto(id, count)));
+        long[] bandCounts = result.getPriceBandCounts();
+        for (int band = 0; band < bandCounts.length; band++) {
+            response.getPriceBands().add(new ProductFilterResponseDto.PriceBandCountDto(
+                    band, result.getPriceBandMin(band), result.getPriceBandMax(band), bandCounts[band]));
+        }
+        response.setInStockCount(result.getInStockCount());
+        return ResponseEntity.ok(response);
     }
 
     @GetMapping("/seller/{sellerId}")
-    public ResponseEntity<List<ProductResponseDto>> getProductsBySeller(@PathVariable Long sellerId) {
-        User seller = userService.findById(sellerId)
-                .orElseThrow(() -> new ResourceNotFoundException("Seller", "id", sellerId));
-                
-        List<Product> products = productService.findBySeller(seller);
-        List<ProductResponseDto> productDtos = products.stream()
-                .map(this::convertToDto)
-                .collect(Collectors.toList());
-        return ResponseEntity.ok(productDtos);
+    public ResponseEntity<CursorPageDto<ProductResponseDto>> getProductsBySeller(
+            @PathVariable Long sellerId,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) String after,
+            @RequestParam(required = false) String sort,
+            @RequestParam(required = false) String direction) {
+        if (!userService.existsById(sellerId)) {
+            throw new ResourceNotFoundException("Seller", "id", sellerId);
+        }
+
+        ProductPageRequest pageRequest = ProductPageRequest.of(limit, sort, direction, after);
+        return ResponseEntity.ok(productService.findBySeller(sellerId, pageRequest));
     }
 
     @PostMapping
@@ -176,6 +360,52 @@ public class ProductController {
         return ResponseEntity.ok(responseDto);
     }
 
+    /**
+     * Ürün için flash-sale modunu açar veya kapatır. Açıkken stok düğümlerce veritabanından parça parça kiralanır.
+     */
+    @PutMapping("/{id}/flash-sale")
+    public ResponseEntity<Map<String, Object>> setFlashSale(@PathVariable Long id, @RequestParam boolean enabled) {
+        Product product = productService.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Product", "id", id));
+        // Yönetici tüm ürünleri, satıcı yalnızca kendi ürünlerini değiştirebilir
+        if (!canManageFlashSale(product)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        if (enabled) {
+            flashSaleStock.enable(id);
+        } else {
+            flashSaleStock.disable(id);
+        }
+        return ResponseEntity.ok(flashSaleStock.getStatus(id));
+    }
+
+    @GetMapping("/{id}/flash-sale")
+    public ResponseEntity<Map<String, Object>> getFlashSale(@PathVariable Long id) {
+        return ResponseEntity.ok(flashSaleStock.getStatus(id));
+    }
+
+    private boolean canManageFlashSale(Product product) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null) {
+            return false;
+        }
+        if (isAdmin(authentication)) {
+            return true;
+        }
+        return product.getSeller() != null && currentUser(authentication)
+                .map(user -> user.getId().equals(product.getSeller().getId()))
+                .orElse(false);
+    }
+
+    private static boolean isAdmin(Authentication authentication) {
+        return authentication != null && authentication.getAuthorities().stream()
+                .anyMatch(authority -> Role.ADMIN.name().equals(authority.getAuthority()));
+    }
+
+    private Optional<User> currentUser(Authentication authentication) {
+        return authentication != null ? userService.findByEmail(authentication.getName()) : Optional.empty();
+    }
+
     @DeleteMapping("/{id}")
     public ResponseEntity<Map<String, Boolean>> deleteProduct(@PathVariable Long id) {
         Product product = productService.findById(id)
@@ -193,32 +423,6 @@ public class ProductController {
      * Product entity'sini ProductResponseDto'ya dönüştürür
      */
     private ProductResponseDto convertToDto(Product product) {
-        ProductResponseDto dto = new ProductResponseDto();
-        dto.setId(product.getId());
-        dto.setName(product.getName());
-        dto.setDescription(product.getDescription());
-        dto.setPrice(product.getPrice());
-        dto.setImage_url(product.getImage_url());
-        dto.setStock_quantity(product.getStock_quantity());
-        
-        // Kategori bilgileri
-        if (product.getCategory() != null) {
-            ProductResponseDto.CategoryDto categoryDto = new ProductResponseDto.CategoryDto(
-                product.getCategory().getId(),
-                product.getCategory().getName()
-            );
-            dto.setCategory(categoryDto);
-        }
-        
-        // Satıcı bilgileri
-        if (product.getSeller() != null) {
-            ProductResponseDto.SellerDto sellerDto = new ProductResponseDto.SellerDto(
-                product.getSeller().getId(),
-                product.getSeller().getUsername()
-            );
-            dto.setSeller(sellerDto);
-        }
-        
-        return dto;
+        return ProductResponseDto.from(product);
     }
 }
\ No newline at end of file
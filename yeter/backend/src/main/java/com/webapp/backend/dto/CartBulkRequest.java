@@ -0,0 +1,42 @@
+package com.webapp.backend.dto;
+
+import java.util.List;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Sepete tek istekte uygulanacak ekleme/güncelleme/çıkarma işlemleri. İşlemler verilen sırayla uygulanır.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CartBulkRequest {
+
+    public enum Type {
+        ADD,
+        UPDATE,
+        REMOVE
+    }
+
+    @NotEmpty(message = "En az bir sepet işlemi belirtilmelidir")
+    @Valid
+    private List<Operation> operations;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Operation {
+        @NotNull(message = "İşlem tipi belirtilmelidir")
+        private Type type;
+
+        @NotNull(message = "Ürün id'si belirtilmelidir")
+        private Long productId;
+
+        private Integer quantity; // ADD için varsayılan 1, REMOVE için kullanılmaz
+    }
+}
@@ -0,0 +1,30 @@
+package com.webapp.backend.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Toplu sepet işleminin sonucu. results istek sırasındadır; başarısız işlemler sepeti değiştirmez.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CartBulkResponseDto {
+    private List<OperationResult> results = new ArrayList<>();
+    private CartResponseDto cart;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class OperationResult {
+        private int index;
+        private CartBulkRequest.Type type;
+        private Long productId;
+        private boolean success;
+        private String message; // Başarısız işlemlerde neden
+    }
+}
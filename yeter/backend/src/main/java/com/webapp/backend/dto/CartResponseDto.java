@@ -20,6 +20,11 @@ public class CartResponseDto {
     private List<CartItemDto> items = new ArrayList<>();
     private Double totalPrice;
     private LocalDateTime updatedAt;
+    // Büyük sepetlerde items yalnızca istenen sayfayı içerir; toplam ve sayılar tüm sepet içindir
+    private int itemCount;
+    private int page;
+    private int size;
+    private int totalPages;
     
     @Data
     @NoArgsConstructor
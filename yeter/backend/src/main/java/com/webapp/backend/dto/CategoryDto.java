@@ -27,6 +27,17 @@ public class CategoryDto {
         }
     }
 
+    /**
+     * Ürün özetleri ayrı bir projeksiyon sorgusuyla okunduğunda kullanılır;
+     * kategorinin products koleksiyonuna dokunulmaz
+     */
+    public CategoryDto(Category category, List<ProductSummaryDto> products) {
+        this.id = category.getId();
+        this.name = category.getName();
+        this.description = category.getDescription();
+        this.products = products;
+    }
+
     // DTO for simplified product information
     public static class ProductSummaryDto {
         private Long id;
@@ -61,6 +72,23 @@ public class CategoryDto {
             }
         }
 
+        public ProductSummaryDto(ProductSummaryView view) {
+            this.id = view.getId();
+            this.name = view.getName();
+            this.description = view.getDescription();
+            this.price = view.getPrice();
+            this.image_url = view.getImageUrl();
+            this.stockQuantity = view.getStockQuantity() != null ? view.getStockQuantity() : 0;
+            this.category_id = view.getCategoryId();
+            this.seller = new UserSummaryDto(
+                view.getSellerId(),
+                view.getSellerUsername(),
+                view.getSellerEmail(),
+                view.getSellerFirstName(),
+                view.getSellerLastName()
+            );
+        }
+
         // Getters and setters
         public Long getId() {
             return id;
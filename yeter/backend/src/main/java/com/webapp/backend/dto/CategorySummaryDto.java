@@ -0,0 +1,21 @@
+package com.webapp.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Navigasyon menüsü için hafif kategori bilgisi: ürün listesi yerine yalnızca
+ * ürün sayısı ve fiyat aralığı taşır
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CategorySummaryDto {
+    private Long id;
+    private String name;
+    private String description;
+    private long productCount;
+    private Double minPrice;  // Kategoride ürün yoksa null
+    private Double maxPrice;
+}
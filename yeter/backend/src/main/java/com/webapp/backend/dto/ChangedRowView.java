@@ -0,0 +1,12 @@
+package com.webapp.backend.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * Değişmiş bir satırın id'si ve veritabanınca yazılan updated_at değeri. Değişiklik akışı satırları
+ * önce bu ucuz projeksiyonla (updated_at indeksinden) bulur, yalnızca yeni değişiklikleri tam okur.
+ */
+public interface ChangedRowView {
+    Long getId();
+    LocalDateTime getUpdatedAt();
+}
@@ -0,0 +1,24 @@
+package com.webapp.backend.dto;
+
+import java.time.LocalDateTime;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Asenkron sipariş isteğinin durumu. State COMPLETED olduğunda orderId, FAILED olduğunda
+ * errorCode ve message doludur.
+ */
+@Data
+@NoArgsConstructor
+public class CheckoutStatusDto {
+    private String checkoutId;
+    private Long userId;
+    private String state;
+    private boolean finished;
+    private Long orderId;
+    private String errorCode;
+    private String message;
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+}
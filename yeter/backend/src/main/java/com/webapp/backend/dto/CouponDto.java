@@ -37,6 +37,7 @@ public class CouponDto {
     public static class ApplyRequest {
         private String code;              // Uygulanacak kupon kodu
         private BigDecimal cartTotal;     // Sepet toplam tutarı
+        private Long userId;              // Verilirse tutar kullanıcının sunucudaki sepetinden alınır
     }
     
     // Kupon uygulama cevabı
@@ -0,0 +1,34 @@
+package com.webapp.backend.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Cursor (keyset) tabanlı sayfalama cevabı.
+ * Bir sonraki sayfa için nextCursor değeri "after" parametresi olarak gönderilir.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CursorPageDto<T> {
+    private List<T> items = new ArrayList<>();
+    private String nextCursor; // Son sayfada null
+    private boolean hasMore;
+    private int limit;
+
+    /**
+     * Sayfa öğelerini başka bir tipe dönüştürür (ör. entity -> DTO)
+     */
+    public <R> CursorPageDto<R> map(Function<? super T, ? extends R> mapper) {
+        List<R> mapped = items.stream()
+                .map(mapper)
+                .collect(Collectors.toList());
+        return new CursorPageDto<>(mapped, nextCursor, hasMore, limit);
+    }
+}
@@ -0,0 +1,17 @@
+package com.webapp.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Misafir sepeti yanıtı. token istemcide saklanır; sonraki misafir sepeti isteklerinde ve girişte
+ * geri gönderilir. Sepet sunucuda tutulmaz.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class GuestCartResponseDto {
+    private String token;
+    private CartResponseDto cart;
+}
@@ -21,6 +21,8 @@ public class JwtResponseDto {
     private String role;
     private String firstName;
     private String lastName;
+    // Girişte misafir sepetinden kullanıcının sepetine aktarılan satır sayısı; misafir sepeti yoksa null
+    private Integer mergedCartItems;
     
     public JwtResponseDto(String token, Long id, String username, String email, 
                         String role, String firstName, String lastName) {
@@ -16,6 +16,9 @@ public class LoginDto {
     
     @NotBlank(message = "Şifre boş olamaz")
     private String password;
+
+    // İsteğe bağlı misafir sepeti token'ı; girişte kullanıcının sepetine eklenir
+    private String guestCart;
     
     // Lombok @Data kullandığımız için getter/setter'ları otomatik oluşturulacak
 }
\ No newline at end of file
@@ -0,0 +1,12 @@
+package com.webapp.backend.dto;
+
+/**
+ * Bellek içi katalog indeksleri için ürünün filtrelenebilir alanlarını okuyan projeksiyon
+ */
+public interface ProductAttributeView {
+    Long getId();
+    Long getCategoryId();
+    Long getSellerId();
+    Double getPrice();
+    Integer getStockQuantity();
+}
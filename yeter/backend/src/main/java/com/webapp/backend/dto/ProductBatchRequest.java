@@ -0,0 +1,20 @@
+package com.webapp.backend.dto;
+
+import java.util.List;
+
+import jakarta.validation.constraints.NotEmpty;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Çok sayıda ürünü tek istekte getirmek için id listesi
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductBatchRequest {
+
+    @NotEmpty(message = "En az bir ürün id'si belirtilmelidir")
+    private List<Long> ids;
+}
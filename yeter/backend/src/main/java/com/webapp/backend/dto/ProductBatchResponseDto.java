@@ -0,0 +1,19 @@
+package com.webapp.backend.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Toplu ürün getirme yanıtı. Ürünler istek sırasındadır; bulunamayan id'ler ayrıca listelenir.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductBatchResponseDto {
+    private List<ProductResponseDto> products = new ArrayList<>();
+    private List<Long> missingIds = new ArrayList<>();
+}
@@ -0,0 +1,15 @@
+package com.webapp.backend.dto;
+
+/**
+ * Başka bir düğümde değişen ürünün indeksleri, önbelleği ve sepetleri güncellemeye yeten alanları
+ */
+public interface ProductChangeView {
+    Long getId();
+    String getName();
+    String getDescription();
+    Double getPrice();
+    String getImageUrl();
+    Integer getStockQuantity();
+    Long getCategoryId();
+    Long getSellerId();
+}
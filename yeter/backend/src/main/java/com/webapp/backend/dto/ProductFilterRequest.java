@@ -0,0 +1,22 @@
+package com.webapp.backend.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Faceted ürün filtresi. Aynı facet içindeki değerler VEYA, farklı facet'ler VE ile birleşir.
+ * Boş liste o facet için kısıt olmadığı anlamına gelir.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductFilterRequest {
+    private List<Long> categoryIds = new ArrayList<>();
+    private List<Long> sellerIds = new ArrayList<>();
+    private List<Integer> priceBands = new ArrayList<>(); // Fiyat bandı indeksleri (0'dan başlar)
+    private boolean inStockOnly;
+}
@@ -0,0 +1,42 @@
+package com.webapp.backend.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Faceted filtre cevabı: sayfadaki ürünler ve her facet değeri için eşleşen ürün sayıları.
+ * Bir facet'in sayıları, o facet dışındaki tüm filtreler uygulanarak hesaplanır.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductFilterResponseDto {
+    private CursorPageDto<ProductResponseDto> products;
+    private long total;
+    private List<FacetCountDto> categories = new ArrayList<>();
+    private List<FacetCountDto> sellers = new ArrayList<>();
+    private List<PriceBandCountDto> priceBands = new ArrayList<>();
+    private long inStockCount;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class FacetCountDto {
+        private Long id;
+        private long count;
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class PriceBandCountDto {
+        private int band;
+        private Double min;
+        private Double max; // Son bantta null (üst sınır yok)
+        private long count;
+    }
+}
@@ -0,0 +1,38 @@
+package com.webapp.backend.dto;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Toplu ürün içe aktarma işinin durumu ve satır bazlı hataları
+ */
+@Data
+@NoArgsConstructor
+public class ProductImportStatusDto {
+    private String jobId;
+    private String status;
+    private String format;
+    // Ürünlerin zorla atandığı satıcı; yönetici işlerinde null, satıcı id'leri satırlardan okunur
+    private Long sellerId;
+    private long processedRows;
+    private long importedRows;
+    private long failedRows;
+    private List<RowErrorDto> errors = new ArrayList<>();
+    private boolean errorsTruncated;
+    private String message;
+    private LocalDateTime createdAt;
+    private LocalDateTime finishedAt;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class RowErrorDto {
+        private long row;
+        private String message;
+    }
+}
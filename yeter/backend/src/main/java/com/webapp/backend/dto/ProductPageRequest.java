@@ -0,0 +1,208 @@
+package com.webapp.backend.dto;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import org.springframework.data.domain.Sort;
+
+import com.webapp.backend.exception.BadRequestException;
+
+import lombok.Getter;
+
+/**
+ * Ürün listeleme endpoint'leri için keyset sayfalama parametreleri.
+ * İstemciye dönen cursor opak bir değerdir: sıralama anahtarı, yönü,
+ * son satırın sıralama değeri ve id'si Base64 ile kodlanır.
+ */
+@Getter
+public class ProductPageRequest {
+
+    public static final int DEFAULT_LIMIT = 20;
+    public static final int MAX_LIMIT = 100;
+
+    private static final String SEPARATOR = "|";
+
+    /**
+     * Kararlı sıralama anahtarları. Eşit değerlerde sıra id ile belirlenir.
+     * RELEVANCE yalnızca arama indeksinden dönen BM25 skoru için kullanılır.
+     * NEWEST, BEST_SELLING ve TOP_RATED veritabanı kolonu değildir; bellek içi
+     * sıralama indeksinden gelir ve varsayılan olarak azalan sıradadır.
+     */
+    public enum SortKey {
+        ID("id", Sort.Direction.ASC, false),
+        PRICE("price", Sort.Direction.ASC, false),
+        NAME("name", Sort.Direction.ASC, false),
+        RELEVANCE("relevance", Sort.Direction.DESC, true),
+        NEWEST("newest", Sort.Direction.DESC, true),
+        BEST_SELLING("bestselling", Sort.Direction.DESC, true),
+        TOP_RATED("rating", Sort.Direction.DESC, true);
+
+        private final String property;
+        private final Sort.Direction defaultDirection;
+        private final boolean indexOnly;
+
+        SortKey(String property, Sort.Direction defaultDirection, boolean indexOnly) {
+            this.property = property;
+            this.defaultDirection = defaultDirection;
+            this.indexOnly = indexOnly;
+        }
+
+        public String getProperty() {
+            return property;
+        }
+
+        /**
+         * Veritabanında ORDER BY ile uygulanamayan, yalnızca bellek içi indeksten gelen sıralama
+         */
+        public boolean isIndexOnly() {
+            return indexOnly;
+        }
+
+        public static SortKey from(String value, SortKey defaultKey) {
+            if (value == null || value.isBlank()) {
+                return defaultKey;
+            }
+            for (SortKey key : values()) {
+                if (key.property.equalsIgnoreCase(value)) {
+                    return key;
+                }
+            }
+            throw new BadRequestException("Geçersiz sıralama anahtarı: " + value);
+        }
+    }
+
+    private final int limit;
+    private final SortKey sortKey;
+    private final Sort.Direction direction;
+    private final Long afterId;        // İlk sayfada null
+    private final Object afterValue;   // Son satırın sıralama değeri veya skoru (ID sıralamasında null)
+
+    private ProductPageRequest(int limit, SortKey sortKey, Sort.Direction direction, Long afterId, Object afterValue) {
+        this.limit = limit;
+        this.sortKey = sortKey;
+        this.direction = direction;
+        this.afterId = afterId;
+        this.afterValue = afterValue;
+    }
+
+    /**
+     * İstek parametrelerinden sayfa isteği oluşturur ve doğrular
+     */
+    public static ProductPageRequest of(Integer limit, String sort, String direction, String after) {
+        ProductPageRequest request = of(limit, sort, direction, after, SortKey.ID);
+        if (request.sortKey == SortKey.RELEVANCE) {
+            throw new BadRequestException("relevance sıralaması yalnızca arama için kullanılabilir");
+        }
+        return request;
+    }
+
+    /**
+     * Sıralama belirtilmezse defaultKey kullanılır. RELEVANCE her zaman skor azalan sıradadır.
+     */
+    public static ProductPageRequest of(Integer limit, String sort, String direction, String after, SortKey defaultKey) {
+        int pageLimit = limit != null ? limit : DEFAULT_LIMIT;
+        if (pageLimit < 1 || pageLimit > MAX_LIMIT) {
+            throw new BadRequestException("limit 1 ile " + MAX_LIMIT + " arasında olmalıdır");
+        }
+
+        SortKey sortKey = SortKey.from(sort, defaultKey);
+        Sort.Direction sortDirection;
+        if (sortKey == SortKey.RELEVANCE) {
+            sortDirection = Sort.Direction.DESC;
+        } else {
+            try {
+                sortDirection = direction != null ? Sort.Direction.fromString(direction) : sortKey.defaultDirection;
+            } catch (IllegalArgumentException e) {
+                throw new BadRequestException("Geçersiz sıralama yönü: " + direction);
+            }
+        }
+
+        if (after == null || after.isBlank()) {
+            return new ProductPageRequest(pageLimit, sortKey, sortDirection, null, null);
+        }
+        return decode(after, pageLimit, sortKey, sortDirection);
+    }
+
+    public boolean hasCursor() {
+        return afterId != null;
+    }
+
+    /**
+     * Sıralama anahtarı ve eşitlik durumunda id ile kararlı sıralama
+     */
+    public Sort toSort() {
+        if (sortKey.isIndexOnly()) {
+            throw new IllegalStateException(sortKey.getProperty() + " sıralaması veritabanında uygulanamaz");
+        }
+        if (sortKey == SortKey.ID) {
+            return Sort.by(direction, "id");
+        }
+        return Sort.by(direction, sortKey.getProperty()).and(Sort.by(direction, "id"));
+    }
+
+    /**
+     * Sayfanın son ürününden bir sonraki sayfanın cursor'ını üretir
+     */
+    public String cursorAfter(ProductResponseDto last) {
+        String value = switch (sortKey) {
+            case ID, RELEVANCE, NEWEST -> "";
+            case PRICE -> String.valueOf(last.getPrice());
+            case NAME -> last.getName();
+            case BEST_SELLING, TOP_RATED -> throw new IllegalStateException(
+                    sortKey.getProperty() + " cursor'ı sıralama indeksindeki değerle üretilmelidir");
+        };
+        return encode(last.getId(), value);
+    }
+
+    /**
+     * Arama sonuçları için skor tabanlı cursor üretir
+     */
+    public String cursorAfter(long productId, float score) {
+        return encode(productId, String.valueOf(score));
+    }
+
+    /**
+     * Id sırasındaki indeks sayfaları için cursor üretir; sıralama anahtarı ID olmalıdır
+     */
+    public String cursorAfter(long productId) {
+        if (sortKey != SortKey.ID) {
+            throw new IllegalStateException(sortKey.getProperty() + " cursor'ı sıralama değeri gerektirir");
+        }
+        return encode(productId, "");
+    }
+
+    /**
+     * Sıralama indeksinden gelen sayfalar için anahtar değeri tabanlı cursor üretir
+     */
+    public String cursorAfter(long productId, double sortValue) {
+        return encode(productId, String.valueOf(sortValue));
+    }
+
+    private String encode(Long lastId, String value) {
+        String raw = sortKey.name() + SEPARATOR + direction.name() + SEPARATOR + lastId + SEPARATOR + value;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static ProductPageRequest decode(String cursor, int limit, SortKey sortKey, Sort.Direction direction) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            // Değer alanı ayraç içerebileceği için en fazla 4 parçaya bölünür
+            String[] parts = raw.split("\\" + SEPARATOR, 4);
+            if (parts.length != 4
+                    || SortKey.valueOf(parts[0]) != sortKey
+                    || Sort.Direction.valueOf(parts[1]) != direction) {
+                throw new BadRequestException("Cursor bu sıralama için geçerli değil");
+            }
+            Long afterId = Long.valueOf(parts[2]);
+            Object afterValue = switch (sortKey) {
+                case ID, NEWEST -> null;
+                case PRICE, BEST_SELLING, TOP_RATED -> Double.valueOf(parts[3]);
+                case NAME -> parts[3];
+                case RELEVANCE -> Float.valueOf(parts[3]);
+            };
+            return new ProductPageRequest(limit, sortKey, direction, afterId, afterValue);
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException("Geçersiz cursor değeri");
+        }
+    }
+}
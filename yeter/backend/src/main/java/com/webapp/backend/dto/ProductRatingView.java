@@ -0,0 +1,10 @@
+package com.webapp.backend.dto;
+
+/**
+ * Ürün başına yorum puanlarının toplamı ve yorum sayısı
+ */
+public interface ProductRatingView {
+    Long getProductId();
+    Long getRatingSum();
+    Long getRatingCount();
+}
@@ -2,6 +2,8 @@ package com.webapp.backend.dto;
 
 import java.math.BigDecimal;
 
+import com.webapp.backend.model.Product;
+
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -21,6 +23,46 @@ public class ProductResponseDto {
     private Integer stock_quantity;
     private CategoryDto category;
     private SellerDto seller;
+
+    /**
+     * JPA constructor expression ile düz kolonlardan oluşturmak için kullanılır
+     */
+    public ProductResponseDto(Long id, String name, String description, Double price, String image_url,
+            Integer stock_quantity, Long categoryId, String categoryName, Long sellerId, String sellerUsername) {
+        this.id = id;
+        this.name = name;
+        this.description = description;
+        this.price = price;
+        this.image_url = image_url;
+        this.stock_quantity = stock_quantity;
+        this.category = categoryId != null ? new CategoryDto(categoryId, categoryName) : null;
+        this.seller = sellerId != null ? new SellerDto(sellerId, sellerUsername) : null;
+    }
+
+    /**
+     * Product entity'sinden görüntüleme DTO'su oluşturur
+     */
+    public static ProductResponseDto from(Product product) {
+        ProductResponseDto dto = new ProductResponseDto();
+        dto.setId(product.getId());
+        dto.setName(product.getName());
+        dto.setDescription(product.getDescription());
+        dto.setPrice(product.getPrice());
+        dto.setImage_url(product.getImage_url());
+        dto.setStock_quantity(product.getStock_quantity());
+
+        // Kategori bilgileri
+        if (product.getCategory() != null) {
+            dto.setCategory(new CategoryDto(product.getCategory().getId(), product.getCategory().getName()));
+        }
+
+        // Satıcı bilgileri
+        if (product.getSeller() != null) {
+            dto.setSeller(new SellerDto(product.getSeller().getId(), product.getSeller().getUsername()));
+        }
+
+        return dto;
+    }
     
     @Data
     @NoArgsConstructor
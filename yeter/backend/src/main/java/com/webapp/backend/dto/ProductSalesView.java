@@ -0,0 +1,9 @@
+package com.webapp.backend.dto;
+
+/**
+ * Ürün başına sipariş edilen toplam adet
+ */
+public interface ProductSalesView {
+    Long getProductId();
+    Long getUnitsSold();
+}
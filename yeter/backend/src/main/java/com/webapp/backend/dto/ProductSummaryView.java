@@ -0,0 +1,19 @@
+package com.webapp.backend.dto;
+
+/**
+ * Kategori yanıtlarındaki ürün özetleri için projeksiyon; satıcının yalnızca özet kolonları okunur
+ */
+public interface ProductSummaryView {
+    Long getId();
+    String getName();
+    String getDescription();
+    Double getPrice();
+    String getImageUrl();
+    Integer getStockQuantity();
+    Long getCategoryId();
+    Long getSellerId();
+    String getSellerUsername();
+    String getSellerEmail();
+    String getSellerFirstName();
+    String getSellerLastName();
+}
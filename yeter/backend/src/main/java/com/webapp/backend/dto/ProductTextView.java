@@ -0,0 +1,10 @@
+package com.webapp.backend.dto;
+
+/**
+ * Arama indeksini oluşturmak için yalnızca metin alanlarını okuyan projeksiyon
+ */
+public interface ProductTextView {
+    Long getId();
+    String getName();
+    String getDescription();
+}
@@ -27,4 +27,7 @@ public class RegisterDto {
     private String lastName;
     private String role;
     private Boolean banned;
+
+    // İsteğe bağlı misafir sepeti token'ı; kayıt sonrası yeni kullanıcının sepetine eklenir
+    private String guestCart;
 }
\ No newline at end of file
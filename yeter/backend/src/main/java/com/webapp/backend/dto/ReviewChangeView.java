@@ -0,0 +1,8 @@
+package com.webapp.backend.dto;
+
+/**
+ * Değişmiş bir yorum ve puanı değişen ürün
+ */
+public interface ReviewChangeView extends ChangedRowView {
+    Long getProductId();
+}
@@ -0,0 +1,17 @@
+package com.webapp.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Arama kutusu için tamamlama önerisi; type PRODUCT veya CATEGORY
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SuggestionDto {
+    private String text;
+    private String type;
+    private Long id;
+}
@@ -0,0 +1,37 @@
+package com.webapp.backend.event;
+
+/**
+ * Bir kategori kaydedildiğinde veya silindiğinde yayınlanır.
+ * Kategori adını kopyalayan önbellek ve özetler bu olayla tazelenir.
+ */
+public class CategoryChangedEvent {
+
+    public enum Type {
+        SAVED,
+        DELETED
+    }
+
+    private final Type type;
+    private final Long categoryId;
+
+    private CategoryChangedEvent(Type type, Long categoryId) {
+        this.type = type;
+        this.categoryId = categoryId;
+    }
+
+    public static CategoryChangedEvent saved(Long categoryId) {
+        return new CategoryChangedEvent(Type.SAVED, categoryId);
+    }
+
+    public static CategoryChangedEvent deleted(Long categoryId) {
+        return new CategoryChangedEvent(Type.DELETED, categoryId);
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public Long getCategoryId() {
+        return categoryId;
+    }
+}
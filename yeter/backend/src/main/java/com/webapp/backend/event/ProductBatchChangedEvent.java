@@ -0,0 +1,59 @@
+package com.webapp.backend.event;
+
+import java.util.List;
+
+import com.webapp.backend.model.Product;
+
+/**
+ * Birçok ürün tek seferde kaydedildiğinde (ör. toplu içe aktarmanın bir partisi) ürün başına
+ * ProductChangedEvent yerine bir kez yayınlanır. Dinleyiciler değişiklikleri tek kilit altında
+ * uygular; sıralı diziler tutan indeksler kaydırmaları tek bir birleştirme geçişinde yapar.
+ * Başka düğümlerde yapılan değişiklikler de değişiklik akışı tarafından bu olayla yayınlanır.
+ */
+public class ProductBatchChangedEvent {
+
+    private final List<Product> saved;
+    private final List<Long> deletedIds;
+    private final boolean fromFeed;
+
+    private ProductBatchChangedEvent(List<Product> saved, List<Long> deletedIds, boolean fromFeed) {
+        this.saved = List.copyOf(saved);
+        this.deletedIds = List.copyOf(deletedIds);
+        this.fromFeed = fromFeed;
+    }
+
+    public static ProductBatchChangedEvent saved(List<Product> products) {
+        return new ProductBatchChangedEvent(products, List.of(), false);
+    }
+
+    public static ProductBatchChangedEvent of(List<Product> saved, List<Long> deletedIds) {
+        return new ProductBatchChangedEvent(saved, deletedIds, false);
+    }
+
+    /**
+     * Veritabanındaki değişiklik akışından okunan ürünler. Satırlar herhangi bir düğümde (bu düğüm dahil)
+     * yazılmış olabilir; kaydedilen ürünler veritabanındaki son hallerini taşır.
+     */
+    public static ProductBatchChangedEvent fromFeed(List<Product> saved, List<Long> deletedIds) {
+        return new ProductBatchChangedEvent(saved, deletedIds, true);
+    }
+
+    public List<Product> getSaved() {
+        return saved;
+    }
+
+    /**
+     * Silinen ürünlerin id'leri; aynı id kaydedilenler arasında yer almaz
+     */
+    public List<Long> getDeletedIds() {
+        return deletedIds;
+    }
+
+    public boolean isFromFeed() {
+        return fromFeed;
+    }
+
+    public int size() {
+        return saved.size() + deletedIds.size();
+    }
+}
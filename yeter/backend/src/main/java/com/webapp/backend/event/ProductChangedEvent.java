@@ -0,0 +1,56 @@
+package com.webapp.backend.event;
+
+import com.webapp.backend.model.Product;
+
+/**
+ * Bir ürün kaydedildiğinde, silindiğinde veya stoğu değiştiğinde yayınlanır.
+ * Bellek içi katalog indeksleri bu olayı dinleyerek kendilerini günceller.
+ */
+public class ProductChangedEvent {
+
+    public enum Type {
+        SAVED,
+        DELETED,
+        STOCK_CHANGED
+    }
+
+    private final Type type;
+    private final Long productId;
+    private final Product product; // DELETED için null
+    private final int stockDelta;  // Yalnızca STOCK_CHANGED: satışta negatif, iade/iptalde pozitif
+
+    private ProductChangedEvent(Type type, Long productId, Product product, int stockDelta) {
+        this.type = type;
+        this.productId = productId;
+        this.product = product;
+        this.stockDelta = stockDelta;
+    }
+
+    public static ProductChangedEvent saved(Product product) {
+        return new ProductChangedEvent(Type.SAVED, product.getId(), product, 0);
+    }
+
+    public static ProductChangedEvent stockChanged(Product product, int stockDelta) {
+        return new ProductChangedEvent(Type.STOCK_CHANGED, product.getId(), product, stockDelta);
+    }
+
+    public static ProductChangedEvent deleted(Long productId) {
+        return new ProductChangedEvent(Type.DELETED, productId, null, 0);
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public Long getProductId() {
+        return productId;
+    }
+
+    public Product getProduct() {
+        return product;
+    }
+
+    public int getStockDelta() {
+        return stockDelta;
+    }
+}
@@ -0,0 +1,22 @@
+package com.webapp.backend.event;
+
+/**
+ * Bir ürünün yorumu eklendiğinde, güncellendiğinde veya silindiğinde yayınlanır.
+ * Puana göre sıralama bu olayla ürünün puan özetini yeniden okur.
+ */
+public class ReviewChangedEvent {
+
+    private final Long productId;
+
+    private ReviewChangedEvent(Long productId) {
+        this.productId = productId;
+    }
+
+    public static ReviewChangedEvent of(Long productId) {
+        return new ReviewChangedEvent(productId);
+    }
+
+    public Long getProductId() {
+        return productId;
+    }
+}
@@ -11,6 +11,8 @@ public class ErrorCodes {
     public static final String UNAUTHORIZED = "ERR_UNAUTHORIZED";
     public static final String RESOURCE_NOT_FOUND = "ERR_RESOURCE_NOT_FOUND";
     public static final String DUPLICATE_RESOURCE = "ERR_DUPLICATE_RESOURCE";
+    public static final String TOO_MANY_REQUESTS = "ERR_TOO_MANY_REQUESTS";
+    public static final String SERVICE_UNAVAILABLE = "ERR_SERVICE_UNAVAILABLE";
     
     // Sipariş hata kodları
     public static final String ORDER_EMPTY_CART = "ERR_ORDER_EMPTY_CART";
@@ -18,6 +20,7 @@ public class ErrorCodes {
     public static final String ORDER_INVALID_STATUS = "ERR_ORDER_INVALID_STATUS";
     public static final String ORDER_PAYMENT_FAILED = "ERR_ORDER_PAYMENT_FAILED";
     public static final String ORDER_CANCEL_LIMIT = "ERR_ORDER_CANCEL_LIMIT";
+    public static final String ORDER_CHECKOUT_IN_PROGRESS = "ERR_ORDER_CHECKOUT_IN_PROGRESS";
     
     // Adres hata kodları
     public static final String ADDRESS_INVALID = "ERR_ADDRESS_INVALID";
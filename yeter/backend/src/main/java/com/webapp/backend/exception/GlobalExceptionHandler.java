@@ -62,6 +62,32 @@ public class GlobalExceptionHandler extends ResponseEntityExceptionHandler {
         return new ResponseEntity<>(errorDetails, HttpStatus.CONFLICT);
     }
     
+    /**
+     * 429 Too Many Requests - Kapasite dolu, istemci daha sonra tekrar denemeli
+     */
+    @ExceptionHandler(TooManyRequestsException.class)
+    public ResponseEntity<ErrorResponse> handleTooManyRequestsException(
+            TooManyRequestsException ex, WebRequest request) {
+        
+        ErrorResponse errorDetails = new ErrorResponse(ex.getMessage());
+        errorDetails.setErrorCode(ErrorCodes.TOO_MANY_REQUESTS);
+        
+        return new ResponseEntity<>(errorDetails, HttpStatus.TOO_MANY_REQUESTS);
+    }
+    
+    /**
+     * 503 Service Unavailable - Sunucu isteği geçici olarak işleyemiyor, istemci daha sonra tekrar denemeli
+     */
+    @ExceptionHandler(ServiceUnavailableException.class)
+    public ResponseEntity<ErrorResponse> handleServiceUnavailableException(
+            ServiceUnavailableException ex, WebRequest request) {
+        
+        ErrorResponse errorDetails = new ErrorResponse(ex.getMessage());
+        errorDetails.setErrorCode(ErrorCodes.SERVICE_UNAVAILABLE);
+        
+        return new ResponseEntity<>(errorDetails, HttpStatus.SERVICE_UNAVAILABLE);
+    }
+    
     /**
      * 401 Unauthorized - Yetkilendirme hataları
      */
@@ -7,11 +7,12 @@ public class ResourceNotFoundException extends RuntimeException {
     
     private static final long serialVersionUID = 1L;
 
+    // 404 yanıtları loglanmadığı için stack trace üretilmez; taranan id'lerde gereksiz maliyettir
     public ResourceNotFoundException(String message) {
-        super(message);
+        super(message, null, false, false);
     }
     
     public ResourceNotFoundException(String resourceName, String fieldName, Object fieldValue) {
-        super(String.format("%s not found with %s: '%s'", resourceName, fieldName, fieldValue));
+        this(String.format("%s not found with %s: '%s'", resourceName, fieldName, fieldValue));
     }
 }
\ No newline at end of file
@@ -0,0 +1,14 @@
+package com.webapp.backend.exception;
+
+/**
+ * Sunucu isteği şu an güvenle işleyemediğinde (ör. bekleyen sepet değişiklikleri veritabanına
+ * yazılamıyor) fırlatılır; istemci bir süre sonra tekrar denemelidir
+ */
+public class ServiceUnavailableException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    public ServiceUnavailableException(String message) {
+        super(message);
+    }
+}
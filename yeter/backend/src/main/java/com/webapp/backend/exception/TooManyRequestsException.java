@@ -0,0 +1,14 @@
+package com.webapp.backend.exception;
+
+/**
+ * Sunucu kapasitesi dolduğunda (ör. arka plan iş kuyruğu dolu) fırlatılır;
+ * istemci bir süre sonra tekrar denemelidir
+ */
+public class TooManyRequestsException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    public TooManyRequestsException(String message) {
+        super(message);
+    }
+}
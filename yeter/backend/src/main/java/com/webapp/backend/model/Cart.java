@@ -2,7 +2,9 @@ package com.webapp.backend.model;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonManagedReference;
@@ -13,6 +15,7 @@ import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.OneToMany;
 import jakarta.persistence.OneToOne;
@@ -21,7 +24,10 @@ import lombok.Data;
 
 @Data
 @Entity
-@Table(name = "carts")
+@Table(name = "carts", indexes = {
+    // Terk edilmiş sepet temizliği (updated_at, id) üzerinden keyset ile ilerler
+    @Index(name = "idx_carts_updated_at_id", columnList = "updated_at, id")
+})
 public class Cart {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -39,6 +45,12 @@ public class Cart {
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
 
+    // Ürün id'sinden satırın cartItems içindeki konumuna O(1) erişim; kalıcı değil, ilk ihtiyaçta kurulur.
+    // Satırlar yalnızca yardımcı metodlarla değiştirilmelidir, aksi halde konumlar bozulur
+    private transient Map<Long, Integer> itemIndex;
+    // İndeksin kurulduğu liste; JPA koleksiyonu alan üzerinden değiştirdiğinde indeks yeniden kurulur
+    private transient List<CartItem> indexedItems;
+
     public Long getId() {
         return id;
     }
@@ -61,6 +73,7 @@ public class Cart {
 
     public void setCartItems(List<CartItem> cartItems) {
         this.cartItems = cartItems;
+        this.itemIndex = null;
     }
 
     public LocalDateTime getCreatedAt() {
@@ -81,13 +94,6 @@ public class Cart {
 
 
     
-    // Calculate total price of all items in the cart
-    public Double getTotalPrice() {
-        return cartItems.stream()
-            .mapToDouble(item -> item.getQuantity() * item.getProduct().getPrice())
-            .sum();
-    }
-    
     // Helper method to add product to cart
     public void addItem(Product product, int quantity) {
         CartItem existingItem = findCartItem(product.getId());
@@ -102,16 +108,22 @@ public class Cart {
             newItem.setProduct(product);
             newItem.setQuantity(quantity);
             newItem.setAddedAt(LocalDateTime.now());
+            itemIndex().put(product.getId(), cartItems.size());
             this.cartItems.add(newItem);
         }
         this.updatedAt = LocalDateTime.now();
     }
     
     // Helper method to remove item from cart
+    // Son satır silinen satırın yerine taşınır; liste sırası kalıcı olmadığından sıra korunmaz
     public void removeItem(Long productId) {
-        CartItem item = findCartItem(productId);
-        if (item != null) {
-            this.cartItems.remove(item);
+        Integer position = itemIndex().remove(productId);
+        if (position != null) {
+            CartItem last = cartItems.remove(cartItems.size() - 1);
+            if (position < cartItems.size()) {
+                cartItems.set(position, last);
+                itemIndex.put(last.getProduct().getId(), position);
+            }
             this.updatedAt = LocalDateTime.now();
         }
     }
@@ -127,16 +139,28 @@ public class Cart {
     }
     
     // Helper method to find cart item by product id
-    private CartItem findCartItem(Long productId) {
-        return this.cartItems.stream()
-            .filter(item -> item.getProduct().getId().equals(productId))
-            .findFirst()
-            .orElse(null);
+    public CartItem findCartItem(Long productId) {
+        Integer position = itemIndex().get(productId);
+        return position != null ? cartItems.get(position) : null;
     }
     
     // Clear the cart
     public void clear() {
         this.cartItems.clear();
+        itemIndex().clear();
         this.updatedAt = LocalDateTime.now();
     }
+
+    // JPA koleksiyonu entity oluşturulduktan sonra alan üzerinden atadığı için indeks tembel kurulur
+    private Map<Long, Integer> itemIndex() {
+        if (itemIndex == null || indexedItems != cartItems) {
+            Map<Long, Integer> index = new HashMap<>(cartItems.size() * 2);
+            for (int i = 0; i < cartItems.size(); i++) {
+                index.putIfAbsent(cartItems.get(i).getProduct().getId(), i);
+            }
+            itemIndex = index;
+            indexedItems = cartItems;
+        }
+        return itemIndex;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,66 @@
+package com.webapp.backend.model;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Silinen bir katalog kaydının izi (tombstone). Silinen satır updated_at ile bulunamadığı için diğer
+ * düğümler silmeleri bu tablodan öğrenir. Kayıtlar katalog snapshot'ının kabul edilen en fazla yaşından
+ * uzun süre saklanır, sonra temizlenir.
+ */
+@Data
+@NoArgsConstructor
+@Entity
+@Table(name = "catalog_deletions", indexes = {
+        @Index(name = "idx_catalog_deletions_deleted_at", columnList = "deleted_at")
+})
+public class CatalogDeletion {
+
+    public enum EntityType {
+        PRODUCT,
+        CATEGORY,
+        REVIEW
+    }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "entity_type", nullable = false, length = 20)
+    private EntityType entityType;
+
+    @Column(name = "entity_id", nullable = false)
+    private Long entityId;
+
+    // Yalnızca REVIEW için: puanı değişen ürün
+    @Column(name = "product_id")
+    private Long productId;
+
+    // Veritabanı saatiyle yazılır; updated_at sütunlarıyla aynı saatten okunur
+    @Column(name = "deleted_at", insertable = false, updatable = false,
+            columnDefinition = "TIMESTAMP(6) DEFAULT CURRENT_TIMESTAMP(6)")
+    private LocalDateTime deletedAt;
+
+    public CatalogDeletion(EntityType entityType, Long entityId) {
+        this.entityType = entityType;
+        this.entityId = entityId;
+    }
+
+    public CatalogDeletion(EntityType entityType, Long entityId, Long productId) {
+        this.entityType = entityType;
+        this.entityId = entityId;
+        this.productId = productId;
+    }
+}
@@ -1,7 +1,9 @@
 package com.webapp.backend.model;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 
 import jakarta.persistence.CascadeType;
@@ -27,6 +29,13 @@ public class Category {
 
     private String description;
 
+    // Her yazımda veritabanı tarafından güncellenir;
+    // katalog snapshot'ı ve diğer düğümlerin değişiklik akışı sonradan değişen kategorileri buna bakarak bulur
+    @JsonIgnore
+    @Column(name = "updated_at", insertable = false, updatable = false,
+            columnDefinition = "TIMESTAMP(6) DEFAULT CURRENT_TIMESTAMP(6) ON UPDATE CURRENT_TIMESTAMP(6)")
+    private LocalDateTime updatedAt;
+
     @OneToMany(mappedBy = "category", cascade = CascadeType.ALL)
     @JsonIgnoreProperties({"category", "seller", "cart"})
     private List<Product> products;
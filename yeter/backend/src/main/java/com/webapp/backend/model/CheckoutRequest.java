@@ -0,0 +1,78 @@
+package com.webapp.backend.model;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.Data;
+
+/**
+ * Asenkron sipariş isteği ve hattaki durumu. İstemciye dönen id (handle) ile sorgulanır; sipariş
+ * oluştuğunda orderId dolar, başarısız olursa hata kodu ve mesajı yazılır. İsteği işleyen düğüm owner
+ * ve leaseUntil ile kaydedilir; süresi dolan kiralar başka bir düğüm tarafından üstlenilebilir.
+ * activeUserId yalnızca istek sürerken doludur ve benzersizdir: bir kullanıcının tüm düğümlerde en fazla
+ * bir süren isteği olabilir.
+ */
+@Data
+@Entity
+@Table(name = "checkout_requests", indexes = {
+        @Index(name = "idx_checkout_requests_user_state", columnList = "user_id, state"),
+        @Index(name = "idx_checkout_requests_state_updated", columnList = "state, updated_at"),
+        @Index(name = "idx_checkout_requests_state_lease", columnList = "state, lease_until")
+})
+public class CheckoutRequest {
+    @Id
+    @Column(length = 36)
+    private String id;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(name = "shipping_address_id", nullable = false)
+    private Long shippingAddressId;
+
+    @Column(name = "billing_address_id")
+    private Long billingAddressId;
+
+    @Column(name = "payment_method")
+    private String paymentMethod;
+
+    @Column(name = "payment_method_id")
+    private Long paymentMethodId;
+
+    @Column(name = "coupon_code")
+    private String couponCode;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private CheckoutState state = CheckoutState.QUEUED;
+
+    @Column(name = "order_id")
+    private Long orderId;
+
+    @Column(name = "error_code")
+    private String errorCode;
+
+    @Column(name = "error_message", length = 500)
+    private String errorMessage;
+
+    @Column(name = "active_user_id", unique = true)
+    private Long activeUserId;
+
+    @Column(length = 64)
+    private String owner;
+
+    @Column(name = "lease_until")
+    private LocalDateTime leaseUntil;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,21 @@
+package com.webapp.backend.model;
+
+/**
+ * Asenkron sipariş hattının aşamaları. COMPLETED ve FAILED son durumlardır. COMPENSATING, sipariş
+ * oluştuktan sonra başarısız olan isteğin siparişi iptal edilip ödemesi iade edilirken kullanılır.
+ */
+public enum CheckoutState {
+    QUEUED,
+    RESERVING_STOCK,
+    PRICING,
+    PERSISTING,
+    PAYMENT,
+    CLEARING_CART,
+    COMPENSATING,
+    COMPLETED,
+    FAILED;
+
+    public boolean isTerminal() {
+        return this == COMPLETED || this == FAILED;
+    }
+}
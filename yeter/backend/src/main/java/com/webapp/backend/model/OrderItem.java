@@ -7,6 +7,7 @@ import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.Table;
@@ -14,7 +15,10 @@ import lombok.Data;
 
 @Data
 @Entity
-@Table(name = "order_items")
+@Table(name = "order_items", indexes = {
+    // Satıcı siparişleri seller_id üzerinden, sipariş id'sine göre azalan sırada sayfalanır
+    @Index(name = "idx_order_items_seller_order", columnList = "seller_id, order_id")
+})
 public class OrderItem {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -33,6 +37,10 @@ public class OrderItem {
     
     @Column(nullable = false)
     private BigDecimal price;
+
+    // Satış anındaki ürün satıcısı; satıcı sipariş listesi için ürün tablosuna gitmeden kullanılır
+    @Column(name = "seller_id")
+    private Long sellerId;
     
     // Subtotal hesaplama
     public BigDecimal getSubtotal() {
@@ -79,4 +87,12 @@ public class OrderItem {
     public void setPrice(BigDecimal price) {
         this.price = price;
     }
+
+    public Long getSellerId() {
+        return sellerId;
+    }
+
+    public void setSellerId(Long sellerId) {
+        this.sellerId = sellerId;
+    }
 } 
\ No newline at end of file
@@ -1,5 +1,8 @@
 package com.webapp.backend.model;
 
+import java.time.LocalDateTime;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 
 import jakarta.persistence.Column;
@@ -7,6 +10,7 @@ import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.Table;
@@ -15,7 +19,13 @@ import lombok.Data;
 
 @Data
 @Entity
-@Table(name = "products")
+@Table(name = "products", indexes = {
+    // Keyset sayfalamada (sıralama değeri, id) ikilisi üzerinden arama yapılır
+    @Index(name = "idx_products_price_id", columnList = "price, id"),
+    @Index(name = "idx_products_name_id", columnList = "name, id"),
+    // Değişiklik akışı diğer düğümlerde değişen ürünleri updated_at ile bulur
+    @Index(name = "idx_products_updated_at", columnList = "updated_at")
+})
 public class Product {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -33,6 +43,10 @@ public class Product {
 
     private int stockQuantity;
 
+    // Flash-sale modunda stok düğümlerce parça parça kiralanır (FlashSaleStock); null, kapalı demektir
+    @Column(name = "flash_sale")
+    private Boolean flashSale;
+
     @ManyToOne
     @JoinColumn(name = "category_id")
     @JsonIgnoreProperties({"products", "category", "seller"})
@@ -44,6 +58,13 @@ public class Product {
     @JsonIgnoreProperties({"password", "cart", "token", "banned", "role", "addresses", "products"}) // Avoid exposing sensitive seller details
     private User seller;
 
+    // Her yazımda veritabanı tarafından güncellenir (JdbcTemplate ile yapılan stok güncellemeleri dahil);
+    // katalog snapshot'ı ve diğer düğümlerin değişiklik akışı buna bakar
+    @JsonIgnore
+    @Column(name = "updated_at", insertable = false, updatable = false,
+            columnDefinition = "TIMESTAMP(6) DEFAULT CURRENT_TIMESTAMP(6) ON UPDATE CURRENT_TIMESTAMP(6)")
+    private LocalDateTime updatedAt;
+
     @Transient
     private Long category_id;
 
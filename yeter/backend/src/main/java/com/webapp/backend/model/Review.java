@@ -1,5 +1,7 @@
 package com.webapp.backend.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
@@ -8,7 +10,10 @@ import lombok.NoArgsConstructor;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "reviews")
+@Table(name = "reviews", indexes = {
+    // Değişiklik akışı diğer düğümlerde değişen yorumları updated_at ile bulur
+    @Index(name = "idx_reviews_updated_at", columnList = "updated_at")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -31,6 +36,12 @@ public class Review {
     
     @Column(name = "created_at")
     private LocalDateTime createdAt;
+
+    // Her yazımda veritabanı tarafından güncellenir; katalog ETag'leri buna bakar (CatalogVersions)
+    @JsonIgnore
+    @Column(name = "updated_at", insertable = false, updatable = false,
+            columnDefinition = "TIMESTAMP(6) DEFAULT CURRENT_TIMESTAMP(6) ON UPDATE CURRENT_TIMESTAMP(6)")
+    private LocalDateTime updatedAt;
     
     @PrePersist
     protected void onCreate() {
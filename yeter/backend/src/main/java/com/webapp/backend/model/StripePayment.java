@@ -48,6 +48,10 @@ public class StripePayment {
     private String lastError;
     private String receiptUrl;
     
+    // Ödeme sağlayıcısına gönderilen idempotency anahtarı; aynı anahtarla ikinci bir tahsilat yapılmaz
+    @Column(name = "idempotency_key", unique = true, length = 64)
+    private String idempotencyKey;
+    
     // Getters and Setters
     public Long getId() {
         return id;
@@ -144,4 +148,12 @@ public class StripePayment {
     public void setReceiptUrl(String receiptUrl) {
         this.receiptUrl = receiptUrl;
     }
-} 
\ No newline at end of file
+
+    public String getIdempotencyKey() {
+        return idempotencyKey;
+    }
+
+    public void setIdempotencyKey(String idempotencyKey) {
+        this.idempotencyKey = idempotencyKey;
+    }
+}
@@ -0,0 +1,31 @@
+package com.webapp.backend.repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.webapp.backend.model.CatalogDeletion;
+
+@Repository
+public interface CatalogDeletionRepository extends JpaRepository<CatalogDeletion, Long> {
+    /**
+     * (deleted_at, id) sırasında, verilen konumdan sonraki silme kayıtları
+     */
+    @Query("SELECT d FROM CatalogDeletion d WHERE d.deletedAt > :since OR (d.deletedAt = :since AND d.id > :afterId) "
+            + "ORDER BY d.deletedAt, d.id")
+    List<CatalogDeletion> findAfter(@Param("since") LocalDateTime since, @Param("afterId") Long afterId,
+            Pageable pageable);
+
+    @Query("SELECT MAX(d.deletedAt) FROM CatalogDeletion d")
+    LocalDateTime findLastDeletedAt();
+
+    @Modifying
+    @Query("DELETE FROM CatalogDeletion d WHERE d.deletedAt < :before")
+    int deleteOlderThan(@Param("before") LocalDateTime before);
+}
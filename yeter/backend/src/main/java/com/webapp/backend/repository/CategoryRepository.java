@@ -1,14 +1,44 @@
 package com.webapp.backend.repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import com.webapp.backend.dto.CategorySummaryDto;
+import com.webapp.backend.dto.ChangedRowView;
 import com.webapp.backend.model.Category;
 
 @Repository
 public interface CategoryRepository extends JpaRepository<Category, Long> {
     Optional<Category> findByName(String name);
     boolean existsByName(String name);
-}
\ No newline at end of file
+
+    @Query("SELECT c.id FROM Category c")
+    List<Long> findAllIds();
+
+    @Query("SELECT c.id FROM Category c WHERE c.id > :afterId ORDER BY c.id")
+    List<Long> findIdsAfter(@Param("afterId") Long afterId, Pageable pageable);
+
+    @Query("SELECT MAX(c.updatedAt) FROM Category c")
+    LocalDateTime findLastUpdatedAt();
+
+    @Query("SELECT c.id AS id, c.updatedAt AS updatedAt FROM Category c WHERE c.updatedAt > :since "
+            + "OR (c.updatedAt = :since AND c.id > :afterId) ORDER BY c.updatedAt, c.id")
+    List<ChangedRowView> findChangedAfter(@Param("since") LocalDateTime since, @Param("afterId") Long afterId,
+            Pageable pageable);
+
+    @Query("SELECT c.id FROM Category c WHERE c.id IN :ids")
+    List<Long> findExistingIds(@Param("ids") Collection<Long> ids);
+
+    @Query("SELECT new com.webapp.backend.dto.CategorySummaryDto(c.id, c.name, c.description, "
+            + "COUNT(p.id), MIN(p.price), MAX(p.price)) "
+            + "FROM Category c LEFT JOIN c.products p GROUP BY c.id, c.name, c.description ORDER BY c.id")
+    List<CategorySummaryDto> findSummaries();
+}
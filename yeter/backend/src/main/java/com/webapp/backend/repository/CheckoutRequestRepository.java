@@ -0,0 +1,105 @@
+package com.webapp.backend.repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.webapp.backend.model.CheckoutRequest;
+import com.webapp.backend.model.CheckoutState;
+
+/**
+ * Asenkron sipariş istekleri. Durum geçişleri koşullu güncellemelerdir: yalnızca isteğin sahibi olan
+ * düğüm (owner) yazabilir, 0 dönen güncelleme isteğin başka bir düğüme geçtiğini gösterir.
+ */
+@Repository
+public interface CheckoutRequestRepository extends JpaRepository<CheckoutRequest, String> {
+    /**
+     * Sahipsiz veya kirası dolmuş süren istekler, eskiden yeniye
+     */
+    @Query("SELECT c FROM CheckoutRequest c WHERE c.state IN :states AND (c.owner IS NULL OR c.leaseUntil < :now) "
+            + "ORDER BY c.createdAt")
+    List<CheckoutRequest> findClaimable(@Param("states") Collection<CheckoutState> states,
+            @Param("now") LocalDateTime now, Pageable pageable);
+
+    /**
+     * İsteği üstlenir: durum okunduğundan beri değişmemiş, istek sahipsiz ya da kirası dolmuş olmalıdır.
+     * Aynı isteği üstlenmeye çalışan düğümlerden yalnızca biri 1 alır.
+     */
+    @Modifying
+    @Query("UPDATE CheckoutRequest c SET c.owner = :owner, c.leaseUntil = :until WHERE c.id = :id "
+            + "AND c.state = :state AND (c.owner IS NULL OR c.leaseUntil < :now)")
+    int claim(@Param("id") String id, @Param("state") CheckoutState state, @Param("owner") String owner,
+            @Param("until") LocalDateTime until, @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("UPDATE CheckoutRequest c SET c.leaseUntil = :until WHERE c.owner = :owner AND c.id IN :ids")
+    int renewLeases(@Param("owner") String owner, @Param("ids") Collection<String> ids,
+            @Param("until") LocalDateTime until);
+
+    @Modifying
+    @Query("UPDATE CheckoutRequest c SET c.owner = NULL, c.leaseUntil = NULL WHERE c.id = :id AND c.owner = :owner")
+    int release(@Param("id") String id, @Param("owner") String owner);
+
+    @Modifying
+    @Query("UPDATE CheckoutRequest c SET c.state = :state, c.updatedAt = :now, c.leaseUntil = :until "
+            + "WHERE c.id = :id AND c.owner = :owner")
+    int updateState(@Param("id") String id, @Param("owner") String owner, @Param("state") CheckoutState state,
+            @Param("now") LocalDateTime now, @Param("until") LocalDateTime until);
+
+    /**
+     * Siparişi isteğe bağlar; sipariş işleminin içinde çalışır. İstek başka düğüme geçtiyse ya da
+     * siparişi zaten varsa 0 döner ve işlem geri alınmalıdır.
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE CheckoutRequest c SET c.state = com.webapp.backend.model.CheckoutState.PAYMENT, "
+            + "c.orderId = :orderId, c.updatedAt = :now WHERE c.id = :id AND c.owner = :owner AND c.orderId IS NULL")
+    int markPlaced(@Param("id") String id, @Param("owner") String owner, @Param("orderId") Long orderId,
+            @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("UPDATE CheckoutRequest c SET c.state = com.webapp.backend.model.CheckoutState.COMPLETED, "
+            + "c.activeUserId = NULL, c.owner = NULL, c.leaseUntil = NULL, c.updatedAt = :now "
+            + "WHERE c.id = :id AND c.owner = :owner AND c.state = com.webapp.backend.model.CheckoutState.CLEARING_CART")
+    int markCompleted(@Param("id") String id, @Param("owner") String owner, @Param("now") LocalDateTime now);
+
+    /**
+     * Siparişi oluşmamış isteği başarısız yapar
+     */
+    @Modifying
+    @Query("UPDATE CheckoutRequest c SET c.state = com.webapp.backend.model.CheckoutState.FAILED, "
+            + "c.errorCode = :errorCode, c.errorMessage = :errorMessage, c.activeUserId = NULL, c.owner = NULL, "
+            + "c.leaseUntil = NULL, c.updatedAt = :now WHERE c.id = :id AND c.owner = :owner AND c.orderId IS NULL")
+    int markFailed(@Param("id") String id, @Param("owner") String owner, @Param("errorCode") String errorCode,
+            @Param("errorMessage") String errorMessage, @Param("now") LocalDateTime now);
+
+    /**
+     * Siparişi oluşmuş isteği telafiye alır; hata bilgisi telafiden sonra da kalır
+     */
+    @Modifying
+    @Query("UPDATE CheckoutRequest c SET c.state = com.webapp.backend.model.CheckoutState.COMPENSATING, "
+            + "c.errorCode = :errorCode, c.errorMessage = :errorMessage, c.updatedAt = :now "
+            + "WHERE c.id = :id AND c.owner = :owner AND c.orderId IS NOT NULL")
+    int markCompensating(@Param("id") String id, @Param("owner") String owner, @Param("errorCode") String errorCode,
+            @Param("errorMessage") String errorMessage, @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("UPDATE CheckoutRequest c SET c.state = com.webapp.backend.model.CheckoutState.FAILED, "
+            + "c.activeUserId = NULL, c.owner = NULL, c.leaseUntil = NULL, c.updatedAt = :now "
+            + "WHERE c.id = :id AND c.owner = :owner AND c.state = com.webapp.backend.model.CheckoutState.COMPENSATING")
+    int markCompensated(@Param("id") String id, @Param("owner") String owner, @Param("now") LocalDateTime now);
+
+    /**
+     * Son durumdaki eski istekleri siler; (state, updated_at) indeksinden okunur
+     */
+    @Modifying
+    @Query("DELETE FROM CheckoutRequest c WHERE c.state IN :states AND c.updatedAt < :before")
+    int deleteFinishedBefore(@Param("states") Collection<CheckoutState> states,
+            @Param("before") LocalDateTime before);
+}
@@ -1,10 +1,15 @@
 package com.webapp.backend.repository;
 
+import java.util.Collection;
 import java.util.List;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import com.webapp.backend.dto.ProductSalesView;
 import com.webapp.backend.model.Order;
 import com.webapp.backend.model.OrderItem;
 import com.webapp.backend.model.Product;
@@ -13,4 +18,23 @@ import com.webapp.backend.model.Product;
 public interface OrderItemRepository extends JpaRepository<OrderItem, Long> {
     List<OrderItem> findByOrder(Order order);
     List<OrderItem> findByProduct(Product product);
+
+    @Query("SELECT oi.product.id AS productId, SUM(oi.quantity) AS unitsSold FROM OrderItem oi GROUP BY oi.product.id")
+    List<ProductSalesView> findUnitsSoldByProduct();
+
+    @Query("SELECT oi.product.id AS productId, SUM(oi.quantity) AS unitsSold FROM OrderItem oi "
+            + "WHERE oi.product.id IN :productIds GROUP BY oi.product.id")
+    List<ProductSalesView> findUnitsSoldByProductIds(@Param("productIds") Collection<Long> productIds);
+
+    /**
+     * Satıcının ürününü içeren siparişlerin id'leri, azalan sırada. (seller_id, order_id) indeksinden
+     * okunur; afterId verilen sorgu keyset sayfalamada sonraki sayfalar içindir.
+     */
+    @Query("SELECT DISTINCT oi.order.id FROM OrderItem oi WHERE oi.sellerId = :sellerId ORDER BY oi.order.id DESC")
+    List<Long> findOrderIdsBySeller(@Param("sellerId") Long sellerId, Pageable pageable);
+
+    @Query("SELECT DISTINCT oi.order.id FROM OrderItem oi WHERE oi.sellerId = :sellerId AND oi.order.id < :afterId "
+            + "ORDER BY oi.order.id DESC")
+    List<Long> findOrderIdsBySellerBefore(@Param("sellerId") Long sellerId, @Param("afterId") Long afterId,
+            Pageable pageable);
 } 
\ No newline at end of file
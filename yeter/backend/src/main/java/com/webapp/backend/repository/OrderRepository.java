@@ -2,7 +2,10 @@ package com.webapp.backend.repository;
 
 import java.util.List;
 
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import com.webapp.backend.model.Order;
@@ -15,4 +18,9 @@ public interface OrderRepository extends JpaRepository<Order, Long> {
     List<Order> findByUserOrderByOrderDateDesc(User user);
     List<Order> findByStatus(OrderStatus status);
     Order findByIdAndUser(Long id, User user);
+
+    // Siparişler satırları ve ürünleriyle tek sorguda yüklenir
+    @EntityGraph(attributePaths = {"orderItems", "orderItems.product"})
+    @Query("SELECT o FROM Order o WHERE o.id IN :ids")
+    List<Order> findWithItemsByIdIn(@Param("ids") List<Long> ids);
 } 
\ No newline at end of file
@@ -1,19 +1,76 @@
 package com.webapp.backend.repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import com.webapp.backend.dto.ChangedRowView;
+import com.webapp.backend.dto.ProductAttributeView;
+import com.webapp.backend.dto.ProductChangeView;
+import com.webapp.backend.dto.ProductSummaryView;
+import com.webapp.backend.dto.ProductTextView;
 import com.webapp.backend.model.Category;
 import com.webapp.backend.model.Product;
 import com.webapp.backend.model.User;
 
 @Repository
-public interface ProductRepository extends JpaRepository<Product, Long> {
+public interface ProductRepository extends JpaRepository<Product, Long>, JpaSpecificationExecutor<Product>,
+        ProductRepositoryCustom {
     List<Product> findByCategory(Category category);
     List<Product> findBySeller(User seller);
     List<Product> findByNameContainingIgnoreCase(String name);
     List<Product> findByPriceBetween(Double minPrice, Double maxPrice);
     List<Product> findByStockQuantityGreaterThan(Integer minStock);
-}
\ No newline at end of file
+
+    @Query("SELECT MAX(p.updatedAt) FROM Product p")
+    LocalDateTime findLastUpdatedAt();
+
+    /**
+     * (updated_at, id) sırasında verilen konumdan sonra değişen ürünler; yalnızca updated_at indeksi okunur
+     */
+    @Query("SELECT p.id AS id, p.updatedAt AS updatedAt FROM Product p WHERE p.updatedAt > :since "
+            + "OR (p.updatedAt = :since AND p.id > :afterId) ORDER BY p.updatedAt, p.id")
+    List<ChangedRowView> findChangedAfter(@Param("since") LocalDateTime since, @Param("afterId") Long afterId,
+            Pageable pageable);
+
+    @Query("SELECT p.id AS id, p.name AS name, p.description AS description, p.price AS price, "
+            + "p.image_url AS imageUrl, p.stockQuantity AS stockQuantity, c.id AS categoryId, "
+            + "p.seller.id AS sellerId FROM Product p LEFT JOIN p.category c WHERE p.id IN :ids")
+    List<ProductChangeView> findChangeViews(@Param("ids") Collection<Long> ids);
+
+    @Query("SELECT p.id FROM Product p WHERE p.category.id = :categoryId")
+    List<Long> findIdsByCategoryId(@Param("categoryId") Long categoryId);
+
+    @Query("SELECT p.id FROM Product p WHERE p.id > :afterId ORDER BY p.id")
+    List<Long> findIdsAfter(@Param("afterId") Long afterId, Pageable pageable);
+
+    @Query("SELECT p.id AS id, p.name AS name, p.description AS description FROM Product p "
+            + "WHERE p.id > :afterId ORDER BY p.id")
+    List<ProductTextView> findTextViewsAfter(@Param("afterId") Long afterId, Pageable pageable);
+
+    @Query("SELECT p.id AS id, c.id AS categoryId, p.seller.id AS sellerId, p.price AS price, "
+            + "p.stockQuantity AS stockQuantity FROM Product p LEFT JOIN p.category c "
+            + "WHERE p.id > :afterId ORDER BY p.id")
+    List<ProductAttributeView> findAttributeViewsAfter(@Param("afterId") Long afterId, Pageable pageable);
+
+    @Query("SELECT p.id AS id, p.name AS name, p.description AS description, p.price AS price, "
+            + "p.image_url AS imageUrl, p.stockQuantity AS stockQuantity, c.id AS categoryId, "
+            + "s.id AS sellerId, s.username AS sellerUsername, s.email AS sellerEmail, "
+            + "s.firstName AS sellerFirstName, s.lastName AS sellerLastName "
+            + "FROM Product p JOIN p.category c JOIN p.seller s ORDER BY c.id, p.id")
+    List<ProductSummaryView> findSummaryViews();
+
+    @Query("SELECT p.id AS id, p.name AS name, p.description AS description, p.price AS price, "
+            + "p.image_url AS imageUrl, p.stockQuantity AS stockQuantity, c.id AS categoryId, "
+            + "s.id AS sellerId, s.username AS sellerUsername, s.email AS sellerEmail, "
+            + "s.firstName AS sellerFirstName, s.lastName AS sellerLastName "
+            + "FROM Product p JOIN p.category c JOIN p.seller s WHERE c.id = :categoryId ORDER BY p.id")
+    List<ProductSummaryView> findSummaryViewsByCategoryId(@Param("categoryId") Long categoryId);
+}
@@ -0,0 +1,57 @@
+package com.webapp.backend.repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import com.webapp.backend.dto.ProductResponseDto;
+import com.webapp.backend.model.Product;
+
+/**
+ * Entity grafiği yüklemeden ürün görünümü okuyan sorgular ve stok için atomik toplu güncellemeler
+ */
+public interface ProductRepositoryCustom {
+
+    /**
+     * Specification'a uyan ürünleri yalnızca ProductResponseDto kolonlarını seçerek,
+     * kategori ve satıcıyla tek SQL'de birleştirip döndürür
+     */
+    List<ProductResponseDto> findViews(Specification<Product> spec, Sort sort, int limit);
+
+    /**
+     * Tüm ürün görünümlerini id sırasıyla ileri yönlü bir akış olarak okur.
+     * Akış açık bir transaction içinde tüketilmeli ve kapatılmalıdır.
+     */
+    Stream<ProductResponseDto> streamAllViews(int fetchSize);
+
+    /**
+     * Ürün id'si -> miktar çiftlerini tek bir JDBC batch'iyle düşer. Her satır yalnızca stok miktara
+     * yetiyorsa güncellenir (stock_quantity >= miktar), karar etkilenen satır sayısından okunur.
+     * Flash-sale kiraları stoğu önceden bu satırdan düşürdüğü için iki yol aynı stoğu paylaşır.
+     * Stoğu yetmeyen ürünlerin id'lerini döndürür; liste boş değilse diğer satırlar düşülmüş
+     * olacağından çağıran işlemi geri almalıdır.
+     */
+    List<Long> decrementStock(Map<Long, Integer> quantities);
+
+    /**
+     * İptal ve iadelerde stokları tek batch'te artırır
+     */
+    void incrementStock(Map<Long, Integer> quantities);
+
+    /**
+     * Yönetilen ürün entity'lerinin stok ve fiyat alanlarını veritabanındaki güncel değerlerle tek sorguda
+     * yeniler. Stok SQL ile değiştirildiği için entity'ler salt okunur işaretlenir; dirty checking eski
+     * alanlarla UPDATE üretmez.
+     */
+    void refreshStockAndPrice(Collection<Product> products);
+
+    /**
+     * Ürünün stok alanını yalnızca bellekte günceller (ör. SQL ile değişen stoğun güncel değeri); entity salt
+     * okunur işaretlenir, veritabanına yazılmaz.
+     */
+    void setStockInMemory(Product product, int stock);
+}
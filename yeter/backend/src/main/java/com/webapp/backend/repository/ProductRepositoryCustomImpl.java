@@ -0,0 +1,157 @@
+package com.webapp.backend.repository;
+
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.hibernate.Session;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+
+import com.webapp.backend.dto.ProductResponseDto;
+import com.webapp.backend.model.Category;
+import com.webapp.backend.model.Product;
+import com.webapp.backend.model.User;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.JoinType;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+
+public class ProductRepositoryCustomImpl implements ProductRepositoryCustom {
+
+    private static final String DECREMENT_STOCK_SQL =
+            "UPDATE products SET stock_quantity = stock_quantity - ? WHERE id = ? AND stock_quantity >= ?";
+    private static final String INCREMENT_STOCK_SQL =
+            "UPDATE products SET stock_quantity = stock_quantity + ? WHERE id = ?";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<ProductResponseDto> findViews(Specification<Product> spec, Sort sort, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<ProductResponseDto> query = cb.createQuery(ProductResponseDto.class);
+        Root<Product> root = query.from(Product.class);
+        // Kategori opsiyonel olduğu için LEFT JOIN; satıcı zorunlu
+        Join<Product, Category> category = root.join("category", JoinType.LEFT);
+        Join<Product, User> seller = root.join("seller", JoinType.INNER);
+
+        query.select(cb.construct(ProductResponseDto.class,
+                root.get("id"),
+                root.get("name"),
+                root.get("description"),
+                root.get("price"),
+                root.get("image_url"),
+                root.get("stockQuantity"),
+                category.get("id"),
+                category.get("name"),
+                seller.get("id"),
+                seller.get("username")));
+
+        if (spec != null) {
+            Predicate predicate = spec.toPredicate(root, query, cb);
+            if (predicate != null) {
+                query.where(predicate);
+            }
+        }
+        if (sort != null && sort.isSorted()) {
+            query.orderBy(QueryUtils.toOrders(sort, root, cb));
+        }
+
+        return entityManager.createQuery(query)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    @Override
+    public Stream<ProductResponseDto> streamAllViews(int fetchSize) {
+        // Constructor expression sonuçları persistence context'e girmez; satırlar okundukça bırakılabilir
+        return entityManager.createQuery("SELECT new com.webapp.backend.dto.ProductResponseDto("
+                        + "p.id, p.name, p.description, p.price, p.image_url, p.stockQuantity, "
+                        + "c.id, c.name, s.id, s.username) "
+                        + "FROM Product p LEFT JOIN p.category c JOIN p.seller s ORDER BY p.id",
+                        ProductResponseDto.class)
+                .setHint(HibernateHints.HINT_FETCH_SIZE, fetchSize)
+                .setHint(HibernateHints.HINT_READ_ONLY, true)
+                .getResultStream();
+    }
+
+    @Override
+    public List<Long> decrementStock(Map<Long, Integer> quantities) {
+        // Eşzamanlı siparişler satır kilitlerini aynı (id) sırada alır; karşılıklı kilitlenme oluşmaz
+        Map<Long, Integer> ordered = new TreeMap<>(quantities);
+        int[] counts = executeStockBatch(DECREMENT_STOCK_SQL, ordered, true);
+        List<Long> insufficient = new ArrayList<>();
+        int i = 0;
+        for (Long productId : ordered.keySet()) {
+            if (counts[i++] == 0) {
+                insufficient.add(productId);
+            }
+        }
+        return insufficient;
+    }
+
+    @Override
+    public void incrementStock(Map<Long, Integer> quantities) {
+        executeStockBatch(INCREMENT_STOCK_SQL, new TreeMap<>(quantities), false);
+    }
+
+    @Override
+    public void refreshStockAndPrice(Collection<Product> products) {
+        if (products.isEmpty()) {
+            return;
+        }
+        Map<Long, Product> byId = products.stream()
+                .collect(Collectors.toMap(Product::getId, Function.identity(), (a, b) -> a));
+        List<Object[]> rows = entityManager.createQuery(
+                        "SELECT p.id, p.stockQuantity, p.price FROM Product p WHERE p.id IN :ids", Object[].class)
+                .setParameter("ids", byId.keySet())
+                .getResultList();
+        for (Object[] row : rows) {
+            Product product = byId.get((Long) row[0]);
+            setStockInMemory(product, (Integer) row[1]);
+            product.setPrice((Double) row[2]);
+        }
+    }
+
+    @Override
+    public void setStockInMemory(Product product, int stock) {
+        Session session = entityManager.unwrap(Session.class);
+        if (session.contains(product)) {
+            session.setReadOnly(product, true);
+        }
+        product.setStock_quantity(stock);
+    }
+
+    private int[] executeStockBatch(String sql, Map<Long, Integer> quantities, boolean conditional) {
+        if (quantities.isEmpty()) {
+            return new int[0];
+        }
+        return entityManager.unwrap(Session.class).doReturningWork(connection -> {
+            try (PreparedStatement statement = connection.prepareStatement(sql)) {
+                for (Map.Entry<Long, Integer> line : quantities.entrySet()) {
+                    statement.setInt(1, line.getValue());
+                    statement.setLong(2, line.getKey());
+                    if (conditional) {
+                        statement.setInt(3, line.getValue());
+                    }
+                    statement.addBatch();
+                }
+                return statement.executeBatch();
+            }
+        });
+    }
+}
@@ -0,0 +1,74 @@
+package com.webapp.backend.repository;
+
+import java.util.Collection;
+
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import com.webapp.backend.dto.ProductPageRequest;
+import com.webapp.backend.model.Product;
+
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+
+/**
+ * Ürün sorguları için birleştirilebilir JPA Specification'ları
+ */
+public final class ProductSpecifications {
+
+    private ProductSpecifications() {
+        // Utility sınıfı olduğu için constructor private
+    }
+
+    // İlişkiler yabancı anahtar kolonu üzerinden karşılaştırılır; entity yüklenmez
+    public static Specification<Product> inCategory(Long categoryId) {
+        return (root, query, cb) -> cb.equal(root.get("category").get("id"), categoryId);
+    }
+
+    public static Specification<Product> bySeller(Long sellerId) {
+        return (root, query, cb) -> cb.equal(root.get("seller").get("id"), sellerId);
+    }
+
+    public static Specification<Product> idIn(Collection<Long> ids) {
+        return (root, query, cb) -> root.get("id").in(ids);
+    }
+
+    public static Specification<Product> nameContainsIgnoreCase(String name) {
+        String pattern = "%" + name.toLowerCase() + "%";
+        return (root, query, cb) -> cb.like(cb.lower(root.get("name")), pattern);
+    }
+
+    public static Specification<Product> priceBetween(Double minPrice, Double maxPrice) {
+        return (root, query, cb) -> cb.between(root.get("price"), minPrice, maxPrice);
+    }
+
+    public static Specification<Product> inStock() {
+        return (root, query, cb) -> cb.greaterThan(root.get("stockQuantity"), 0);
+    }
+
+    /**
+     * Keyset koşulu: cursor'daki (değer, id) ikilisinden sonra gelen satırlar.
+     * ASC için: key > v OR (key = v AND id > lastId), DESC için tersi.
+     */
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    public static Specification<Product> after(ProductPageRequest pageRequest) {
+        return (root, query, cb) -> {
+            if (!pageRequest.hasCursor()) {
+                return cb.conjunction();
+            }
+            boolean ascending = pageRequest.getDirection() == Sort.Direction.ASC;
+            Path<Long> id = root.get("id");
+            Long lastId = pageRequest.getAfterId();
+            Predicate idAfter = ascending ? cb.greaterThan(id, lastId) : cb.lessThan(id, lastId);
+
+            if (pageRequest.getSortKey() == ProductPageRequest.SortKey.ID) {
+                return idAfter;
+            }
+
+            Path<Comparable> key = root.get(pageRequest.getSortKey().getProperty());
+            Comparable lastValue = (Comparable) pageRequest.getAfterValue();
+            Predicate keyAfter = ascending ? cb.greaterThan(key, lastValue) : cb.lessThan(key, lastValue);
+            return cb.or(keyAfter, cb.and(cb.equal(key, lastValue), idAfter));
+        };
+    }
+}
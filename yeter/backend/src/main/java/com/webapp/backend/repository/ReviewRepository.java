@@ -1,13 +1,36 @@
 package com.webapp.backend.repository;
 
+import com.webapp.backend.dto.ProductRatingView;
+import com.webapp.backend.dto.ReviewChangeView;
 import com.webapp.backend.model.Review;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface ReviewRepository extends JpaRepository<Review, Long> {
     List<Review> findByProductId(Long productId);
     List<Review> findByUserId(Long userId);
-} 
\ No newline at end of file
+
+    @Query("SELECT r.productId AS productId, SUM(r.rating) AS ratingSum, COUNT(r) AS ratingCount "
+            + "FROM Review r GROUP BY r.productId")
+    List<ProductRatingView> findRatingSummaries();
+
+    @Query("SELECT r.productId AS productId, SUM(r.rating) AS ratingSum, COUNT(r) AS ratingCount "
+            + "FROM Review r WHERE r.productId = :productId GROUP BY r.productId")
+    Optional<ProductRatingView> findRatingSummary(@Param("productId") Long productId);
+
+    @Query("SELECT MAX(r.updatedAt) FROM Review r")
+    LocalDateTime findLastUpdatedAt();
+
+    @Query("SELECT r.id AS id, r.updatedAt AS updatedAt, r.productId AS productId FROM Review r "
+            + "WHERE r.updatedAt > :since OR (r.updatedAt = :since AND r.id > :afterId) ORDER BY r.updatedAt, r.id")
+    List<ReviewChangeView> findChangedAfter(@Param("since") LocalDateTime since, @Param("afterId") Long afterId,
+            Pageable pageable);
+}
@@ -14,5 +14,6 @@ public interface StripePaymentRepository extends JpaRepository<StripePayment, Lo
     StripePayment findByOrder(Order order);
     StripePayment findByStripePaymentId(String stripePaymentId);
     StripePayment findByPaymentIntentId(String paymentIntentId);
+    StripePayment findByIdempotencyKey(String idempotencyKey);
     List<StripePayment> findByStatus(PaymentStatus status);
 } 
\ No newline at end of file
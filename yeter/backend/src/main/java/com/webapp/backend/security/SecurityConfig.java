@@ -2,6 +2,7 @@ package com.webapp.backend.security;
 
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpMethod;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.config.annotation.authentication.configuration.AuthenticationConfiguration;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
@@ -17,6 +18,10 @@ import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
 
 import java.util.Arrays;
 
+import jakarta.servlet.DispatcherType;
+
+import com.webapp.backend.model.Role;
+
 @Configuration
 @EnableWebSecurity
 public class SecurityConfig {
@@ -34,10 +39,19 @@ public class SecurityConfig {
             .csrf(csrf -> csrf.disable())
             .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
             .authorizeHttpRequests(auth -> auth
+                // SSE gibi asenkron yanıtların devam dispatch'i; asıl istek zaten yetkilendirilmiştir
+                .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
                 .requestMatchers("/api/auth/**").permitAll()
+                // Flash-sale açma/kapatma ürünlerin genel iznine girmez; satıcı yalnızca kendi ürününü değiştirebilir
+                .requestMatchers(HttpMethod.PUT, "/api/products/*/flash-sale")
+                    .hasAnyAuthority(Role.ADMIN.name(), Role.SELLER.name())
+                // Toplu içe aktarma ve iş durumu yalnızca yönetici ve satıcılara açıktır
+                .requestMatchers("/api/products/import", "/api/products/import/**")
+                    .hasAnyAuthority(Role.ADMIN.name(), Role.SELLER.name())
                 .requestMatchers("/api/products/**").permitAll()
                 .requestMatchers("/api/categories/**").permitAll()
                 .requestMatchers("/api/users/**").permitAll()
+                .requestMatchers("/api/cart/guest", "/api/cart/guest/**").permitAll()
                 .anyRequest().authenticated()
             );
         
@@ -51,7 +65,7 @@ public class SecurityConfig {
         CorsConfiguration configuration = new CorsConfiguration();
         configuration.setAllowedOrigins(Arrays.asList("http://localhost:4200"));
         configuration.setAllowedMethods(Arrays.asList("GET", "POST", "PUT", "DELETE", "OPTIONS"));
-        configuration.setAllowedHeaders(Arrays.asList("Authorization", "Content-Type"));
+        configuration.setAllowedHeaders(Arrays.asList("Authorization", "Content-Type", "X-Guest-Cart"));
         configuration.setAllowCredentials(true);
         UrlBasedCorsConfigurationSource source = new UrlBasedCorsConfigurationSource();
         source.registerCorsConfiguration("/**", configuration);
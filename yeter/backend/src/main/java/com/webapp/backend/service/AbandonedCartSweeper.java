@@ -0,0 +1,202 @@
+package com.webapp.backend.service;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Uzun süredir değişmeyen sepetleri ve satırlarını silen zamanlanmış iş. Adaylar
+ * (updated_at, id) indeksi üzerinde keyset ile kilitsiz okunur; her parça kısa bir işlemde
+ * FOR UPDATE SKIP LOCKED ile kilitlenip silinir. Böylece iş birden fazla düğümde aynı anda
+ * çalışsa da aynı sepeti iki kez işlemez, başka bir düğümün kilitlediği satırları beklemez.
+ * Silinen sepet, kullanıcı sepetine yeniden eriştiğinde boş olarak oluşturulur. Yazılmayı bekleyen
+ * sepetler yazma işlemi boyunca kilitli olduğundan atlanır; başka bir düğümün bellekte tuttuğu sepet
+ * silinirse o düğüm sonraki yazmada sepet satırını yeniden oluşturur (CartStore).
+ */
+@Component
+public class AbandonedCartSweeper {
+
+    private static final Logger log = LoggerFactory.getLogger(AbandonedCartSweeper.class);
+
+    // Hiç değiştirilmemiş eski sepetlerde (kayıt sırasında oluşturulanlar) updated_at boştur
+    private static final String SELECT_UNTOUCHED_SQL =
+            "SELECT id, user_id, updated_at FROM carts WHERE updated_at IS NULL AND id > ? ORDER BY id LIMIT ?";
+    private static final String SELECT_IDLE_SQL =
+            "SELECT id, user_id, updated_at FROM carts WHERE updated_at < ? "
+            + "AND (updated_at > ? OR (updated_at = ? AND id > ?)) ORDER BY updated_at, id LIMIT ?";
+    private static final String LOCK_SQL =
+            "SELECT id FROM carts WHERE id IN (%s) AND (updated_at IS NULL OR updated_at < ?) "
+            + "FOR UPDATE SKIP LOCKED";
+    private static final String DELETE_ITEMS_SQL = "DELETE FROM cart_items WHERE cart_id IN (%s)";
+    private static final String DELETE_CARTS_SQL = "DELETE FROM carts WHERE id IN (%s)";
+
+    private static final LocalDateTime KEYSET_START = LocalDateTime.of(1970, 1, 1, 0, 0);
+
+    private record Candidate(long cartId, long userId, LocalDateTime updatedAt) {
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final CartStore cartStore;
+    private final boolean enabled;
+    private final Duration idleThreshold;
+    private final int chunkSize;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+    private final AtomicLong runs = new AtomicLong();
+    private final AtomicLong scannedCarts = new AtomicLong();
+    private final AtomicLong deletedCarts = new AtomicLong();
+    private final AtomicLong deletedItems = new AtomicLong();
+    private final AtomicLong skippedCarts = new AtomicLong();
+    private volatile Instant lastRunStartedAt;
+    private volatile long lastRunMillis;
+    private volatile long lastRunDeletedCarts;
+
+    public AbandonedCartSweeper(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+            CartStore cartStore,
+            @Value("${cart.sweeper.enabled:true}") boolean enabled,
+            @Value("${cart.sweeper.idle-days:30}") long idleDays,
+            @Value("${cart.sweeper.chunk-size:200}") int chunkSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.cartStore = cartStore;
+        this.enabled = enabled;
+        this.idleThreshold = Duration.ofDays(idleDays);
+        this.chunkSize = Math.max(1, chunkSize);
+    }
+
+    @Scheduled(initialDelayString = "${cart.sweeper.interval-ms:3600000}",
+            fixedDelayString = "${cart.sweeper.interval-ms:3600000}")
+    public void scheduledSweep() {
+        if (enabled) {
+            sweep();
+        }
+    }
+
+    /**
+     * Eşik tarihinden önce son değişmiş sepetleri parça parça siler ve silinen sepet sayısını döndürür.
+     * Aynı düğümde eşzamanlı ikinci bir çağrı hiçbir şey yapmadan döner.
+     */
+    public int sweep() {
+        if (!running.compareAndSet(false, true)) {
+            return 0;
+        }
+        long start = System.currentTimeMillis();
+        lastRunStartedAt = Instant.now();
+        Timestamp cutoff = Timestamp.valueOf(LocalDateTime.now().minus(idleThreshold));
+        int deleted = 0;
+        try {
+            long afterId = 0L;
+            List<Candidate> chunk;
+            do {
+                chunk = jdbcTemplate.query(SELECT_UNTOUCHED_SQL, (rs, rowNum) -> toCandidate(rs.getLong(1),
+                        rs.getLong(2), rs.getTimestamp(3)), afterId, chunkSize);
+                if (!chunk.isEmpty()) {
+                    afterId = chunk.get(chunk.size() - 1).cartId();
+                    deleted += deleteChunk(chunk, cutoff);
+                }
+            } while (chunk.size() == chunkSize);
+
+            Timestamp afterUpdated = Timestamp.valueOf(KEYSET_START);
+            afterId = 0L;
+            do {
+                chunk = jdbcTemplate.query(SELECT_IDLE_SQL, (rs, rowNum) -> toCandidate(rs.getLong(1),
+                        rs.getLong(2), rs.getTimestamp(3)), cutoff, afterUpdated, afterUpdated, afterId, chunkSize);
+                if (!chunk.isEmpty()) {
+                    Candidate last = chunk.get(chunk.size() - 1);
+                    afterUpdated = Timestamp.valueOf(last.updatedAt());
+                    afterId = last.cartId();
+                    deleted += deleteChunk(chunk, cutoff);
+                }
+            } while (chunk.size() == chunkSize);
+        } catch (RuntimeException e) {
+            log.warn("Terk edilmiş sepet temizliği yarıda kaldı; {} sepet silinmişti", deleted, e);
+        } finally {
+            lastRunMillis = System.currentTimeMillis() - start;
+            lastRunDeletedCarts = deleted;
+            runs.incrementAndGet();
+            running.set(false);
+        }
+        if (deleted > 0) {
+            log.info("Terk edilmiş sepet temizliği: {} sepet silindi, {} ms", deleted, lastRunMillis);
+        }
+        return deleted;
+    }
+
+    public Map<String, Object> getMetrics() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("enabled", enabled);
+        metrics.put("running", running.get());
+        metrics.put("runs", runs.get());
+        metrics.put("scannedCarts", scannedCarts.get());
+        metrics.put("deletedCarts", deletedCarts.get());
+        metrics.put("deletedItems", deletedItems.get());
+        metrics.put("skippedCarts", skippedCarts.get());
+        metrics.put("lastRunStartedAt", lastRunStartedAt);
+        metrics.put("lastRunMillis", lastRunMillis);
+        metrics.put("lastRunDeletedCarts", lastRunDeletedCarts);
+        return metrics;
+    }
+
+    /**
+     * Parçayı tek kısa işlemde siler. Bu arada güncellenmiş veya başka bir düğümce kilitlenmiş
+     * sepetler atlanır; silinen sepetlerin bu düğümdeki kopyaları commit sonrası bırakılır.
+     */
+    private int deleteChunk(List<Candidate> chunk, Timestamp cutoff) {
+        scannedCarts.addAndGet(chunk.size());
+        Object[] lockArgs = new Object[chunk.size() + 1];
+        for (int i = 0; i < chunk.size(); i++) {
+            lockArgs[i] = chunk.get(i).cartId();
+        }
+        lockArgs[chunk.size()] = cutoff;
+
+        List<Long> locked = transactionTemplate.execute(status -> {
+            List<Long> ids = jdbcTemplate.queryForList(String.format(LOCK_SQL, placeholders(chunk.size())),
+                    Long.class, lockArgs);
+            if (ids.isEmpty()) {
+                return Collections.<Long>emptyList();
+            }
+            Object[] idArgs = ids.toArray();
+            String in = placeholders(ids.size());
+            deletedItems.addAndGet(jdbcTemplate.update(String.format(DELETE_ITEMS_SQL, in), idArgs));
+            jdbcTemplate.update(String.format(DELETE_CARTS_SQL, in), idArgs);
+            return ids;
+        });
+
+        skippedCarts.addAndGet(chunk.size() - locked.size());
+        deletedCarts.addAndGet(locked.size());
+        Set<Long> lockedIds = new HashSet<>(locked);
+        for (Candidate candidate : chunk) {
+            if (lockedIds.contains(candidate.cartId())) {
+                cartStore.invalidate(candidate.userId());
+            }
+        }
+        return locked.size();
+    }
+
+    private static Candidate toCandidate(long cartId, long userId, Timestamp updatedAt) {
+        return new Candidate(cartId, userId, updatedAt != null ? updatedAt.toLocalDateTime() : null);
+    }
+
+    private static String placeholders(int count) {
+        return String.join(",", Collections.nCopies(count, "?"));
+    }
+}
@@ -0,0 +1,59 @@
+package com.webapp.backend.service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.springframework.stereotype.Component;
+
+import com.webapp.backend.dto.ProductResponseDto;
+
+/**
+ * Sepet fiyatlandırması için tutarlar kuruş cinsinden long olarak tutulur. Ürünün double fiyatı
+ * yalnızca okunduğu anda bir kez kuruşa çevrilir; toplamlar sonrasında tam sayı aritmetiğiyle
+ * güncellenir, dışarıya BigDecimal (sipariş, kupon) veya gösterim için Double olarak verilir.
+ */
+@Component
+public class CartPricing {
+
+    private static final int SCALE = 2;
+
+    private final ProductService productService;
+
+    public CartPricing(ProductService productService) {
+        this.productService = productService;
+    }
+
+    /**
+     * Ürünlerin güncel birim fiyatları (kuruş). Ürün önbelleği kullanılır, eksikler tek sorguda okunur;
+     * bulunamayan ürünler sonuçta yer almaz.
+     */
+    public Map<Long, Long> unitPrices(Collection<Long> productIds) {
+        if (productIds.isEmpty()) {
+            return Map.of();
+        }
+        Map<Long, Long> prices = new HashMap<>(productIds.size() * 2);
+        for (ProductResponseDto product : productService.findProductViews(new ArrayList<>(productIds)).getProducts()) {
+            prices.put(product.getId(), toMinor(product.getPrice()));
+        }
+        return prices;
+    }
+
+    public static long toMinor(Double price) {
+        if (price == null) {
+            return 0L;
+        }
+        return BigDecimal.valueOf(price).setScale(SCALE, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    public static BigDecimal toAmount(long minor) {
+        return BigDecimal.valueOf(minor, SCALE);
+    }
+
+    public static double toDouble(long minor) {
+        return minor / 100.0;
+    }
+}
@@ -1,98 +1,402 @@
 package com.webapp.backend.service;
 
+import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import com.webapp.backend.dto.CartBulkRequest;
+import com.webapp.backend.dto.CartBulkResponseDto;
+import com.webapp.backend.dto.CartResponseDto;
+import com.webapp.backend.dto.GuestCartResponseDto;
+import com.webapp.backend.dto.ProductResponseDto;
+import com.webapp.backend.exception.BadRequestException;
 import com.webapp.backend.model.Cart;
-import com.webapp.backend.model.Product;
 import com.webapp.backend.model.User;
 import com.webapp.backend.repository.CartRepository;
-import com.webapp.backend.repository.ProductRepository;
 
 @Service
 public class CartService {
 
+    private static final Logger log = LoggerFactory.getLogger(CartService.class);
+
+    public static final int DEFAULT_PAGE_SIZE = 100;
+    public static final int MAX_PAGE_SIZE = 500;
+
     private final CartRepository cartRepository;
-    private final ProductRepository productRepository;
+    private final CartStore cartStore;
+    private final ProductService productService;
+    private final GuestCartCodec guestCartCodec;
+    private final FlashSaleStock flashSaleStock;
 
     @Autowired
-    public CartService(CartRepository cartRepository, ProductRepository productRepository) {
+    public CartService(CartRepository cartRepository, CartStore cartStore, ProductService productService,
+            GuestCartCodec guestCartCodec, FlashSaleStock flashSaleStock) {
         this.cartRepository = cartRepository;
-        this.productRepository = productRepository;
+        this.cartStore = cartStore;
+        this.productService = productService;
+        this.guestCartCodec = guestCartCodec;
+        this.flashSaleStock = flashSaleStock;
     }
 
+    /**
+     * Sipariş oluşturma için sepet entity'si. Sepet deposunda bekleyen değişiklikler önce yazılır.
+     */
     public Cart getCartByUser(User user) {
-        Optional<Cart> existingCart = cartRepository.findByUser(user);
-        if (existingCart.isPresent()) {
-            return existingCart.get();
-        } else {
-            // Kullanıcının sepeti yoksa yeni bir sepet oluştur
-            Cart newCart = new Cart();
-            newCart.setUser(user);
-            newCart.setCreatedAt(LocalDateTime.now());
-            newCart.setUpdatedAt(LocalDateTime.now());
-            return cartRepository.save(newCart);
+        return cartStore.withFlushed(user.getId(), () -> {
+            Optional<Cart> existingCart = cartRepository.findByUser(user);
+            if (existingCart.isPresent()) {
+                return existingCart.get();
+            } else {
+                // Kullanıcının sepeti yoksa yeni bir sepet oluştur
+                Cart newCart = new Cart();
+                newCart.setUser(user);
+                newCart.setCreatedAt(LocalDateTime.now());
+                newCart.setUpdatedAt(LocalDateTime.now());
+                return cartRepository.save(newCart);
+            }
+        });
+    }
+
+    /**
+     * Sipariş sonrası sepeti mevcut işlem içinde JPA ile temizler. Bellekteki kopya hemen ve
+     * commit sonrasında bir kez daha bırakılır; böylece araya giren bir okuma commit öncesi
+     * halini depoda tutamaz.
+     */
+    public Cart clearCart(User user) {
+        Long userId = user.getId();
+        Cart cleared = cartStore.withFlushed(userId, () -> {
+            Cart cart = getCartByUser(user);
+            cart.clear();
+            Cart saved = cartRepository.save(cart);
+            cartStore.invalidate(userId);
+            return saved;
+        });
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    cartStore.invalidate(userId);
+                }
+            });
         }
+        return cleared;
+    }
+
+    /**
+     * Sepetin istenen sayfası. Toplam tutar ve satır sayısı sayfadan bağımsız olarak tüm sepet içindir.
+     */
+    public CartResponseDto getCart(Long userId, int page, int size) {
+        int offset = (int) Math.min((long) page * size, Integer.MAX_VALUE);
+        return toDto(cartStore.read(userId, offset, size), page, size);
     }
 
-    public Cart addProductToCart(User user, Long productId, Integer quantity) {
-        Cart cart = getCartByUser(user);
-        
+    public CartResponseDto addProductToCart(Long userId, Long productId, Integer quantity) {
         // Ürünü bul
-        Product product = productRepository.findById(productId)
+        ProductResponseDto product = productService.findProductView(productId)
                 .orElseThrow(() -> new RuntimeException("Ürün bulunamadı"));
-        
+
         // Stok kontrolü yap
-        if (product.getStock_quantity() < quantity) {
+        if (sellableStock(product) < quantity) {
             throw new RuntimeException("Yeterli stok yok");
         }
-        
+
         // Sepete ekle
-        cart.addItem(product, quantity);
-        
-        return cartRepository.save(cart);
+        return mutate(userId, cart -> cart.add(productId, quantity, CartPricing.toMinor(product.getPrice())));
     }
 
-    public Cart updateProductQuantity(User user, Long productId, Integer quantity) {
-        Cart cart = getCartByUser(user);
-        
+    public CartResponseDto updateProductQuantity(Long userId, Long productId, Integer quantity) {
         if (quantity <= 0) {
             // Eğer miktar 0 veya daha azsa, ürünü sepetten kaldır
-            cart.removeItem(productId);
+            return removeProductFromCart(userId, productId);
+        }
+
+        // Ürünü bul
+        ProductResponseDto product = productService.findProductView(productId)
+                .orElseThrow(() -> new RuntimeException("Ürün bulunamadı"));
+
+        // Stok kontrolü yap
+        if (sellableStock(product) < quantity) {
+            throw new RuntimeException("Yeterli stok yok");
+        }
+
+        // Aksi takdirde miktarı güncelle
+        return mutate(userId, cart -> cart.setQuantity(productId, quantity));
+    }
+
+    public CartResponseDto removeProductFromCart(Long userId, Long productId) {
+        return mutate(userId, cart -> cart.remove(productId));
+    }
+
+    public CartResponseDto clearCart(Long userId) {
+        return mutate(userId, CartState::clear);
+    }
+
+    /**
+     * İşlemleri tek kilit altında sırayla uygular ve sepeti bir kez kaydeder. Stok kontrolü için
+     * ürünler tek seferde okunur; ADD ve UPDATE sonrası satır miktarı ürün stoğunu aşamaz.
+     * Başarısız bir işlem sepeti değiştirmez ve sonraki işlemlerin uygulanmasını engellemez.
+     */
+    public CartBulkResponseDto applyBulk(Long userId, List<CartBulkRequest.Operation> operations) {
+        List<Long> productIds = operations.stream()
+                .filter(operation -> operation.getType() != CartBulkRequest.Type.REMOVE)
+                .map(CartBulkRequest.Operation::getProductId)
+                .distinct()
+                .toList();
+        Map<Long, ProductResponseDto> products = productViews(productIds);
+
+        List<CartBulkResponseDto.OperationResult> results = new ArrayList<>(operations.size());
+        CartState cart = cartStore.update(userId, state -> {
+            for (int i = 0; i < operations.size(); i++) {
+                CartBulkRequest.Operation operation = operations.get(i);
+                String error = apply(state, operation, products.get(operation.getProductId()));
+                results.add(new CartBulkResponseDto.OperationResult(i, operation.getType(),
+                        operation.getProductId(), error == null, error));
+            }
+        }, DEFAULT_PAGE_SIZE);
+        return new CartBulkResponseDto(results, toDto(cart, 0, DEFAULT_PAGE_SIZE));
+    }
+
+    /**
+     * Tek işlemi uygular; başarısızsa nedenini döndürür
+     */
+    private String apply(CartState cart, CartBulkRequest.Operation operation, ProductResponseDto product) {
+        long productId = operation.getProductId();
+        if (operation.getType() == CartBulkRequest.Type.REMOVE) {
+            cart.remove(productId);
+            return null;
+        }
+        if (product == null) {
+            return "Ürün bulunamadı";
+        }
+
+        int target;
+        if (operation.getType() == CartBulkRequest.Type.ADD) {
+            int quantity = operation.getQuantity() != null ? operation.getQuantity() : 1;
+            if (quantity < 1) {
+                return "Miktar en az 1 olmalıdır";
+            }
+            target = cart.quantityOf(productId) + quantity;
         } else {
-            // Ürünü bul
-            Product product = productRepository.findById(productId)
-                    .orElseThrow(() -> new RuntimeException("Ürün bulunamadı"));
-            
-            // Stok kontrolü yap
-            if (product.getStock_quantity() < quantity) {
-                throw new RuntimeException("Yeterli stok yok");
+            if (operation.getQuantity() == null) {
+                return "Miktar belirtilmelidir";
+            }
+            if (operation.getQuantity() <= 0) {
+                cart.remove(productId);
+                return null;
             }
-            
-            // Aksi takdirde miktarı güncelle
-            cart.updateItemQuantity(productId, quantity);
+            if (cart.quantityOf(productId) == 0) {
+                return "Ürün sepette değil";
+            }
+            target = operation.getQuantity();
+        }
+
+        if (sellableStock(product) < target) {
+            return "Yeterli stok yok";
+        }
+        if (operation.getType() == CartBulkRequest.Type.ADD) {
+            cart.add(productId, target - cart.quantityOf(productId), CartPricing.toMinor(product.getPrice()));
+        } else {
+            cart.setQuantity(productId, target);
         }
-        
-        return cartRepository.save(cart);
+        return null;
     }
 
-    public Cart removeProductFromCart(User user, Long productId) {
-        Cart cart = getCartByUser(user);
-        cart.removeItem(productId);
-        return cartRepository.save(cart);
+    /**
+     * Misafir sepeti istemcideki imzalı token'da tutulur; bu işlemler veritabanına yazmaz, ürünler
+     * yalnızca fiyat ve stok için okunur. Her yanıt sepetin yeni token'ını içerir.
+     */
+    public GuestCartResponseDto getGuestCart(String token) {
+        return toGuestResponse(decodeGuestCart(token));
     }
 
-    public Cart clearCart(User user) {
-        Cart cart = getCartByUser(user);
-        cart.clear();
-        return cartRepository.save(cart);
+    public GuestCartResponseDto addProductToGuestCart(String token, Long productId, Integer quantity) {
+        Map<Long, Integer> lines = decodeGuestCart(token);
+        ProductResponseDto product = productService.findProductView(productId)
+                .orElseThrow(() -> new RuntimeException("Ürün bulunamadı"));
+
+        int target = lines.getOrDefault(productId, 0) + quantity;
+        if (sellableStock(product) < target) {
+            throw new RuntimeException("Yeterli stok yok");
+        }
+        if (!lines.containsKey(productId) && lines.size() >= guestCartCodec.getMaxLines()) {
+            throw new RuntimeException("Misafir sepetinde en fazla " + guestCartCodec.getMaxLines()
+                    + " farklı ürün olabilir");
+        }
+        lines.put(productId, target);
+        return toGuestResponse(lines);
+    }
+
+    public GuestCartResponseDto updateGuestProductQuantity(String token, Long productId, Integer quantity) {
+        Map<Long, Integer> lines = decodeGuestCart(token);
+        if (quantity <= 0) {
+            lines.remove(productId);
+            return toGuestResponse(lines);
+        }
+        ProductResponseDto product = productService.findProductView(productId)
+                .orElseThrow(() -> new RuntimeException("Ürün bulunamadı"));
+
+        if (sellableStock(product) < quantity) {
+            throw new RuntimeException("Yeterli stok yok");
+        }
+        lines.replace(productId, quantity);
+        return toGuestResponse(lines);
+    }
+
+    public GuestCartResponseDto removeProductFromGuestCart(String token, Long productId) {
+        Map<Long, Integer> lines = decodeGuestCart(token);
+        lines.remove(productId);
+        return toGuestResponse(lines);
+    }
+
+    /**
+     * Girişte misafir sepetini kullanıcının sepetine tek kilit altında ekler ve sepeti bir kez kaydeder.
+     * Her iki sepette de olan ürünlerin miktarları toplanır, ürün stoğuyla sınırlanır; artık mevcut
+     * olmayan ürünler atlanır. Geçersiz veya süresi dolmuş token girişi engellemez, hiçbir şey eklenmez.
+     * Aktarılan satır sayısını döndürür; istemci sonrasında misafir token'ını silmelidir.
+     */
+    public int mergeGuestCart(Long userId, String token) {
+        Map<Long, Integer> lines;
+        try {
+            lines = guestCartCodec.decode(token).lines();
+        } catch (IllegalArgumentException e) {
+            log.debug("Kullanıcı {} için misafir sepeti yok sayıldı: {}", userId, e.getMessage());
+            return 0;
+        }
+        if (lines.isEmpty()) {
+            return 0;
+        }
+        Map<Long, ProductResponseDto> products = productViews(lines.keySet());
+        int[] merged = { 0 };
+        cartStore.update(userId, cart -> {
+            for (Map.Entry<Long, Integer> line : lines.entrySet()) {
+                ProductResponseDto product = products.get(line.getKey());
+                if (product == null) {
+                    continue;
+                }
+                int current = cart.quantityOf(line.getKey());
+                int target = (int) Math.min((long) current + line.getValue(), sellableStock(product));
+                if (target > current) {
+                    cart.add(line.getKey(), target - current, CartPricing.toMinor(product.getPrice()));
+                    merged[0]++;
+                }
+            }
+        }, DEFAULT_PAGE_SIZE);
+        return merged[0];
+    }
+
+    /**
+     * Flash-sale ürünlerinde bu düğümün kiraladığı birimler veritabanındaki stoktan düşülmüş olduğu için
+     * satılabilir stoğa geri eklenir
+     */
+    private int sellableStock(ProductResponseDto product) {
+        return product.getStock_quantity() + flashSaleStock.leasedStock(product.getId());
     }
-    
-    public Double getCartTotal(User user) {
-        Cart cart = getCartByUser(user);
-        return cart.getTotalPrice();
+
+    public Double getCartTotal(Long userId) {
+        return CartPricing.toDouble(cartStore.subtotalMinor(userId));
+    }
+
+    /**
+     * Kupon için sepet ara toplamı; bellekte tutulan toplamdan okunur
+     */
+    public BigDecimal getCartSubtotal(Long userId) {
+        return CartPricing.toAmount(cartStore.subtotalMinor(userId));
+    }
+
+    private CartResponseDto mutate(Long userId, Consumer<CartState> mutator) {
+        return toDto(cartStore.update(userId, mutator, DEFAULT_PAGE_SIZE), 0, DEFAULT_PAGE_SIZE);
+    }
+
+    private Map<Long, Integer> decodeGuestCart(String token) {
+        try {
+            return guestCartCodec.decode(token).lines();
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException(e.getMessage());
+        }
+    }
+
+    /**
+     * Misafir sepetini güncel ürünlerle fiyatlandırıp yanıta çevirir. Artık mevcut olmayan ürünler
+     * yeni token'a yazılmaz.
+     */
+    private GuestCartResponseDto toGuestResponse(Map<Long, Integer> lines) {
+        Map<Long, ProductResponseDto> products = productViews(lines.keySet());
+        Map<Long, Integer> available = new LinkedHashMap<>();
+        LocalDateTime now = LocalDateTime.now();
+        CartState cart = new CartState(0L, 0L, now, now);
+        for (Map.Entry<Long, Integer> line : lines.entrySet()) {
+            ProductResponseDto product = products.get(line.getKey());
+            if (product != null) {
+                available.put(line.getKey(), line.getValue());
+                cart.add(line.getKey(), line.getValue(), CartPricing.toMinor(product.getPrice()));
+            }
+        }
+        CartResponseDto dto = toDto(cart, 0, Math.max(DEFAULT_PAGE_SIZE, available.size()));
+        dto.setId(null);
+        dto.setUserId(null);
+        return new GuestCartResponseDto(guestCartCodec.encode(available), dto);
+    }
+
+    /**
+     * Ürün görünümleri id'ye göre; önbellek kullanılır, eksikler tek sorguda okunur
+     */
+    private Map<Long, ProductResponseDto> productViews(Collection<Long> productIds) {
+        if (productIds.isEmpty()) {
+            return Map.of();
+        }
+        return productService.findProductViews(new ArrayList<>(productIds)).getProducts().stream()
+                .collect(Collectors.toMap(ProductResponseDto::getId, Function.identity()));
+    }
+
+    /**
+     * Sayfa satırlarını ürün görünümleriyle birleştirir. Ürün adı ve görseli için yalnızca sayfadaki
+     * ürünler okunur (önbellek, eksikler tek IN sorgusu); fiyatlar ve toplamlar sepetin kuruş
+     * cinsinden tuttuğu değerlerden gelir, burada yeniden hesaplanmaz.
+     */
+    private CartResponseDto toDto(CartState cart, int page, int size) {
+        List<Long> productIds = cart.getLines().stream().map(CartState.Line::getProductId).toList();
+        Map<Long, ProductResponseDto> products = productViews(productIds);
+
+        CartResponseDto dto = new CartResponseDto();
+        dto.setId(cart.getCartId());
+        dto.setUserId(cart.getUserId());
+        dto.setUpdatedAt(cart.getUpdatedAt());
+
+        List<CartResponseDto.CartItemDto> items = new ArrayList<>(productIds.size());
+        for (CartState.Line line : cart.getLines()) {
+            ProductResponseDto product = products.get(line.getProductId());
+            if (product == null) {
+                continue;
+            }
+            items.add(new CartResponseDto.CartItemDto(
+                    line.getItemId(),
+                    new CartResponseDto.ProductSummaryDto(product.getId(), product.getName(),
+                            CartPricing.toDouble(line.getUnitPriceMinor()), product.getImage_url()),
+                    line.getQuantity(),
+                    CartPricing.toDouble(line.getSubtotalMinor())));
+        }
+        int count = cart.getAvailableLines();
+        dto.setItems(items);
+        dto.setTotalPrice(CartPricing.toDouble(cart.getSubtotalMinor()));
+        dto.setItemCount(count);
+        dto.setPage(page);
+        dto.setSize(size);
+        dto.setTotalPages((count + size - 1) / size);
+        return dto;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,378 @@
+package com.webapp.backend.service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * CartStore'da tutulan sepetin bellek içi hali. Satırlar ürün id'sine göre eklenme sırasında
+ * tutulur; her satır veritabanındaki cart_items kaydına göre kirli olup olmadığını bilir,
+ * böylece flush sırasında sepetin tamamı yerine yalnızca değişen satırlar yazılır.
+ * Satır birim fiyatları ve sepet ara toplamı kuruş cinsinden tutulur ve her değişiklikte
+ * yalnızca etkilenen satırın katkısı kadar güncellenir.
+ * Eşzamanlılık CartStore'un parça kilidiyle sağlanır; sınıfın kendisi thread-safe değildir.
+ */
+final class CartState {
+
+    static final class Line {
+        private Long itemId; // Henüz yazılmamış satırlarda null
+        private final long productId;
+        private int quantity;
+        private final LocalDateTime addedAt;
+        private boolean dirty;
+        private long unitPriceMinor;
+        private boolean available; // Ürün artık yoksa false; toplama ve sayfalara dahil edilmez
+
+        Line(Long itemId, long productId, int quantity, LocalDateTime addedAt) {
+            this.itemId = itemId;
+            this.productId = productId;
+            this.quantity = quantity;
+            this.addedAt = addedAt;
+        }
+
+        private Line(Line source) {
+            this(source.itemId, source.productId, source.quantity, source.addedAt);
+            this.unitPriceMinor = source.unitPriceMinor;
+            this.available = source.available;
+        }
+
+        Long getItemId() {
+            return itemId;
+        }
+
+        long getProductId() {
+            return productId;
+        }
+
+        int getQuantity() {
+            return quantity;
+        }
+
+        LocalDateTime getAddedAt() {
+            return addedAt;
+        }
+
+        boolean isDirty() {
+            return dirty;
+        }
+
+        long getUnitPriceMinor() {
+            return unitPriceMinor;
+        }
+
+        long getSubtotalMinor() {
+            return available ? unitPriceMinor * quantity : 0L;
+        }
+
+        boolean isAvailable() {
+            return available;
+        }
+    }
+
+    private final long userId;
+    private long cartId; // Satır başka bir düğümce silinip yeniden oluşturulursa değişir
+    private final LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+    private final Map<Long, Line> lines = new LinkedHashMap<>();
+    // Veritabanında olup bellekte kaldırılmış satırlar; sonraki flush'ta silinir
+    private final List<Long> removedItemIds = new ArrayList<>();
+    private boolean dirty;
+    // İlk yazılmamış değişikliğin zamanı ve art arda başarısız flush sayısı; başarılı flush'ta sıfırlanır
+    private long dirtySinceNanos;
+    private int failedFlushes;
+    private long retryAtNanos;
+    private long lastAccessNanos;
+    private long subtotalMinor;
+    private int availableLines;
+    // Son okumadan bu yana eklenen satırların ürün id'leri; CartStore ters indeksi için
+    private final List<Long> newProductIds = new ArrayList<>();
+
+    CartState(long userId, long cartId, LocalDateTime createdAt, LocalDateTime updatedAt) {
+        this.userId = userId;
+        this.cartId = cartId;
+        this.createdAt = createdAt;
+        this.updatedAt = updatedAt;
+        this.lastAccessNanos = System.nanoTime();
+    }
+
+    /**
+     * Veritabanından okunan, kirli olmayan satırı ekler. Satır applyPrices çağrılana kadar fiyatsızdır.
+     */
+    void load(long itemId, long productId, int quantity, LocalDateTime addedAt) {
+        lines.put(productId, new Line(itemId, productId, quantity, addedAt));
+    }
+
+    /**
+     * Yüklemeden sonra tüm satırları tek seferde fiyatlar; haritada olmayan ürünler kullanılamaz sayılır
+     */
+    void applyPrices(Map<Long, Long> unitPricesMinor) {
+        subtotalMinor = 0L;
+        availableLines = 0;
+        for (Line line : lines.values()) {
+            Long price = unitPricesMinor.get(line.productId);
+            line.available = price != null;
+            line.unitPriceMinor = price != null ? price : 0L;
+            subtotalMinor += line.getSubtotalMinor();
+            if (line.available) {
+                availableLines++;
+            }
+        }
+    }
+
+    /**
+     * Ürünün fiyatı değiştiğinde veya ürün silindiğinde satırın toplama katkısını günceller.
+     * Sepet kirli işaretlenmez; fiyat veritabanındaki sepet satırının parçası değildir.
+     */
+    boolean reprice(long productId, long unitPriceMinor, boolean available) {
+        Line line = lines.get(productId);
+        if (line == null) {
+            return false;
+        }
+        detach(line);
+        line.unitPriceMinor = unitPriceMinor;
+        line.available = available;
+        attach(line);
+        return true;
+    }
+
+    /**
+     * Sepette olmayan ürünler için 0
+     */
+    int quantityOf(long productId) {
+        Line line = lines.get(productId);
+        return line != null ? line.quantity : 0;
+    }
+
+    /**
+     * unitPriceMinor, stok kontrolü için okunan güncel fiyattır; mevcut satırın fiyatı da onunla yenilenir
+     */
+    void add(long productId, int quantity, long unitPriceMinor) {
+        Line line = lines.get(productId);
+        if (line != null) {
+            detach(line);
+            line.quantity += quantity;
+        } else {
+            line = new Line(null, productId, quantity, LocalDateTime.now());
+            lines.put(productId, line);
+            newProductIds.add(productId);
+        }
+        line.unitPriceMinor = unitPriceMinor;
+        line.available = true;
+        line.dirty = true;
+        attach(line);
+        touch();
+    }
+
+    /**
+     * Sepette olmayan ürünler için hiçbir şey yapmaz
+     */
+    void setQuantity(long productId, int quantity) {
+        Line line = lines.get(productId);
+        if (line != null && line.quantity != quantity) {
+            detach(line);
+            line.quantity = quantity;
+            attach(line);
+            line.dirty = true;
+            touch();
+        }
+    }
+
+    void remove(long productId) {
+        Line line = lines.remove(productId);
+        if (line != null) {
+            detach(line);
+            if (line.itemId != null) {
+                removedItemIds.add(line.itemId);
+            }
+            touch();
+        }
+    }
+
+    void clear() {
+        if (lines.isEmpty()) {
+            return;
+        }
+        for (Line line : lines.values()) {
+            if (line.itemId != null) {
+                removedItemIds.add(line.itemId);
+            }
+        }
+        lines.clear();
+        subtotalMinor = 0L;
+        availableLines = 0;
+        touch();
+    }
+
+    /**
+     * Başarılı bir flush sonrası yeni satırlara üretilen id'leri atar ve kirli işaretlerini temizler.
+     * insertedLines, flush'ın eklediği satırlarla aynı sıradadır.
+     */
+    void markFlushed(List<Line> insertedLines, long[] insertedIds) {
+        for (int i = 0; i < insertedLines.size(); i++) {
+            insertedLines.get(i).itemId = insertedIds[i];
+        }
+        for (Line line : lines.values()) {
+            line.dirty = false;
+        }
+        removedItemIds.clear();
+        dirty = false;
+        failedFlushes = 0;
+        retryAtNanos = 0L;
+    }
+
+    /**
+     * Veritabanındaki sepet satırı silinip yeniden oluşturulduktan veya kullanıcının başka bir sepet
+     * satırı benimsendikten sonra çağrılır. existingItemIds o sepetteki satırlardır (ürün id'si -> satır id'si):
+     * bellekteki satırlar bunların üzerine yazılır, bellekte olmayanlar silinmek üzere işaretlenir.
+     * Tüm satırlar kirli sayılır; sonraki flush veritabanındaki sepeti bellekteki hale getirir.
+     */
+    void rebase(long newCartId, Map<Long, Long> existingItemIds) {
+        cartId = newCartId;
+        removedItemIds.clear();
+        for (Map.Entry<Long, Long> entry : existingItemIds.entrySet()) {
+            if (!lines.containsKey(entry.getKey())) {
+                removedItemIds.add(entry.getValue());
+            }
+        }
+        for (Line line : lines.values()) {
+            line.itemId = existingItemIds.get(line.productId);
+            line.dirty = true;
+        }
+        if (!dirty) {
+            dirtySinceNanos = System.nanoTime();
+        }
+        dirty = true;
+    }
+
+    /**
+     * Yazılamayan sepeti kirli bırakır ve sonraki denemeyi backoffNanos sonrasına erteler.
+     * Art arda başarısız deneme sayısını döndürür.
+     */
+    int flushFailed(long backoffNanos) {
+        retryAtNanos = System.nanoTime() + backoffNanos;
+        return ++failedFlushes;
+    }
+
+    /**
+     * Sepet hiç başarısız olmadıysa veya bekleme süresi dolduysa true
+     */
+    boolean isRetryDue(long nowNanos) {
+        return failedFlushes == 0 || nowNanos - retryAtNanos >= 0;
+    }
+
+    int getFailedFlushes() {
+        return failedFlushes;
+    }
+
+    /**
+     * Yazılmamış en eski değişikliğin zamanı (System.nanoTime); yalnızca kirli sepetlerde anlamlıdır
+     */
+    long getDirtySinceNanos() {
+        return dirtySinceNanos;
+    }
+
+    /**
+     * Okuma amaçlı, kilit dışında kullanılabilecek bağımsız kopya. Ara toplam ve satır sayısı tüm sepet için korunur; satırlardan yalnızca kullanılabilir
+     * olanların [offset, offset + limit) aralığı kopyalanır
+     */
+    CartState copy(int offset, int limit) {
+        CartState copy = new CartState(userId, cartId, createdAt, updatedAt);
+        copy.subtotalMinor = subtotalMinor;
+        copy.availableLines = availableLines;
+        int index = 0;
+        for (Line line : lines.values()) {
+            if (!line.available) {
+                continue;
+            }
+            if (index - offset >= limit) {
+                break;
+            }
+            if (index >= offset) {
+                copy.lines.put(line.productId, new Line(line));
+            }
+            index++;
+        }
+        return copy;
+    }
+
+    /**
+     * Son çağrıdan bu yana eklenen satırların ürün id'lerini döndürür ve listeyi boşaltır
+     */
+    List<Long> drainNewProductIds() {
+        if (newProductIds.isEmpty()) {
+            return List.of();
+        }
+        List<Long> drained = new ArrayList<>(newProductIds);
+        newProductIds.clear();
+        return drained;
+    }
+
+    long getUserId() {
+        return userId;
+    }
+
+    long getCartId() {
+        return cartId;
+    }
+
+    LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    Collection<Line> getLines() {
+        return Collections.unmodifiableCollection(lines.values());
+    }
+
+    List<Long> getRemovedItemIds() {
+        return removedItemIds;
+    }
+
+    boolean isDirty() {
+        return dirty;
+    }
+
+    long getSubtotalMinor() {
+        return subtotalMinor;
+    }
+
+    /**
+     * Ürünü hâlâ mevcut olan satır sayısı
+     */
+    int getAvailableLines() {
+        return availableLines;
+    }
+
+    long getLastAccessNanos() {
+        return lastAccessNanos;
+    }
+
+    void accessed() {
+        lastAccessNanos = System.nanoTime();
+    }
+
+    private void detach(Line line) {
+        subtotalMinor -= line.getSubtotalMinor();
+        if (line.available) {
+            availableLines--;
+        }
+    }
+
+    private void attach(Line line) {
+        subtotalMinor += line.getSubtotalMinor();
+        if (line.available) {
+            availableLines++;
+        }
+    }
+
+    private void touch() {
+        updatedAt = LocalDateTime.now();
+        if (!dirty) {
+            dirtySinceNanos = System.nanoTime();
+        }
+        dirty = true;
+    }
+}
@@ -0,0 +1,733 @@
+package com.webapp.backend.service;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.webapp.backend.event.ProductBatchChangedEvent;
+import com.webapp.backend.event.ProductChangedEvent;
+import com.webapp.backend.exception.ServiceUnavailableException;
+import com.webapp.backend.model.Product;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Aktif sepetlerin bellek içi deposu. Sepetler kullanıcı id'sine göre kilitli parçalara (shard)
+ * dağıtılır; farklı parçalardaki kullanıcıların işlemleri birbirini beklemez.
+ * <p>
+ * write-through modunda (varsayılan) her değişiklik aynı istekte veritabanına yazılır ve sepet
+ * bellekte tutulmaz. write-behind modunda okumalar bellekten karşılanır; değişen sepetler
+ * flush aralığında parça parça, tek işlemde JDBC batch'leriyle yazılır. Aynı sepete aralık içinde
+ * yapılan değişiklikler tek yazmada birleşir. Tahliye edilen kirli sepetler tahliyeden önce,
+ * kalanlar kapanışta yazılır; ani bir çökmede en fazla bir flush aralığı kadar değişiklik kaybolur.
+ * Yazılamayan sepetler bırakılmaz: kirli kalır ve artan aralıklarla yeniden denenir. max-lag
+ * ayarlandığında yazılmamış en eski değişiklik bu süreyi aşınca yeni değişiklikler reddedilir;
+ * böylece veritabanı erişilemezken kaybedilebilecek değişiklik penceresi sınırlı kalır.
+ * Bellekteki bir sepetin satırı bu arada silinmişse (ör. başka bir düğümde çalışan terk edilmiş sepet
+ * temizliği) yazma sırasında fark edilir; sepet satırı yeniden oluşturulur ve bellekteki hal yazılır.
+ * Bellekteki sepetlerin ara toplamları, ürün → sepet ters indeksiyle yalnızca fiyatı değişen
+ * ürünü içeren sepetlerde güncellenir.
+ */
+@Component
+public class CartStore {
+
+    private static final Logger log = LoggerFactory.getLogger(CartStore.class);
+
+    public enum Mode {
+        WRITE_THROUGH,
+        WRITE_BEHIND
+    }
+
+    private static final String SELECT_CART_SQL =
+            "SELECT id, created_at, updated_at FROM carts WHERE user_id = ?";
+    private static final String INSERT_CART_SQL =
+            "INSERT INTO carts (user_id, created_at, updated_at) VALUES (?, ?, ?)";
+    private static final String SELECT_ITEMS_SQL =
+            "SELECT id, product_id, quantity, added_at FROM cart_items WHERE cart_id = ? ORDER BY id";
+    private static final String DELETE_ITEM_SQL = "DELETE FROM cart_items WHERE id = ?";
+    private static final String UPDATE_ITEM_SQL = "UPDATE cart_items SET quantity = ? WHERE id = ?";
+    private static final String INSERT_ITEM_SQL =
+            "INSERT INTO cart_items (cart_id, product_id, quantity, added_at) VALUES (?, ?, ?, ?)";
+    private static final String UPDATE_CART_SQL = "UPDATE carts SET updated_at = ? WHERE id = ?";
+    private static final String LOCK_USER_CART_SQL = "SELECT id FROM carts WHERE user_id = ? FOR UPDATE";
+    private static final String SELECT_ITEM_IDS_SQL = "SELECT product_id, id FROM cart_items WHERE cart_id = ?";
+
+    /**
+     * Yazılan sepetlerden bazılarının satırı veritabanında yok; işlem geri alınır
+     */
+    private static final class MissingCartsException extends RuntimeException {
+
+        private static final long serialVersionUID = 1L;
+
+        private final transient List<CartState> states;
+
+        private MissingCartsException(List<CartState> states) {
+            super(states.size() + " sepet satırı bulunamadı");
+            this.states = states;
+        }
+    }
+
+    private static final class Shard {
+        private final ReentrantLock lock = new ReentrantLock();
+        // Tahliye için son erişim zamanı CartState'te tutulur; fiyat güncellemeleri erişim sayılmaz
+        private final Map<Long, CartState> carts = new HashMap<>();
+        // Eklenme sıralı kirli sepetler; flush yalnızca bunları dolaşır
+        private final Map<Long, CartState> dirtyCarts = new LinkedHashMap<>();
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final CartPricing pricing;
+    private final Mode mode;
+    private final Shard[] shards;
+    private final int maxCartsPerShard;
+    private final long idleNanos;
+    private final long retryBackoffNanos;
+    private final long maxRetryBackoffNanos;
+    private final long maxLagNanos;
+    // Ürün id'si -> ürünü içeren bellekteki sepetlerin kullanıcı id'leri. Satır çıkarmalarında
+    // güncellenmez (üst küme); fazlalıklar fiyat olayında veya sepet tahliyesinde temizlenir.
+    private final Map<Long, Set<Long>> userIdsByProduct = new ConcurrentHashMap<>();
+
+    private final AtomicInteger size = new AtomicInteger();
+    private final AtomicLong flushes = new AtomicLong();
+    private final AtomicLong flushedCarts = new AtomicLong();
+    private final AtomicLong flushFailures = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private final AtomicLong rejectedUpdates = new AtomicLong();
+    private volatile long lastFlushMillis;
+    // Her flush turu sonunda hesaplanan, yazılmamış en eski değişikliğin zamanı; yoksa null
+    private volatile Long oldestUnflushedNanos;
+
+    public CartStore(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager, CartPricing pricing,
+            @Value("${cart.store.mode:write-through}") String mode,
+            @Value("${cart.store.shards:64}") int shardCount,
+            @Value("${cart.store.max-carts:100000}") int maxCarts,
+            @Value("${cart.store.idle-seconds:1800}") long idleSeconds,
+            @Value("${cart.store.retry-backoff-ms:1000}") long retryBackoffMs,
+            @Value("${cart.store.max-retry-backoff-ms:60000}") long maxRetryBackoffMs,
+            @Value("${cart.store.max-lag-ms:0}") long maxLagMs) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.pricing = pricing;
+        this.mode = Mode.valueOf(mode.trim().toUpperCase(Locale.ROOT).replace('-', '_'));
+        this.shards = new Shard[Math.max(1, shardCount)];
+        for (int i = 0; i < shards.length; i++) {
+            shards[i] = new Shard();
+        }
+        this.maxCartsPerShard = Math.max(1, maxCarts / shards.length);
+        this.idleNanos = TimeUnit.SECONDS.toNanos(idleSeconds);
+        this.retryBackoffNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(1, retryBackoffMs));
+        this.maxRetryBackoffNanos = Math.max(retryBackoffNanos, TimeUnit.MILLISECONDS.toNanos(maxRetryBackoffMs));
+        this.maxLagNanos = TimeUnit.MILLISECONDS.toNanos(maxLagMs);
+        log.info("Sepet deposu modu: {}", this.mode);
+    }
+
+    public Mode getMode() {
+        return mode;
+    }
+
+    /**
+     * Kullanıcının sepetinin kilit dışında kullanılabilecek, satırlardan yalnızca [offset, offset + limit)
+     * aralığını içeren kopyası; ara toplam tüm sepet içindir. Sepet bellekte yoksa veritabanından
+     * yüklenir, veritabanında da yoksa oluşturulur.
+     */
+    public CartState read(long userId, int offset, int limit) {
+        Shard shard = shardOf(userId);
+        shard.lock.lock();
+        try {
+            return acquire(shard, userId).copy(offset, limit);
+        } finally {
+            shard.lock.unlock();
+        }
+    }
+
+    /**
+     * Sepetin güncel ara toplamı (kuruş); satırlar kopyalanmaz, toplam yeniden hesaplanmaz
+     */
+    public long subtotalMinor(long userId) {
+        Shard shard = shardOf(userId);
+        shard.lock.lock();
+        try {
+            return acquire(shard, userId).getSubtotalMinor();
+        } finally {
+            shard.lock.unlock();
+        }
+    }
+
+    /**
+     * Kullanıcının sepetini kilit altında değiştirir ve sonucun ilk limit satırlık kopyasını döndürür. write-through
+     * modunda değişiklik dönmeden önce yazılır ve yazma hatası çağırana iletilir; write-behind
+     * modunda sepet kirli işaretlenir ve sonraki flush'a bırakılır; yazılmamış değişiklikler max-lag
+     * süresinden eskiyse değişiklik uygulanmadan ServiceUnavailableException fırlatılır.
+     */
+    public CartState update(long userId, Consumer<CartState> mutator, int limit) {
+        if (mode == Mode.WRITE_BEHIND) {
+            checkLag();
+        }
+        Shard shard = shardOf(userId);
+        shard.lock.lock();
+        try {
+            CartState state = acquire(shard, userId);
+            mutator.accept(state);
+            List<Long> newProductIds = state.drainNewProductIds();
+            if (mode == Mode.WRITE_BEHIND) {
+                for (Long productId : newProductIds) {
+                    index(productId, userId);
+                }
+            }
+            if (state.isDirty()) {
+                if (mode == Mode.WRITE_THROUGH) {
+                    write(List.of(state));
+                } else {
+                    shard.dirtyCarts.put(userId, state);
+                }
+            }
+            return state.copy(0, limit);
+        } finally {
+            shard.lock.unlock();
+        }
+    }
+
+    /**
+     * Kullanıcının bekleyen değişikliklerini yazar ve action'ı aynı kilit altında çalıştırır.
+     * Sepeti JPA üzerinden okuyan veya değiştiren akışlar (sipariş oluşturma gibi) bununla
+     * bellekteki halin kaydedilmiş olduğunu garanti eder.
+     */
+    public <T> T withFlushed(long userId, Supplier<T> action) {
+        Shard shard = shardOf(userId);
+        shard.lock.lock();
+        try {
+            CartState state = shard.carts.get(userId);
+            if (state != null && state.isDirty()) {
+                write(List.of(state));
+                shard.dirtyCarts.remove(userId);
+            }
+            return action.get();
+        } finally {
+            shard.lock.unlock();
+        }
+    }
+
+    /**
+     * Bellekteki sepeti yazmadan bırakır; sonraki erişimde veritabanından yeniden yüklenir.
+     * Sepet veritabanında başka bir yoldan değiştirildiğinde çağrılır.
+     */
+    public void invalidate(long userId) {
+        Shard shard = shardOf(userId);
+        shard.lock.lock();
+        try {
+            discard(shard, userId);
+        } finally {
+            shard.lock.unlock();
+        }
+    }
+
+    /**
+     * Fiyatı değişen veya silinen ürünü içeren bellekteki sepetlerin ara toplamlarını günceller.
+     * Ürün önbelleğinden sonra çalışır; böylece bu arada yüklenen bir sepet eski fiyatı okuyamaz.
+     */
+    @Order(CatalogVersions.INDEX_LISTENER_ORDER + 1)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        if (event.getType() == ProductChangedEvent.Type.STOCK_CHANGED) {
+            return;
+        }
+        boolean available = event.getType() != ProductChangedEvent.Type.DELETED;
+        reprice(event.getProductId(), available ? CartPricing.toMinor(event.getProduct().getPrice()) : 0L, available);
+    }
+
+    @Order(CatalogVersions.INDEX_LISTENER_ORDER + 1)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductsChanged(ProductBatchChangedEvent event) {
+        for (Long productId : event.getDeletedIds()) {
+            reprice(productId, 0L, false);
+        }
+        for (Product product : event.getSaved()) {
+            reprice(product.getId(), CartPricing.toMinor(product.getPrice()), true);
+        }
+    }
+
+    private void reprice(Long productId, long unitPriceMinor, boolean available) {
+        Set<Long> userIds = userIdsByProduct.get(productId);
+        if (userIds == null) {
+            return;
+        }
+        for (Long userId : List.copyOf(userIds)) {
+            Shard shard = shardOf(userId);
+            shard.lock.lock();
+            try {
+                CartState state = shard.carts.get(userId);
+                if (state == null || !state.reprice(productId, unitPriceMinor, available)) {
+                    unindex(productId, userId);
+                }
+            } finally {
+                shard.lock.unlock();
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${cart.store.flush-interval-ms:1000}")
+    public void scheduledFlush() {
+        if (mode == Mode.WRITE_BEHIND) {
+            flushAll(true);
+        }
+    }
+
+    /**
+     * Kapanışta bekleme süresi dolmamış sepetler de son kez denenir
+     */
+    @PreDestroy
+    public void flushOnShutdown() {
+        flushAll(false, true);
+    }
+
+    /**
+     * Tüm parçalardaki kirli sepetleri yazar; evictIdle ise boşta kalmış temiz sepetleri bırakır.
+     * Daha önce yazılamamış sepetler bekleme süreleri dolduysa yeniden denenir.
+     */
+    public void flushAll(boolean evictIdle) {
+        flushAll(evictIdle, false);
+    }
+
+    private void flushAll(boolean evictIdle, boolean ignoreBackoff) {
+        long start = System.currentTimeMillis();
+        int flushed = 0;
+        Long oldest = null;
+        for (Shard shard : shards) {
+            shard.lock.lock();
+            try {
+                flushed += flushShard(shard, ignoreBackoff);
+                if (evictIdle) {
+                    evictIdle(shard);
+                }
+                // Kirli sepetler ilk kirlendikleri sırada tutulur; parçanın en eskisi ilk kayıttır
+                Iterator<CartState> dirty = shard.dirtyCarts.values().iterator();
+                if (dirty.hasNext()) {
+                    long since = dirty.next().getDirtySinceNanos();
+                    if (oldest == null || since - oldest < 0) {
+                        oldest = since;
+                    }
+                }
+            } finally {
+                shard.lock.unlock();
+            }
+        }
+        oldestUnflushedNanos = oldest;
+        if (flushed > 0) {
+            lastFlushMillis = System.currentTimeMillis() - start;
+            log.debug("Sepet deposu: {} sepet yazıldı, {} ms", flushed, lastFlushMillis);
+        }
+    }
+
+    public Map<String, Object> getMetrics() {
+        int dirty = 0;
+        for (Shard shard : shards) {
+            shard.lock.lock();
+            try {
+                dirty += shard.dirtyCarts.size();
+            } finally {
+                shard.lock.unlock();
+            }
+        }
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("mode", mode);
+        metrics.put("size", size.get());
+        metrics.put("dirty", dirty);
+        metrics.put("flushes", flushes.get());
+        metrics.put("flushedCarts", flushedCarts.get());
+        metrics.put("flushFailures", flushFailures.get());
+        metrics.put("evictions", evictions.get());
+        metrics.put("rejectedUpdates", rejectedUpdates.get());
+        metrics.put("lastFlushMillis", lastFlushMillis);
+        metrics.put("unflushedLagMillis", TimeUnit.NANOSECONDS.toMillis(unflushedLagNanos()));
+        return metrics;
+    }
+
+    private Shard shardOf(long userId) {
+        return shards[Math.floorMod(Long.hashCode(userId * 0x9E3779B97F4A7C15L), shards.length)];
+    }
+
+    private CartState acquire(Shard shard, long userId) {
+        CartState state = shard.carts.get(userId);
+        if (state == null) {
+            state = load(userId);
+            List<Long> productIds = state.getLines().stream().map(CartState.Line::getProductId).toList();
+            state.applyPrices(pricing.unitPrices(productIds));
+            if (mode == Mode.WRITE_THROUGH) {
+                return state;
+            }
+            evictOverflow(shard);
+            shard.carts.put(userId, state);
+            size.incrementAndGet();
+            for (Long productId : productIds) {
+                index(productId, userId);
+            }
+        }
+        state.accessed();
+        return state;
+    }
+
+    private CartState load(long userId) {
+        List<CartState> found = jdbcTemplate.query(SELECT_CART_SQL, (rs, rowNum) -> new CartState(userId,
+                rs.getLong(1), toLocalDateTime(rs.getTimestamp(2)), toLocalDateTime(rs.getTimestamp(3))), userId);
+        CartState state;
+        if (!found.isEmpty()) {
+            state = found.get(0);
+            jdbcTemplate.query(SELECT_ITEMS_SQL, rs -> {
+                state.load(rs.getLong(1), rs.getLong(2), rs.getInt(3), toLocalDateTime(rs.getTimestamp(4)));
+            }, state.getCartId());
+        } else {
+            state = createCart(userId);
+        }
+        return state;
+    }
+
+    private CartState createCart(long userId) {
+        LocalDateTime now = LocalDateTime.now();
+        return new CartState(userId, insertCart(userId, now), now, now);
+    }
+
+    private long insertCart(long userId, LocalDateTime now) {
+        return jdbcTemplate.execute((ConnectionCallback<Long>) connection -> {
+            try (PreparedStatement statement = connection.prepareStatement(INSERT_CART_SQL,
+                    Statement.RETURN_GENERATED_KEYS)) {
+                statement.setLong(1, userId);
+                statement.setTimestamp(2, Timestamp.valueOf(now));
+                statement.setTimestamp(3, Timestamp.valueOf(now));
+                statement.executeUpdate();
+                try (ResultSet keys = statement.getGeneratedKeys()) {
+                    keys.next();
+                    return keys.getLong(1);
+                }
+            }
+        });
+    }
+
+    /**
+     * Satırı silinmiş sepet için kullanıcının sepet satırını bulur, yoksa oluşturur ve bellekteki hali
+     * ona taşır. Kullanıcının başka bir düğümde oluşturulmuş yeni bir sepeti varsa o benimsenir;
+     * sonraki yazma onu bellekteki hale getirir.
+     */
+    private void recreateCart(CartState state) {
+        transactionTemplate.executeWithoutResult(status -> {
+            List<Long> existing = jdbcTemplate.queryForList(LOCK_USER_CART_SQL, Long.class, state.getUserId());
+            Map<Long, Long> itemIds = new HashMap<>();
+            long cartId;
+            if (existing.isEmpty()) {
+                cartId = insertCart(state.getUserId(), LocalDateTime.now());
+            } else {
+                cartId = existing.get(0);
+                jdbcTemplate.query(SELECT_ITEM_IDS_SQL, rs -> {
+                    itemIds.put(rs.getLong(1), rs.getLong(2));
+                }, cartId);
+            }
+            state.rebase(cartId, itemIds);
+        });
+    }
+
+    private int flushShard(Shard shard, boolean ignoreBackoff) {
+        if (shard.dirtyCarts.isEmpty()) {
+            return 0;
+        }
+        long now = System.nanoTime();
+        List<CartState> dirty = new ArrayList<>(shard.dirtyCarts.size());
+        for (CartState state : shard.dirtyCarts.values()) {
+            if (ignoreBackoff || state.isRetryDue(now)) {
+                dirty.add(state);
+            }
+        }
+        if (dirty.isEmpty()) {
+            return 0;
+        }
+        try {
+            write(dirty);
+            dirty.forEach(state -> shard.dirtyCarts.remove(state.getUserId()));
+            return dirty.size();
+        } catch (RuntimeException e) {
+            flushFailures.incrementAndGet();
+            log.warn("Sepet deposu: {} sepetlik toplu yazma başarısız, sepetler tek tek yazılacak", dirty.size(), e);
+        }
+
+        // Tek bir hatalı sepet (ör. silinmiş ürün) parçadaki diğer sepetlerin yazılmasını engellemesin
+        int written = 0;
+        for (CartState state : dirty) {
+            try {
+                write(List.of(state));
+                shard.dirtyCarts.remove(state.getUserId());
+                written++;
+            } catch (RuntimeException e) {
+                flushFailed(state, e);
+            }
+        }
+        return written;
+    }
+
+    /**
+     * Sepet kirli kalır; sonraki deneme art arda başarısızlık sayısıyla katlanan, üstten sınırlı
+     * bir süre sonra yapılır
+     */
+    private void flushFailed(CartState state, RuntimeException e) {
+        flushFailures.incrementAndGet();
+        int failures = state.getFailedFlushes();
+        long backoff = failures >= 30 ? maxRetryBackoffNanos
+                : Math.min(maxRetryBackoffNanos, retryBackoffNanos << failures);
+        failures = state.flushFailed(backoff);
+        log.warn("Sepet deposu: kullanıcı {} sepeti yazılamadı ({}. deneme), {} ms sonra tekrar denenecek",
+                state.getUserId(), failures, TimeUnit.NANOSECONDS.toMillis(backoff), e);
+    }
+
+    /**
+     * max-lag ayarlıysa ve yazılmamış en eski değişiklik bu süreyi aştıysa değişikliği reddeder
+     */
+    private void checkLag() {
+        if (maxLagNanos > 0 && unflushedLagNanos() > maxLagNanos) {
+            rejectedUpdates.incrementAndGet();
+            throw new ServiceUnavailableException(
+                    "Sepet değişiklikleri şu anda kaydedilemiyor. Lütfen daha sonra tekrar deneyiniz.");
+        }
+    }
+
+    private long unflushedLagNanos() {
+        Long oldest = oldestUnflushedNanos;
+        return oldest != null ? Math.max(0L, System.nanoTime() - oldest) : 0L;
+    }
+
+    /**
+     * Verilen sepetlerin değişen satırlarını tek işlemde yazar. Üretilen satır id'leri ancak
+     * işlem başarıyla tamamlanınca bellekteki hale işlenir. Satırı silinmiş sepetler yeniden
+     * oluşturulur ve yazma bir kez tekrarlanır.
+     */
+    private void write(List<CartState> states) {
+        if (states.isEmpty()) {
+            return;
+        }
+        try {
+            writeOnce(states);
+        } catch (MissingCartsException e) {
+            for (CartState state : e.states) {
+                log.info("Sepet deposu: kullanıcı {} sepetinin satırı silinmiş (sepet {}), yeniden oluşturuluyor",
+                        state.getUserId(), state.getCartId());
+                recreateCart(state);
+            }
+            writeOnce(states);
+        }
+    }
+
+    private void writeOnce(List<CartState> states) {
+        List<Long> deletes = new ArrayList<>();
+        List<CartState.Line> updates = new ArrayList<>();
+        List<CartState.Line> inserts = new ArrayList<>();
+        List<CartState> insertOwners = new ArrayList<>();
+        for (CartState state : states) {
+            deletes.addAll(state.getRemovedItemIds());
+            for (CartState.Line line : state.getLines()) {
+                if (!line.isDirty()) {
+                    continue;
+                }
+                if (line.getItemId() != null) {
+                    updates.add(line);
+                } else if (line.isAvailable()) {
+                    inserts.add(line);
+                    insertOwners.add(state);
+                }
+                // Ürünü silinmiş yeni satırlar yazılmaz; ürün artık olmadığından yabancı anahtar hatası verir
+            }
+        }
+
+        long[] insertedIds = transactionTemplate.execute(status -> jdbcTemplate.execute(
+                (ConnectionCallback<long[]>) connection -> {
+                    // Sepet satırları önce güncellenir ve işlem sonuna kadar kilitli kalır; temizlik işi
+                    // kilitli sepetleri atlar. Güncellenemeyen sepetin satırı silinmiştir.
+                    try (PreparedStatement statement = connection.prepareStatement(UPDATE_CART_SQL)) {
+                        for (CartState state : states) {
+                            statement.setTimestamp(1, Timestamp.valueOf(state.getUpdatedAt()));
+                            statement.setLong(2, state.getCartId());
+                            statement.addBatch();
+                        }
+                        int[] counts = statement.executeBatch();
+                        List<CartState> missing = new ArrayList<>();
+                        for (int i = 0; i < counts.length; i++) {
+                            if (counts[i] == 0) {
+                                missing.add(states.get(i));
+                            }
+                        }
+                        if (!missing.isEmpty()) {
+                            throw new MissingCartsException(missing);
+                        }
+                    }
+                    if (!deletes.isEmpty()) {
+                        try (PreparedStatement statement = connection.prepareStatement(DELETE_ITEM_SQL)) {
+                            for (Long itemId : deletes) {
+                                statement.setLong(1, itemId);
+                                statement.addBatch();
+                            }
+                            statement.executeBatch();
+                        }
+                    }
+                    if (!updates.isEmpty()) {
+                        try (PreparedStatement statement = connection.prepareStatement(UPDATE_ITEM_SQL)) {
+                            for (CartState.Line line : updates) {
+                                statement.setInt(1, line.getQuantity());
+                                statement.setLong(2, line.getItemId());
+                                statement.addBatch();
+                            }
+                            statement.executeBatch();
+                        }
+                    }
+                    long[] generated = new long[inserts.size()];
+                    if (!inserts.isEmpty()) {
+                        try (PreparedStatement statement = connection.prepareStatement(INSERT_ITEM_SQL,
+                                Statement.RETURN_GENERATED_KEYS)) {
+                            for (int i = 0; i < inserts.size(); i++) {
+                                CartState.Line line = inserts.get(i);
+                                statement.setLong(1, insertOwners.get(i).getCartId());
+                                statement.setLong(2, line.getProductId());
+                                statement.setInt(3, line.getQuantity());
+                                statement.setTimestamp(4, Timestamp.valueOf(line.getAddedAt()));
+                                statement.addBatch();
+                            }
+                            statement.executeBatch();
+                            try (ResultSet keys = statement.getGeneratedKeys()) {
+                                int i = 0;
+                                while (keys.next() && i < generated.length) {
+                                    generated[i++] = keys.getLong(1);
+                                }
+                            }
+                        }
+                    }
+                    return generated;
+                }));
+
+        int offset = 0;
+        for (CartState state : states) {
+            int count = 0;
+            while (offset + count < insertOwners.size() && insertOwners.get(offset + count) == state) {
+                count++;
+            }
+            long[] ids = new long[count];
+            System.arraycopy(insertedIds, offset, ids, 0, count);
+            state.markFlushed(inserts.subList(offset, offset + count), ids);
+            offset += count;
+        }
+        flushes.incrementAndGet();
+        flushedCarts.addAndGet(states.size());
+    }
+
+    /**
+     * Yeni bir sepete yer açmak için parça doluysa en uzun süredir kullanılmayan sepeti,
+     * kirliyse önce yazarak bırakır. Parça küçük olduğundan en eski sepet taranarak bulunur.
+     * Yazılamayan sepetler bellekte kalır; hiçbiri bırakılamıyorsa parça geçici olarak sınırı aşar.
+     */
+    private void evictOverflow(Shard shard) {
+        Set<Long> unwritable = null;
+        while (shard.carts.size() >= maxCartsPerShard) {
+            CartState eldest = null;
+            for (CartState state : shard.carts.values()) {
+                if ((unwritable == null || !unwritable.contains(state.getUserId()))
+                        && (eldest == null || state.getLastAccessNanos() < eldest.getLastAccessNanos())) {
+                    eldest = state;
+                }
+            }
+            if (eldest == null) {
+                log.warn("Sepet deposu: parçadaki {} sepetin hiçbiri yazılamadığı için tahliye edilemiyor",
+                        shard.carts.size());
+                return;
+            }
+            if (eldest.isDirty()) {
+                boolean written = false;
+                if (eldest.isRetryDue(System.nanoTime())) {
+                    try {
+                        write(List.of(eldest));
+                        written = true;
+                    } catch (RuntimeException e) {
+                        flushFailed(eldest, e);
+                    }
+                }
+                if (!written) {
+                    if (unwritable == null) {
+                        unwritable = new HashSet<>();
+                    }
+                    unwritable.add(eldest.getUserId());
+                    continue;
+                }
+            }
+            discard(shard, eldest.getUserId());
+            evictions.incrementAndGet();
+        }
+    }
+
+    private void evictIdle(Shard shard) {
+        long now = System.nanoTime();
+        Iterator<CartState> iterator = shard.carts.values().iterator();
+        while (iterator.hasNext()) {
+            CartState state = iterator.next();
+            if (!state.isDirty() && now - state.getLastAccessNanos() >= idleNanos) {
+                iterator.remove();
+                size.decrementAndGet();
+                unindex(state);
+                evictions.incrementAndGet();
+            }
+        }
+    }
+
+    private void discard(Shard shard, long userId) {
+        CartState state = shard.carts.remove(userId);
+        if (state != null) {
+            size.decrementAndGet();
+            unindex(state);
+        }
+        shard.dirtyCarts.remove(userId);
+    }
+
+    private void index(Long productId, long userId) {
+        userIdsByProduct.computeIfAbsent(productId, key -> ConcurrentHashMap.newKeySet()).add(userId);
+    }
+
+    private void unindex(Long productId, long userId) {
+        userIdsByProduct.computeIfPresent(productId, (key, userIds) -> {
+            userIds.remove(userId);
+            return userIds.isEmpty() ? null : userIds;
+        });
+    }
+
+    private void unindex(CartState state) {
+        for (CartState.Line line : state.getLines()) {
+            unindex(line.getProductId(), state.getUserId());
+        }
+    }
+
+    private static LocalDateTime toLocalDateTime(Timestamp timestamp) {
+        return timestamp != null ? timestamp.toLocalDateTime() : null;
+    }
+}
@@ -0,0 +1,318 @@
+package com.webapp.backend.service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.webapp.backend.dto.ChangedRowView;
+import com.webapp.backend.dto.ProductChangeView;
+import com.webapp.backend.dto.ReviewChangeView;
+import com.webapp.backend.event.CategoryChangedEvent;
+import com.webapp.backend.event.ProductBatchChangedEvent;
+import com.webapp.backend.event.ReviewChangedEvent;
+import com.webapp.backend.model.CatalogDeletion;
+import com.webapp.backend.model.Category;
+import com.webapp.backend.model.Product;
+import com.webapp.backend.model.User;
+import com.webapp.backend.repository.CatalogDeletionRepository;
+import com.webapp.backend.repository.CategoryRepository;
+import com.webapp.backend.repository.ProductRepository;
+import com.webapp.backend.repository.ReviewRepository;
+
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Başka düğümlerde yapılan katalog değişikliklerini veritabanından okuyup yerel olay olarak yayınlar;
+ * böylece ürün önbelleği, indeksler ve sepetler yalnızca bu düğümün yazmalarıyla değil tüm düğümlerin
+ * yazmalarıyla güncel kalır. Değişen ürün, kategori ve yorum satırları veritabanınca her yazımda güncellenen
+ * updated_at sütunlarından, silmeler catalog_deletions tablosundan bulunur. Satış adetleri ayrıca okunmaz:
+ * satış ürünün stoğunu, dolayısıyla updated_at değerini değiştirir ve indeksler akıştan gelen ürünlerin
+ * satış adedini yeniden okur.
+ * <p>
+ * updated_at değeri commit anında değil yazma anında atandığı için son görülen zamandan önce commit edilen
+ * satırlar kaçabilir. Bu yüzden her okuma lookback-ms kadar geriden başlar; bu pencerede zaten yayınlanmış
+ * (id, updated_at) çiftleri tekrar yayınlanmaz. Bu düğümün kendi yazmaları da akıştan bir kez daha gelir;
+ * dinleyiciler kaydetme olaylarını tekrar uygulamaya dayanıklıdır.
+ */
+@Component
+public class CatalogChangeFeed {
+
+    private static final Logger log = LoggerFactory.getLogger(CatalogChangeFeed.class);
+
+    private static final int PAGE_SIZE = 1000;
+    private static final LocalDateTime EPOCH = LocalDateTime.of(1970, 1, 1, 0, 0);
+
+    private final ProductRepository productRepository;
+    private final CategoryRepository categoryRepository;
+    private final ReviewRepository reviewRepository;
+    private final CatalogDeletionRepository deletionRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate readOnlyTransaction;
+    private final TransactionTemplate transaction;
+    private final boolean enabled;
+    private final Duration lookback;
+    private final Duration deletionRetention;
+
+    // Yalnızca zamanlanmış okuma tarafından değiştirilir; temizlik yalnızca zaman damgalarını okur
+    private final Cursor products = new Cursor();
+    private final Cursor categories = new Cursor();
+    private final Cursor reviews = new Cursor();
+    private final Cursor deletions = new Cursor();
+
+    public CatalogChangeFeed(ProductRepository productRepository, CategoryRepository categoryRepository,
+            ReviewRepository reviewRepository, CatalogDeletionRepository deletionRepository,
+            ApplicationEventPublisher eventPublisher, PlatformTransactionManager transactionManager,
+            @Value("${catalog.change-feed.enabled:true}") boolean enabled,
+            @Value("${catalog.change-feed.lookback-ms:10000}") long lookbackMs,
+            @Value("${catalog.change-feed.deletion-retention-hours:168}") long deletionRetentionHours) {
+        this.productRepository = productRepository;
+        this.categoryRepository = categoryRepository;
+        this.reviewRepository = reviewRepository;
+        this.deletionRepository = deletionRepository;
+        this.eventPublisher = eventPublisher;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.transaction = new TransactionTemplate(transactionManager);
+        this.enabled = enabled;
+        this.lookback = Duration.ofMillis(lookbackMs);
+        this.deletionRetention = Duration.ofHours(deletionRetentionHours);
+    }
+
+    /**
+     * İndeksler afterSingletonsInstantiated'da kurulduğu için başlangıç konumu onlardan ve katalog
+     * snapshot'ının güncellenmesinden önce okunur; arada yapılan yazmalar ilk okumada yakalanır
+     */
+    @PostConstruct
+    void start() {
+        if (!enabled) {
+            return;
+        }
+        readOnlyTransaction.executeWithoutResult(status -> {
+            products.start(productRepository.findLastUpdatedAt());
+            categories.start(categoryRepository.findLastUpdatedAt());
+            reviews.start(reviewRepository.findLastUpdatedAt());
+            deletions.start(deletionRepository.findLastDeletedAt());
+        });
+    }
+
+    @Scheduled(initialDelayString = "${catalog.change-feed.interval-ms:1000}",
+            fixedDelayString = "${catalog.change-feed.interval-ms:1000}")
+    public void poll() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            Changes changes = readOnlyTransaction.execute(status -> readChanges());
+            publish(changes);
+            // Konumlar yalnızca olaylar yayınlandıktan sonra ilerler; hata olursa aynı değişiklikler yeniden okunur
+            products.advance(changes.productRows, ChangedRowView::getId, ChangedRowView::getUpdatedAt, lookback);
+            categories.advance(changes.categoryRows, ChangedRowView::getId, ChangedRowView::getUpdatedAt, lookback);
+            reviews.advance(changes.reviewRows, ChangedRowView::getId, ChangedRowView::getUpdatedAt, lookback);
+            deletions.advance(changes.deletionRows, CatalogDeletion::getId, CatalogDeletion::getDeletedAt, lookback);
+        } catch (RuntimeException e) {
+            log.warn("Katalog değişiklik akışı okunamadı: {}", e.toString());
+        }
+    }
+
+    /**
+     * Silme kayıtları saklama süresinden sonra temizlenir. Süre veritabanı saatine göre, akışın gördüğü
+     * en son zamandan geriye hesaplanır.
+     */
+    @Scheduled(initialDelayString = "${catalog.change-feed.purge-interval-ms:3600000}",
+            fixedDelayString = "${catalog.change-feed.purge-interval-ms:3600000}")
+    public void purgeDeletions() {
+        if (!enabled) {
+            return;
+        }
+        LocalDateTime latest = products.watermark;
+        if (categories.watermark.isAfter(latest)) {
+            latest = categories.watermark;
+        }
+        if (reviews.watermark.isAfter(latest)) {
+            latest = reviews.watermark;
+        }
+        if (deletions.watermark.isAfter(latest)) {
+            latest = deletions.watermark;
+        }
+        LocalDateTime before = latest.minus(deletionRetention);
+        Integer purged = transaction.execute(status -> deletionRepository.deleteOlderThan(before));
+        if (purged != null && purged > 0) {
+            log.info("Katalog silme kayıtları temizlendi: {}", purged);
+        }
+    }
+
+    private Changes readChanges() {
+        Changes changes = new Changes();
+        changes.productRows = products.readNew(productRepository::findChangedAfter,
+                ChangedRowView::getId, ChangedRowView::getUpdatedAt, lookback);
+        changes.categoryRows = categories.readNew(categoryRepository::findChangedAfter,
+                ChangedRowView::getId, ChangedRowView::getUpdatedAt, lookback);
+        changes.reviewRows = reviews.readNew(reviewRepository::findChangedAfter,
+                ChangedRowView::getId, ChangedRowView::getUpdatedAt, lookback);
+        changes.deletionRows = deletions.readNew(deletionRepository::findAfter,
+                CatalogDeletion::getId, CatalogDeletion::getDeletedAt, lookback);
+
+        for (ReviewChangeView review : changes.reviewRows) {
+            changes.ratedProductIds.add(review.getProductId());
+        }
+        for (CatalogDeletion deletion : changes.deletionRows) {
+            switch (deletion.getEntityType()) {
+                case PRODUCT -> changes.deletedProductIds.add(deletion.getEntityId());
+                case CATEGORY -> changes.deletedCategoryIds.add(deletion.getEntityId());
+                case REVIEW -> changes.ratedProductIds.add(deletion.getProductId());
+            }
+        }
+        Set<Long> deleted = new HashSet<>(changes.deletedProductIds);
+        List<Long> changedIds = changes.productRows.stream()
+                .map(ChangedRowView::getId)
+                .filter(id -> !deleted.contains(id))
+                .distinct()
+                .toList();
+        for (int from = 0; from < changedIds.size(); from += PAGE_SIZE) {
+            List<Long> chunk = changedIds.subList(from, Math.min(changedIds.size(), from + PAGE_SIZE));
+            for (ProductChangeView view : productRepository.findChangeViews(chunk)) {
+                changes.savedProducts.add(toProduct(view));
+            }
+        }
+        return changes;
+    }
+
+    private void publish(Changes changes) {
+        for (Long categoryId : changes.categoryRows.stream().map(ChangedRowView::getId).distinct().toList()) {
+            if (!changes.deletedCategoryIds.contains(categoryId)) {
+                eventPublisher.publishEvent(CategoryChangedEvent.saved(categoryId));
+            }
+        }
+        for (Long categoryId : changes.deletedCategoryIds) {
+            eventPublisher.publishEvent(CategoryChangedEvent.deleted(categoryId));
+        }
+
+        List<Long> deletedIds = new ArrayList<>(changes.deletedProductIds);
+        List<Product> saved = changes.savedProducts;
+        if (!deletedIds.isEmpty() && saved.isEmpty()) {
+            eventPublisher.publishEvent(ProductBatchChangedEvent.fromFeed(List.of(), deletedIds));
+        }
+        for (int from = 0; from < saved.size(); from += PAGE_SIZE) {
+            List<Product> chunk = saved.subList(from, Math.min(saved.size(), from + PAGE_SIZE));
+            eventPublisher.publishEvent(ProductBatchChangedEvent.fromFeed(chunk, from == 0 ? deletedIds : List.of()));
+        }
+        for (Long productId : changes.ratedProductIds) {
+            if (!changes.deletedProductIds.contains(productId)) {
+                eventPublisher.publishEvent(ReviewChangedEvent.of(productId));
+            }
+        }
+        if (saved.size() + deletedIds.size() + changes.categoryRows.size() + changes.ratedProductIds.size() > 0) {
+            log.debug("Katalog değişiklik akışı: {} ürün, {} silinen ürün, {} kategori, {} ürünün yorumları",
+                    saved.size(), deletedIds.size(), changes.categoryRows.size() + changes.deletedCategoryIds.size(),
+                    changes.ratedProductIds.size());
+        }
+    }
+
+    /**
+     * İndeksleri güncellemek için yeterli alanlara sahip, ilişkileri yalnızca id taşıyan ürün
+     */
+    private static Product toProduct(ProductChangeView view) {
+        Product product = new Product();
+        product.setId(view.getId());
+        product.setName(view.getName());
+        product.setDescription(view.getDescription());
+        product.setPrice(view.getPrice());
+        product.setImage_url(view.getImageUrl());
+        product.setStock_quantity(view.getStockQuantity());
+        if (view.getCategoryId() != null) {
+            Category category = new Category();
+            category.setId(view.getCategoryId());
+            product.setCategory(category);
+        }
+        User seller = new User();
+        seller.setId(view.getSellerId());
+        product.setSeller(seller);
+        return product;
+    }
+
+    @FunctionalInterface
+    private interface PageReader<T> {
+        List<T> read(LocalDateTime since, Long afterId, Pageable pageable);
+    }
+
+    private static final class Changes {
+        private List<ChangedRowView> productRows = List.of();
+        private List<ChangedRowView> categoryRows = List.of();
+        private List<ReviewChangeView> reviewRows = List.of();
+        private List<CatalogDeletion> deletionRows = List.of();
+        private final List<Product> savedProducts = new ArrayList<>();
+        private final List<Long> deletedProductIds = new ArrayList<>();
+        private final Set<Long> deletedCategoryIds = new HashSet<>();
+        private final Set<Long> ratedProductIds = new LinkedHashSet<>();
+    }
+
+    /**
+     * Bir tablodaki okuma konumu: görülen en son zaman ve geriye bakma penceresinde yayınlanmış satırlar
+     */
+    private static final class Cursor {
+        private volatile LocalDateTime watermark = EPOCH;
+        private final Map<Long, LocalDateTime> seen = new HashMap<>();
+
+        private void start(LocalDateTime last) {
+            watermark = last != null ? last : EPOCH;
+        }
+
+        /**
+         * Pencerenin başından itibaren (zaman, id) sırasında sayfa sayfa okur; daha önce aynı zamanla
+         * yayınlanmış satırları atlar
+         */
+        private <T> List<T> readNew(PageReader<T> reader, Function<T, Long> id, Function<T, LocalDateTime> time,
+                Duration lookback) {
+            List<T> rows = new ArrayList<>();
+            LocalDateTime since = watermark.minus(lookback);
+            Long afterId = Long.MAX_VALUE;
+            List<T> page;
+            do {
+                page = reader.read(since, afterId, PageRequest.of(0, PAGE_SIZE));
+                for (T row : page) {
+                    if (!time.apply(row).equals(seen.get(id.apply(row)))) {
+                        rows.add(row);
+                    }
+                }
+                if (!page.isEmpty()) {
+                    T last = page.get(page.size() - 1);
+                    since = time.apply(last);
+                    afterId = id.apply(last);
+                }
+            } while (page.size() == PAGE_SIZE);
+            return rows;
+        }
+
+        private <T> void advance(List<T> rows, Function<T, Long> id, Function<T, LocalDateTime> time,
+                Duration lookback) {
+            LocalDateTime latest = watermark;
+            for (T row : rows) {
+                seen.put(id.apply(row), time.apply(row));
+                if (time.apply(row).isAfter(latest)) {
+                    latest = time.apply(row);
+                }
+            }
+            watermark = latest;
+            LocalDateTime horizon = latest.minus(lookback);
+            seen.values().removeIf(seenAt -> seenAt.isBefore(horizon));
+        }
+    }
+}
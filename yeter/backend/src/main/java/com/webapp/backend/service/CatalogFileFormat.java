@@ -0,0 +1,54 @@
+package com.webapp.backend.service;
+
+import com.webapp.backend.exception.BadRequestException;
+
+/**
+ * Katalog dışa/içe aktarımında desteklenen satır tabanlı dosya formatları
+ */
+public enum CatalogFileFormat {
+    NDJSON("application/x-ndjson", "ndjson"),
+    CSV("text/csv", "csv");
+
+    private final String contentType;
+    private final String extension;
+
+    CatalogFileFormat(String contentType, String extension) {
+        this.contentType = contentType;
+        this.extension = extension;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public String getExtension() {
+        return extension;
+    }
+
+    public static CatalogFileFormat from(String value) {
+        if (value == null || value.isBlank()) {
+            return NDJSON;
+        }
+        for (CatalogFileFormat format : values()) {
+            if (format.extension.equalsIgnoreCase(value)) {
+                return format;
+            }
+        }
+        throw new BadRequestException("Geçersiz dosya formatı: " + value);
+    }
+
+    /**
+     * İstek Content-Type başlığından format çıkarır; parametreler (charset vb.) yok sayılır
+     */
+    public static CatalogFileFormat fromContentType(String contentType) {
+        if (contentType != null) {
+            String mediaType = contentType.split(";", 2)[0].trim();
+            for (CatalogFileFormat format : values()) {
+                if (format.contentType.equalsIgnoreCase(mediaType)) {
+                    return format;
+                }
+            }
+        }
+        throw new BadRequestException("Desteklenmeyen içerik türü: " + contentType);
+    }
+}
@@ -0,0 +1,294 @@
+package com.webapp.backend.service;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.webapp.backend.event.CategoryChangedEvent;
+import com.webapp.backend.event.ProductBatchChangedEvent;
+import com.webapp.backend.event.ProductChangedEvent;
+import com.webapp.backend.model.Product;
+import com.webapp.backend.repository.CategoryRepository;
+import com.webapp.backend.repository.ProductRepository;
+
+/**
+ * Var olan ürün ve kategori id'lerinin Bloom filtreleri. Filtrede olmayan bir id kesinlikle
+ * yoktur; bu istekler veritabanına gitmeden 404 ile yanıtlanır. Silinen id'ler filtreden
+ * çıkarılamaz, bu yüzden onlar için sorgu yine veritabanına gider.
+ * Yerel eklemeler ve değişiklik akışından gelen başka düğümlerin eklemeleri olaylarla filtreye yazılır.
+ * Veritabanından okunan en büyük id'den büyük bir id sorulursa akışı beklemeden o id'den sonraki id'ler
+ * veritabanından okunup filtreye eklenir ve sınır ilerletilir; bu okuma catch-up-interval-ms'de en fazla
+ * bir kez yapılır, böylece rastgele büyük id'lerle gelen istekler veritabanına yük bindiremez. Sınırın
+ * hâlâ üstünde kalan id'ler yoktur. Filtre düzenli aralıklarla ve ekleme sayısı planlanan kapasiteyi aşınca
+ * veritabanından yeniden kurulur.
+ */
+@Component
+public class CatalogIdFilter implements SmartInitializingSingleton {
+
+    private static final Logger log = LoggerFactory.getLogger(CatalogIdFilter.class);
+
+    private static final int BUILD_BATCH_SIZE = 10000;
+    private static final long MIN_CAPACITY = 1024;
+
+    private final CatalogSnapshot catalogSnapshot;
+    private final ProductRepository productRepository;
+    private final CategoryRepository categoryRepository;
+    private final double falsePositiveRate;
+    private final double growthFactor;
+    private final long catchUpIntervalNanos;
+
+    // Yeniden kurulum ile eklemeler aynı kilidi kullanır; kurulum sırasında commit edilen id'ler kaybolmaz
+    private final Object productLock = new Object();
+    private final Object categoryLock = new Object();
+    private volatile IdBloomFilter products;
+    private volatile IdBloomFilter categories;
+    // Veritabanından okunan en büyük id'ler; yalnızca kurulum ve veritabanı okumaları artırır. Yerel
+    // eklemeler artırsaydı başka düğümde araya eklenmiş id'ler yok sayılırdı
+    private volatile long productMaxId;
+    private volatile long categoryMaxId;
+    private volatile long productCaughtUpAt;
+    private volatile long categoryCaughtUpAt;
+
+    private final AtomicLong productLookups = new AtomicLong();
+    private final AtomicLong productLookupsSaved = new AtomicLong();
+    private final AtomicLong categoryLookups = new AtomicLong();
+    private final AtomicLong categoryLookupsSaved = new AtomicLong();
+
+    public CatalogIdFilter(CatalogSnapshot catalogSnapshot, ProductRepository productRepository,
+            CategoryRepository categoryRepository,
+            @Value("${catalog.id-filter.false-positive-rate:0.01}") double falsePositiveRate,
+            @Value("${catalog.id-filter.growth-factor:2.0}") double growthFactor,
+            @Value("${catalog.id-filter.catch-up-interval-ms:1000}") long catchUpIntervalMs) {
+        this.catalogSnapshot = catalogSnapshot;
+        this.productRepository = productRepository;
+        this.categoryRepository = categoryRepository;
+        this.falsePositiveRate = falsePositiveRate;
+        this.growthFactor = Math.max(1.0, growthFactor);
+        this.catchUpIntervalNanos = TimeUnit.MILLISECONDS.toNanos(catchUpIntervalMs);
+        long now = System.nanoTime();
+        this.productCaughtUpAt = now - catchUpIntervalNanos;
+        this.categoryCaughtUpAt = now - catchUpIntervalNanos;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        rebuildProducts();
+        rebuildCategories();
+    }
+
+    /**
+     * Silinen id'leri filtreden atmak ve kaçırılmış eklemeleri almak için düzenli yeniden kurulum
+     */
+    @Scheduled(initialDelayString = "${catalog.id-filter.rebuild-interval-ms:300000}",
+            fixedDelayString = "${catalog.id-filter.rebuild-interval-ms:300000}")
+    public void rebuild() {
+        rebuildProducts();
+        rebuildCategories();
+    }
+
+    public void rebuildProducts() {
+        synchronized (productLock) {
+            long start = System.currentTimeMillis();
+            long[] ids = new long[0];
+            int count = 0;
+            long afterId = 0L;
+            List<Long> batch;
+            do {
+                batch = catalogSnapshot.findProductIdsAfter(afterId, BUILD_BATCH_SIZE);
+                if (count + batch.size() > ids.length) {
+                    ids = Arrays.copyOf(ids, Math.max(ids.length * 2, count + batch.size()));
+                }
+                for (Long id : batch) {
+                    ids[count++] = id;
+                    afterId = id;
+                }
+            } while (batch.size() == BUILD_BATCH_SIZE);
+
+            IdBloomFilter filter = new IdBloomFilter(capacityFor(count), falsePositiveRate);
+            for (int i = 0; i < count; i++) {
+                filter.add(ids[i]);
+            }
+            // Önce filtre, sonra sınır yayımlanır; okuyucu yeni sınırı eski filtreyle görmez
+            products = filter;
+            productMaxId = afterId;
+            log.info("Ürün id filtresi oluşturuldu: {} id, {} bit, {} ms",
+                    count, filter.getBitCount(), System.currentTimeMillis() - start);
+        }
+    }
+
+    public void rebuildCategories() {
+        synchronized (categoryLock) {
+            List<Long> ids = catalogSnapshot.findCategoryIds();
+            IdBloomFilter filter = new IdBloomFilter(capacityFor(ids.size()), falsePositiveRate);
+            ids.forEach(filter::add);
+            categories = filter;
+            categoryMaxId = ids.stream().mapToLong(Long::longValue).max().orElse(0L);
+        }
+    }
+
+    /**
+     * false dönerse ürün kesinlikle yoktur ve veritabanına gidilmemelidir. Bilinen en büyük id'den büyük
+     * id'ler için önce sonraki id'ler veritabanından okunur (hız sınırlı).
+     */
+    public boolean mightContainProduct(Long id) {
+        if (id == null) {
+            return false;
+        }
+        productLookups.incrementAndGet();
+        if (id > productMaxId) {
+            catchUpProducts();
+        }
+        if (id <= productMaxId && products.mightContain(id)) {
+            return true;
+        }
+        productLookupsSaved.incrementAndGet();
+        return false;
+    }
+
+    /**
+     * false dönerse kategori kesinlikle yoktur ve veritabanına gidilmemelidir. Bilinen en büyük id'den
+     * büyük id'ler için önce sonraki id'ler veritabanından okunur (hız sınırlı).
+     */
+    public boolean mightContainCategory(Long id) {
+        if (id == null) {
+            return false;
+        }
+        categoryLookups.incrementAndGet();
+        if (id > categoryMaxId) {
+            catchUpCategories();
+        }
+        if (id <= categoryMaxId && categories.mightContain(id)) {
+            return true;
+        }
+        categoryLookupsSaved.incrementAndGet();
+        return false;
+    }
+
+    /**
+     * Bilinen en büyük id'den sonraki ürün id'lerini filtreye ekler. Aralık dolmadan gelen istekler
+     * okumayı beklemez ve mevcut sınırla yanıtlanır.
+     */
+    private void catchUpProducts() {
+        if (System.nanoTime() - productCaughtUpAt < catchUpIntervalNanos) {
+            return;
+        }
+        synchronized (productLock) {
+            if (System.nanoTime() - productCaughtUpAt < catchUpIntervalNanos) {
+                return;
+            }
+            productCaughtUpAt = System.nanoTime();
+            long afterId = productMaxId;
+            List<Long> batch;
+            do {
+                batch = productRepository.findIdsAfter(afterId, PageRequest.of(0, BUILD_BATCH_SIZE));
+                for (Long id : batch) {
+                    products.add(id);
+                    afterId = id;
+                }
+            } while (batch.size() == BUILD_BATCH_SIZE);
+            productMaxId = afterId;
+            if (products.isSaturated()) {
+                rebuildProducts();
+            }
+        }
+    }
+
+    private void catchUpCategories() {
+        if (System.nanoTime() - categoryCaughtUpAt < catchUpIntervalNanos) {
+            return;
+        }
+        synchronized (categoryLock) {
+            if (System.nanoTime() - categoryCaughtUpAt < catchUpIntervalNanos) {
+                return;
+            }
+            categoryCaughtUpAt = System.nanoTime();
+            for (Long id : categoryRepository.findIdsAfter(categoryMaxId, PageRequest.of(0, BUILD_BATCH_SIZE))) {
+                categories.add(id);
+                categoryMaxId = id;
+            }
+            if (categories.isSaturated()) {
+                rebuildCategories();
+            }
+        }
+    }
+
+    @Order(CatalogVersions.INDEX_LISTENER_ORDER)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        if (event.getType() != ProductChangedEvent.Type.SAVED) {
+            return;
+        }
+        synchronized (productLock) {
+            products.add(event.getProductId());
+            if (products.isSaturated()) {
+                rebuildProducts();
+            }
+        }
+    }
+
+    @Order(CatalogVersions.INDEX_LISTENER_ORDER)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductsChanged(ProductBatchChangedEvent event) {
+        if (event.getSaved().isEmpty()) {
+            return;
+        }
+        synchronized (productLock) {
+            for (Product product : event.getSaved()) {
+                products.add(product.getId());
+            }
+            if (products.isSaturated()) {
+                rebuildProducts();
+            }
+        }
+    }
+
+    @Order(CatalogVersions.INDEX_LISTENER_ORDER)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCategoryChanged(CategoryChangedEvent event) {
+        if (event.getType() != CategoryChangedEvent.Type.SAVED) {
+            return;
+        }
+        synchronized (categoryLock) {
+            categories.add(event.getCategoryId());
+            if (categories.isSaturated()) {
+                rebuildCategories();
+            }
+        }
+    }
+
+    public Map<String, Object> getMetrics() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("products", metrics(products, productMaxId, productLookups, productLookupsSaved));
+        metrics.put("categories", metrics(categories, categoryMaxId, categoryLookups, categoryLookupsSaved));
+        return metrics;
+    }
+
+    private static Map<String, Object> metrics(IdBloomFilter filter, long maxId, AtomicLong lookups,
+            AtomicLong saved) {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("ids", filter.getInsertions());
+        metrics.put("maxKnownId", maxId);
+        metrics.put("bits", filter.getBitCount());
+        metrics.put("hashFunctions", filter.getHashCount());
+        metrics.put("lookups", lookups.get());
+        metrics.put("databaseLookupsSaved", saved.get());
+        return metrics;
+    }
+
+    private long capacityFor(long count) {
+        return Math.max(MIN_CAPACITY, (long) Math.ceil(count * growthFactor));
+    }
+}
@@ -0,0 +1,595 @@
+package com.webapp.backend.service;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.webapp.backend.dto.CategorySummaryDto;
+import com.webapp.backend.dto.ChangedRowView;
+import com.webapp.backend.dto.ProductAttributeView;
+import com.webapp.backend.dto.ProductChangeView;
+import com.webapp.backend.dto.ProductResponseDto;
+import com.webapp.backend.dto.ProductTextView;
+import com.webapp.backend.model.CatalogDeletion;
+import com.webapp.backend.repository.CatalogDeletionRepository;
+import com.webapp.backend.repository.CategoryRepository;
+import com.webapp.backend.repository.ProductRepository;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Ürün, kategori ve satıcı özetlerinin ikili (binary) katalog snapshot'ı.
+ * Snapshot periyodik olarak ve kapanışta yazılır; açılışta bellek eşlemeli (memory-mapped)
+ * olarak okunur ve indeksler tam tablo taramaları yerine buradan kurulur, ürün önbelleği doldurulur.
+ * Snapshot, yazıldığı andaki updated_at sütunlarının en büyük değerlerini taşır. Açılışta bundan sonra
+ * değişen ürünler (updated_at) ve silinenler (catalog_deletions) veritabanından okunup snapshot'a
+ * uygulanır; böylece diğer düğümler yazmaya devam ederken (ör. sıralı dağıtımda) da snapshot kullanılabilir.
+ * Satırlar yalnızca açılışta tutulur ve uygulama hazır olunca bırakılır.
+ */
+@Component
+// Değişiklik akışının başlangıç konumu snapshot güncellenmeden önce okunmalı; aradaki yazmalar akıştan gelir
+@DependsOn("catalogChangeFeed")
+public class CatalogSnapshot {
+
+    private static final Logger log = LoggerFactory.getLogger(CatalogSnapshot.class);
+
+    private static final int MAGIC = 0x59435331; // "YCS1"
+    private static final int FORMAT_VERSION = 3;
+    private static final int CATCH_UP_PAGE_SIZE = 1000;
+    private static final long NO_ID = -1L;
+    private static final byte ROW = 1;
+    private static final byte END_OF_ROWS = 0;
+
+    private final ProductRepository productRepository;
+    private final CategoryRepository categoryRepository;
+    private final CatalogDeletionRepository deletionRepository;
+    private final ProductCache productCache;
+    private final TransactionTemplate readOnlyTransaction;
+    private final boolean enabled;
+    private final Path path;
+    private final Duration maxAge;
+    private final int fetchSize;
+    private final Duration lookback;
+
+    private volatile Contents loaded;
+
+    public CatalogSnapshot(ProductRepository productRepository, CategoryRepository categoryRepository,
+            CatalogDeletionRepository deletionRepository, ProductCache productCache,
+            PlatformTransactionManager transactionManager,
+            @Value("${catalog.snapshot.enabled:true}") boolean enabled,
+            @Value("${catalog.snapshot.path:data/catalog.snapshot}") String path,
+            @Value("${catalog.snapshot.max-age-seconds:86400}") long maxAgeSeconds,
+            @Value("${catalog.snapshot.fetch-size:-2147483648}") int fetchSize,
+            @Value("${catalog.change-feed.lookback-ms:10000}") long lookbackMs) {
+        this.productRepository = productRepository;
+        this.categoryRepository = categoryRepository;
+        this.deletionRepository = deletionRepository;
+        this.productCache = productCache;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.enabled = enabled;
+        this.path = Paths.get(path);
+        this.maxAge = Duration.ofSeconds(maxAgeSeconds);
+        this.fetchSize = fetchSize;
+        this.lookback = Duration.ofMillis(lookbackMs);
+    }
+
+    /**
+     * İndeksler afterSingletonsInstantiated'da kurulduğu için snapshot onlardan önce, bu bean
+     * oluşturulurken okunur ve veritabanındaki sonraki değişikliklerle güncellenir
+     */
+    @PostConstruct
+    void load() {
+        if (!enabled || !Files.isRegularFile(path)) {
+            return;
+        }
+        long start = System.currentTimeMillis();
+        try {
+            Contents contents = read();
+            Duration age = Duration.between(Instant.ofEpochMilli(contents.writtenAt), Instant.now());
+            if (age.compareTo(maxAge) > 0) {
+                log.info("Katalog snapshot'ı kullanılmadı ({} dakika önce yazılmış); indeksler veritabanından kurulacak",
+                        age.toMinutes());
+                return;
+            }
+            int changes = readOnlyTransaction.execute(status -> catchUp(contents));
+            loaded = contents;
+
+            // Sonradan değişen ürünlerin satıcı adı snapshot'ta olmayabilir; bunlar ilk okumada yüklenir
+            List<ProductResponseDto> newestFirst = new ArrayList<>(contents.products.size());
+            for (int i = contents.products.size() - 1; i >= 0; i--) {
+                ProductRow row = contents.products.get(i);
+                if (!contents.changedIds.contains(row.id)) {
+                    newestFirst.add(row.toView(contents));
+                }
+            }
+            int warmed = productCache.warm(newestFirst);
+            log.info("Katalog snapshot'ı yüklendi: {} ürün, {} kategori, sonradan {} değişiklik, önbelleğe {} ürün, {} ms",
+                    contents.products.size(), contents.categories.size(), changes, warmed,
+                    System.currentTimeMillis() - start);
+        } catch (IOException | RuntimeException e) {
+            log.warn("Katalog snapshot'ı okunamadı, indeksler veritabanından kurulacak: {}", e.toString());
+        }
+    }
+
+    /**
+     * Tüm indeksler kurulduktan sonra satırlar bırakılır; sonraki yeniden kurulumlar veritabanını kullanır
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void release() {
+        loaded = null;
+    }
+
+    @Scheduled(initialDelayString = "${catalog.snapshot.interval-ms:600000}",
+            fixedDelayString = "${catalog.snapshot.interval-ms:600000}")
+    public void scheduledWrite() {
+        if (enabled) {
+            write();
+        }
+    }
+
+    @PreDestroy
+    public void writeOnShutdown() {
+        if (enabled) {
+            write();
+        }
+    }
+
+    /**
+     * Snapshot'ı geçici dosyaya yazıp atomik olarak yerine taşır. updated_at değerleri ve satırlar aynı
+     * salt okunur işlemde okunur; okuyanlar hiçbir zaman yarım yazılmış bir dosya görmez.
+     */
+    public synchronized void write() {
+        long start = System.currentTimeMillis();
+        Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+        try {
+            Path parent = path.toAbsolutePath().getParent();
+            if (parent != null) {
+                Files.createDirectories(parent);
+            }
+            int products = readOnlyTransaction.execute(status -> {
+                try {
+                    return writeTo(temp);
+                } catch (IOException e) {
+                    throw new SnapshotWriteException(e);
+                }
+            });
+            try {
+                Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING);
+            }
+            log.info("Katalog snapshot'ı yazıldı: {} ürün, {} bayt, {} ms",
+                    products, Files.size(path), System.currentTimeMillis() - start);
+        } catch (IOException | RuntimeException e) {
+            log.warn("Katalog snapshot'ı yazılamadı: {}", e.toString());
+            try {
+                Files.deleteIfExists(temp);
+            } catch (IOException ignored) {
+                // Bir sonraki yazımda üzerine yazılır
+            }
+        }
+    }
+
+    public List<ProductTextView> findTextViewsAfter(Long afterId, int size) {
+        Contents contents = loaded;
+        if (contents == null) {
+            return productRepository.findTextViewsAfter(afterId, PageRequest.of(0, size));
+        }
+        return Collections.unmodifiableList(contents.productsAfter(afterId, size));
+    }
+
+    public List<ProductAttributeView> findAttributeViewsAfter(Long afterId, int size) {
+        Contents contents = loaded;
+        if (contents == null) {
+            return productRepository.findAttributeViewsAfter(afterId, PageRequest.of(0, size));
+        }
+        return Collections.unmodifiableList(contents.productsAfter(afterId, size));
+    }
+
+    public List<Long> findProductIdsAfter(Long afterId, int size) {
+        Contents contents = loaded;
+        if (contents == null) {
+            return productRepository.findIdsAfter(afterId, PageRequest.of(0, size));
+        }
+        return contents.productsAfter(afterId, size).stream().map(ProductRow::getId).toList();
+    }
+
+    public List<CategorySummaryDto> findCategorySummaries() {
+        Contents contents = loaded;
+        return contents != null ? contents.categories : categoryRepository.findSummaries();
+    }
+
+    public List<Long> findCategoryIds() {
+        Contents contents = loaded;
+        if (contents == null) {
+            return categoryRepository.findAllIds();
+        }
+        return contents.categories.stream().map(CategorySummaryDto::getId).toList();
+    }
+
+    /**
+     * Snapshot'ın updated_at değerlerinden geriye bakma penceresi kadar önceden başlayarak değişen ve silinen
+     * ürünleri snapshot'a uygular; ürün veya kategori değiştiyse kategori özetleri veritabanından yeniden
+     * okunur. Uygulanan değişiklik sayısını döndürür.
+     */
+    private int catchUp(Contents contents) {
+        LocalDateTime productsSince = fromMicros(contents.productsUpdatedAt).minus(lookback);
+        LocalDateTime categoriesSince = fromMicros(contents.categoriesUpdatedAt).minus(lookback);
+
+        Set<Long> changedIds = new LinkedHashSet<>();
+        LocalDateTime since = productsSince;
+        Long afterId = Long.MAX_VALUE;
+        List<ChangedRowView> page;
+        do {
+            page = productRepository.findChangedAfter(since, afterId, PageRequest.of(0, CATCH_UP_PAGE_SIZE));
+            for (ChangedRowView row : page) {
+                changedIds.add(row.getId());
+                since = row.getUpdatedAt();
+                afterId = row.getId();
+            }
+        } while (page.size() == CATCH_UP_PAGE_SIZE);
+
+        Set<Long> deletedIds = new HashSet<>();
+        boolean categoriesChanged = !categoryRepository.findChangedAfter(categoriesSince, Long.MAX_VALUE,
+                PageRequest.of(0, 1)).isEmpty();
+        since = productsSince.isBefore(categoriesSince) ? productsSince : categoriesSince;
+        afterId = Long.MAX_VALUE;
+        List<CatalogDeletion> deletions;
+        do {
+            deletions = deletionRepository.findAfter(since, afterId, PageRequest.of(0, CATCH_UP_PAGE_SIZE));
+            for (CatalogDeletion deletion : deletions) {
+                if (deletion.getEntityType() == CatalogDeletion.EntityType.PRODUCT) {
+                    deletedIds.add(deletion.getEntityId());
+                } else if (deletion.getEntityType() == CatalogDeletion.EntityType.CATEGORY) {
+                    categoriesChanged = true;
+                }
+                since = deletion.getDeletedAt();
+                afterId = deletion.getId();
+            }
+        } while (deletions.size() == CATCH_UP_PAGE_SIZE);
+
+        // Değişen satırlar id sırasında okunup snapshot satırlarıyla tek geçişte birleştirilir;
+        // artık bulunamayan değişmiş id'ler de silinmiş sayılır
+        List<Long> ids = new ArrayList<>(changedIds);
+        List<ProductRow> changedRows = new ArrayList<>(ids.size());
+        for (int from = 0; from < ids.size(); from += CATCH_UP_PAGE_SIZE) {
+            for (ProductChangeView view : productRepository.findChangeViews(
+                    ids.subList(from, Math.min(ids.size(), from + CATCH_UP_PAGE_SIZE)))) {
+                changedRows.add(ProductRow.of(view));
+            }
+        }
+        changedRows.sort(Comparator.comparingLong(ProductRow::getId));
+        if (!changedIds.isEmpty() || !deletedIds.isEmpty()) {
+            List<ProductRow> merged = new ArrayList<>(contents.products.size() + changedRows.size());
+            int next = 0;
+            for (ProductRow row : contents.products) {
+                while (next < changedRows.size() && changedRows.get(next).id < row.id) {
+                    merged.add(changedRows.get(next++));
+                }
+                if (!changedIds.contains(row.id) && !deletedIds.contains(row.id)) {
+                    merged.add(row);
+                }
+            }
+            merged.addAll(changedRows.subList(next, changedRows.size()));
+            contents.products.clear();
+            contents.products.addAll(merged);
+            contents.changedIds.addAll(changedIds);
+            categoriesChanged = true;
+        }
+
+        if (categoriesChanged) {
+            contents.categories.clear();
+            contents.categoryNames.clear();
+            for (CategorySummaryDto category : categoryRepository.findSummaries()) {
+                contents.categories.add(category);
+                contents.categoryNames.put(category.getId(), category.getName());
+            }
+        }
+        return changedIds.size() + deletedIds.size();
+    }
+
+    private static long toMicros(LocalDateTime time) {
+        if (time == null) {
+            return NO_ID;
+        }
+        return time.toEpochSecond(ZoneOffset.UTC) * 1_000_000L + time.getNano() / 1_000;
+    }
+
+    /**
+     * Tablo boşken yazılmış bir snapshot için (NO_ID) tüm satırlar değişmiş sayılır
+     */
+    private static LocalDateTime fromMicros(long micros) {
+        if (micros == NO_ID) {
+            return LocalDateTime.of(1970, 1, 1, 0, 0);
+        }
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(micros, 1_000_000L),
+                (int) Math.floorMod(micros, 1_000_000L) * 1_000, ZoneOffset.UTC);
+    }
+
+    /**
+     * Dosya düzeni: başlık, ürün ve kategori tablolarının en son updated_at değerleri, ürün satırları (her biri ROW ile başlar, END_OF_ROWS ile biter),
+     * satıcılar, kategori özetleri ve son olarak önceki tüm baytların CRC32 değeri
+     */
+    private int writeTo(Path target) throws IOException {
+        CRC32 crc = new CRC32();
+        try (DataOutputStream out = new DataOutputStream(new CheckedOutputStream(
+                new BufferedOutputStream(Files.newOutputStream(target), 1 << 16), crc))) {
+            // Satırlardan önce okunur; arada commit edilen yazmalar açılışta yeniden uygulanır
+            long productsUpdatedAt = toMicros(productRepository.findLastUpdatedAt());
+            long categoriesUpdatedAt = toMicros(categoryRepository.findLastUpdatedAt());
+            out.writeInt(MAGIC);
+            out.writeInt(FORMAT_VERSION);
+            out.writeLong(System.currentTimeMillis());
+            out.writeLong(productsUpdatedAt);
+            out.writeLong(categoriesUpdatedAt);
+
+            Map<Long, String> sellers = new LinkedHashMap<>();
+            int products = 0;
+            try (Stream<ProductResponseDto> rows = productRepository.streamAllViews(fetchSize)) {
+                for (ProductResponseDto row : (Iterable<ProductResponseDto>) rows::iterator) {
+                    out.writeByte(ROW);
+                    out.writeLong(row.getId());
+                    writeString(out, row.getName());
+                    writeString(out, row.getDescription());
+                    out.writeDouble(row.getPrice() != null ? row.getPrice() : 0.0);
+                    writeString(out, row.getImage_url());
+                    out.writeInt(row.getStock_quantity() != null ? row.getStock_quantity() : 0);
+                    out.writeLong(row.getCategory() != null ? row.getCategory().getId() : NO_ID);
+                    out.writeLong(row.getSeller().getId());
+                    sellers.putIfAbsent(row.getSeller().getId(), row.getSeller().getUsername());
+                    products++;
+                }
+            }
+            out.writeByte(END_OF_ROWS);
+
+            out.writeInt(sellers.size());
+            for (Map.Entry<Long, String> seller : sellers.entrySet()) {
+                out.writeLong(seller.getKey());
+                writeString(out, seller.getValue());
+            }
+
+            List<CategorySummaryDto> categories = categoryRepository.findSummaries();
+            out.writeInt(categories.size());
+            for (CategorySummaryDto category : categories) {
+                out.writeLong(category.getId());
+                writeString(out, category.getName());
+                writeString(out, category.getDescription());
+                out.writeLong(category.getProductCount());
+                writeNullableDouble(out, category.getMinPrice());
+                writeNullableDouble(out, category.getMaxPrice());
+            }
+
+            out.flush();
+            out.writeLong(crc.getValue());
+            return products;
+        }
+    }
+
+    private Contents read() throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < Long.BYTES || size > Integer.MAX_VALUE) {
+                throw new IOException("Geçersiz snapshot boyutu: " + size);
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+
+            int bodyLength = (int) size - Long.BYTES;
+            CRC32 crc = new CRC32();
+            crc.update(buffer.slice(0, bodyLength));
+            if (crc.getValue() != buffer.getLong(bodyLength)) {
+                throw new IOException("Snapshot sağlama toplamı tutmuyor");
+            }
+            if (buffer.getInt() != MAGIC || buffer.getInt() != FORMAT_VERSION) {
+                throw new IOException("Snapshot biçimi tanınmıyor");
+            }
+
+            Contents contents = new Contents(buffer.getLong(), buffer.getLong(), buffer.getLong());
+            while (buffer.get() == ROW) {
+                contents.products.add(new ProductRow(buffer.getLong(), readString(buffer), readString(buffer),
+                        buffer.getDouble(), readString(buffer), buffer.getInt(), buffer.getLong(), buffer.getLong()));
+            }
+            int sellerCount = buffer.getInt();
+            for (int i = 0; i < sellerCount; i++) {
+                contents.sellerNames.put(buffer.getLong(), readString(buffer));
+            }
+            int categoryCount = buffer.getInt();
+            for (int i = 0; i < categoryCount; i++) {
+                CategorySummaryDto category = new CategorySummaryDto(buffer.getLong(), readString(buffer),
+                        readString(buffer), buffer.getLong(), readNullableDouble(buffer), readNullableDouble(buffer));
+                contents.categories.add(category);
+                contents.categoryNames.put(category.getId(), category.getName());
+            }
+            return contents;
+        }
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length < 0) {
+            return null;
+        }
+        String value = StandardCharsets.UTF_8.decode(buffer.slice(buffer.position(), length)).toString();
+        buffer.position(buffer.position() + length);
+        return value;
+    }
+
+    private static void writeNullableDouble(DataOutputStream out, Double value) throws IOException {
+        out.writeBoolean(value != null);
+        out.writeDouble(value != null ? value : 0.0);
+    }
+
+    private static Double readNullableDouble(ByteBuffer buffer) {
+        boolean present = buffer.get() != 0;
+        double value = buffer.getDouble();
+        return present ? value : null;
+    }
+
+    private static final class SnapshotWriteException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        private SnapshotWriteException(IOException cause) {
+            super(cause);
+        }
+    }
+
+    private static final class Contents {
+        private final long writtenAt;
+        private final long productsUpdatedAt;
+        private final long categoriesUpdatedAt;
+        private final List<ProductRow> products = new ArrayList<>();
+        // Snapshot yazıldıktan sonra değişip veritabanından okunan ürünler
+        private final Set<Long> changedIds = new HashSet<>();
+        private final Map<Long, String> sellerNames = new HashMap<>();
+        private final Map<Long, String> categoryNames = new HashMap<>();
+        private final List<CategorySummaryDto> categories = new ArrayList<>();
+
+        private Contents(long writtenAt, long productsUpdatedAt, long categoriesUpdatedAt) {
+            this.writtenAt = writtenAt;
+            this.productsUpdatedAt = productsUpdatedAt;
+            this.categoriesUpdatedAt = categoriesUpdatedAt;
+        }
+
+        /**
+         * Satırlar id sırasında yazıldığı için başlangıç konumu ikili aramayla bulunur
+         */
+        private List<ProductRow> productsAfter(Long afterId, int size) {
+            int low = 0;
+            int high = products.size();
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (products.get(mid).id <= afterId) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return products.subList(low, Math.min(products.size(), low + size));
+        }
+    }
+
+    /**
+     * Snapshot'taki ürün satırı; indekslerin veritabanından okuduğu projeksiyonların yerine geçer
+     */
+    private static final class ProductRow implements ProductTextView, ProductAttributeView {
+        private final long id;
+        private final String name;
+        private final String description;
+        private final double price;
+        private final String imageUrl;
+        private final int stockQuantity;
+        private final long categoryId;
+        private final long sellerId;
+
+        private ProductRow(long id, String name, String description, double price, String imageUrl,
+                int stockQuantity, long categoryId, long sellerId) {
+            this.id = id;
+            this.name = name;
+            this.description = description;
+            this.price = price;
+            this.imageUrl = imageUrl;
+            this.stockQuantity = stockQuantity;
+            this.categoryId = categoryId;
+            this.sellerId = sellerId;
+        }
+
+        private static ProductRow of(ProductChangeView view) {
+            return new ProductRow(view.getId(), view.getName(), view.getDescription(),
+                    view.getPrice() != null ? view.getPrice() : 0.0, view.getImageUrl(),
+                    view.getStockQuantity() != null ? view.getStockQuantity() : 0,
+                    view.getCategoryId() != null ? view.getCategoryId() : NO_ID, view.getSellerId());
+        }
+
+        @Override
+        public Long getId() {
+            return id;
+        }
+
+        @Override
+        public String getName() {
+            return name;
+        }
+
+        @Override
+        public String getDescription() {
+            return description;
+        }
+
+        @Override
+        public Long getCategoryId() {
+            return categoryId != NO_ID ? categoryId : null;
+        }
+
+        @Override
+        public Long getSellerId() {
+            return sellerId;
+        }
+
+        @Override
+        public Double getPrice() {
+            return price;
+        }
+
+        @Override
+        public Integer getStockQuantity() {
+            return stockQuantity;
+        }
+
+        private ProductResponseDto toView(Contents contents) {
+            Long category = getCategoryId();
+            return new ProductResponseDto(id, name, description, price, imageUrl, stockQuantity,
+                    category, category != null ? contents.categoryNames.get(category) : null,
+                    sellerId, contents.sellerNames.get(sellerId));
+        }
+    }
+}
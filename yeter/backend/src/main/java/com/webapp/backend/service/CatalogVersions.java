@@ -0,0 +1,91 @@
+package com.webapp.backend.service;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.webapp.backend.event.CategoryChangedEvent;
+import com.webapp.backend.event.ProductBatchChangedEvent;
+import com.webapp.backend.event.ProductChangedEvent;
+import com.webapp.backend.event.ReviewChangedEvent;
+
+/**
+ * Katalog okumaları için sürüm sayaçları ve bunlardan türetilen güçlü ETag'ler. Her ürün için ayrı;
+ * ürün, kategori ve yorum koleksiyonları için birer sayaç tutulur. Sayaçlar, yanıt gövdesinin okunduğu
+ * önbellek ve indeksleri güncelleyen olaylarla artar; başka düğümlerin yazmaları da bu olaylarla
+ * değişiklik akışından (CatalogChangeFeed) gelir. Böylece ETag her zaman bu düğümün gövdeyi ürettiği
+ * durumu gösterir ve hesaplanması veritabanına gitmez. Sayaçlar bellekte olduğundan her açılışta rastgele
+ * bir epoch ETag'e eklenir; yeniden başlatma veya farklı düğümler eski bir ETag'i yanlışlıkla doğrulayamaz.
+ */
+@Component
+public class CatalogVersions {
+
+    /**
+     * Önbellek ve indeks dinleyicilerinin sırası. Sayaçlar bunlardan sonra artar; böylece yeni
+     * ETag'i gören bir okuma eski önbellek veya indeks içeriğini okuyamaz.
+     */
+    public static final int INDEX_LISTENER_ORDER = 0;
+
+    private final String epoch = Long.toString(ThreadLocalRandom.current().nextLong() & Long.MAX_VALUE, 36);
+    private final AtomicLong clock = new AtomicLong();
+    private final AtomicLong productsVersion = new AtomicLong();
+    private final AtomicLong categoriesVersion = new AtomicLong();
+    private final AtomicLong reviewsVersion = new AtomicLong();
+    // Yalnızca açılıştan beri değişen ürünler yer alır; diğerleri 0 sürümündedir
+    private final Map<Long, Long> productVersions = new ConcurrentHashMap<>();
+
+    @Order(Ordered.LOWEST_PRECEDENCE)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        long stamp = clock.incrementAndGet();
+        productVersions.put(event.getProductId(), stamp);
+        productsVersion.set(stamp);
+    }
+
+    @Order(Ordered.LOWEST_PRECEDENCE)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductsChanged(ProductBatchChangedEvent event) {
+        long stamp = clock.incrementAndGet();
+        event.getSaved().forEach(product -> productVersions.put(product.getId(), stamp));
+        event.getDeletedIds().forEach(productId -> productVersions.put(productId, stamp));
+        productsVersion.set(stamp);
+    }
+
+    /**
+     * Puan sıralamalı listeler değişir; ürün görünümünde puan olmadığı için ürün ETag'i değişmez
+     */
+    @Order(Ordered.LOWEST_PRECEDENCE)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onReviewChanged(ReviewChangedEvent event) {
+        reviewsVersion.set(clock.incrementAndGet());
+    }
+
+    @Order(Ordered.LOWEST_PRECEDENCE)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCategoryChanged(CategoryChangedEvent event) {
+        categoriesVersion.set(clock.incrementAndGet());
+    }
+
+    /**
+     * Tek ürün görünümü; kategori adı da görünümde yer aldığı için kategori sürümünü içerir
+     */
+    public String productETag(Long productId) {
+        return "\"p-" + epoch + "-" + productId + "-" + productVersions.getOrDefault(productId, 0L)
+                + "-" + categoriesVersion.get() + "\"";
+    }
+
+    /**
+     * Ürün listeleri, arama, facet ve kategori yanıtları: herhangi bir ürün, kategori veya yorum
+     * değişince değişir
+     */
+    public String catalogETag() {
+        return "\"c-" + epoch + "-" + productsVersion.get() + "-" + categoriesVersion.get()
+                + "-" + reviewsVersion.get() + "\"";
+    }
+}
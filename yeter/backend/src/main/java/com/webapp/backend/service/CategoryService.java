@@ -1,46 +1,117 @@
 package com.webapp.backend.service;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.stream.Collectors;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import com.webapp.backend.dto.CategoryDto;
+import com.webapp.backend.dto.ProductSummaryView;
+import com.webapp.backend.event.CategoryChangedEvent;
+import com.webapp.backend.event.ProductBatchChangedEvent;
+import com.webapp.backend.model.CatalogDeletion;
 import com.webapp.backend.model.Category;
+import com.webapp.backend.repository.CatalogDeletionRepository;
 import com.webapp.backend.repository.CategoryRepository;
+import com.webapp.backend.repository.ProductRepository;
 
 @Service
 public class CategoryService {
 
     private final CategoryRepository categoryRepository;
+    private final ProductRepository productRepository;
+    private final CatalogIdFilter idFilter;
+    private final CatalogDeletionRepository deletionRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Autowired
-    public CategoryService(CategoryRepository categoryRepository) {
+    public CategoryService(CategoryRepository categoryRepository, ProductRepository productRepository,
+            CatalogIdFilter idFilter, CatalogDeletionRepository deletionRepository,
+            ApplicationEventPublisher eventPublisher) {
         this.categoryRepository = categoryRepository;
+        this.productRepository = productRepository;
+        this.idFilter = idFilter;
+        this.deletionRepository = deletionRepository;
+        this.eventPublisher = eventPublisher;
     }
 
     public List<Category> findAllCategories() {
         return categoryRepository.findAll();
     }
 
+    /**
+     * Tüm kategorileri ürün özetleriyle döndürür. Kategoriler ve ürün özetleri
+     * iki sorguda okunur; ürün başına satıcı/kategori sorgusu çalışmaz.
+     */
+    public List<CategoryDto> findAllCategoryViews() {
+        Map<Long, List<CategoryDto.ProductSummaryDto>> productsByCategory = productRepository.findSummaryViews()
+                .stream()
+                .collect(Collectors.groupingBy(ProductSummaryView::getCategoryId,
+                        Collectors.mapping(CategoryDto.ProductSummaryDto::new, Collectors.toList())));
+        return categoryRepository.findAll().stream()
+                .map(category -> new CategoryDto(category,
+                        productsByCategory.getOrDefault(category.getId(), new ArrayList<>())))
+                .collect(Collectors.toList());
+    }
+
+    public Optional<CategoryDto> findCategoryView(Long id) {
+        if (!idFilter.mightContainCategory(id)) {
+            return Optional.empty();
+        }
+        return categoryRepository.findById(id)
+                .map(category -> new CategoryDto(category, productRepository.findSummaryViewsByCategoryId(id)
+                        .stream()
+                        .map(CategoryDto.ProductSummaryDto::new)
+                        .collect(Collectors.toList())));
+    }
+
     public Optional<Category> findById(Long id) {
         return categoryRepository.findById(id);
     }
 
+    public boolean existsById(Long id) {
+        return idFilter.mightContainCategory(id) && categoryRepository.existsById(id);
+    }
+
     public Optional<Category> findByName(String name) {
         return categoryRepository.findByName(name);
     }
 
     public Category saveCategory(Category category) {
-        return categoryRepository.save(category);
+        Category saved = categoryRepository.save(category);
+        eventPublisher.publishEvent(CategoryChangedEvent.saved(saved.getId()));
+        return saved;
     }
 
     public Category updateCategory(Category category) {
-        return categoryRepository.save(category);
+        Category updated = categoryRepository.save(category);
+        eventPublisher.publishEvent(CategoryChangedEvent.saved(updated.getId()));
+        return updated;
     }
 
+    /**
+     * Kategorinin ürünleri de silinir (cascade); hepsi için silme kaydı aynı işlemde yazılır ve
+     * diğer düğümler silmeleri değişiklik akışından öğrenir
+     */
+    @Transactional
     public void deleteCategory(Long id) {
+        List<Long> productIds = productRepository.findIdsByCategoryId(id);
         categoryRepository.deleteById(id);
+        List<CatalogDeletion> deletions = new ArrayList<>(productIds.size() + 1);
+        productIds.forEach(productId -> deletions.add(
+                new CatalogDeletion(CatalogDeletion.EntityType.PRODUCT, productId)));
+        deletions.add(new CatalogDeletion(CatalogDeletion.EntityType.CATEGORY, id));
+        deletionRepository.saveAll(deletions);
+        if (!productIds.isEmpty()) {
+            eventPublisher.publishEvent(ProductBatchChangedEvent.of(List.of(), productIds));
+        }
+        eventPublisher.publishEvent(CategoryChangedEvent.deleted(id));
     }
 
     public boolean existsByName(String name) {
@@ -0,0 +1,82 @@
+package com.webapp.backend.service;
+
+import java.util.Collections;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.webapp.backend.dto.CategorySummaryDto;
+import com.webapp.backend.event.CategoryChangedEvent;
+import com.webapp.backend.event.ProductBatchChangedEvent;
+import com.webapp.backend.event.ProductChangedEvent;
+import com.webapp.backend.repository.CategoryRepository;
+
+/**
+ * Kategori özetlerinin (ürün sayısı, en düşük/en yüksek fiyat) bellek içi kopyası.
+ * Özetler tek bir gruplu sorguyla hesaplanır. Ürün veya kategori yazıldığında kopya
+ * yalnızca eskimiş olarak işaretlenir ve bir sonraki okumada bir kez yeniden hesaplanır;
+ * böylece toplu içe aktarma gibi ardışık yazmalar tek sorguda birleşir.
+ */
+@Component
+public class CategorySummarySnapshot {
+
+    private static final Logger log = LoggerFactory.getLogger(CategorySummarySnapshot.class);
+
+    private final CategoryRepository categoryRepository;
+
+    private volatile List<CategorySummaryDto> summaries;
+    private volatile boolean stale = true;
+
+    public CategorySummarySnapshot(CategoryRepository categoryRepository) {
+        this.categoryRepository = categoryRepository;
+    }
+
+    public List<CategorySummaryDto> getSummaries() {
+        if (stale) {
+            refresh();
+        }
+        return summaries;
+    }
+
+    @Order(CatalogVersions.INDEX_LISTENER_ORDER)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        // Stok değişimi sayıyı ve fiyat aralığını etkilemez
+        if (event.getType() != ProductChangedEvent.Type.STOCK_CHANGED) {
+            stale = true;
+        }
+    }
+
+    @Order(CatalogVersions.INDEX_LISTENER_ORDER)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductsChanged(ProductBatchChangedEvent event) {
+        stale = true;
+    }
+
+    @Order(CatalogVersions.INDEX_LISTENER_ORDER)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCategoryChanged(CategoryChangedEvent event) {
+        stale = true;
+    }
+
+    private synchronized void refresh() {
+        if (!stale) {
+            return;
+        }
+        // Sorgudan önce temizlenir: sorgu sırasında gelen bir yazma bayrağı yeniden kaldırır
+        stale = false;
+        long start = System.currentTimeMillis();
+        try {
+            summaries = Collections.unmodifiableList(categoryRepository.findSummaries());
+        } catch (RuntimeException e) {
+            stale = true;
+            throw e;
+        }
+        log.debug("Kategori özetleri yenilendi: {} kategori, {} ms", summaries.size(),
+                System.currentTimeMillis() - start);
+    }
+}
@@ -0,0 +1,642 @@
+package com.webapp.backend.service;
+
+import java.time.LocalDateTime;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.webapp.backend.dto.CheckoutStatusDto;
+import com.webapp.backend.dto.OrderRequestDto;
+import com.webapp.backend.exception.ErrorCodes;
+import com.webapp.backend.exception.OrderException;
+import com.webapp.backend.exception.ResourceNotFoundException;
+import com.webapp.backend.exception.TooManyRequestsException;
+import com.webapp.backend.model.Address;
+import com.webapp.backend.model.Cart;
+import com.webapp.backend.model.CheckoutRequest;
+import com.webapp.backend.model.CheckoutState;
+import com.webapp.backend.model.Coupon;
+import com.webapp.backend.model.Order;
+import com.webapp.backend.model.OrderStatus;
+import com.webapp.backend.model.PaymentStatus;
+import com.webapp.backend.model.StripePayment;
+import com.webapp.backend.model.StripePaymentMethod;
+import com.webapp.backend.model.User;
+import com.webapp.backend.repository.CheckoutRequestRepository;
+import com.webapp.backend.repository.StripePaymentMethodRepository;
+
+/**
+ * Asenkron sipariş hattı. İstek doğrulanıp checkout_requests tablosuna QUEUED olarak yazılır ve sınırlı
+ * bir işçi havuzunun kuyruğuna alınır; istemci hemen bir handle alır. İşçi aşamaları sırayla çalıştırır:
+ * stok ayırma, fiyat/kupon, kayıt, ödeme, sepet temizliği. İlk üç aşama tek işlemde çalışır ve sipariş
+ * id'siyle PAYMENT durumunu siparişle birlikte commit eder; aşama başlangıçları ayrı işlemlerde yazıldığı
+ * için yarıda kalan bir istek kayıtta son başladığı aşamayla görünür, ancak stok ve sipariş değişiklikleri
+ * geri alınmıştır. Ödeme hiçbir veritabanı işlemi açık değilken, istek id'si idempotency anahtarı olarak
+ * kullanılarak alınır. Sepet temizliği ve COMPLETED ayrı bir işlemdedir. Sipariş oluştuktan sonraki bir
+ * hata telafiye gider: sipariş iptal edilir, alınmış ödeme iade edilir. Kuyruk doluysa istek 429 ile
+ * reddedilir.
+ * <p>
+ * Birden çok düğüm aynı tabloyu paylaşır. Her istek onu işleyen düğüme süreli bir kirayla (owner,
+ * leaseUntil) bağlıdır; düğüm elindeki isteklerin kirasını düzenli olarak yeniler ve tüm durum geçişleri
+ * sahiplik koşuluyla yazılır. Kirası dolan istekler (ör. düğüm çöktüğünde) herhangi bir düğüm tarafından
+ * koşullu güncellemeyle üstlenilir ve kaydedilmiş aşamasından devam eder. Kullanıcı başına tek süren istek
+ * sınırı active_user_id üzerindeki benzersiz indeksle tüm düğümlerde geçerlidir. Durum abonelikleri (SSE)
+ * yereldir; istek başka düğüme geçerse abone son durumu sorgulayarak öğrenir.
+ */
+@Service
+public class CheckoutService implements DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(CheckoutService.class);
+
+    private static final Set<CheckoutState> ACTIVE_STATES = EnumSet.complementOf(
+            EnumSet.of(CheckoutState.COMPLETED, CheckoutState.FAILED));
+    private static final Set<CheckoutState> TERMINAL_STATES = EnumSet.of(CheckoutState.COMPLETED,
+            CheckoutState.FAILED);
+    private static final int MAX_ERROR_MESSAGE_LENGTH = 500;
+
+    private final CheckoutRequestRepository checkoutRequestRepository;
+    private final OrderService orderService;
+    private final CartService cartService;
+    private final UserService userService;
+    private final AddressService addressService;
+    private final CouponService couponService;
+    private final StripeService stripeService;
+    private final StripePaymentMethodRepository paymentMethodRepository;
+    private final TransactionTemplate transactionTemplate;
+    // Aşama kayıtları siparişin işleminden bağımsız commit edilir
+    private final TransactionTemplate stateTemplate;
+    private final ThreadPoolExecutor executor;
+    private final long retentionHours;
+    private final long leaseSeconds;
+
+    // Bu sürecin sahiplik kimliği; yeniden başlatılan düğüm eski isteklerini kira dolunca yeniden üstlenir
+    private final String nodeId = UUID.randomUUID().toString();
+    // Kuyrukta veya çalışmakta olan, kirası bu düğümde olan istekler; yalnızca bunların kirası yenilenir
+    private final Set<String> owned = ConcurrentHashMap.newKeySet();
+    private final Map<String, List<Consumer<CheckoutStatusDto>>> subscribers = new ConcurrentHashMap<>();
+
+    private final AtomicLong submitted = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong completed = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private volatile long lastDurationMillis;
+
+    public CheckoutService(CheckoutRequestRepository checkoutRequestRepository, OrderService orderService,
+            CartService cartService, UserService userService, AddressService addressService,
+            CouponService couponService, StripeService stripeService,
+            StripePaymentMethodRepository paymentMethodRepository, PlatformTransactionManager transactionManager,
+            @Value("${order.checkout.workers:4}") int workers,
+            @Value("${order.checkout.queue-capacity:200}") int queueCapacity,
+            @Value("${order.checkout.retention-hours:24}") long retentionHours,
+            @Value("${order.checkout.lease-seconds:60}") long leaseSeconds) {
+        this.checkoutRequestRepository = checkoutRequestRepository;
+        this.orderService = orderService;
+        this.cartService = cartService;
+        this.userService = userService;
+        this.addressService = addressService;
+        this.couponService = couponService;
+        this.stripeService = stripeService;
+        this.paymentMethodRepository = paymentMethodRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.stateTemplate = new TransactionTemplate(transactionManager);
+        this.stateTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.retentionHours = retentionHours;
+        this.leaseSeconds = leaseSeconds;
+        AtomicInteger threadNumber = new AtomicInteger();
+        // Her işçi aşama kayıtları için sipariş işleminin yanında ikinci bir bağlantı kullanır;
+        // işçi sayısının iki katı bağlantı havuzunu aşmamalıdır
+        this.executor = new ThreadPoolExecutor(workers, workers, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+                    Thread thread = new Thread(runnable, "order-checkout-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    /**
+     * İsteği doğrular, bu düğümün kirasıyla kaydeder ve kuyruğa alır. Kullanıcının herhangi bir düğümde
+     * süren bir isteği varsa veya kuyruk doluysa reddedilir; reddedilen istek kayıtta kalmaz.
+     */
+    public CheckoutStatusDto submit(User user, OrderRequestDto orderRequest) {
+        CheckoutRequest request = new CheckoutRequest();
+        request.setId(UUID.randomUUID().toString());
+        request.setUserId(user.getId());
+        request.setShippingAddressId(orderRequest.getShippingAddressId());
+        request.setBillingAddressId(orderRequest.getBillingAddressId());
+        request.setPaymentMethod(orderRequest.getPaymentMethod());
+        request.setPaymentMethodId(orderRequest.getPaymentMethodId());
+        request.setCouponCode(orderRequest.getCouponCode());
+
+        // Kuyruğa girmeden önce eşzamanlı siparişle aynı kontroller; hatalar hemen döner
+        resolve(user, request);
+
+        LocalDateTime now = LocalDateTime.now();
+        request.setActiveUserId(user.getId());
+        request.setOwner(nodeId);
+        request.setLeaseUntil(now.plusSeconds(leaseSeconds));
+        request.setCreatedAt(now);
+        request.setUpdatedAt(now);
+        try {
+            checkoutRequestRepository.save(request);
+        } catch (DataIntegrityViolationException e) {
+            // active_user_id benzersiz: kullanıcının başka bir düğümde de olsa süren isteği var
+            throw new OrderException("Devam eden bir siparişiniz var, tamamlanmasını bekleyin",
+                    ErrorCodes.ORDER_CHECKOUT_IN_PROGRESS);
+        }
+        if (!enqueue(request.getId())) {
+            checkoutRequestRepository.deleteById(request.getId());
+            throw new TooManyRequestsException("Sipariş kuyruğu dolu, lütfen daha sonra tekrar deneyin");
+        }
+        submitted.incrementAndGet();
+        return toDto(request);
+    }
+
+    public Optional<CheckoutStatusDto> getStatus(Long userId, String checkoutId) {
+        return checkoutRequestRepository.findById(checkoutId)
+                .filter(request -> request.getUserId().equals(userId))
+                .map(this::toDto);
+    }
+
+    /**
+     * Durum değişikliklerini dinler. Dönen Runnable aboneliği kaldırır; son durumdan sonra abonelik
+     * kendiliğinden kalkar.
+     */
+    public Runnable subscribe(String checkoutId, Consumer<CheckoutStatusDto> listener) {
+        subscribers.computeIfAbsent(checkoutId, id -> new CopyOnWriteArrayList<>()).add(listener);
+        return () -> subscribers.computeIfPresent(checkoutId, (id, listeners) -> {
+            listeners.remove(listener);
+            return listeners.isEmpty() ? null : listeners;
+        });
+    }
+
+    /**
+     * Sahipsiz veya kirası dolmuş tamamlanmamış istekleri üstlenir ve kaydedilmiş aşamalarından devam
+     * ettirir: siparişi henüz oluşmamış olanlar baştan, ödeme aşamasındakiler idempotency anahtarıyla ödeme
+     * durumuna bakılarak, telafi aşamasındakiler telafiden çalışır. Her istek okunan durumu ve kira koşuluyla
+     * üstlenilir; aynı isteği yalnızca bir düğüm alır. Kuyrukta yer kadar istek alınır, kuyruğa giremeyen
+     * istek hemen bırakılır.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(initialDelayString = "${order.checkout.reclaim-interval-ms:15000}",
+            fixedDelayString = "${order.checkout.reclaim-interval-ms:15000}")
+    public void resumePending() {
+        int capacity = executor.getQueue().remainingCapacity();
+        if (capacity == 0) {
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        List<CheckoutRequest> claimable = checkoutRequestRepository.findClaimable(ACTIVE_STATES, now,
+                PageRequest.of(0, capacity));
+        int resumed = 0;
+        for (CheckoutRequest request : claimable) {
+            Integer claimed = stateTemplate.execute(status -> checkoutRequestRepository.claim(request.getId(),
+                    request.getState(), nodeId, leaseUntil(), now));
+            if (claimed == null || claimed == 0) {
+                continue;
+            }
+            if (!enqueue(request.getId())) {
+                log.warn("Sipariş isteği {} yeniden kuyruğa alınamadı; kuyruk dolu", request.getId());
+                releaseLease(request.getId());
+                break;
+            }
+            resumed++;
+        }
+        if (resumed > 0) {
+            log.info("{} tamamlanmamış sipariş isteği üstlenilip kuyruğa alındı", resumed);
+        }
+    }
+
+    /**
+     * Bu düğümde kuyrukta veya çalışmakta olan isteklerin kirasını uzatır; aralık kira süresinden kısa
+     * olmalıdır
+     */
+    @Scheduled(fixedDelayString = "${order.checkout.heartbeat-interval-ms:10000}")
+    public void renewLeases() {
+        if (owned.isEmpty()) {
+            return;
+        }
+        List<String> ids = List.copyOf(owned);
+        LocalDateTime until = leaseUntil();
+        stateTemplate.executeWithoutResult(status -> checkoutRequestRepository.renewLeases(nodeId, ids, until));
+    }
+
+    /**
+     * Son durumdaki istekleri saklama süresi dolunca siler
+     */
+    @Scheduled(fixedDelayString = "${order.checkout.purge-interval-ms:3600000}")
+    public void purgeFinished() {
+        LocalDateTime before = LocalDateTime.now().minusHours(retentionHours);
+        Integer deleted = transactionTemplate.execute(status ->
+                checkoutRequestRepository.deleteFinishedBefore(TERMINAL_STATES, before));
+        if (deleted != null && deleted > 0) {
+            log.debug("{} eski sipariş isteği silindi", deleted);
+        }
+    }
+
+    public Map<String, Object> getMetrics() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("node", nodeId);
+        metrics.put("owned", owned.size());
+        metrics.put("workers", executor.getMaximumPoolSize());
+        metrics.put("running", executor.getActiveCount());
+        metrics.put("queued", executor.getQueue().size());
+        metrics.put("queueRemainingCapacity", executor.getQueue().remainingCapacity());
+        metrics.put("submitted", submitted.get());
+        metrics.put("rejected", rejected.get());
+        metrics.put("completed", completed.get());
+        metrics.put("failed", failed.get());
+        metrics.put("lastDurationMillis", lastDurationMillis);
+        return metrics;
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdownNow();
+    }
+
+    private boolean enqueue(String checkoutId) {
+        owned.add(checkoutId);
+        try {
+            executor.execute(() -> {
+                try {
+                    run(checkoutId);
+                } finally {
+                    owned.remove(checkoutId);
+                }
+            });
+            return true;
+        } catch (RejectedExecutionException e) {
+            owned.remove(checkoutId);
+            rejected.incrementAndGet();
+            return false;
+        }
+    }
+
+    private LocalDateTime leaseUntil() {
+        return LocalDateTime.now().plusSeconds(leaseSeconds);
+    }
+
+    /**
+     * Kirayı bırakır; istek bir sonraki üstlenme turunda herhangi bir düğüm tarafından yeniden alınır
+     */
+    private void releaseLease(String checkoutId) {
+        owned.remove(checkoutId);
+        try {
+            stateTemplate.executeWithoutResult(status -> checkoutRequestRepository.release(checkoutId, nodeId));
+        } catch (RuntimeException e) {
+            // Bırakılamayan kira yenilenmediği için süresi dolunca serbest kalır
+            log.warn("Sipariş isteği {} kirası bırakılamadı", checkoutId, e);
+        }
+    }
+
+    /**
+     * İsteğin kirası başka bir düğüme geçtiğinde atılır; o anki işlem geri alınır ve istek bırakılır
+     */
+    private static class LeaseLostException extends RuntimeException {
+        LeaseLostException(String checkoutId) {
+            super("Sipariş isteği " + checkoutId + " başka bir düğüme geçti");
+        }
+    }
+
+    private enum PaymentOutcome {
+        PAID,
+        DECLINED,
+        UNKNOWN
+    }
+
+    /**
+     * İsteği kaydedilmiş aşamasından sona kadar çalıştırır. Sipariş oluşmadan önceki hatalar isteği
+     * doğrudan FAILED yapar; sipariş oluştuktan sonraki hatalar telafiye gider. Kira kaybedilirse istek
+     * sessizce bırakılır; yeni sahibi kaydedilmiş aşamadan devam eder.
+     */
+    private void run(String checkoutId) {
+        long start = System.currentTimeMillis();
+        CheckoutRequest request = checkoutRequestRepository.findById(checkoutId).orElse(null);
+        if (request == null || request.getState().isTerminal() || !nodeId.equals(request.getOwner())) {
+            return;
+        }
+        try {
+            if (request.getState() == CheckoutState.COMPENSATING) {
+                compensate(request);
+                return;
+            }
+            if (request.getOrderId() == null) {
+                request = transactionTemplate.execute(status -> placeOrder(checkoutId));
+                if (request == null) {
+                    return;
+                }
+                publish(toDto(request));
+            }
+            if (request.getState() == CheckoutState.PAYMENT) {
+                PaymentOutcome outcome = collectPayment(request);
+                if (outcome == PaymentOutcome.UNKNOWN) {
+                    // Tahsilatın sonucu bilinmiyor; istek ödeme aşamasında bırakılır ve üstlenen düğüm
+                    // aynı anahtarla yeniden dener
+                    releaseLease(checkoutId);
+                    return;
+                }
+                if (outcome == PaymentOutcome.DECLINED) {
+                    fail(request, new OrderException("Ödeme alınamadı", ErrorCodes.ORDER_PAYMENT_FAILED));
+                    return;
+                }
+                advance(request, CheckoutState.CLEARING_CART);
+            }
+            request = finish(request);
+        } catch (LeaseLostException e) {
+            log.info(e.getMessage());
+            return;
+        } catch (RuntimeException e) {
+            fail(request, e);
+            return;
+        }
+        if (request != null) {
+            completed.incrementAndGet();
+            lastDurationMillis = System.currentTimeMillis() - start;
+            publish(toDto(request));
+        }
+    }
+
+    /**
+     * Stok, fiyat ve kayıt aşamalarını tek işlemde çalıştırır. Sipariş id'si ve PAYMENT durumu siparişle
+     * aynı işlemde ve sahiplik koşuluyla yazılır; kira bu arada kaybedildiyse sipariş geri alınır.
+     */
+    private CheckoutRequest placeOrder(String checkoutId) {
+        CheckoutRequest request = checkoutRequestRepository.findById(checkoutId).orElse(null);
+        if (request == null || request.getState().isTerminal() || request.getOrderId() != null) {
+            return request;
+        }
+        User user = userService.findById(request.getUserId())
+                .orElseThrow(() -> new ResourceNotFoundException("User", "id", request.getUserId()));
+        Inputs inputs = resolve(user, request);
+
+        advance(request, CheckoutState.RESERVING_STOCK);
+        orderService.reserveStock(inputs.cart());
+
+        advance(request, CheckoutState.PRICING);
+        OrderService.PricedOrder priced = orderService.priceOrder(user, inputs.cart(), inputs.shippingAddress(),
+                inputs.billingAddress(), request.getPaymentMethod(), inputs.coupon());
+
+        advance(request, CheckoutState.PERSISTING);
+        orderService.persistOrder(priced, inputs.cart());
+
+        Long orderId = priced.order().getId();
+        if (checkoutRequestRepository.markPlaced(checkoutId, nodeId, orderId, LocalDateTime.now()) == 0) {
+            throw new LeaseLostException(checkoutId);
+        }
+        return checkoutRequestRepository.findById(checkoutId).orElseThrow();
+    }
+
+    /**
+     * Ödeme aşaması; hiçbir veritabanı işlemi açık değilken çalışır. Kayıtlı bir ödeme yöntemi verildiyse
+     * ödeme kaydı istek id'si idempotency anahtarı olarak kullanılarak açılır ve tahsilat sağlayıcıda
+     * yapılır. Yeniden çalıştırmada önce anahtarın kaydına bakılır; tamamlanmış bir ödeme tekrar tahsil
+     * edilmez, bekleyen bir ödeme aynı anahtarla yeniden denenir. Ödeme yöntemi verilmediyse (ör. kapıda
+     * ödeme) sipariş ödeme bekler durumda kalır.
+     */
+    private PaymentOutcome collectPayment(CheckoutRequest request) {
+        if (request.getPaymentMethodId() == null) {
+            return PaymentOutcome.PAID;
+        }
+        StripePayment payment = stripeService.findPaymentByIdempotencyKey(request.getId()).orElse(null);
+        if (payment == null) {
+            Order order = orderService.getOrderById(request.getOrderId())
+                    .orElseThrow(() -> new ResourceNotFoundException("Order", "id", request.getOrderId()));
+            StripePaymentMethod paymentMethod = paymentMethodRepository.findById(request.getPaymentMethodId())
+                    .filter(method -> method.getUser().getId().equals(request.getUserId()))
+                    .orElseThrow(() -> new OrderException("Ödeme yöntemi bulunamadı", ErrorCodes.ORDER_PAYMENT_FAILED));
+            payment = stripeService.preparePayment(request.getId(), order, paymentMethod);
+        }
+        if (payment.getStatus() == PaymentStatus.PENDING) {
+            // Tahsilattan hemen önce kiranın hâlâ bu düğümde olduğu doğrulanır
+            advance(request, CheckoutState.PAYMENT);
+            boolean captured;
+            try {
+                captured = stripeService.capturePayment(payment);
+            } catch (RuntimeException e) {
+                log.warn("Sipariş isteği {} için tahsilat sonucu alınamadı; yeniden denenecek", request.getId(), e);
+                return PaymentOutcome.UNKNOWN;
+            }
+            payment = stripeService.completePayment(request.getId(), captured);
+        }
+        return payment.getStatus() == PaymentStatus.COMPLETED ? PaymentOutcome.PAID : PaymentOutcome.DECLINED;
+    }
+
+    /**
+     * Siparişin ödeme durumunu işler, sepeti temizler ve isteği tamamlar; hepsi tek işlemde. COMPLETED
+     * ilk yazılır ve satırı işlem boyunca kilitler.
+     */
+    private CheckoutRequest finish(CheckoutRequest request) {
+        return transactionTemplate.execute(status -> {
+            if (checkoutRequestRepository.markCompleted(request.getId(), nodeId, LocalDateTime.now()) == 0) {
+                throw new LeaseLostException(request.getId());
+            }
+            CheckoutRequest managed = checkoutRequestRepository.findById(request.getId()).orElseThrow();
+            Order order = orderService.getOrderById(managed.getOrderId())
+                    .orElseThrow(() -> new ResourceNotFoundException("Order", "id", managed.getOrderId()));
+            if (managed.getPaymentMethodId() != null) {
+                orderService.updatePaymentStatus(order, PaymentStatus.COMPLETED);
+            }
+            User user = userService.findById(managed.getUserId())
+                    .orElseThrow(() -> new ResourceNotFoundException("User", "id", managed.getUserId()));
+            cartService.clearCart(user);
+            return managed;
+        });
+    }
+
+    private record Inputs(Cart cart, Address shippingAddress, Address billingAddress, Coupon coupon) {
+    }
+
+    private Inputs resolve(User user, CheckoutRequest request) {
+        Cart cart = cartService.getCartByUser(user);
+        if (cart.getCartItems() == null || cart.getCartItems().isEmpty()) {
+            throw new OrderException("Sepet boş, sipariş oluşturulamaz", ErrorCodes.ORDER_EMPTY_CART);
+        }
+
+        Address shippingAddress = addressService.getUserAddressById(user, request.getShippingAddressId());
+        if (shippingAddress == null) {
+            throw new ResourceNotFoundException("Address", "id", request.getShippingAddressId());
+        }
+        Address billingAddress = null;
+        if (request.getBillingAddressId() != null) {
+            billingAddress = addressService.getUserAddressById(user, request.getBillingAddressId());
+            if (billingAddress == null) {
+                throw new ResourceNotFoundException("Address", "id", request.getBillingAddressId());
+            }
+        }
+
+        Coupon coupon = null;
+        if (request.getCouponCode() != null && !request.getCouponCode().isEmpty()) {
+            coupon = couponService.getCouponByCode(request.getCouponCode());
+            if (coupon != null && !coupon.getIsActive()) {
+                throw new OrderException("Bu kupon aktif değil", ErrorCodes.COUPON_INVALID);
+            }
+        }
+        return new Inputs(cart, shippingAddress, billingAddress, coupon);
+    }
+
+    /**
+     * Aşama başlangıcını ayrı işlemde, sahiplik koşuluyla kaydeder ve kirayı uzatır. Yönetilen varlık
+     * değiştirilmez; aksi halde sipariş işlemi aynı satırı kilitler ve aşama kaydı onu beklerdi.
+     */
+    private void advance(CheckoutRequest request, CheckoutState state) {
+        LocalDateTime now = LocalDateTime.now();
+        Integer updated = stateTemplate.execute(status -> checkoutRequestRepository.updateState(request.getId(),
+                nodeId, state, now, leaseUntil()));
+        if (updated == null || updated == 0) {
+            throw new LeaseLostException(request.getId());
+        }
+        if (subscribers.containsKey(request.getId())) {
+            CheckoutStatusDto status = toDto(request);
+            status.setState(state.name());
+            status.setUpdatedAt(now);
+            publish(status);
+        }
+    }
+
+    /**
+     * İsteği başarısız sayar. Sipariş henüz oluşmadıysa doğrudan FAILED yazılır. Oluştuysa hata önce
+     * COMPENSATING durumuyla kaydedilir, ardından telafi çalışır. İki yazım da sahiplik koşulludur.
+     */
+    private void fail(CheckoutRequest request, Exception cause) {
+        String errorCode;
+        String message = cause.getMessage();
+        if (cause instanceof OrderException orderException) {
+            errorCode = orderException.getErrorCode();
+        } else if (cause instanceof ResourceNotFoundException) {
+            errorCode = ErrorCodes.RESOURCE_NOT_FOUND;
+        } else if (cause instanceof IllegalStateException && message != null
+                && message.contains("stokta yeterli sayıda yok")) {
+            errorCode = ErrorCodes.ORDER_INSUFFICIENT_STOCK;
+        } else {
+            errorCode = null;
+            message = "Sipariş oluşturulamadı";
+            log.error("Sipariş isteği {} başarısız oldu", request.getId(), cause);
+        }
+        if (message != null && message.length() > MAX_ERROR_MESSAGE_LENGTH) {
+            message = message.substring(0, MAX_ERROR_MESSAGE_LENGTH);
+        }
+
+        String errorMessage = message;
+        // Sipariş, başarısız işlemle birlikte geri alınmış olabilir; önce siparişsiz kayıt denenir
+        CheckoutRequest updated;
+        try {
+            updated = stateTemplate.execute(status -> {
+                LocalDateTime now = LocalDateTime.now();
+                if (checkoutRequestRepository.markFailed(request.getId(), nodeId, errorCode, errorMessage, now) == 0
+                        && checkoutRequestRepository.markCompensating(request.getId(), nodeId, errorCode,
+                                errorMessage, now) == 0) {
+                    return null;
+                }
+                return checkoutRequestRepository.findById(request.getId()).orElse(null);
+            });
+        } catch (RuntimeException e) {
+            log.error("Sipariş isteği {} başarısız olarak kaydedilemedi", request.getId(), e);
+            releaseLease(request.getId());
+            return;
+        }
+        if (updated == null) {
+            log.info("Sipariş isteği {} başka bir düğüme geçti", request.getId());
+            return;
+        }
+        if (updated.getState() == CheckoutState.COMPENSATING) {
+            compensate(updated);
+        } else {
+            finishFailed(updated);
+        }
+    }
+
+    /**
+     * Telafi: siparişi iptal eder (stoklar geri döner), tamamlanmış ödemeyi iade eder ve isteği FAILED
+     * yapar; hepsi tek işlemde. Telafi başarısız olursa istek COMPENSATING durumunda kalır, kirası
+     * bırakılır ve bir sonraki üstlenme turunda tekrar denenir.
+     */
+    private void compensate(CheckoutRequest request) {
+        CheckoutRequest failedRequest;
+        try {
+            failedRequest = transactionTemplate.execute(status -> {
+                if (checkoutRequestRepository.markCompensated(request.getId(), nodeId, LocalDateTime.now()) == 0) {
+                    throw new LeaseLostException(request.getId());
+                }
+                CheckoutRequest managed = checkoutRequestRepository.findById(request.getId()).orElseThrow();
+                Order order = orderService.getOrderById(managed.getOrderId()).orElse(null);
+                if (order != null && order.getStatus() != OrderStatus.CANCELLED) {
+                    orderService.cancelOrder(order);
+                }
+                stripeService.findPaymentByIdempotencyKey(managed.getId())
+                        .filter(payment -> payment.getStatus() == PaymentStatus.COMPLETED)
+                        .ifPresent(payment -> stripeService.refundPayment(payment, payment.getAmount()));
+                return managed;
+            });
+        } catch (LeaseLostException e) {
+            log.info(e.getMessage());
+            return;
+        } catch (RuntimeException e) {
+            log.error("Sipariş isteği {} telafi edilemedi; yeniden denenecek", request.getId(), e);
+            releaseLease(request.getId());
+            return;
+        }
+        finishFailed(failedRequest);
+    }
+
+    private void finishFailed(CheckoutRequest request) {
+        failed.incrementAndGet();
+        publish(toDto(request));
+    }
+
+    private void publish(CheckoutStatusDto status) {
+        List<Consumer<CheckoutStatusDto>> listeners = status.isFinished()
+                ? subscribers.remove(status.getCheckoutId())
+                : subscribers.get(status.getCheckoutId());
+        if (listeners == null) {
+            return;
+        }
+        for (Consumer<CheckoutStatusDto> listener : listeners) {
+            try {
+                listener.accept(status);
+            } catch (RuntimeException e) {
+                log.debug("Sipariş durumu aboneye iletilemedi: {}", status.getCheckoutId(), e);
+            }
+        }
+    }
+
+    private CheckoutStatusDto toDto(CheckoutRequest request) {
+        CheckoutStatusDto dto = new CheckoutStatusDto();
+        dto.setCheckoutId(request.getId());
+        dto.setUserId(request.getUserId());
+        dto.setState(request.getState().name());
+        dto.setFinished(request.getState().isTerminal());
+        dto.setOrderId(request.getOrderId());
+        dto.setErrorCode(request.getErrorCode());
+        dto.setMessage(request.getErrorMessage());
+        dto.setCreatedAt(request.getCreatedAt());
+        dto.setUpdatedAt(request.getUpdatedAt());
+        return dto;
+    }
+}
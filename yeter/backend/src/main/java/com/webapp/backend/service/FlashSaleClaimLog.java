@@ -0,0 +1,192 @@
+package com.webapp.backend.service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Düğümün veritabanından kiraladığı flash-sale stoğunun yalnızca sona eklenen kalıcı günlüğü. Her satır
+ * bir kayıttır: {@code L <ürün> <miktar>} veritabanından kiralanan, {@code C <ürün> <miktar>} siparişe
+ * ayrılan, {@code R <ürün> <miktar>} geri alınan talep, {@code T <ürün> <miktar>} veritabanına iade edilen
+ * miktar. Bir ürün için L - C + R - T toplamı, veritabanından düşülmüş ama henüz satılmamış stoktur;
+ * açılışta bu miktar veritabanına iade edilir. Kayıtlar, çökme anında yalnızca eksik satışa yol açacak
+ * sırayla yazılır: L kira commit edildikten sonra, C sipariş commit edilmeden önce, T iade işleminden önce.
+ * Çökme anında yarım kalan son satır yok sayılır.
+ */
+final class FlashSaleClaimLog {
+
+    private final Path path;
+    private final boolean fsync;
+    private FileChannel channel;
+    // Kayıtlarla aynı kilit altında tutulan L - C + R - T toplamları
+    private final Map<Long, Long> outstanding = new HashMap<>();
+
+    FlashSaleClaimLog(Path path, boolean fsync) {
+        this.path = path;
+        this.fsync = fsync;
+    }
+
+    /**
+     * Mevcut günlükteki satılmamış kiralık stok (ürün id'si -> miktar). Dosya yoksa boş.
+     */
+    Map<Long, Long> readOutstanding() throws IOException {
+        Map<Long, Long> totals = new HashMap<>();
+        if (!Files.exists(path)) {
+            return totals;
+        }
+        String[] lines = Files.readString(path, StandardCharsets.US_ASCII).split("\n", -1);
+        // Son parça ya boştur ya da yeni satır karakteri yazılamadan yarım kalmış bir kayıttır
+        for (int i = 0; i < lines.length - 1; i++) {
+            String[] parts = lines[i].split(" ");
+            if (parts.length != 3 || parts[0].length() != 1) {
+                continue;
+            }
+            long productId;
+            long quantity;
+            try {
+                productId = Long.parseLong(parts[1]);
+                quantity = Long.parseLong(parts[2]);
+            } catch (NumberFormatException e) {
+                continue;
+            }
+            long sign = sign(parts[0].charAt(0));
+            if (sign != 0) {
+                totals.merge(productId, sign * quantity, Long::sum);
+            }
+        }
+        totals.values().removeIf(quantity -> quantity <= 0);
+        return totals;
+    }
+
+    synchronized void open() throws IOException {
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.APPEND);
+    }
+
+    void leased(long productId, int quantity) {
+        append('L', productId, quantity);
+    }
+
+    /**
+     * fsync açıksa kayıt diske yazılmadan dönmez; sipariş commit edilmeden önce talep kalıcıdır
+     */
+    void claimed(long productId, int quantity) {
+        append('C', productId, quantity);
+    }
+
+    void released(long productId, int quantity) {
+        append('R', productId, quantity);
+    }
+
+    void returned(long productId, int quantity) {
+        append('T', productId, quantity);
+    }
+
+    synchronized long outstanding(long productId) {
+        return outstanding.getOrDefault(productId, 0L);
+    }
+
+    synchronized long outstandingTotal() {
+        return outstanding.values().stream().mapToLong(Long::longValue).sum();
+    }
+
+    /**
+     * Günlüğü yalnızca güncel toplamlardan oluşan L kayıtlarıyla yeniden yazar. Yeni dosya önce yanına
+     * yazılıp diske indirilir, ardından atomik olarak eskisinin yerine taşınır.
+     */
+    synchronized void compact() {
+        if (channel == null) {
+            return;
+        }
+        StringBuilder records = new StringBuilder(outstanding.size() * 16);
+        outstanding.forEach((productId, quantity) -> {
+            if (quantity > 0) {
+                records.append("L ").append(productId).append(' ').append(quantity).append('\n');
+            }
+        });
+        Path compacted = path.resolveSibling(path.getFileName() + ".compact");
+        try (FileChannel out = FileChannel.open(compacted, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            write(out, records.toString());
+            out.force(true);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        try {
+            channel.close();
+            Files.move(compacted, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            channel = FileChannel.open(path, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Açılışta kurtarma uygulandıktan sonra eski kayıtları siler
+     */
+    synchronized void reset() throws IOException {
+        outstanding.clear();
+        if (channel != null) {
+            channel.truncate(0);
+            channel.force(true);
+        } else {
+            Files.deleteIfExists(path);
+        }
+    }
+
+    synchronized long size() {
+        try {
+            return channel != null ? channel.size() : 0L;
+        } catch (IOException e) {
+            return -1L;
+        }
+    }
+
+    synchronized void close() throws IOException {
+        if (channel != null) {
+            channel.close();
+            channel = null;
+        }
+    }
+
+    private static long sign(char type) {
+        return switch (type) {
+            case 'L', 'R' -> 1L;
+            case 'C', 'T' -> -1L;
+            default -> 0L;
+        };
+    }
+
+    private synchronized void append(char type, long productId, int quantity) {
+        if (channel == null) {
+            throw new IllegalStateException("Flash-sale talep günlüğü açık değil");
+        }
+        try {
+            write(channel, type + " " + productId + " " + quantity + "\n");
+            if (fsync) {
+                channel.force(false);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        outstanding.merge(productId, sign(type) * quantity, Long::sum);
+    }
+
+    private static void write(FileChannel target, String records) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(records.getBytes(StandardCharsets.US_ASCII));
+        while (buffer.hasRemaining()) {
+            target.write(buffer);
+        }
+    }
+}
@@ -0,0 +1,461 @@
+package com.webapp.backend.service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.webapp.backend.event.ProductBatchChangedEvent;
+import com.webapp.backend.event.ProductChangedEvent;
+import com.webapp.backend.exception.ResourceNotFoundException;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Kampanya ürünleri için flash-sale stoğu. Ürün başına products.flash_sale bayrağıyla açılır; bayrak tüm
+ * düğümlerde ortaktır. Veritabanındaki stok tek doğruluk kaynağı olarak kalır: her düğüm stoğu küçük
+ * parçalar halinde veritabanından kiralar (kilitli satırdan koşullu düşümle) ve kiraladığı birimleri
+ * bellekte parçalı, kilitsiz sayaçlarda tutar. Siparişler bu sayaçlardan veritabanı satırına dokunmadan
+ * ayrılır; sayaç bitince yeni bir parça kiralanır. Düğümler yalnızca kiraladıkları birimleri satabildiği
+ * için toplam satış veritabanındaki stoğu aşamaz. Bayrak kapanınca her düğüm satılmamış kiralık birimlerini
+ * veritabanına iade eder. Kiralar ve talepler kalıcı günlüğe yazılır; düğüm çökerse yeniden açılışta
+ * satılmamış kiralık birimler iade edilir. Belirsiz durumlarda (ör. commit edilmemiş bir siparişin talebi)
+ * stok eksik satılır, fazla satılmaz.
+ */
+@Component
+public class FlashSaleStock {
+
+    private static final Logger log = LoggerFactory.getLogger(FlashSaleStock.class);
+
+    private static final String SET_FLAG_SQL = "UPDATE products SET flash_sale = ? WHERE id = ?";
+    private static final String SELECT_FOR_LEASE_SQL =
+            "SELECT stock_quantity, flash_sale FROM products WHERE id = ? FOR UPDATE";
+    private static final String SELECT_STATUS_SQL = "SELECT stock_quantity, flash_sale FROM products WHERE id = ?";
+    private static final String SELECT_ENABLED_SQL = "SELECT id FROM products WHERE flash_sale = TRUE AND id IN ";
+    private static final String LEASE_SQL = "UPDATE products SET stock_quantity = stock_quantity - ? WHERE id = ?";
+    private static final String RETURN_SQL = "UPDATE products SET stock_quantity = stock_quantity + ? WHERE id = ?";
+
+    private static final class Sale {
+        private final StripedStockCounter counter;
+        // Sayaç üzerinde süren talepler; kapatma bunların bitmesini bekler
+        private final AtomicInteger inFlight = new AtomicInteger();
+        // Aynı ürün için eşzamanlı talepler tek bir kira alır
+        private final Object leaseLock = new Object();
+        private volatile boolean closed;
+
+        private Sale(StripedStockCounter counter) {
+            this.counter = counter;
+        }
+
+        private boolean enter() {
+            inFlight.incrementAndGet();
+            if (closed) {
+                exit();
+                return false;
+            }
+            return true;
+        }
+
+        private void exit() {
+            if (inFlight.decrementAndGet() == 0 && closed) {
+                synchronized (this) {
+                    notifyAll();
+                }
+            }
+        }
+
+        /**
+         * Yeni talepleri durdurur ve sürenlerin bitmesini bekler
+         */
+        private void close() {
+            closed = true;
+            boolean interrupted = false;
+            synchronized (this) {
+                while (inFlight.get() > 0) {
+                    try {
+                        wait(100);
+                    } catch (InterruptedException e) {
+                        interrupted = true;
+                    }
+                }
+            }
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    // Kira ve iadeler siparişin işleminden bağımsız commit edilir
+    private final TransactionTemplate leaseTemplate;
+    private final FlashSaleClaimLog claimLog;
+    private final int stripes;
+    private final int leaseChunk;
+    private final long maxLogBytes;
+
+    private final Map<Long, Sale> sales = new ConcurrentHashMap<>();
+    // Veritabanına iadesi başarısız olan, bir sonraki eşitlemede yeniden denenecek birimler
+    private final Map<Long, Integer> unreturned = new ConcurrentHashMap<>();
+
+    private final AtomicLong claims = new AtomicLong();
+    private final AtomicLong rejectedClaims = new AtomicLong();
+    private final AtomicLong releases = new AtomicLong();
+    private final AtomicLong leases = new AtomicLong();
+    private final AtomicLong leasedUnits = new AtomicLong();
+    private final AtomicLong returnedUnits = new AtomicLong();
+    private volatile long lastLeaseMillis;
+
+    public FlashSaleStock(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+            @Value("${flash-sale.stripes:16}") int stripes,
+            @Value("${flash-sale.lease-chunk:20}") int leaseChunk,
+            @Value("${flash-sale.log.path:data/flash-sale-claims.log}") String logPath,
+            @Value("${flash-sale.log.fsync:true}") boolean fsync,
+            @Value("${flash-sale.log.max-bytes:16777216}") long maxLogBytes) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.leaseTemplate = new TransactionTemplate(transactionManager);
+        this.leaseTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.claimLog = new FlashSaleClaimLog(Paths.get(logPath), fsync);
+        this.stripes = Math.max(1, stripes);
+        this.leaseChunk = Math.max(1, leaseChunk);
+        this.maxLogBytes = maxLogBytes;
+    }
+
+    /**
+     * Önceki çalışmadan kalan satılmamış kiralık birimleri veritabanına iade eder. İade kayıtları
+     * işlemden önce yazılır; işlem başarısız olursa telafi kayıtları eklenir ve bir sonraki açılışta
+     * yeniden denenir.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() throws IOException {
+        Map<Long, Long> outstanding = claimLog.readOutstanding();
+        claimLog.open();
+        if (!outstanding.isEmpty()) {
+            List<Object[]> args = new ArrayList<>(outstanding.size());
+            outstanding.forEach((productId, quantity) -> {
+                claimLog.returned(productId, quantity.intValue());
+                args.add(new Object[] { quantity, productId });
+            });
+            try {
+                leaseTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(RETURN_SQL, args));
+            } catch (RuntimeException e) {
+                outstanding.forEach((productId, quantity) -> claimLog.leased(productId, quantity.intValue()));
+                throw e;
+            }
+            log.info("Flash-sale talep günlüğünden {} ürünün kiralık stoğu iade edildi", outstanding.size());
+        }
+        claimLog.reset();
+    }
+
+    /**
+     * Miktarların tamamını kiralık stoktan ayırır ya da hiçbirini ayırmaz; gerekirse veritabanından yeni
+     * parça kiralar. Yetmeyen (veya flash-sale'i kapanmış) ürünlerin id'lerini döndürür. Etkin bir işlem
+     * varsa, işlem geri alınınca ayrılan miktarlar sayaçlara iade edilir.
+     */
+    public List<Long> claim(Map<Long, Integer> quantities) {
+        Map<Long, Integer> claimed = new HashMap<>();
+        for (Map.Entry<Long, Integer> line : quantities.entrySet()) {
+            if (!claimOne(line.getKey(), line.getValue())) {
+                rejectedClaims.incrementAndGet();
+                claimed.forEach(this::release);
+                return List.of(line.getKey());
+            }
+            claimed.put(line.getKey(), line.getValue());
+        }
+        if (!claimed.isEmpty() && TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status != STATUS_COMMITTED) {
+                        claimed.forEach(FlashSaleStock.this::release);
+                    }
+                }
+            });
+        }
+        return List.of();
+    }
+
+    /**
+     * Ürün için flash-sale'i açar. Yalnızca ortak bayrak yazılır; her düğüm ilk siparişte kendi kirasını alır.
+     */
+    public void enable(Long productId) {
+        Integer updated = leaseTemplate.execute(status -> jdbcTemplate.update(SET_FLAG_SQL, true, productId));
+        if (updated == null || updated == 0) {
+            throw new ResourceNotFoundException("Product", "id", productId);
+        }
+        log.info("Ürün {} için flash-sale açıldı", productId);
+    }
+
+    /**
+     * Flash-sale'i kapatır. Önce ortak bayrak temizlenir; bu andan sonra yeni kira alınamaz ve siparişler
+     * veritabanı yolundan stok düşebilir. Ardından yerel sayaç kapatılır, süren talepler beklenir ve
+     * satılmamış kiralık birimler iade edilir. Diğer düğümler kendi birimlerini eşitlemede iade eder.
+     */
+    public void disable(Long productId) {
+        Integer updated = leaseTemplate.execute(status -> jdbcTemplate.update(SET_FLAG_SQL, false, productId));
+        close(productId);
+        if (updated == null || updated == 0) {
+            throw new ResourceNotFoundException("Product", "id", productId);
+        }
+        log.info("Ürün {} için flash-sale kapatıldı", productId);
+    }
+
+    /**
+     * Yerel sayaçları ortak bayrakla eşitler: başka bir düğümde kapatılmış ürünlerin kiralık birimleri
+     * iade edilir. Başarısız iadeler yeniden denenir, günlük büyümüşse sıkıştırılır.
+     */
+    @Scheduled(fixedDelayString = "${flash-sale.sync-interval-ms:1000}")
+    public void sync() {
+        try {
+            retryReturns();
+            if (!sales.isEmpty()) {
+                List<Long> ids = new ArrayList<>(sales.keySet());
+                String placeholders = "(" + String.join(",", Collections.nCopies(ids.size(), "?")) + ")";
+                Set<Long> enabled = new HashSet<>(jdbcTemplate.queryForList(SELECT_ENABLED_SQL + placeholders,
+                        Long.class, ids.toArray()));
+                for (Long productId : ids) {
+                    if (!enabled.contains(productId)) {
+                        close(productId);
+                        log.info("Ürün {} için flash-sale kapalı; kiralık stok iade edildi", productId);
+                    }
+                }
+            }
+            if (claimLog.size() > maxLogBytes) {
+                claimLog.compact();
+            }
+        } catch (RuntimeException e) {
+            log.warn("Flash-sale stokları eşitlenemedi; sonraki denemede tekrar denenecek", e);
+        }
+    }
+
+    @PreDestroy
+    public void closeOnShutdown() throws IOException {
+        for (Long productId : new ArrayList<>(sales.keySet())) {
+            close(productId);
+        }
+        claimLog.close();
+    }
+
+    /**
+     * Ürün silinirse sayaç kapatılır; kiralık birimler satırla birlikte gider
+     */
+    @Order(CatalogVersions.INDEX_LISTENER_ORDER)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        if (event.getType() == ProductChangedEvent.Type.DELETED) {
+            close(event.getProductId());
+        }
+    }
+
+    @Order(CatalogVersions.INDEX_LISTENER_ORDER)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductsChanged(ProductBatchChangedEvent event) {
+        event.getDeletedIds().forEach(this::close);
+    }
+
+    /**
+     * Bu düğümün elindeki satılmamış kiralık birimler; flash-sale yerelde açık değilse 0
+     */
+    public int leasedStock(Long productId) {
+        Sale sale = sales.get(productId);
+        return sale != null ? sale.counter.available() : 0;
+    }
+
+    /**
+     * Ortak bayrak, veritabanındaki (kiralanmamış) stok ve bu düğümün elindeki kiralık stok
+     */
+    public Map<String, Object> getStatus(Long productId) {
+        Map<String, Object> status = jdbcTemplate.query(SELECT_STATUS_SQL, rs -> {
+            if (!rs.next()) {
+                return null;
+            }
+            Map<String, Object> values = new LinkedHashMap<>();
+            values.put("productId", productId);
+            values.put("enabled", rs.getBoolean(2));
+            values.put("databaseStock", rs.getInt(1));
+            return values;
+        }, productId);
+        if (status == null) {
+            throw new ResourceNotFoundException("Product", "id", productId);
+        }
+        status.put("leasedStock", leasedStock(productId));
+        status.put("outstandingUnits", claimLog.outstanding(productId));
+        return status;
+    }
+
+    public Map<String, Object> getMetrics() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("activeProducts", new ArrayList<>(sales.keySet()));
+        metrics.put("claims", claims.get());
+        metrics.put("rejectedClaims", rejectedClaims.get());
+        metrics.put("releases", releases.get());
+        metrics.put("leases", leases.get());
+        metrics.put("leasedUnits", leasedUnits.get());
+        metrics.put("returnedUnits", returnedUnits.get());
+        metrics.put("outstandingUnits", claimLog.outstandingTotal());
+        metrics.put("unreturnedUnits", unreturned.values().stream().mapToLong(Integer::longValue).sum());
+        metrics.put("lastLeaseMillis", lastLeaseMillis);
+        metrics.put("claimLogBytes", claimLog.size());
+        return metrics;
+    }
+
+    /**
+     * Sayaçtan ayırır ve talebi günlüğe yazar; sayaç yetmezse önce eksik kadar (en az bir parça) kiralar
+     */
+    private boolean claimOne(Long productId, int quantity) {
+        Sale sale = sales.computeIfAbsent(productId, id -> new Sale(new StripedStockCounter(0, stripes)));
+        if (!sale.enter()) {
+            return false;
+        }
+        try {
+            if (!sale.counter.claim(quantity) && !(lease(productId, sale, quantity) && sale.counter.claim(quantity))) {
+                return false;
+            }
+            try {
+                claimLog.claimed(productId, quantity);
+            } catch (RuntimeException e) {
+                sale.counter.release(quantity);
+                throw e;
+            }
+            claims.incrementAndGet();
+            return true;
+        } finally {
+            sale.exit();
+        }
+    }
+
+    /**
+     * Veritabanından ayrı bir işlemde, kilitli satırdan parça kiralar. Bayrak kapalıysa veya stok eksik
+     * miktara yetmiyorsa kiralamaz. Kira, commit edildikten sonra günlüğe yazılır.
+     */
+    private boolean lease(Long productId, Sale sale, int quantity) {
+        synchronized (sale.leaseLock) {
+            int missing = quantity - sale.counter.available();
+            if (missing <= 0) {
+                return true;
+            }
+            long start = System.currentTimeMillis();
+            Integer leased = leaseTemplate.execute(status -> {
+                int[] row = jdbcTemplate.query(SELECT_FOR_LEASE_SQL,
+                        rs -> rs.next() ? new int[] { rs.getInt(1), rs.getBoolean(2) ? 1 : 0 } : null, productId);
+                if (row == null || row[1] == 0 || row[0] < missing) {
+                    return 0;
+                }
+                int amount = Math.min(Math.max(leaseChunk, missing), row[0]);
+                jdbcTemplate.update(LEASE_SQL, amount, productId);
+                return amount;
+            });
+            lastLeaseMillis = System.currentTimeMillis() - start;
+            if (leased == null || leased == 0) {
+                return false;
+            }
+            try {
+                claimLog.leased(productId, leased);
+            } catch (RuntimeException e) {
+                // Kayıt yazılamazsa çökme sonrası bu birimler iade edilmez; stok yalnızca eksik satılır
+                log.warn("Ürün {} için flash-sale kirası günlüğe yazılamadı", productId, e);
+            }
+            sale.counter.release(leased);
+            leases.incrementAndGet();
+            leasedUnits.addAndGet(leased);
+            return true;
+        }
+    }
+
+    private void release(Long productId, int quantity) {
+        try {
+            claimLog.released(productId, quantity);
+        } catch (UncheckedIOException e) {
+            // Kayıt yazılamazsa çökme sonrası talep geçerli sayılır; stok yalnızca eksik satılır
+            log.warn("Ürün {} için geri alınan flash-sale talebi günlüğe yazılamadı", productId, e);
+        }
+        Sale sale = sales.get(productId);
+        if (sale != null && sale.enter()) {
+            try {
+                sale.counter.release(quantity);
+            } finally {
+                sale.exit();
+            }
+        } else {
+            // Satış bu arada kapandı; birimler doğrudan veritabanına döner
+            returnToDatabase(productId, quantity);
+        }
+        releases.incrementAndGet();
+    }
+
+    /**
+     * Satışı kapatır, süren talepleri bekler ve sayaçta kalan kiralık birimleri iade eder
+     */
+    private void close(Long productId) {
+        Sale sale = sales.remove(productId);
+        if (sale == null) {
+            return;
+        }
+        sale.close();
+        returnToDatabase(productId, sale.counter.drain());
+    }
+
+    /**
+     * İade kaydı işlemden önce yazılır; işlem başarısız olursa telafi kiralama kaydı eklenir ve birimler
+     * bir sonraki eşitlemede yeniden denenir.
+     */
+    private void returnToDatabase(Long productId, int quantity) {
+        if (quantity <= 0) {
+            return;
+        }
+        try {
+            claimLog.returned(productId, quantity);
+        } catch (RuntimeException e) {
+            log.warn("Ürün {} için flash-sale iadesi günlüğe yazılamadı; yeniden denenecek", productId, e);
+            unreturned.merge(productId, quantity, Integer::sum);
+            return;
+        }
+        try {
+            leaseTemplate.executeWithoutResult(status -> jdbcTemplate.update(RETURN_SQL, quantity, productId));
+            returnedUnits.addAndGet(quantity);
+        } catch (RuntimeException e) {
+            log.warn("Ürün {} için {} flash-sale birimi veritabanına iade edilemedi; yeniden denenecek",
+                    productId, quantity, e);
+            try {
+                claimLog.leased(productId, quantity);
+            } catch (RuntimeException logFailure) {
+                log.warn("Ürün {} için telafi kaydı günlüğe yazılamadı", productId, logFailure);
+            }
+            unreturned.merge(productId, quantity, Integer::sum);
+        }
+    }
+
+    private void retryReturns() {
+        for (Long productId : new ArrayList<>(unreturned.keySet())) {
+            Integer quantity = unreturned.remove(productId);
+            if (quantity != null) {
+                returnToDatabase(productId, quantity);
+            }
+        }
+    }
+}
@@ -0,0 +1,191 @@
+package com.webapp.backend.service;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.core.env.Profiles;
+import org.springframework.stereotype.Component;
+
+/**
+ * Misafir sepetini istemcide tutulan imzalı, kompakt bir token'a çevirir. Token
+ * {@code base64url(gövde).base64url(imza)} biçimindedir; gövde sürüm baytı, son değişiklik zamanı
+ * (epoch saniye) ve satır sayısından sonra gelen (ürün id, miktar) çiftlerinden oluşur, sayılar
+ * varint olarak yazılır. İmza gövdenin HMAC-SHA256 değerinin ilk 16 baytıdır. Sunucu tarafında
+ * hiçbir durum tutulmaz.
+ */
+@Component
+public class GuestCartCodec {
+
+    private static final Logger log = LoggerFactory.getLogger(GuestCartCodec.class);
+
+    private static final byte VERSION = 1;
+    private static final String ALGORITHM = "HmacSHA256";
+    private static final int SIGNATURE_BYTES = 16;
+    // Satır sınırıyla üretilebilecek token'lardan çok daha uzun girdiler çözülmeden reddedilir
+    private static final int MAX_TOKEN_LENGTH = 4096;
+
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+    // HMAC-SHA256 için anahtar en az özet uzunluğunda olmalıdır
+    private static final int MIN_SECRET_BYTES = 32;
+
+    /**
+     * Çözülmüş misafir sepeti: ürün id'sine göre eklenme sırasında miktarlar ve son değişiklik zamanı
+     */
+    public record GuestCart(Map<Long, Integer> lines, Instant updatedAt) {
+
+        public static GuestCart empty() {
+            return new GuestCart(new LinkedHashMap<>(), Instant.now());
+        }
+    }
+
+    private final SecretKeySpec key;
+    private final Duration ttl;
+    private final int maxLines;
+
+    /**
+     * İmza anahtarı cart.guest.secret zorunludur ve başka bir anahtardan türetilmez. Yalnızca dev profilinde
+     * anahtar verilmezse rastgele bir anahtar üretilir; bu anahtarla imzalanan token'lar yeniden başlatmada ve
+     * diğer düğümlerde geçersizdir.
+     */
+    public GuestCartCodec(@Value("${cart.guest.secret:}") String secret,
+            @Value("${cart.guest.ttl-days:30}") long ttlDays,
+            @Value("${cart.guest.max-lines:100}") int maxLines,
+            Environment environment) {
+        byte[] keyBytes;
+        if (secret == null || secret.isBlank()) {
+            if (!environment.acceptsProfiles(Profiles.of("dev"))) {
+                throw new IllegalStateException(
+                        "cart.guest.secret tanımlı değil; misafir sepeti imza anahtarı zorunludur. "
+                        + "CART_GUEST_SECRET ortam değişkenini (en az " + MIN_SECRET_BYTES + " bayt) tanımlayın "
+                        + "veya yerel çalıştırmada dev profilini etkinleştirin");
+            }
+            log.warn("cart.guest.secret tanımlı değil; dev profilinde rastgele anahtar kullanılıyor, "
+                    + "misafir sepetleri yeniden başlatmada geçersiz olacak");
+            keyBytes = new byte[MIN_SECRET_BYTES];
+            new SecureRandom().nextBytes(keyBytes);
+        } else {
+            keyBytes = secret.getBytes(StandardCharsets.UTF_8);
+            if (keyBytes.length < MIN_SECRET_BYTES) {
+                throw new IllegalStateException("cart.guest.secret en az " + MIN_SECRET_BYTES + " bayt olmalıdır");
+            }
+        }
+        this.key = new SecretKeySpec(keyBytes, ALGORITHM);
+        this.ttl = Duration.ofDays(ttlDays);
+        this.maxLines = Math.max(1, maxLines);
+    }
+
+    public int getMaxLines() {
+        return maxLines;
+    }
+
+    public String encode(Map<Long, Integer> lines) {
+        ByteArrayOutputStream body = new ByteArrayOutputStream(8 + lines.size() * 6);
+        body.write(VERSION);
+        writeVarint(body, Instant.now().getEpochSecond());
+        writeVarint(body, lines.size());
+        for (Map.Entry<Long, Integer> line : lines.entrySet()) {
+            writeVarint(body, line.getKey());
+            writeVarint(body, line.getValue());
+        }
+        byte[] bytes = body.toByteArray();
+        return ENCODER.encodeToString(bytes) + "." + ENCODER.encodeToString(sign(bytes));
+    }
+
+    /**
+     * Token'ı doğrulayıp çözer. Boş token boş sepet, süresi dolmuş token boş sepet demektir;
+     * imzası tutmayan veya bozuk token için IllegalArgumentException fırlatılır.
+     */
+    public GuestCart decode(String token) {
+        if (token == null || token.isBlank()) {
+            return GuestCart.empty();
+        }
+        int dot = token.indexOf('.');
+        if (token.length() > MAX_TOKEN_LENGTH || dot < 0) {
+            throw new IllegalArgumentException("Geçersiz misafir sepeti");
+        }
+        byte[] body;
+        byte[] signature;
+        try {
+            body = DECODER.decode(token.substring(0, dot));
+            signature = DECODER.decode(token.substring(dot + 1));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Geçersiz misafir sepeti");
+        }
+        if (!MessageDigest.isEqual(sign(body), signature)) {
+            throw new IllegalArgumentException("Geçersiz misafir sepeti");
+        }
+
+        int[] position = { 0 };
+        if (body.length == 0 || body[position[0]++] != VERSION) {
+            throw new IllegalArgumentException("Geçersiz misafir sepeti");
+        }
+        Instant updatedAt = Instant.ofEpochSecond(readVarint(body, position));
+        if (updatedAt.plus(ttl).isBefore(Instant.now())) {
+            return GuestCart.empty();
+        }
+        long count = readVarint(body, position);
+        if (count > maxLines) {
+            throw new IllegalArgumentException("Geçersiz misafir sepeti");
+        }
+        Map<Long, Integer> lines = new LinkedHashMap<>((int) count * 2);
+        for (long i = 0; i < count; i++) {
+            long productId = readVarint(body, position);
+            long quantity = readVarint(body, position);
+            if (quantity < 1 || quantity > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException("Geçersiz misafir sepeti");
+            }
+            lines.put(productId, (int) quantity);
+        }
+        return new GuestCart(lines, updatedAt);
+    }
+
+    private byte[] sign(byte[] body) {
+        try {
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(key);
+            return Arrays.copyOf(mac.doFinal(body), SIGNATURE_BYTES);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(ALGORITHM + " kullanılamıyor", e);
+        }
+    }
+
+    private static void writeVarint(ByteArrayOutputStream out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    private static long readVarint(byte[] bytes, int[] position) {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            if (position[0] >= bytes.length) {
+                throw new IllegalArgumentException("Geçersiz misafir sepeti");
+            }
+            byte b = bytes[position[0]++];
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("Geçersiz misafir sepeti");
+    }
+}
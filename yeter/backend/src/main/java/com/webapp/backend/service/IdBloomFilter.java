@@ -0,0 +1,85 @@
+package com.webapp.backend.service;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Long id'ler için Bloom filtresi. mightContain false dönerse id kesinlikle eklenmemiştir;
+ * true dönmesi ise yalnızca olasılıktır. Bitler atomik olarak set edildiği için ekleme ve
+ * sorgular kilitsiz eşzamanlı çalışabilir. Silme desteklenmez.
+ */
+final class IdBloomFilter {
+
+    private final AtomicLongArray words;
+    private final long bitCount;
+    private final int hashCount;
+    private final long expectedInsertions;
+    private final AtomicLong insertions = new AtomicLong();
+
+    IdBloomFilter(long expectedInsertions, double falsePositiveRate) {
+        long expected = Math.max(1, expectedInsertions);
+        // m = -n ln p / (ln 2)^2, k = m/n ln 2
+        long bits = (long) Math.ceil(-expected * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+        int wordCount = (int) Math.min(Integer.MAX_VALUE - 8, Math.max(1, (bits + 63) / 64));
+        this.words = new AtomicLongArray(wordCount);
+        this.bitCount = (long) wordCount * 64;
+        this.hashCount = Math.max(1, (int) Math.round((double) bitCount / expected * Math.log(2)));
+        this.expectedInsertions = expected;
+    }
+
+    void add(long id) {
+        long hash1 = mix(id);
+        long hash2 = mix(hash1 ^ 0x9E3779B97F4A7C15L) | 1L;
+        for (int i = 0; i < hashCount; i++) {
+            long bit = Math.floorMod(hash1 + i * hash2, bitCount);
+            int index = (int) (bit >>> 6);
+            long mask = 1L << bit;
+            long word;
+            do {
+                word = words.get(index);
+            } while ((word & mask) == 0 && !words.compareAndSet(index, word, word | mask));
+        }
+        insertions.incrementAndGet();
+    }
+
+    boolean mightContain(long id) {
+        long hash1 = mix(id);
+        long hash2 = mix(hash1 ^ 0x9E3779B97F4A7C15L) | 1L;
+        for (int i = 0; i < hashCount; i++) {
+            long bit = Math.floorMod(hash1 + i * hash2, bitCount);
+            if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Planlanan kapasite aşıldıysa yanlış pozitif oranı hedefin üzerine çıkmaya başlar
+     */
+    boolean isSaturated() {
+        return insertions.get() > expectedInsertions;
+    }
+
+    long getInsertions() {
+        return insertions.get();
+    }
+
+    long getBitCount() {
+        return bitCount;
+    }
+
+    int getHashCount() {
+        return hashCount;
+    }
+
+    /**
+     * SplitMix64 sonlandırıcısı; ardışık id'leri bit dizisine düzgün dağıtır
+     */
+    private static long mix(long value) {
+        long z = value + 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
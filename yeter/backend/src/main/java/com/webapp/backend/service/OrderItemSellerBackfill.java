@@ -0,0 +1,57 @@
+package com.webapp.backend.service;
+
+import java.util.Collections;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * seller_id kolonu eklenmeden önce oluşturulmuş sipariş satırlarını açılışta ürünün satıcısıyla
+ * doldurur. Satırlar id üzerinden keyset ile parça parça güncellenir; her parça ayrı bir ifadedir,
+ * böylece büyük tablolarda uzun süreli kilit tutulmaz. Eksik satır yoksa tek bir boş sorgudan ibarettir.
+ */
+@Component
+public class OrderItemSellerBackfill {
+
+    private static final Logger log = LoggerFactory.getLogger(OrderItemSellerBackfill.class);
+
+    private static final String SELECT_MISSING_SQL =
+            "SELECT id FROM order_items WHERE seller_id IS NULL AND id > ? ORDER BY id LIMIT ?";
+    private static final String UPDATE_SQL =
+            "UPDATE order_items SET seller_id = (SELECT p.seller_id FROM products p WHERE p.id = order_items.product_id) "
+            + "WHERE id IN (%s)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int chunkSize;
+
+    public OrderItemSellerBackfill(JdbcTemplate jdbcTemplate,
+            @Value("${order.seller-backfill.chunk-size:1000}") int chunkSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.chunkSize = Math.max(1, chunkSize);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfill() {
+        long afterId = 0L;
+        int updated = 0;
+        List<Long> ids;
+        do {
+            ids = jdbcTemplate.queryForList(SELECT_MISSING_SQL, Long.class, afterId, chunkSize);
+            if (!ids.isEmpty()) {
+                afterId = ids.get(ids.size() - 1);
+                updated += jdbcTemplate.update(
+                        String.format(UPDATE_SQL, String.join(",", Collections.nCopies(ids.size(), "?"))),
+                        ids.toArray());
+            }
+        } while (ids.size() == chunkSize);
+        if (updated > 0) {
+            log.info("{} sipariş satırına satıcı bilgisi eklendi", updated);
+        }
+    }
+}
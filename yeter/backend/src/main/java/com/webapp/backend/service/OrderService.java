@@ -2,14 +2,24 @@ package com.webapp.backend.service;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import com.webapp.backend.dto.CursorPageDto;
+import com.webapp.backend.event.ProductChangedEvent;
 import com.webapp.backend.model.Address;
 import com.webapp.backend.model.Cart;
 import com.webapp.backend.model.CartItem;
@@ -42,6 +52,12 @@ public class OrderService {
     @Autowired
     private AddressService addressService;
 
+    @Autowired
+    private FlashSaleStock flashSaleStock;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
     public List<Order> getUserOrders(User user) {
         return orderRepository.findByUserOrderByOrderDateDesc(user);
     }
@@ -59,16 +75,28 @@ public class OrderService {
     }
 
     /**
-     * Satıcının ürünlerinin bulunduğu tüm siparişleri getir
+     * Satıcının ürünlerini içeren siparişler, en yeniden eskiye keyset ile sayfalanır. Sayfadaki sipariş
+     * id'leri order_items üzerindeki (seller_id, order_id) indeksinden okunur, ardından yalnızca bu
+     * siparişler satırlarıyla birlikte tek sorguda yüklenir. afterId ilk sayfada null'dır.
      */
-    public List<Order> getOrdersContainingSellerProducts(User seller) {
-        List<Product> sellerProducts = productRepository.findBySeller(seller);
-        
-        // Satıcının ürünlerinin satıldığı benzersiz siparişleri bul
-        return orderRepository.findAll().stream()
-            .filter(order -> order.getOrderItems().stream()
-                .anyMatch(item -> sellerProducts.contains(item.getProduct())))
-            .collect(Collectors.toList());
+    public CursorPageDto<Order> getSellerOrders(Long sellerId, Long afterId, int limit) {
+        Pageable pageable = PageRequest.of(0, limit + 1);
+        List<Long> ids = afterId == null
+                ? orderItemRepository.findOrderIdsBySeller(sellerId, pageable)
+                : orderItemRepository.findOrderIdsBySellerBefore(sellerId, afterId, pageable);
+        boolean hasMore = ids.size() > limit;
+        if (hasMore) {
+            ids = ids.subList(0, limit);
+        }
+        if (ids.isEmpty()) {
+            return new CursorPageDto<>(new ArrayList<>(), null, false, limit);
+        }
+
+        Map<Long, Order> orders = orderRepository.findWithItemsByIdIn(ids).stream()
+                .collect(Collectors.toMap(Order::getId, Function.identity(), (a, b) -> a));
+        List<Order> items = ids.stream().map(orders::get).filter(Objects::nonNull).collect(Collectors.toList());
+        String nextCursor = hasMore ? String.valueOf(ids.get(ids.size() - 1)) : null;
+        return new CursorPageDto<>(items, nextCursor, hasMore, limit);
     }
 
     @Transactional
@@ -79,15 +107,55 @@ public class OrderService {
             throw new IllegalStateException("Sepet boş, sipariş oluşturulamaz");
         }
 
-        // Ürünlerin stok kontrolü
+        reserveStock(cart);
+        PricedOrder priced = priceOrder(user, cart, shippingAddress, billingAddress, paymentMethod, coupon);
+        persistOrder(priced, cart);
+
+        // Siparişi oluşturduktan sonra sepeti temizle
+        cartService.clearCart(user);
+
+        return priced.order();
+    }
+
+    /**
+     * Sipariş hattının stok aşaması. Stok kontrolü ve düşümü tek adımda yapılır: tüm satırlar tek
+     * batch'te, yalnızca stok yetiyorsa düşülür. Flash-sale ürünleri önce bu düğümün veritabanından
+     * kiraladığı stoktan ayrılır; kira alınamazsa (ör. flash-sale bu arada kapandıysa) veritabanı yoluna
+     * düşülür. Yetmeyen bir ürün varsa istisna işlemi geri alır, diğer ürünlerden düşülen stok da geri
+     * döner. Çağıranın işlemi içinde çalışmalıdır.
+     */
+    public void reserveStock(Cart cart) {
+        Map<Long, Product> products = new HashMap<>();
+        Map<Long, Integer> quantities = new HashMap<>();
+        Map<Long, Integer> flashSaleQuantities = new HashMap<>();
         for (CartItem cartItem : cart.getCartItems()) {
             Product product = cartItem.getProduct();
-            if (product.getStock_quantity() < cartItem.getQuantity()) {
-                throw new IllegalStateException("Ürün stokta yeterli sayıda yok: " + product.getName());
-            }
+            products.put(product.getId(), product);
+            (Boolean.TRUE.equals(product.getFlashSale()) ? flashSaleQuantities : quantities)
+                    .merge(product.getId(), cartItem.getQuantity(), Integer::sum);
+        }
+        if (!flashSaleStock.claim(flashSaleQuantities).isEmpty()) {
+            // claim hepsini ya da hiçbirini ayırır; ayrılamadıysa flash-sale satırları da veritabanından düşülür
+            quantities.putAll(flashSaleQuantities);
         }
+        List<Long> insufficient = productRepository.decrementStock(quantities);
+        if (!insufficient.isEmpty()) {
+            throw new IllegalStateException("Ürün stokta yeterli sayıda yok: "
+                    + products.get(insufficient.get(0)).getName());
+        }
+        // Kiralık flash-sale stoğu veritabanından düşülmüş olduğundan tüm ürünler veritabanından yenilenir
+        productRepository.refreshStockAndPrice(products.values());
+    }
 
-        // Yeni sipariş oluştur
+    /**
+     * Fiyatlama aşaması: sipariş satırlarını stok aşamasının veritabanından yenilediği ürün fiyatlarıyla
+     * kurar, toplamı bu satırlardan ve kupon indiriminden hesaplar. Sepet deposundaki fiyatlar ve ara toplam
+     * yalnızca gösterim içindir; düğümün önbelleğinden geldikleri için başka bir düğümde değişen fiyatın
+     * gerisinde kalabilirler. Sipariş ve satırları henüz kaydedilmemiştir. Satırlar siparişin koleksiyonuna
+     * eklenmez; kayıt aşamasında siparişe bağlanıp ayrı yazılır. reserveStock'tan sonra çağrılmalıdır.
+     */
+    public PricedOrder priceOrder(User user, Cart cart, Address shippingAddress, Address billingAddress,
+            String paymentMethod, Coupon coupon) {
         Order order = new Order();
         order.setUser(user);
         order.setOrderDate(LocalDateTime.now());
@@ -102,10 +170,20 @@ public class OrderService {
             order.setCoupon(coupon);
         }
 
-        // Toplam tutarı hesapla (kupon indirimi henüz hesaplanmadan)
-        BigDecimal totalAmount = cart.getCartItems().stream()
-            .map(item -> BigDecimal.valueOf(item.getQuantity()).multiply(BigDecimal.valueOf(item.getProduct().getPrice())))
-            .reduce(BigDecimal.ZERO, BigDecimal::add);
+        // Toplam tutar (kupon indirimi henüz hesaplanmadan) satırların toplamıdır
+        BigDecimal totalAmount = BigDecimal.ZERO;
+        List<OrderItem> items = new ArrayList<>(cart.getCartItems().size());
+        for (CartItem cartItem : cart.getCartItems()) {
+            Product product = cartItem.getProduct();
+
+            OrderItem orderItem = new OrderItem();
+            orderItem.setProduct(product);
+            orderItem.setQuantity(cartItem.getQuantity());
+            orderItem.setPrice(CartPricing.toAmount(CartPricing.toMinor(product.getPrice())));
+            orderItem.setSellerId(product.getSeller().getId());
+            items.add(orderItem);
+            totalAmount = totalAmount.add(orderItem.getPrice().multiply(BigDecimal.valueOf(cartItem.getQuantity())));
+        }
             
         // Kupon indirimi uygula
         if (coupon != null && coupon.isValid(LocalDateTime.now(), totalAmount)) {
@@ -114,28 +192,23 @@ public class OrderService {
         }
         
         order.setTotalAmount(totalAmount);
-        orderRepository.save(order);
+        return new PricedOrder(order, items);
+    }
 
-        // Sipariş ürünlerini oluştur
-        for (CartItem cartItem : cart.getCartItems()) {
-            Product product = cartItem.getProduct();
-            
-            OrderItem orderItem = new OrderItem();
+    /**
+     * Kayıt aşaması: siparişi ve fiyatlama aşamasında kurulan satırlarını yazar
+     */
+    public void persistOrder(PricedOrder priced, Cart cart) {
+        Order order = orderRepository.save(priced.order());
+        for (OrderItem orderItem : priced.items()) {
             orderItem.setOrder(order);
-            orderItem.setProduct(product);
-            orderItem.setQuantity(cartItem.getQuantity());
-            orderItem.setPrice(BigDecimal.valueOf(product.getPrice()));
             orderItemRepository.save(orderItem);
-            
-            // Ürün stoğunu güncelle
-            product.setStock_quantity(product.getStock_quantity() - cartItem.getQuantity());
-            productRepository.save(product);
         }
 
-        // Siparişi oluşturduktan sonra sepeti temizle
-        cartService.clearCart(user);
-
-        return order;
+        for (CartItem cartItem : cart.getCartItems()) {
+            eventPublisher.publishEvent(
+                    ProductChangedEvent.stockChanged(cartItem.getProduct(), -cartItem.getQuantity()));
+        }
     }
 
     @Transactional
@@ -155,12 +228,18 @@ public class OrderService {
         // Sipariş durumunu iptal olarak güncelle
         order.setStatus(OrderStatus.CANCELLED);
         
-        // Ürünleri stoka geri ekle
+        // Ürünleri stoka geri ekle; artış SQL'de yapılır, eşzamanlı satışlarla çakışmaz
         List<OrderItem> orderItems = orderItemRepository.findByOrder(order);
+        Map<Long, Product> products = new HashMap<>();
+        Map<Long, Integer> quantities = new HashMap<>();
         for (OrderItem item : orderItems) {
-            Product product = item.getProduct();
-            product.setStock_quantity(product.getStock_quantity() + item.getQuantity());
-            productRepository.save(product);
+            products.put(item.getProduct().getId(), item.getProduct());
+            quantities.merge(item.getProduct().getId(), item.getQuantity(), Integer::sum);
+        }
+        productRepository.incrementStock(quantities);
+        productRepository.refreshStockAndPrice(products.values());
+        for (OrderItem item : orderItems) {
+            eventPublisher.publishEvent(ProductChangedEvent.stockChanged(item.getProduct(), item.getQuantity()));
         }
         
         orderRepository.save(order);
@@ -172,4 +251,10 @@ public class OrderService {
     public Order updateOrder(Order order) {
         return orderRepository.save(order);
     }
-} 
\ No newline at end of file
+
+    /**
+     * Fiyatlama aşamasının sonucu: henüz kaydedilmemiş sipariş ve güncel fiyatlarla kurulmuş satırları
+     */
+    public record PricedOrder(Order order, List<OrderItem> items) {
+    }
+}
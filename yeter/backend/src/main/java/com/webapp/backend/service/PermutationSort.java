@@ -0,0 +1,101 @@
+package com.webapp.backend.service;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Paralel primitive dizilerle tutulan indeksler için konum permütasyonunu (anahtar, id)
+ * sırasına göre dizen paralel birleştirme sıralaması. Diziler yerinde değiştirilmez;
+ * satır nesnesi oluşturulmadan yalnızca int konumlar sıralanır.
+ */
+final class PermutationSort extends RecursiveAction {
+
+    private static final long serialVersionUID = 1L;
+
+    private static final int SEQUENTIAL_THRESHOLD = 8192;
+    private static final int INSERTION_THRESHOLD = 32;
+
+    private final int[] order;
+    private final int[] buffer;
+    private final int from;
+    private final int to;
+    private final double[] keys;
+    private final long[] ids;
+
+    private PermutationSort(int[] order, int[] buffer, int from, int to, double[] keys, long[] ids) {
+        this.order = order;
+        this.buffer = buffer;
+        this.from = from;
+        this.to = to;
+        this.keys = keys;
+        this.ids = ids;
+    }
+
+    /**
+     * İlk count konumu (keys[i], ids[i]) artan sırasında döndürür
+     */
+    static int[] sortedOrder(double[] keys, long[] ids, int count) {
+        int[] order = new int[count];
+        for (int i = 0; i < count; i++) {
+            order[i] = i;
+        }
+        ForkJoinPool.commonPool().invoke(new PermutationSort(order, new int[count], 0, count, keys, ids));
+        return order;
+    }
+
+    static int compare(double keyA, long idA, double keyB, long idB) {
+        int byKey = Double.compare(keyA, keyB);
+        return byKey != 0 ? byKey : Long.compare(idA, idB);
+    }
+
+    @Override
+    protected void compute() {
+        if (to - from <= SEQUENTIAL_THRESHOLD) {
+            sort(from, to);
+            return;
+        }
+        int mid = (from + to) >>> 1;
+        invokeAll(new PermutationSort(order, buffer, from, mid, keys, ids),
+                new PermutationSort(order, buffer, mid, to, keys, ids));
+        merge(from, mid, to);
+    }
+
+    private void sort(int low, int high) {
+        if (high - low <= INSERTION_THRESHOLD) {
+            for (int i = low + 1; i < high; i++) {
+                int value = order[i];
+                int j = i - 1;
+                while (j >= low && less(value, order[j])) {
+                    order[j + 1] = order[j];
+                    j--;
+                }
+                order[j + 1] = value;
+            }
+            return;
+        }
+        int mid = (low + high) >>> 1;
+        sort(low, mid);
+        sort(mid, high);
+        merge(low, mid, high);
+    }
+
+    private void merge(int low, int mid, int high) {
+        if (!less(order[mid], order[mid - 1])) {
+            return;
+        }
+        System.arraycopy(order, low, buffer, low, high - low);
+        int left = low;
+        int right = mid;
+        for (int i = low; i < high; i++) {
+            if (right >= high || (left < mid && !less(buffer[right], buffer[left]))) {
+                order[i] = buffer[left++];
+            } else {
+                order[i] = buffer[right++];
+            }
+        }
+    }
+
+    private boolean less(int a, int b) {
+        return compare(keys[a], ids[a], keys[b], ids[b]) < 0;
+    }
+}
@@ -0,0 +1,151 @@
+package com.webapp.backend.service;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.webapp.backend.dto.ProductResponseDto;
+import com.webapp.backend.event.CategoryChangedEvent;
+import com.webapp.backend.event.ProductBatchChangedEvent;
+import com.webapp.backend.event.ProductChangedEvent;
+
+/**
+ * Ürün detay görünümleri için sınırlı, okuma sırasında dolan (read-through) önbellek.
+ * Entity yerine ProductResponseDto saklanır; böylece kategori ve satıcı grafiği
+ * yalnızca ilk okumada yüklenir ve önbellekteki değer dışarıdan değiştirilemez.
+ * Kayıtlar yaklaşık bellek ağırlığına göre tahliye edilir ve ürün/kategori/stok
+ * değişikliklerinde commit sonrası geçersiz kılınır. Başka düğümlerdeki değişiklikler
+ * CatalogChangeFeed üzerinden aynı olaylarla gelir; yaşam süresi yalnızca son güvenlik ağıdır.
+ */
+@Component
+public class ProductCache {
+
+    private final Cache<Long, ProductResponseDto> cache;
+    private final long maxWeightBytes;
+
+    public ProductCache(
+            @Value("${catalog.cache.products.max-weight-bytes:33554432}") long maxWeightBytes,
+            @Value("${catalog.cache.products.ttl-seconds:600}") long ttlSeconds) {
+        this.maxWeightBytes = maxWeightBytes;
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(maxWeightBytes)
+                .weigher((Long id, ProductResponseDto dto) -> estimateWeight(dto))
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * Önbellekte yoksa loader ile yükler. Loader null dönerse (ürün yoksa) hiçbir şey saklanmaz.
+     * Aynı id için eşzamanlı yüklemeler tek sorguda birleşir.
+     */
+    public ProductResponseDto get(Long id, Function<Long, ProductResponseDto> loader) {
+        return cache.get(id, loader);
+    }
+
+    /**
+     * Önbellekte olmayan id'leri tek seferde bulkLoader ile yükler. Yükleyicinin döndürmediği
+     * id'ler (bulunamayan ürünler) sonuçta yer almaz ve önbelleğe yazılmaz.
+     */
+    public Map<Long, ProductResponseDto> getAll(Collection<Long> ids,
+            Function<Set<? extends Long>, Map<Long, ProductResponseDto>> bulkLoader) {
+        return cache.getAll(ids, bulkLoader);
+    }
+
+    /**
+     * Açılışta önbelleği verilen görünümlerle doldurur. Ağırlık sınırına ulaşınca durur;
+     * böylece sığmayacak kayıtlar eklenip hemen tahliye edilmez. Eklenen kayıt sayısını döndürür.
+     */
+    public int warm(Iterable<ProductResponseDto> views) {
+        long weight = 0;
+        int count = 0;
+        for (ProductResponseDto view : views) {
+            weight += estimateWeight(view);
+            if (weight > maxWeightBytes) {
+                break;
+            }
+            cache.put(view.getId(), view);
+            count++;
+        }
+        return count;
+    }
+
+    public void invalidate(Long id) {
+        cache.invalidate(id);
+    }
+
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    /**
+     * Commit sonrası çalışır. Devam eden bir yükleme varsa Caffeine onu bekler,
+     * bu yüzden commit öncesi okunmuş eski bir değer önbellekte kalamaz.
+     */
+    @Order(CatalogVersions.INDEX_LISTENER_ORDER)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        cache.invalidate(event.getProductId());
+    }
+
+    @Order(CatalogVersions.INDEX_LISTENER_ORDER)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductsChanged(ProductBatchChangedEvent event) {
+        cache.invalidateAll(event.getDeletedIds());
+        event.getSaved().forEach(product -> cache.invalidate(product.getId()));
+    }
+
+    /**
+     * Kategori adı her ürün görünümüne kopyalandığı için kategori değişikliklerinde önbellek boşaltılır
+     */
+    @Order(CatalogVersions.INDEX_LISTENER_ORDER)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCategoryChanged(CategoryChangedEvent event) {
+        cache.invalidateAll();
+    }
+
+    public Map<String, Object> getMetrics() {
+        CacheStats stats = cache.stats();
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("size", cache.estimatedSize());
+        metrics.put("hits", stats.hitCount());
+        metrics.put("misses", stats.missCount());
+        metrics.put("hitRate", stats.hitRate());
+        metrics.put("evictions", stats.evictionCount());
+        metrics.put("evictionWeight", stats.evictionWeight());
+        metrics.put("averageLoadMillis", stats.averageLoadPenalty() / 1_000_000.0);
+        return metrics;
+    }
+
+    /**
+     * Nesne başlıkları ve sabit alanlar için sabit pay, metin alanları için karakter başına 2 bayt
+     */
+    private static int estimateWeight(ProductResponseDto dto) {
+        int weight = 160;
+        weight += length(dto.getName()) * 2;
+        weight += length(dto.getDescription()) * 2;
+        weight += length(dto.getImage_url()) * 2;
+        if (dto.getCategory() != null) {
+            weight += 48 + length(dto.getCategory().getName()) * 2;
+        }
+        if (dto.getSeller() != null) {
+            weight += 48 + length(dto.getSeller().getUsername()) * 2;
+        }
+        return weight;
+    }
+
+    private static int length(String value) {
+        return value != null ? value.length() : 0;
+    }
+}
@@ -0,0 +1,133 @@
+package com.webapp.backend.service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.webapp.backend.dto.ProductResponseDto;
+import com.webapp.backend.repository.ProductRepository;
+
+/**
+ * Tüm kataloğu satır satır dışa aktarır. Ürünler veritabanından ileri yönlü akışla okunur
+ * ve her kayıt doğrudan çıkışa yazılır; bellekte liste oluşturulmaz.
+ */
+@Service
+public class ProductExportService {
+
+    private static final Logger log = LoggerFactory.getLogger(ProductExportService.class);
+
+    private static final int FLUSH_EVERY = 1000;
+    private static final String CSV_HEADER =
+            "id,name,description,price,image_url,stock_quantity,category_id,category_name,seller_id,seller_username";
+
+    private final ProductRepository productRepository;
+    private final ObjectWriter jsonWriter;
+    private final int fetchSize;
+
+    /**
+     * fetchSize varsayılanı Integer.MIN_VALUE'dur; MySQL Connector/J bu değerde
+     * sonuç kümesini sunucudan satır satır akıtır.
+     */
+    public ProductExportService(ProductRepository productRepository, ObjectMapper objectMapper,
+            @Value("${catalog.export.fetch-size:-2147483648}") int fetchSize) {
+        this.productRepository = productRepository;
+        this.jsonWriter = objectMapper.writerFor(ProductResponseDto.class)
+                .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        this.fetchSize = fetchSize;
+    }
+
+    /**
+     * Kataloğu verilen formatta çıkışa yazar ve yazılan kayıt sayısını döndürür.
+     * Akış transaction süresince açık kalır.
+     */
+    @Transactional(readOnly = true)
+    public long export(CatalogFileFormat format, OutputStream out) throws IOException {
+        long start = System.currentTimeMillis();
+        long count = 0;
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        if (format == CatalogFileFormat.CSV) {
+            writer.write(CSV_HEADER);
+            writer.write('\n');
+        }
+
+        try (Stream<ProductResponseDto> products = productRepository.streamAllViews(fetchSize)) {
+            Iterator<ProductResponseDto> iterator = products.iterator();
+            while (iterator.hasNext()) {
+                ProductResponseDto product = iterator.next();
+                if (format == CatalogFileFormat.CSV) {
+                    writeCsvRow(writer, product);
+                } else {
+                    jsonWriter.writeValue(writer, product);
+                    writer.write('\n');
+                }
+                if (++count % FLUSH_EVERY == 0) {
+                    writer.flush();
+                }
+            }
+        }
+
+        writer.flush();
+        log.info("Katalog dışa aktarıldı: {} ürün, format {}, {} ms",
+                count, format, System.currentTimeMillis() - start);
+        return count;
+    }
+
+    private static void writeCsvRow(Writer writer, ProductResponseDto product) throws IOException {
+        writer.write(String.valueOf(product.getId()));
+        writer.write(',');
+        writeCsvField(writer, product.getName());
+        writer.write(',');
+        writeCsvField(writer, product.getDescription());
+        writer.write(',');
+        writer.write(String.valueOf(product.getPrice()));
+        writer.write(',');
+        writeCsvField(writer, product.getImage_url());
+        writer.write(',');
+        writer.write(String.valueOf(product.getStock_quantity()));
+        writer.write(',');
+        if (product.getCategory() != null) {
+            writer.write(String.valueOf(product.getCategory().getId()));
+            writer.write(',');
+            writeCsvField(writer, product.getCategory().getName());
+        } else {
+            writer.write(',');
+        }
+        writer.write(',');
+        writer.write(String.valueOf(product.getSeller().getId()));
+        writer.write(',');
+        writeCsvField(writer, product.getSeller().getUsername());
+        writer.write('\n');
+    }
+
+    /**
+     * RFC 4180: virgül, tırnak veya satır sonu içeren alanlar tırnak içine alınır
+     */
+    private static void writeCsvField(Writer writer, String value) throws IOException {
+        if (value == null) {
+            return;
+        }
+        boolean quote = value.indexOf(',') >= 0 || value.indexOf('"') >= 0
+                || value.indexOf('\n') >= 0 || value.indexOf('\r') >= 0;
+        if (!quote) {
+            writer.write(value);
+            return;
+        }
+        writer.write('"');
+        writer.write(value.replace("\"", "\"\""));
+        writer.write('"');
+    }
+}
@@ -0,0 +1,383 @@
+package com.webapp.backend.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.roaringbitmap.FastAggregation;
+import org.roaringbitmap.PeekableIntIterator;
+import org.roaringbitmap.RoaringBitmap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.webapp.backend.dto.ProductAttributeView;
+import com.webapp.backend.dto.ProductFilterRequest;
+import com.webapp.backend.event.ProductBatchChangedEvent;
+import com.webapp.backend.event.ProductChangedEvent;
+import com.webapp.backend.model.Product;
+
+/**
+ * Kategori, satıcı, fiyat bandı ve stok durumu için değer başına sıkıştırılmış
+ * (Roaring) bitmap'ler tutar. Filtreler bitmap kesişimiyle, facet sayıları ise
+ * kesişim kardinalitesiyle hesaplanır; veritabanına gidilmez.
+ * Bitmap'lerde ürün id'si doğrudan bit konumu olarak kullanılır; bu yüzden indeks yalnızca
+ * 0..Integer.MAX_VALUE aralığındaki id'leri taşıyabilir ve bu aralığın dışındaki bir id'nin eklenmesi
+ * hata verir. Sayfalar id sırasında döndüğü için id'ler yoğun sıra numaralarına eşlenmez.
+ */
+@Component
+public class ProductFacetIndex implements SmartInitializingSingleton {
+
+    private static final Logger log = LoggerFactory.getLogger(ProductFacetIndex.class);
+
+    private static final int BUILD_BATCH_SIZE = 5000;
+    private static final int MAX_SELLER_FACETS = 50;
+
+    private final CatalogSnapshot catalogSnapshot;
+    private final double[] priceBandBounds;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final Map<Long, RoaringBitmap> byCategory = new HashMap<>();
+    private final Map<Long, RoaringBitmap> bySeller = new HashMap<>();
+    private final RoaringBitmap[] byPriceBand;
+    private final RoaringBitmap inStock = new RoaringBitmap();
+    private final RoaringBitmap all = new RoaringBitmap();
+    private final Map<Integer, Entry> entries = new HashMap<>();
+
+    public ProductFacetIndex(CatalogSnapshot catalogSnapshot,
+            @Value("${catalog.facets.price-bands:100,250,500,1000,2500,5000}") double[] priceBandBounds) {
+        this.catalogSnapshot = catalogSnapshot;
+        this.priceBandBounds = priceBandBounds.clone();
+        Arrays.sort(this.priceBandBounds);
+        this.byPriceBand = new RoaringBitmap[this.priceBandBounds.length + 1];
+        for (int i = 0; i < byPriceBand.length; i++) {
+            byPriceBand[i] = new RoaringBitmap();
+        }
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        rebuild();
+    }
+
+    public void rebuild() {
+        long start = System.currentTimeMillis();
+        lock.writeLock().lock();
+        try {
+            byCategory.clear();
+            bySeller.clear();
+            for (RoaringBitmap band : byPriceBand) {
+                band.clear();
+            }
+            inStock.clear();
+            all.clear();
+            entries.clear();
+
+            long afterId = 0L;
+            List<ProductAttributeView> batch;
+            do {
+                batch = catalogSnapshot.findAttributeViewsAfter(afterId, BUILD_BATCH_SIZE);
+                for (ProductAttributeView view : batch) {
+                    put(view.getId(), view.getCategoryId(), view.getSellerId(), view.getPrice(),
+                            view.getStockQuantity());
+                    afterId = view.getId();
+                }
+            } while (batch.size() == BUILD_BATCH_SIZE);
+
+            all.runOptimize();
+            inStock.runOptimize();
+            log.info("Ürün facet indeksi oluşturuldu: {} ürün, {} ms",
+                    all.getLongCardinality(), System.currentTimeMillis() - start);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Order(CatalogVersions.INDEX_LISTENER_ORDER)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        lock.writeLock().lock();
+        try {
+            if (event.getType() == ProductChangedEvent.Type.DELETED) {
+                remove(event.getProductId());
+            } else {
+                Product product = event.getProduct();
+                put(product.getId(), product.getCategory_id(),
+                        product.getSeller() != null ? product.getSeller().getId() : null,
+                        product.getPrice(), product.getStock_quantity());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Toplu değişiklikler tek yazma kilidi altında uygulanır; bitmap güncellemeleri ürün başına zaten ucuzdur
+     */
+    @Order(CatalogVersions.INDEX_LISTENER_ORDER)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductsChanged(ProductBatchChangedEvent event) {
+        lock.writeLock().lock();
+        try {
+            event.getDeletedIds().forEach(this::remove);
+            for (Product product : event.getSaved()) {
+                put(product.getId(), product.getCategory_id(),
+                        product.getSeller() != null ? product.getSeller().getId() : null,
+                        product.getPrice(), product.getStock_quantity());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Filtreyi uygular, id sırasına göre afterId'den sonraki en fazla limit ürünü ve facet sayılarını döndürür
+     */
+    public FacetResult filter(ProductFilterRequest filter, Long afterId, int limit) {
+        lock.readLock().lock();
+        try {
+            RoaringBitmap categoryMask = union(byCategory, filter.getCategoryIds());
+            RoaringBitmap sellerMask = union(bySeller, filter.getSellerIds());
+            RoaringBitmap priceMask = priceUnion(filter.getPriceBands());
+            RoaringBitmap stockMask = filter.isInStockOnly() ? inStock : null;
+
+            RoaringBitmap matched = intersect(categoryMask, sellerMask, priceMask, stockMask);
+
+            FacetResult result = new FacetResult(priceBandBounds);
+            result.total = matched.getLongCardinality();
+            collectPage(matched, afterId, limit, result);
+
+            // Her facet kendisi hariç diğer filtrelerle sayılır
+            RoaringBitmap withoutCategory = intersect(null, sellerMask, priceMask, stockMask);
+            for (Map.Entry<Long, RoaringBitmap> entry : byCategory.entrySet()) {
+                long count = RoaringBitmap.andCardinality(entry.getValue(), withoutCategory);
+                if (count > 0) {
+                    result.categoryCounts.put(entry.getKey(), count);
+                }
+            }
+
+            RoaringBitmap withoutSeller = intersect(categoryMask, null, priceMask, stockMask);
+            List<Map.Entry<Long, Long>> sellerCounts = new ArrayList<>();
+            for (Map.Entry<Long, RoaringBitmap> entry : bySeller.entrySet()) {
+                long count = RoaringBitmap.andCardinality(entry.getValue(), withoutSeller);
+                if (count > 0) {
+                    sellerCounts.add(Map.entry(entry.getKey(), count));
+                }
+            }
+            sellerCounts.sort((a, b) -> Long.compare(b.getValue(), a.getValue()));
+            sellerCounts.stream()
+                    .limit(MAX_SELLER_FACETS)
+                    .forEach(e -> result.sellerCounts.put(e.getKey(), e.getValue()));
+
+            RoaringBitmap withoutPrice = intersect(categoryMask, sellerMask, null, stockMask);
+            result.priceBandCounts = new long[byPriceBand.length];
+            for (int i = 0; i < byPriceBand.length; i++) {
+                result.priceBandCounts[i] = RoaringBitmap.andCardinality(byPriceBand[i], withoutPrice);
+            }
+
+            RoaringBitmap withoutStock = intersect(categoryMask, sellerMask, priceMask, null);
+            result.inStockCount = RoaringBitmap.andCardinality(inStock, withoutStock);
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void collectPage(RoaringBitmap matched, Long afterId, int limit, FacetResult result) {
+        if (afterId != null && afterId >= Integer.MAX_VALUE) {
+            // İmleç indeksin taşıyabileceği son id'de veya ötesinde; sonrasında ürün olamaz
+            return;
+        }
+        PeekableIntIterator iterator = matched.getIntIterator();
+        if (afterId != null && afterId >= 0) {
+            iterator.advanceIfNeeded(toBit(afterId) + 1);
+        }
+        while (iterator.hasNext() && result.productIds.size() < limit) {
+            result.productIds.add((long) iterator.next());
+        }
+        result.hasMore = iterator.hasNext();
+    }
+
+    private RoaringBitmap intersect(RoaringBitmap... masks) {
+        RoaringBitmap result = null;
+        for (RoaringBitmap mask : masks) {
+            if (mask == null) {
+                continue;
+            }
+            result = result == null ? mask : RoaringBitmap.and(result, mask);
+        }
+        return result != null ? result : all;
+    }
+
+    private RoaringBitmap union(Map<Long, RoaringBitmap> bitmaps, List<Long> values) {
+        if (values == null || values.isEmpty()) {
+            return null;
+        }
+        List<RoaringBitmap> selected = new ArrayList<>();
+        for (Long value : values) {
+            RoaringBitmap bitmap = bitmaps.get(value);
+            if (bitmap != null) {
+                selected.add(bitmap);
+            }
+        }
+        return selected.isEmpty() ? new RoaringBitmap() : FastAggregation.or(selected.iterator());
+    }
+
+    private RoaringBitmap priceUnion(List<Integer> bands) {
+        if (bands == null || bands.isEmpty()) {
+            return null;
+        }
+        List<RoaringBitmap> selected = new ArrayList<>();
+        for (Integer band : bands) {
+            if (band != null && band >= 0 && band < byPriceBand.length) {
+                selected.add(byPriceBand[band]);
+            }
+        }
+        return selected.isEmpty() ? new RoaringBitmap() : FastAggregation.or(selected.iterator());
+    }
+
+    private void put(Long productId, Long categoryId, Long sellerId, Double price, Integer stockQuantity) {
+        if (productId == null) {
+            return;
+        }
+        int bit = toBit(productId);
+        remove(productId);
+
+        Entry entry = new Entry(categoryId, sellerId, priceBand(price), stockQuantity != null && stockQuantity > 0);
+        entries.put(bit, entry);
+        all.add(bit);
+        if (entry.categoryId != null) {
+            byCategory.computeIfAbsent(entry.categoryId, k -> new RoaringBitmap()).add(bit);
+        }
+        if (entry.sellerId != null) {
+            bySeller.computeIfAbsent(entry.sellerId, k -> new RoaringBitmap()).add(bit);
+        }
+        byPriceBand[entry.priceBand].add(bit);
+        if (entry.inStock) {
+            inStock.add(bit);
+        }
+    }
+
+    private void remove(Long productId) {
+        int bit = toBit(productId);
+        Entry entry = entries.remove(bit);
+        if (entry == null) {
+            return;
+        }
+        all.remove(bit);
+        removeFrom(byCategory, entry.categoryId, bit);
+        removeFrom(bySeller, entry.sellerId, bit);
+        byPriceBand[entry.priceBand].remove(bit);
+        inStock.remove(bit);
+    }
+
+    private void removeFrom(Map<Long, RoaringBitmap> bitmaps, Long key, int bit) {
+        if (key == null) {
+            return;
+        }
+        RoaringBitmap bitmap = bitmaps.get(key);
+        if (bitmap != null) {
+            bitmap.remove(bit);
+            if (bitmap.isEmpty()) {
+                bitmaps.remove(key);
+            }
+        }
+    }
+
+    private int priceBand(Double price) {
+        double value = price != null ? price : 0.0;
+        for (int i = 0; i < priceBandBounds.length; i++) {
+            if (value < priceBandBounds[i]) {
+                return i;
+            }
+        }
+        return priceBandBounds.length;
+    }
+
+    /**
+     * Ürün id'sinin bit konumu. RoaringBitmap 32 bitlik değerler tuttuğu ve sayfalar işaretli int
+     * sırasında okunduğu için Integer.MAX_VALUE'dan büyük id'ler desteklenmez.
+     */
+    private static int toBit(Long productId) {
+        if (productId < 0 || productId > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Ürün id'si bitmap aralığı dışında: " + productId);
+        }
+        return productId.intValue();
+    }
+
+    private static final class Entry {
+        private final Long categoryId;
+        private final Long sellerId;
+        private final int priceBand;
+        private final boolean inStock;
+
+        private Entry(Long categoryId, Long sellerId, int priceBand, boolean inStock) {
+            this.categoryId = categoryId;
+            this.sellerId = sellerId;
+            this.priceBand = priceBand;
+            this.inStock = inStock;
+        }
+    }
+
+    /**
+     * Filtre sonucu: sayfadaki ürün id'leri ve facet sayıları
+     */
+    public static final class FacetResult {
+        private final List<Long> productIds = new ArrayList<>();
+        private boolean hasMore;
+        private long total;
+        private final Map<Long, Long> categoryCounts = new LinkedHashMap<>();
+        private final Map<Long, Long> sellerCounts = new LinkedHashMap<>();
+        private final double[] priceBandBounds;
+        private long[] priceBandCounts = new long[0];
+        private long inStockCount;
+
+        private FacetResult(double[] priceBandBounds) {
+            this.priceBandBounds = priceBandBounds;
+        }
+
+        public List<Long> getProductIds() {
+            return productIds;
+        }
+
+        public boolean isHasMore() {
+            return hasMore;
+        }
+
+        public long getTotal() {
+            return total;
+        }
+
+        public Map<Long, Long> getCategoryCounts() {
+            return categoryCounts;
+        }
+
+        public Map<Long, Long> getSellerCounts() {
+            return sellerCounts;
+        }
+
+        public long[] getPriceBandCounts() {
+            return priceBandCounts;
+        }
+
+        public long getInStockCount() {
+            return inStockCount;
+        }
+
+        public Double getPriceBandMin(int band) {
+            return band == 0 ? 0.0 : priceBandBounds[band - 1];
+        }
+
+        public Double getPriceBandMax(int band) {
+            return band < priceBandBounds.length ? priceBandBounds[band] : null;
+        }
+    }
+}
@@ -0,0 +1,556 @@
+package com.webapp.backend.service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.webapp.backend.dto.ProductImportStatusDto;
+import com.webapp.backend.dto.ProductRequestDto;
+import com.webapp.backend.event.ProductBatchChangedEvent;
+import com.webapp.backend.exception.BadRequestException;
+import com.webapp.backend.exception.TooManyRequestsException;
+import com.webapp.backend.model.Category;
+import com.webapp.backend.model.Product;
+import com.webapp.backend.model.User;
+import com.webapp.backend.repository.CategoryRepository;
+import com.webapp.backend.repository.UserRepository;
+
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+
+/**
+ * CSV veya NDJSON dosyalarından toplu ürün içe aktarır.
+ * İstek gövdesi geçici dosyaya akıtılır ve iş arka planda işlenir; satırlar tek tek okunup
+ * doğrulanır, her partide kategori ve satıcı id'leri tek sorguda kontrol edilir ve ürünler
+ * JDBC batch insert ile eklenir. IDENTITY id üretimi Hibernate'in insert batching'ini
+ * kapattığı için bu yol JPA yerine doğrudan JDBC kullanır. Gövde boyutu max-bytes ile sınırlıdır;
+ * satıcı adına başlatılan işlerde satırlardaki seller_id yok sayılır.
+ */
+@Service
+public class ProductImportService implements DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(ProductImportService.class);
+
+    private static final int MAX_REPORTED_ERRORS = 1000;
+    private static final long FINISHED_JOB_RETENTION_MINUTES = 60;
+    private static final String INSERT_SQL = "INSERT INTO products "
+            + "(name, description, price, image_url, stock_quantity, category_id, seller_id) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?)";
+
+    public enum Status {
+        QUEUED,
+        RUNNING,
+        COMPLETED,
+        FAILED
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final CategoryRepository categoryRepository;
+    private final UserRepository userRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final Validator validator;
+    private final ObjectMapper objectMapper;
+    private final int batchSize;
+    private final long maxBytes;
+    private final ThreadPoolExecutor executor;
+    private final Map<String, ImportJob> jobs = new ConcurrentHashMap<>();
+
+    public ProductImportService(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+            CategoryRepository categoryRepository, UserRepository userRepository,
+            ApplicationEventPublisher eventPublisher, Validator validator, ObjectMapper objectMapper,
+            @Value("${catalog.import.batch-size:1000}") int batchSize,
+            @Value("${catalog.import.queue-capacity:4}") int queueCapacity,
+            @Value("${catalog.import.max-bytes:104857600}") long maxBytes) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.categoryRepository = categoryRepository;
+        this.userRepository = userRepository;
+        this.eventPublisher = eventPublisher;
+        this.validator = validator;
+        this.objectMapper = objectMapper;
+        this.batchSize = batchSize;
+        this.maxBytes = maxBytes;
+        // Tek işçi thread: içe aktarmalar veritabanı yazma kapasitesini paylaşır, sırayla çalışır
+        this.executor = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+                    Thread thread = new Thread(runnable, "product-import");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    /**
+     * Gövdeyi geçici dosyaya kopyalar ve işi kuyruğa alır. Kuyruk doluysa 429 döner; gövde max-bytes'ı
+     * aşarsa dosya silinir ve istek reddedilir. sellerId verilirse tüm ürünler bu satıcıya eklenir.
+     */
+    public ProductImportStatusDto submit(CatalogFileFormat format, InputStream body, Long sellerId)
+            throws IOException {
+        purgeFinishedJobs();
+
+        Path file = Files.createTempFile("product-import-", "." + format.getExtension());
+        try {
+            copyLimited(body, file);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(file);
+            throw e;
+        }
+
+        ImportJob job = new ImportJob(UUID.randomUUID().toString(), format, sellerId);
+        jobs.put(job.id, job);
+        try {
+            executor.execute(() -> run(job, file));
+        } catch (RejectedExecutionException e) {
+            jobs.remove(job.id);
+            Files.deleteIfExists(file);
+            throw new TooManyRequestsException("İçe aktarma kuyruğu dolu, lütfen daha sonra tekrar deneyin");
+        }
+        return job.toDto();
+    }
+
+    private void copyLimited(InputStream body, Path file) throws IOException {
+        try (OutputStream out = Files.newOutputStream(file)) {
+            byte[] buffer = new byte[1 << 16];
+            long copied = 0;
+            int read;
+            while ((read = body.read(buffer)) != -1) {
+                copied += read;
+                if (copied > maxBytes) {
+                    throw new BadRequestException("İçe aktarma dosyası en fazla " + maxBytes + " bayt olabilir");
+                }
+                out.write(buffer, 0, read);
+            }
+        }
+    }
+
+    public Optional<ProductImportStatusDto> getStatus(String jobId) {
+        return Optional.ofNullable(jobs.get(jobId)).map(ImportJob::toDto);
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdownNow();
+    }
+
+    private void run(ImportJob job, Path file) {
+        job.status = Status.RUNNING;
+        long start = System.currentTimeMillis();
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            RowReader rows = job.format == CatalogFileFormat.CSV
+                    ? new CsvRowReader(reader, job.sellerId == null) : new NdjsonRowReader(reader);
+            List<ParsedRow> batch = new ArrayList<>(batchSize);
+            ParsedRow row;
+            while ((row = rows.next()) != null) {
+                job.processedRows++;
+                if (job.sellerId != null && row.product != null) {
+                    row.product.setSeller_id(job.sellerId);
+                }
+                String error = row.error != null ? row.error : validate(row.product);
+                if (error != null) {
+                    job.addError(row.number, error);
+                    continue;
+                }
+                batch.add(row);
+                if (batch.size() == batchSize) {
+                    insertBatch(job, batch);
+                    batch.clear();
+                }
+            }
+            if (!batch.isEmpty()) {
+                insertBatch(job, batch);
+            }
+            job.status = Status.COMPLETED;
+            log.info("Ürün içe aktarma {} tamamlandı: {} satır, {} eklendi, {} hatalı, {} ms", job.id,
+                    job.processedRows, job.importedRows, job.failedRows, System.currentTimeMillis() - start);
+        } catch (Exception e) {
+            job.status = Status.FAILED;
+            job.message = e.getMessage();
+            log.error("Ürün içe aktarma {} başarısız oldu", job.id, e);
+        } finally {
+            job.finishedAt = LocalDateTime.now();
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException e) {
+                log.warn("Geçici içe aktarma dosyası silinemedi: {}", file);
+            }
+        }
+    }
+
+    private String validate(ProductRequestDto product) {
+        Set<ConstraintViolation<ProductRequestDto>> violations = validator.validate(product);
+        if (violations.isEmpty()) {
+            return null;
+        }
+        return violations.stream()
+                .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                .sorted()
+                .collect(Collectors.joining("; "));
+    }
+
+    /**
+     * Partideki kategori ve satıcı id'lerini birer sorguda doğrular, geçerli satırları tek JDBC
+     * batch'i olarak ekler. Her parti kendi transaction'ında commit edilir; indeksler
+     * commit sonrası partinin tamamı için yayınlanan tek bir ProductBatchChangedEvent ile güncellenir.
+     */
+    private void insertBatch(ImportJob job, List<ParsedRow> batch) {
+        Set<Long> categoryIds = new HashSet<>();
+        Set<Long> sellerIds = new HashSet<>();
+        for (ParsedRow row : batch) {
+            categoryIds.add(row.product.getCategory_id());
+            sellerIds.add(row.product.getSeller_id());
+        }
+        Set<Long> existingCategories = new HashSet<>(categoryRepository.findExistingIds(categoryIds));
+        Set<Long> existingSellers = new HashSet<>(userRepository.findExistingIds(sellerIds));
+
+        List<ParsedRow> valid = new ArrayList<>(batch.size());
+        for (ParsedRow row : batch) {
+            if (!existingCategories.contains(row.product.getCategory_id())) {
+                job.addError(row.number, "Kategori bulunamadı: " + row.product.getCategory_id());
+            } else if (!existingSellers.contains(row.product.getSeller_id())) {
+                job.addError(row.number, "Satıcı bulunamadı: " + row.product.getSeller_id());
+            } else {
+                valid.add(row);
+            }
+        }
+        if (valid.isEmpty()) {
+            return;
+        }
+
+        transactionTemplate.executeWithoutResult(status -> {
+            long[] ids = jdbcTemplate.execute((ConnectionCallback<long[]>) connection -> {
+                try (PreparedStatement statement = connection.prepareStatement(INSERT_SQL,
+                        Statement.RETURN_GENERATED_KEYS)) {
+                    for (ParsedRow row : valid) {
+                        ProductRequestDto product = row.product;
+                        statement.setString(1, product.getName());
+                        statement.setString(2, product.getDescription());
+                        statement.setDouble(3, product.getPrice());
+                        if (product.getImage_url() != null) {
+                            statement.setString(4, product.getImage_url());
+                        } else {
+                            statement.setNull(4, Types.VARCHAR);
+                        }
+                        statement.setInt(5, product.getStock_quantity());
+                        statement.setLong(6, product.getCategory_id());
+                        statement.setLong(7, product.getSeller_id());
+                        statement.addBatch();
+                    }
+                    statement.executeBatch();
+
+                    long[] generated = new long[valid.size()];
+                    try (ResultSet keys = statement.getGeneratedKeys()) {
+                        int i = 0;
+                        while (keys.next() && i < generated.length) {
+                            generated[i++] = keys.getLong(1);
+                        }
+                    }
+                    return generated;
+                }
+            });
+
+            List<Product> inserted = new ArrayList<>(valid.size());
+            for (int i = 0; i < valid.size(); i++) {
+                inserted.add(toProduct(ids[i], valid.get(i).product));
+            }
+            eventPublisher.publishEvent(ProductBatchChangedEvent.saved(inserted));
+        });
+
+        job.importedRows += valid.size();
+        log.debug("Ürün içe aktarma {}: {} satır işlendi, {} eklendi", job.id, job.processedRows, job.importedRows);
+    }
+
+    /**
+     * İndeksleri güncellemek için yeterli alanlara sahip, ilişkileri yalnızca id taşıyan ürün
+     */
+    private static Product toProduct(long id, ProductRequestDto dto) {
+        Product product = new Product();
+        product.setId(id);
+        product.setName(dto.getName());
+        product.setDescription(dto.getDescription());
+        product.setPrice(dto.getPrice());
+        product.setImage_url(dto.getImage_url());
+        product.setStock_quantity(dto.getStock_quantity());
+        Category category = new Category();
+        category.setId(dto.getCategory_id());
+        product.setCategory(category);
+        User seller = new User();
+        seller.setId(dto.getSeller_id());
+        product.setSeller(seller);
+        return product;
+    }
+
+    private void purgeFinishedJobs() {
+        LocalDateTime threshold = LocalDateTime.now().minusMinutes(FINISHED_JOB_RETENTION_MINUTES);
+        jobs.values().removeIf(job -> job.finishedAt != null && job.finishedAt.isBefore(threshold));
+    }
+
+    // ---- Satır okuyucular ----
+
+    private static final class ParsedRow {
+        final long number;
+        final ProductRequestDto product;
+        final String error;
+
+        ParsedRow(long number, ProductRequestDto product, String error) {
+            this.number = number;
+            this.product = product;
+            this.error = error;
+        }
+    }
+
+    private interface RowReader {
+        /**
+         * Sonraki satırı döndürür, dosya bittiğinde null
+         */
+        ParsedRow next() throws IOException;
+    }
+
+    /**
+     * Her satır bir JSON nesnesidir. Dışa aktarılan NDJSON'daki iç içe
+     * category/seller nesneleri de kabul edilir.
+     */
+    private final class NdjsonRowReader implements RowReader {
+        private final BufferedReader reader;
+        private long lineNumber;
+
+        NdjsonRowReader(BufferedReader reader) {
+            this.reader = reader;
+        }
+
+        @Override
+        public ParsedRow next() throws IOException {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank()) {
+                    continue;
+                }
+                try {
+                    JsonNode node = objectMapper.readTree(line);
+                    ProductRequestDto product = new ProductRequestDto();
+                    product.setName(text(node.get("name")));
+                    product.setDescription(text(node.get("description")));
+                    product.setPrice(node.hasNonNull("price") ? node.get("price").asDouble() : null);
+                    product.setImage_url(text(node.get("image_url")));
+                    product.setStock_quantity(node.hasNonNull("stock_quantity")
+                            ? node.get("stock_quantity").asInt() : null);
+                    product.setCategory_id(id(node, "category_id", "category"));
+                    product.setSeller_id(id(node, "seller_id", "seller"));
+                    return new ParsedRow(lineNumber, product, null);
+                } catch (IOException e) {
+                    return new ParsedRow(lineNumber, null, "Geçersiz JSON satırı");
+                }
+            }
+            return null;
+        }
+
+        private String text(JsonNode node) {
+            return node != null && !node.isNull() ? node.asText() : null;
+        }
+
+        private Long id(JsonNode node, String field, String nestedObject) {
+            if (node.hasNonNull(field)) {
+                return node.get(field).asLong();
+            }
+            JsonNode nested = node.get(nestedObject);
+            return nested != null && nested.hasNonNull("id") ? nested.get("id").asLong() : null;
+        }
+    }
+
+    /**
+     * Başlık satırlı RFC 4180 CSV. Sütunlar başlıktaki adlarla eşlenir, bilinmeyen
+     * sütunlar yok sayılır; tırnaklı alanlar virgül ve satır sonu içerebilir.
+     */
+    private static final class CsvRowReader implements RowReader {
+        private static final List<String> REQUIRED_COLUMNS =
+                List.of("name", "price", "stock_quantity", "category_id", "seller_id");
+
+        private final BufferedReader reader;
+        private final Map<String, Integer> columns = new HashMap<>();
+        private long recordNumber;
+
+        /**
+         * requireSeller false ise seller_id sütunu zorunlu değildir; satıcı işten gelir
+         */
+        CsvRowReader(BufferedReader reader, boolean requireSeller) throws IOException {
+            this.reader = reader;
+            List<String> header = readRecord();
+            if (header == null) {
+                throw new IllegalArgumentException("CSV dosyası boş");
+            }
+            for (int i = 0; i < header.size(); i++) {
+                columns.put(header.get(i).trim().toLowerCase(), i);
+            }
+            for (String column : REQUIRED_COLUMNS) {
+                if (!columns.containsKey(column) && (requireSeller || !column.equals("seller_id"))) {
+                    throw new IllegalArgumentException("CSV başlığında zorunlu sütun eksik: " + column);
+                }
+            }
+        }
+
+        @Override
+        public ParsedRow next() throws IOException {
+            List<String> record;
+            do {
+                record = readRecord();
+                if (record == null) {
+                    return null;
+                }
+                recordNumber++;
+            } while (record.size() == 1 && record.get(0).isEmpty());
+
+            try {
+                ProductRequestDto product = new ProductRequestDto();
+                product.setName(field(record, "name"));
+                product.setDescription(field(record, "description"));
+                String price = field(record, "price");
+                product.setPrice(price != null ? Double.valueOf(price) : null);
+                product.setImage_url(field(record, "image_url"));
+                String stock = field(record, "stock_quantity");
+                product.setStock_quantity(stock != null ? Integer.valueOf(stock) : null);
+                String categoryId = field(record, "category_id");
+                product.setCategory_id(categoryId != null ? Long.valueOf(categoryId) : null);
+                String sellerId = field(record, "seller_id");
+                product.setSeller_id(sellerId != null ? Long.valueOf(sellerId) : null);
+                return new ParsedRow(recordNumber, product, null);
+            } catch (NumberFormatException e) {
+                return new ParsedRow(recordNumber, null, "Sayısal alan okunamadı: " + e.getMessage());
+            }
+        }
+
+        private String field(List<String> record, String column) {
+            Integer index = columns.get(column);
+            if (index == null || index >= record.size()) {
+                return null;
+            }
+            String value = record.get(index).trim();
+            return value.isEmpty() ? null : value;
+        }
+
+        private List<String> readRecord() throws IOException {
+            int c = reader.read();
+            if (c == -1) {
+                return null;
+            }
+            List<String> fields = new ArrayList<>();
+            StringBuilder current = new StringBuilder();
+            boolean quoted = false;
+            while (c != -1) {
+                char ch = (char) c;
+                if (quoted) {
+                    if (ch == '"') {
+                        reader.mark(1);
+                        int nextChar = reader.read();
+                        if (nextChar == '"') {
+                            current.append('"');
+                        } else {
+                            quoted = false;
+                            reader.reset();
+                        }
+                    } else {
+                        current.append(ch);
+                    }
+                } else if (ch == '"') {
+                    quoted = true;
+                } else if (ch == ',') {
+                    fields.add(current.toString());
+                    current.setLength(0);
+                } else if (ch == '\n') {
+                    break;
+                } else if (ch != '\r') {
+                    current.append(ch);
+                }
+                c = reader.read();
+            }
+            fields.add(current.toString());
+            return fields;
+        }
+    }
+
+    // ---- İş durumu ----
+
+    private static final class ImportJob {
+        final String id;
+        final CatalogFileFormat format;
+        final Long sellerId;
+        final LocalDateTime createdAt = LocalDateTime.now();
+        final List<ProductImportStatusDto.RowErrorDto> errors = new ArrayList<>();
+        // Yalnızca işçi thread yazar; durum sorguları volatile okumayla ilerlemeyi görür
+        volatile Status status = Status.QUEUED;
+        volatile long processedRows;
+        volatile long importedRows;
+        volatile long failedRows;
+        volatile String message;
+        volatile LocalDateTime finishedAt;
+
+        ImportJob(String id, CatalogFileFormat format, Long sellerId) {
+            this.id = id;
+            this.format = format;
+            this.sellerId = sellerId;
+        }
+
+        void addError(long row, String message) {
+            failedRows++;
+            synchronized (errors) {
+                if (errors.size() < MAX_REPORTED_ERRORS) {
+                    errors.add(new ProductImportStatusDto.RowErrorDto(row, message));
+                }
+            }
+        }
+
+        ProductImportStatusDto toDto() {
+            ProductImportStatusDto dto = new ProductImportStatusDto();
+            dto.setJobId(id);
+            dto.setStatus(status.name());
+            dto.setFormat(format.getExtension());
+            dto.setSellerId(sellerId);
+            dto.setProcessedRows(processedRows);
+            dto.setImportedRows(importedRows);
+            dto.setFailedRows(failedRows);
+            synchronized (errors) {
+                dto.setErrors(new ArrayList<>(errors));
+            }
+            dto.setErrorsTruncated(failedRows > MAX_REPORTED_ERRORS);
+            dto.setMessage(message);
+            dto.setCreatedAt(createdAt);
+            dto.setFinishedAt(finishedAt);
+            return dto;
+        }
+    }
+}
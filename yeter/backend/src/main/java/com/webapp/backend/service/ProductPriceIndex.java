@@ -0,0 +1,359 @@
+package com.webapp.backend.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.webapp.backend.dto.ProductAttributeView;
+import com.webapp.backend.event.ProductBatchChangedEvent;
+import com.webapp.backend.event.ProductChangedEvent;
+import com.webapp.backend.model.Product;
+
+/**
+ * Fiyat aralığı sorguları için (fiyat, id) sırasında tutulan paralel primitive diziler.
+ * Aralığın sınırları ikili aramayla bulunur; kategori ve stok filtreleri aynı diziler
+ * üzerinde satır nesnesi oluşturmadan uygulanır. Yazmalarda ilgili konum kaydırılarak
+ * güncellenir, açılışta ise diziler paralel olarak sıralanır. Toplu değişikliklerde konum başına
+ * kaydırma yapılmaz; çıkan ürünler tek geçişte ayıklanır, yeni konumlar sıralanıp tek geçişte birleştirilir.
+ */
+@Component
+public class ProductPriceIndex implements SmartInitializingSingleton {
+
+    private static final Logger log = LoggerFactory.getLogger(ProductPriceIndex.class);
+
+    private static final int BUILD_BATCH_SIZE = 5000;
+    private static final int INITIAL_CAPACITY = 1024;
+    private static final long NO_CATEGORY = 0L;
+
+    private final CatalogSnapshot catalogSnapshot;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private double[] prices = new double[0];
+    private long[] ids = new long[0];
+    private long[] categoryIds = new long[0];
+    private int[] stocks = new int[0];
+    private int size;
+    // Güncellemede eski konumu ikili aramayla bulmak için ürünün indeksteki fiyatı
+    private final Map<Long, Double> priceById = new HashMap<>();
+
+    public ProductPriceIndex(CatalogSnapshot catalogSnapshot) {
+        this.catalogSnapshot = catalogSnapshot;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        rebuild();
+    }
+
+    public void rebuild() {
+        long start = System.currentTimeMillis();
+
+        int count = 0;
+        double[] loadedPrices = new double[INITIAL_CAPACITY];
+        long[] loadedIds = new long[INITIAL_CAPACITY];
+        long[] loadedCategories = new long[INITIAL_CAPACITY];
+        int[] loadedStocks = new int[INITIAL_CAPACITY];
+
+        long afterId = 0L;
+        List<ProductAttributeView> batch;
+        do {
+            batch = catalogSnapshot.findAttributeViewsAfter(afterId, BUILD_BATCH_SIZE);
+            if (count + batch.size() > loadedIds.length) {
+                int capacity = Math.max(loadedIds.length * 2, count + batch.size());
+                loadedPrices = Arrays.copyOf(loadedPrices, capacity);
+                loadedIds = Arrays.copyOf(loadedIds, capacity);
+                loadedCategories = Arrays.copyOf(loadedCategories, capacity);
+                loadedStocks = Arrays.copyOf(loadedStocks, capacity);
+            }
+            for (ProductAttributeView view : batch) {
+                loadedPrices[count] = priceOf(view.getPrice());
+                loadedIds[count] = view.getId();
+                loadedCategories[count] = view.getCategoryId() != null ? view.getCategoryId() : NO_CATEGORY;
+                loadedStocks[count] = view.getStockQuantity() != null ? view.getStockQuantity() : 0;
+                count++;
+                afterId = view.getId();
+            }
+        } while (batch.size() == BUILD_BATCH_SIZE);
+
+        int[] order = PermutationSort.sortedOrder(loadedPrices, loadedIds, count);
+
+        int capacity = Math.max(INITIAL_CAPACITY, count + count / 4);
+        double[] sortedPrices = new double[capacity];
+        long[] sortedIds = new long[capacity];
+        long[] sortedCategories = new long[capacity];
+        int[] sortedStocks = new int[capacity];
+        Map<Long, Double> sortedPriceById = new HashMap<>(count * 2);
+        for (int i = 0; i < count; i++) {
+            int from = order[i];
+            sortedPrices[i] = loadedPrices[from];
+            sortedIds[i] = loadedIds[from];
+            sortedCategories[i] = loadedCategories[from];
+            sortedStocks[i] = loadedStocks[from];
+            sortedPriceById.put(loadedIds[from], loadedPrices[from]);
+        }
+
+        lock.writeLock().lock();
+        try {
+            prices = sortedPrices;
+            ids = sortedIds;
+            categoryIds = sortedCategories;
+            stocks = sortedStocks;
+            size = count;
+            priceById.clear();
+            priceById.putAll(sortedPriceById);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Ürün fiyat indeksi oluşturuldu: {} ürün, {} ms", count, System.currentTimeMillis() - start);
+    }
+
+    @Order(CatalogVersions.INDEX_LISTENER_ORDER)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        lock.writeLock().lock();
+        try {
+            if (event.getType() == ProductChangedEvent.Type.DELETED) {
+                remove(event.getProductId());
+            } else {
+                Product product = event.getProduct();
+                put(product.getId(), priceOf(product.getPrice()), product.getCategory_id(),
+                        product.getStock_quantity());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Fiyatı değişmeyen ürünlerin kategori ve stoğu yerinde güncellenir; diğerleri ve silinenler dizilerden
+     * tek geçişte çıkarılır, yeni konumları sıralanıp kalan dizilerle birleştirilir. Böylece parti boyu k
+     * için maliyet k kaydırma yerine O(n + k log k) olur.
+     */
+    @Order(CatalogVersions.INDEX_LISTENER_ORDER)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductsChanged(ProductBatchChangedEvent event) {
+        lock.writeLock().lock();
+        try {
+            Set<Long> removed = new HashSet<>(event.getDeletedIds());
+            Map<Long, Product> inserted = new LinkedHashMap<>();
+            for (Product product : event.getSaved()) {
+                if (product.getId() == null) {
+                    continue;
+                }
+                Double currentPrice = priceById.get(product.getId());
+                if (currentPrice != null && currentPrice == priceOf(product.getPrice())
+                        && !inserted.containsKey(product.getId())) {
+                    int position = lowerBound(currentPrice, product.getId());
+                    categoryIds[position] = product.getCategory_id() != null ? product.getCategory_id() : NO_CATEGORY;
+                    stocks[position] = product.getStock_quantity() != null ? product.getStock_quantity() : 0;
+                } else {
+                    removed.add(product.getId());
+                    inserted.put(product.getId(), product);
+                }
+            }
+            removeAll(removed);
+            insertAll(new ArrayList<>(inserted.values()));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * [minPrice, maxPrice] aralığındaki ürün id'lerini fiyat ve id sırasında out dizisine, fiyatlarını
+     * outPrices dizisine yazar ve yazılan id sayısını döndürür. out.length sayfa boyutudur; bir fazlası
+     * istenerek sonraki sayfanın varlığı anlaşılabilir. afterPrice/afterId verilirse o üründen sonrasından başlar.
+     */
+    public int page(double minPrice, double maxPrice, Long categoryId, boolean inStockOnly,
+            boolean ascending, Double afterPrice, Long afterId, long[] out, double[] outPrices) {
+        if (minPrice > maxPrice || out.length == 0) {
+            return 0;
+        }
+        lock.readLock().lock();
+        try {
+            int from = lowerBound(minPrice, Long.MIN_VALUE);
+            int to = lowerBound(Math.nextUp(maxPrice), Long.MIN_VALUE);
+            if (afterId != null && afterPrice != null) {
+                int cursor = lowerBound(afterPrice, afterId);
+                if (ascending) {
+                    from = Math.max(from, cursor < size && ids[cursor] == afterId ? cursor + 1 : cursor);
+                } else {
+                    to = Math.min(to, cursor);
+                }
+            }
+
+            long category = categoryId != null ? categoryId : NO_CATEGORY;
+            int written = 0;
+            int step = ascending ? 1 : -1;
+            for (int i = ascending ? from : to - 1; i >= from && i < to && written < out.length; i += step) {
+                if ((categoryId == null || categoryIds[i] == category) && (!inStockOnly || stocks[i] > 0)) {
+                    out[written] = ids[i];
+                    outPrices[written] = prices[i];
+                    written++;
+                }
+            }
+            return written;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return size;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void put(Long productId, double price, Long categoryId, Integer stockQuantity) {
+        if (productId == null) {
+            return;
+        }
+        long category = categoryId != null ? categoryId : NO_CATEGORY;
+        int stock = stockQuantity != null ? stockQuantity : 0;
+
+        Double currentPrice = priceById.get(productId);
+        if (currentPrice != null && currentPrice == price) {
+            // Fiyat değişmediyse konum da değişmez; stok güncellemeleri bu yoldan geçer
+            int position = lowerBound(price, productId);
+            categoryIds[position] = category;
+            stocks[position] = stock;
+            return;
+        }
+
+        remove(productId);
+        if (size == ids.length) {
+            int capacity = Math.max(INITIAL_CAPACITY, size * 2);
+            prices = Arrays.copyOf(prices, capacity);
+            ids = Arrays.copyOf(ids, capacity);
+            categoryIds = Arrays.copyOf(categoryIds, capacity);
+            stocks = Arrays.copyOf(stocks, capacity);
+        }
+        int position = lowerBound(price, productId);
+        int tail = size - position;
+        System.arraycopy(prices, position, prices, position + 1, tail);
+        System.arraycopy(ids, position, ids, position + 1, tail);
+        System.arraycopy(categoryIds, position, categoryIds, position + 1, tail);
+        System.arraycopy(stocks, position, stocks, position + 1, tail);
+        prices[position] = price;
+        ids[position] = productId;
+        categoryIds[position] = category;
+        stocks[position] = stock;
+        size++;
+        priceById.put(productId, price);
+    }
+
+    private void remove(Long productId) {
+        Double price = priceById.remove(productId);
+        if (price == null) {
+            return;
+        }
+        int position = lowerBound(price, productId);
+        int tail = size - position - 1;
+        System.arraycopy(prices, position + 1, prices, position, tail);
+        System.arraycopy(ids, position + 1, ids, position, tail);
+        System.arraycopy(categoryIds, position + 1, categoryIds, position, tail);
+        System.arraycopy(stocks, position + 1, stocks, position, tail);
+        size--;
+    }
+
+    /**
+     * Verilen id'leri dizilerden tek geçişte çıkarır; kalanların sırası korunur
+     */
+    private void removeAll(Set<Long> productIds) {
+        int kept = 0;
+        for (int i = 0; i < size; i++) {
+            if (productIds.contains(ids[i]) && priceById.remove(ids[i]) != null) {
+                continue;
+            }
+            prices[kept] = prices[i];
+            ids[kept] = ids[i];
+            categoryIds[kept] = categoryIds[i];
+            stocks[kept] = stocks[i];
+            kept++;
+        }
+        size = kept;
+    }
+
+    /**
+     * İndekste olmayan ürünleri (fiyat, id) sırasına dizer ve mevcut dizilerle sondan başa birleştirir
+     */
+    private void insertAll(List<Product> products) {
+        int count = products.size();
+        if (count == 0) {
+            return;
+        }
+        double[] newPrices = new double[count];
+        long[] newIds = new long[count];
+        for (int i = 0; i < count; i++) {
+            newPrices[i] = priceOf(products.get(i).getPrice());
+            newIds[i] = products.get(i).getId();
+        }
+        int[] order = PermutationSort.sortedOrder(newPrices, newIds, count);
+
+        if (size + count > ids.length) {
+            int capacity = Math.max(INITIAL_CAPACITY, (size + count) + (size + count) / 4);
+            prices = Arrays.copyOf(prices, capacity);
+            ids = Arrays.copyOf(ids, capacity);
+            categoryIds = Arrays.copyOf(categoryIds, capacity);
+            stocks = Arrays.copyOf(stocks, capacity);
+        }
+        int existing = size - 1;
+        int incoming = count - 1;
+        for (int target = size + count - 1; incoming >= 0; target--) {
+            int next = order[incoming];
+            if (existing >= 0
+                    && PermutationSort.compare(prices[existing], ids[existing], newPrices[next], newIds[next]) > 0) {
+                prices[target] = prices[existing];
+                ids[target] = ids[existing];
+                categoryIds[target] = categoryIds[existing];
+                stocks[target] = stocks[existing];
+                existing--;
+            } else {
+                Product product = products.get(next);
+                prices[target] = newPrices[next];
+                ids[target] = newIds[next];
+                categoryIds[target] = product.getCategory_id() != null ? product.getCategory_id() : NO_CATEGORY;
+                stocks[target] = product.getStock_quantity() != null ? product.getStock_quantity() : 0;
+                priceById.put(newIds[next], newPrices[next]);
+                incoming--;
+            }
+        }
+        size += count;
+    }
+
+    /**
+     * (price, id) çiftinden küçük olmayan ilk konum
+     */
+    private int lowerBound(double price, long id) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (PermutationSort.compare(prices[mid], ids[mid], price, id) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private static double priceOf(Double price) {
+        return price != null ? price : 0.0;
+    }
+}
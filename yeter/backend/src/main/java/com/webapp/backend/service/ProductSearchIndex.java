@@ -0,0 +1,417 @@
+package com.webapp.backend.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.webapp.backend.dto.ProductTextView;
+import com.webapp.backend.event.ProductBatchChangedEvent;
+import com.webapp.backend.event.ProductChangedEvent;
+import com.webapp.backend.model.Product;
+
+/**
+ * Ürün adı ve açıklaması üzerinde bellek içi ters indeks (inverted index).
+ * Sonuçlar BM25 ile sıralanır; ürün adındaki terimler açıklamadakilerden daha ağırlıklıdır.
+ *
+ * Her ürün bir sıra numarasına (ordinal) eşlenir. Posting listeleri ordinal'e göre
+ * sıralı ilkel dizilerde tutulur, böylece güncelleme ve silme ikili arama ile yapılır.
+ * İndeks uygulama açılırken (web sunucusu istek kabul etmeden önce) veritabanından
+ * parça parça doldurulur ve ProductChangedEvent olaylarıyla güncel tutulur.
+ */
+@Component
+public class ProductSearchIndex implements SmartInitializingSingleton {
+
+    private static final Logger log = LoggerFactory.getLogger(ProductSearchIndex.class);
+
+    private static final float K1 = 1.2f;
+    private static final float B = 0.75f;
+    private static final int NAME_BOOST = 2;
+    private static final int BUILD_BATCH_SIZE = 1000;
+
+    private final CatalogSnapshot catalogSnapshot;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final Map<String, Postings> postingsByTerm = new HashMap<>();
+    private final Map<Long, Document> documentsById = new HashMap<>();
+    private long[] idByOrdinal = new long[1024];
+    private int[] lengthByOrdinal = new int[1024];
+    private int[] freeOrdinals = new int[64];
+    private int freeOrdinalCount;
+    private int nextOrdinal;
+    private long totalLength;
+
+    private final ThreadLocal<ScoreBuffer> scoreBuffers = ThreadLocal.withInitial(ScoreBuffer::new);
+
+    public ProductSearchIndex(CatalogSnapshot catalogSnapshot) {
+        this.catalogSnapshot = catalogSnapshot;
+    }
+
+    /**
+     * Tüm singleton'lar oluşturulduktan sonra, web sunucusu başlamadan indeksi doldurur
+     */
+    @Override
+    public void afterSingletonsInstantiated() {
+        rebuild();
+    }
+
+    public void rebuild() {
+        long start = System.currentTimeMillis();
+        lock.writeLock().lock();
+        try {
+            clear();
+            long afterId = 0L;
+            List<ProductTextView> batch;
+            do {
+                batch = catalogSnapshot.findTextViewsAfter(afterId, BUILD_BATCH_SIZE);
+                for (ProductTextView view : batch) {
+                    put(view.getId(), view.getName(), view.getDescription());
+                    afterId = view.getId();
+                }
+            } while (batch.size() == BUILD_BATCH_SIZE);
+            log.info("Ürün arama indeksi oluşturuldu: {} ürün, {} terim, {} ms",
+                    documentsById.size(), postingsByTerm.size(), System.currentTimeMillis() - start);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Ürünü indekse ekler ya da mevcut kaydını günceller
+     */
+    public void index(Product product) {
+        if (product == null || product.getId() == null) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            put(product.getId(), product.getName(), product.getDescription());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Ürün değişikliklerini işlem (transaction) commit edildikten sonra indekse yansıtır
+     */
+    @Order(CatalogVersions.INDEX_LISTENER_ORDER)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        switch (event.getType()) {
+            case SAVED -> index(event.getProduct());
+            case DELETED -> remove(event.getProductId());
+            default -> {
+                // Stok değişikliği metin alanlarını etkilemez
+            }
+        }
+    }
+
+    /**
+     * Toplu değişiklikler tek yazma kilidi altında uygulanır
+     */
+    @Order(CatalogVersions.INDEX_LISTENER_ORDER)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductsChanged(ProductBatchChangedEvent event) {
+        lock.writeLock().lock();
+        try {
+            for (Long productId : event.getDeletedIds()) {
+                Document document = documentsById.remove(productId);
+                if (document != null) {
+                    unlink(document);
+                    releaseOrdinal(document.ordinal);
+                }
+            }
+            for (Product product : event.getSaved()) {
+                if (product.getId() != null) {
+                    put(product.getId(), product.getName(), product.getDescription());
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Long productId) {
+        lock.writeLock().lock();
+        try {
+            Document document = documentsById.remove(productId);
+            if (document != null) {
+                unlink(document);
+                releaseOrdinal(document.ordinal);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return documentsById.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * BM25 skoruna göre (skor azalan, id artan) sıralı en fazla {@code limit} sonuç döndürür.
+     * afterScore/afterId verilirse bu ikiliden sonra gelen sonuçlar döner (keyset sayfalama).
+     */
+    public List<SearchHit> search(String text, int limit, Float afterScore, Long afterId) {
+        List<String> queryTerms = TextNormalizer.tokenize(text).stream().distinct().toList();
+        if (queryTerms.isEmpty() || limit <= 0) {
+            return new ArrayList<>();
+        }
+
+        lock.readLock().lock();
+        try {
+            int documentCount = documentsById.size();
+            if (documentCount == 0) {
+                return new ArrayList<>();
+            }
+            float averageLength = (float) totalLength / documentCount;
+
+            ScoreBuffer buffer = scoreBuffers.get();
+            buffer.ensureCapacity(nextOrdinal);
+            try {
+                for (String term : queryTerms) {
+                    Postings postings = postingsByTerm.get(term);
+                    if (postings == null) {
+                        continue;
+                    }
+                    float idf = (float) Math.log(1 + (documentCount - postings.size + 0.5) / (postings.size + 0.5));
+                    for (int i = 0; i < postings.size; i++) {
+                        int ordinal = postings.ordinals[i];
+                        int tf = postings.frequencies[i];
+                        float norm = K1 * (1 - B + B * lengthByOrdinal[ordinal] / averageLength);
+                        buffer.add(ordinal, idf * (tf * (K1 + 1)) / (tf + norm));
+                    }
+                }
+                return collectTop(buffer, limit, afterScore, afterId);
+            } finally {
+                buffer.reset();
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private List<SearchHit> collectTop(ScoreBuffer buffer, int limit, Float afterScore, Long afterId) {
+        // En kötü sonuç başta olacak şekilde sınırlı boyutlu yığın
+        PriorityQueue<SearchHit> heap = new PriorityQueue<>(limit + 1, (a, b) -> -compareHits(a, b));
+        for (int i = 0; i < buffer.touchedCount; i++) {
+            int ordinal = buffer.touched[i];
+            float score = buffer.scores[ordinal];
+            long productId = idByOrdinal[ordinal];
+            if (afterScore != null && compare(score, productId, afterScore, afterId) <= 0) {
+                continue;
+            }
+            if (heap.size() < limit) {
+                heap.add(new SearchHit(productId, score));
+            } else {
+                SearchHit worst = heap.peek();
+                if (compare(score, productId, worst.getScore(), worst.getProductId()) < 0) {
+                    heap.poll();
+                    heap.add(new SearchHit(productId, score));
+                }
+            }
+        }
+        List<SearchHit> hits = new ArrayList<>(heap);
+        hits.sort(ProductSearchIndex::compareHits);
+        return hits;
+    }
+
+    private static int compareHits(SearchHit a, SearchHit b) {
+        return compare(a.getScore(), a.getProductId(), b.getScore(), b.getProductId());
+    }
+
+    /**
+     * Negatif sonuç: a, b'den önce gelir (yüksek skor önce, eşitlikte küçük id önce)
+     */
+    private static int compare(float scoreA, long idA, float scoreB, long idB) {
+        int byScore = Float.compare(scoreB, scoreA);
+        return byScore != 0 ? byScore : Long.compare(idA, idB);
+    }
+
+    private void put(Long productId, String name, String description) {
+        Map<String, Integer> frequencies = new LinkedHashMap<>();
+        for (String term : TextNormalizer.tokenize(name)) {
+            frequencies.merge(term, NAME_BOOST, Integer::sum);
+        }
+        for (String term : TextNormalizer.tokenize(description)) {
+            frequencies.merge(term, 1, Integer::sum);
+        }
+
+        Document document = documentsById.get(productId);
+        if (document != null) {
+            unlink(document);
+        } else {
+            document = new Document(acquireOrdinal());
+            documentsById.put(productId, document);
+        }
+        idByOrdinal[document.ordinal] = productId;
+
+        int length = 0;
+        document.postings = new Postings[frequencies.size()];
+        int i = 0;
+        for (Map.Entry<String, Integer> entry : frequencies.entrySet()) {
+            Postings postings = postingsByTerm.computeIfAbsent(entry.getKey(), Postings::new);
+            postings.add(document.ordinal, entry.getValue());
+            document.postings[i++] = postings;
+            length += entry.getValue();
+        }
+        lengthByOrdinal[document.ordinal] = length;
+        totalLength += length;
+    }
+
+    private void unlink(Document document) {
+        for (Postings postings : document.postings) {
+            postings.remove(document.ordinal);
+            if (postings.size == 0) {
+                postingsByTerm.remove(postings.term);
+            }
+        }
+        totalLength -= lengthByOrdinal[document.ordinal];
+        lengthByOrdinal[document.ordinal] = 0;
+        document.postings = new Postings[0];
+    }
+
+    private int acquireOrdinal() {
+        if (freeOrdinalCount > 0) {
+            return freeOrdinals[--freeOrdinalCount];
+        }
+        if (nextOrdinal == idByOrdinal.length) {
+            idByOrdinal = Arrays.copyOf(idByOrdinal, idByOrdinal.length * 2);
+            lengthByOrdinal = Arrays.copyOf(lengthByOrdinal, lengthByOrdinal.length * 2);
+        }
+        return nextOrdinal++;
+    }
+
+    private void releaseOrdinal(int ordinal) {
+        if (freeOrdinalCount == freeOrdinals.length) {
+            freeOrdinals = Arrays.copyOf(freeOrdinals, freeOrdinals.length * 2);
+        }
+        freeOrdinals[freeOrdinalCount++] = ordinal;
+    }
+
+    private void clear() {
+        postingsByTerm.clear();
+        documentsById.clear();
+        nextOrdinal = 0;
+        freeOrdinalCount = 0;
+        totalLength = 0;
+    }
+
+    /**
+     * Arama sonucu: ürün id'si ve BM25 skoru
+     */
+    public static final class SearchHit {
+        private final long productId;
+        private final float score;
+
+        public SearchHit(long productId, float score) {
+            this.productId = productId;
+            this.score = score;
+        }
+
+        public long getProductId() {
+            return productId;
+        }
+
+        public float getScore() {
+            return score;
+        }
+    }
+
+    private static final class Document {
+        private final int ordinal;
+        private Postings[] postings = new Postings[0];
+
+        private Document(int ordinal) {
+            this.ordinal = ordinal;
+        }
+    }
+
+    /**
+     * Bir terimin geçtiği ürünlerin ordinal'e göre sıralı listesi ve terim frekansları
+     */
+    private static final class Postings {
+        private final String term;
+        private int[] ordinals = new int[4];
+        private int[] frequencies = new int[4];
+        private int size;
+
+        private Postings(String term) {
+            this.term = term;
+        }
+
+        private void add(int ordinal, int frequency) {
+            int index = Arrays.binarySearch(ordinals, 0, size, ordinal);
+            if (index >= 0) {
+                frequencies[index] = frequency;
+                return;
+            }
+            int insertAt = -index - 1;
+            if (size == ordinals.length) {
+                ordinals = Arrays.copyOf(ordinals, size * 2);
+                frequencies = Arrays.copyOf(frequencies, size * 2);
+            }
+            System.arraycopy(ordinals, insertAt, ordinals, insertAt + 1, size - insertAt);
+            System.arraycopy(frequencies, insertAt, frequencies, insertAt + 1, size - insertAt);
+            ordinals[insertAt] = ordinal;
+            frequencies[insertAt] = frequency;
+            size++;
+        }
+
+        private void remove(int ordinal) {
+            int index = Arrays.binarySearch(ordinals, 0, size, ordinal);
+            if (index < 0) {
+                return;
+            }
+            System.arraycopy(ordinals, index + 1, ordinals, index, size - index - 1);
+            System.arraycopy(frequencies, index + 1, frequencies, index, size - index - 1);
+            size--;
+        }
+    }
+
+    /**
+     * Thread başına yeniden kullanılan skor tamponu; sorgu başına ürün sayısı kadar nesne üretilmez
+     */
+    private static final class ScoreBuffer {
+        private float[] scores = new float[0];
+        private int[] touched = new int[0];
+        private int touchedCount;
+
+        private void ensureCapacity(int capacity) {
+            if (scores.length < capacity) {
+                scores = new float[capacity];
+                touched = new int[capacity];
+            }
+        }
+
+        private void add(int ordinal, float score) {
+            if (scores[ordinal] == 0f) {
+                touched[touchedCount++] = ordinal;
+            }
+            scores[ordinal] += score;
+        }
+
+        private void reset() {
+            for (int i = 0; i < touchedCount; i++) {
+                scores[touched[i]] = 0f;
+            }
+            touchedCount = 0;
+        }
+    }
+}
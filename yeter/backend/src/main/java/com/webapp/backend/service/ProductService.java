@@ -1,48 +1,222 @@
 package com.webapp.backend.service;
 
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
-import com.webapp.backend.model.Category;
+import com.webapp.backend.dto.CursorPageDto;
+import com.webapp.backend.dto.ProductBatchResponseDto;
+import com.webapp.backend.dto.ProductFilterRequest;
+import com.webapp.backend.dto.ProductPageRequest;
+import com.webapp.backend.dto.ProductResponseDto;
+import com.webapp.backend.dto.SuggestionDto;
+import com.webapp.backend.event.ProductChangedEvent;
+import com.webapp.backend.exception.BadRequestException;
+import com.webapp.backend.model.CatalogDeletion;
 import com.webapp.backend.model.Product;
-import com.webapp.backend.model.User;
+import com.webapp.backend.repository.CatalogDeletionRepository;
 import com.webapp.backend.repository.ProductRepository;
+import com.webapp.backend.repository.ProductSpecifications;
 
 @Service
 public class ProductService {
 
     private final ProductRepository productRepository;
+    private final ProductSearchIndex searchIndex;
+    private final ProductFacetIndex facetIndex;
+    private final ProductSuggestIndex suggestIndex;
+    private final ProductPriceIndex priceIndex;
+    private final ProductSortIndex sortIndex;
+    private final ProductCache productCache;
+    private final CatalogIdFilter idFilter;
+    private final CatalogDeletionRepository deletionRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Autowired
-    public ProductService(ProductRepository productRepository) {
+    public ProductService(ProductRepository productRepository, ProductSearchIndex searchIndex,
+            ProductFacetIndex facetIndex, ProductSuggestIndex suggestIndex, ProductPriceIndex priceIndex,
+            ProductSortIndex sortIndex, ProductCache productCache, CatalogIdFilter idFilter,
+            CatalogDeletionRepository deletionRepository, ApplicationEventPublisher eventPublisher) {
         this.productRepository = productRepository;
+        this.searchIndex = searchIndex;
+        this.facetIndex = facetIndex;
+        this.suggestIndex = suggestIndex;
+        this.priceIndex = priceIndex;
+        this.sortIndex = sortIndex;
+        this.productCache = productCache;
+        this.idFilter = idFilter;
+        this.deletionRepository = deletionRepository;
+        this.eventPublisher = eventPublisher;
     }
 
-    public List<Product> findAllProducts() {
-        return productRepository.findAll();
+    public CursorPageDto<ProductResponseDto> findAllProducts(ProductPageRequest pageRequest) {
+        if (ProductSortIndex.supports(pageRequest.getSortKey())) {
+            return findSortedPage(null, pageRequest);
+        }
+        return findPage(null, pageRequest);
     }
 
     public Optional<Product> findById(Long id) {
         return productRepository.findById(id);
     }
 
-    public List<Product> findByCategory(Category category) {
-        return productRepository.findByCategory(category);
+    /**
+     * Ürün detay görünümünü önbellekten döndürür; yoksa veritabanından yükleyip önbelleğe koyar.
+     * Güncelleme amaçlı okumalar entity döndüren findById'yi kullanmalıdır.
+     */
+    public Optional<ProductResponseDto> findProductView(Long id) {
+        if (!idFilter.mightContainProduct(id)) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(productCache.get(id, key -> productRepository
+                .findViews(ProductSpecifications.idIn(List.of(key)), null, 1).stream()
+                .findFirst()
+                .orElse(null)));
     }
 
-    public List<Product> findBySeller(User seller) {
-        return productRepository.findBySeller(seller);
+    /**
+     * Birden çok ürünü istek sırasıyla getirir. Önbellekte olmayanlar kategori ve satıcıyla
+     * birlikte tek bir IN sorgusuyla yüklenir; tekrar eden id'ler bir kez döner.
+     */
+    public ProductBatchResponseDto findProductViews(List<Long> ids) {
+        Set<Long> distinctIds = new LinkedHashSet<>(ids);
+        List<Long> candidateIds = distinctIds.stream().filter(idFilter::mightContainProduct).toList();
+        Map<Long, ProductResponseDto> found = productCache.getAll(candidateIds, missing -> productRepository
+                .findViews(ProductSpecifications.idIn(new ArrayList<>(missing)), null, missing.size()).stream()
+                .collect(Collectors.toMap(ProductResponseDto::getId, Function.identity())));
+
+        ProductBatchResponseDto response = new ProductBatchResponseDto();
+        for (Long id : distinctIds) {
+            ProductResponseDto view = found.get(id);
+            if (view != null) {
+                response.getProducts().add(view);
+            } else {
+                response.getMissingIds().add(id);
+            }
+        }
+        return response;
     }
 
-    public List<Product> findByNameContainingIgnoreCase(String name) {
-        return productRepository.findByNameContainingIgnoreCase(name);
+    public CursorPageDto<ProductResponseDto> findByCategory(Long categoryId, ProductPageRequest pageRequest) {
+        if (ProductSortIndex.supports(pageRequest.getSortKey())) {
+            return findSortedPage(categoryId, pageRequest);
+        }
+        return findPage(ProductSpecifications.inCategory(categoryId), pageRequest);
     }
 
-    public List<Product> findByPriceBetween(Double minPrice, Double maxPrice) {
-        return productRepository.findByPriceBetween(minPrice, maxPrice);
+    public CursorPageDto<ProductResponseDto> findBySeller(Long sellerId, ProductPageRequest pageRequest) {
+        return findPage(ProductSpecifications.bySeller(sellerId), pageRequest);
+    }
+
+    /**
+     * Ürün adı ve açıklamasında arama yapar. Varsayılan (relevance) sıralamada sonuçlar
+     * bellek içi indeksten BM25 skoruna göre gelir; açık bir alan sıralaması istenirse
+     * ad üzerinde veritabanı sorgusu kullanılır.
+     */
+    public CursorPageDto<ProductResponseDto> searchProducts(String text, ProductPageRequest pageRequest) {
+        if (pageRequest.getSortKey() != ProductPageRequest.SortKey.RELEVANCE) {
+            return findPage(ProductSpecifications.nameContainsIgnoreCase(text), pageRequest);
+        }
+
+        List<ProductSearchIndex.SearchHit> hits = searchIndex.search(text, pageRequest.getLimit() + 1,
+                (Float) pageRequest.getAfterValue(), pageRequest.getAfterId());
+        boolean hasMore = hits.size() > pageRequest.getLimit();
+        if (hasMore) {
+            hits = hits.subList(0, pageRequest.getLimit());
+        }
+
+        List<Long> ids = hits.stream().map(ProductSearchIndex.SearchHit::getProductId).toList();
+        List<ProductResponseDto> items = findViewsByIdInOrder(ids);
+
+        String nextCursor = null;
+        if (hasMore) {
+            ProductSearchIndex.SearchHit last = hits.get(hits.size() - 1);
+            nextCursor = pageRequest.cursorAfter(last.getProductId(), last.getScore());
+        }
+        return new CursorPageDto<>(items, nextCursor, hasMore, pageRequest.getLimit());
+    }
+
+    /**
+     * Arama kutusu için ürün ve kategori adı tamamlamaları; veritabanına gidilmez
+     */
+    public List<SuggestionDto> suggest(String prefix, int limit) {
+        return suggestIndex.suggest(prefix, limit);
+    }
+
+    /**
+     * Fiyat aralığındaki ürünler; isteğe bağlı kategori ve stok filtresiyle. Fiyat sıralamasında
+     * sayfadaki id'ler bellek içi fiyat indeksinden gelir ve yalnızca bu ürünler yüklenir;
+     * diğer sıralamalar veritabanında uygulanır.
+     */
+    public CursorPageDto<ProductResponseDto> findByPriceBetween(Double minPrice, Double maxPrice, Long categoryId,
+            boolean inStockOnly, ProductPageRequest pageRequest) {
+        if (pageRequest.getSortKey() != ProductPageRequest.SortKey.PRICE) {
+            Specification<Product> spec = ProductSpecifications.priceBetween(minPrice, maxPrice);
+            if (categoryId != null) {
+                spec = spec.and(ProductSpecifications.inCategory(categoryId));
+            }
+            if (inStockOnly) {
+                spec = spec.and(ProductSpecifications.inStock());
+            }
+            return findPage(spec, pageRequest);
+        }
+
+        long[] pageIds = new long[pageRequest.getLimit() + 1];
+        double[] pagePrices = new double[pageIds.length];
+        int found = priceIndex.page(minPrice, maxPrice, categoryId, inStockOnly,
+                pageRequest.getDirection() == Sort.Direction.ASC,
+                (Double) pageRequest.getAfterValue(), pageRequest.getAfterId(), pageIds, pagePrices);
+        boolean hasMore = found > pageRequest.getLimit();
+        int pageSize = Math.min(found, pageRequest.getLimit());
+
+        List<Long> ids = new ArrayList<>(pageSize);
+        for (int i = 0; i < pageSize; i++) {
+            ids.add(pageIds[i]);
+        }
+        List<ProductResponseDto> items = findProductViews(ids).getProducts();
+        // İmleç indeksteki son (fiyat, id) çiftinden üretilir; görünümü bulunamayan ürünler atlansa da kaymaz
+        String nextCursor = hasMore
+                ? pageRequest.cursorAfter(pageIds[pageSize - 1], pagePrices[pageSize - 1])
+                : null;
+        return new CursorPageDto<>(items, nextCursor, hasMore, pageRequest.getLimit());
+    }
+
+    /**
+     * Kategori, fiyat aralığı, satıcı ve stok filtrelerini bellek içi bitmap indeksinde
+     * uygular. Facet sayıları veritabanına gitmeden hesaplanır; yalnızca sayfadaki id'ler döner.
+     */
+    public ProductFacetIndex.FacetResult filterProducts(ProductFilterRequest filter, ProductPageRequest pageRequest) {
+        return facetIndex.filter(filter, pageRequest.getAfterId(), pageRequest.getLimit());
+    }
+
+    /**
+     * Verilen id'lerdeki ürün görünümlerini kategori ve satıcıyla birlikte tek sorguda getirir
+     * ve istek sırasını korur. Bulunamayan id'ler atlanır.
+     */
+    public List<ProductResponseDto> findViewsByIdInOrder(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return new ArrayList<>();
+        }
+        Map<Long, ProductResponseDto> productsById = productRepository
+                .findViews(ProductSpecifications.idIn(ids), null, ids.size()).stream()
+                .collect(Collectors.toMap(ProductResponseDto::getId, Function.identity()));
+        return ids.stream()
+                .map(productsById::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
     }
 
     public List<Product> findByStockQuantityGreaterThan(Integer minStock) {
@@ -50,14 +224,71 @@ public class ProductService {
     }
 
     public Product saveProduct(Product product) {
-        return productRepository.save(product);
+        Product saved = productRepository.save(product);
+        eventPublisher.publishEvent(ProductChangedEvent.saved(saved));
+        return saved;
     }
 
+    /**
+     * Silme kaydı aynı işlemde yazılır; diğer düğümler silmeyi değişiklik akışından öğrenir
+     */
+    @Transactional
     public void deleteProduct(Long id) {
         productRepository.deleteById(id);
+        deletionRepository.save(new CatalogDeletion(CatalogDeletion.EntityType.PRODUCT, id));
+        eventPublisher.publishEvent(ProductChangedEvent.deleted(id));
     }
-    
+
     public Product updateProduct(Product product) {
-        return productRepository.save(product);
+        Product updated = productRepository.save(product);
+        eventPublisher.publishEvent(ProductChangedEvent.saved(updated));
+        return updated;
+    }
+
+    /**
+     * Fiyat, yenilik, satış ve puan sıralamaları: sayfadaki id'ler önceden sıralanmış
+     * permütasyonlardan gelir, ORDER BY çalışmaz; yalnızca sayfadaki ürünler yüklenir
+     */
+    private CursorPageDto<ProductResponseDto> findSortedPage(Long categoryId, ProductPageRequest pageRequest) {
+        long[] pageIds = new long[pageRequest.getLimit() + 1];
+        double[] pageValues = new double[pageIds.length];
+        int found = sortIndex.page(pageRequest.getSortKey(), categoryId,
+                pageRequest.getDirection() == Sort.Direction.DESC,
+                (Double) pageRequest.getAfterValue(), pageRequest.getAfterId(), pageIds, pageValues);
+        boolean hasMore = found > pageRequest.getLimit();
+        int pageSize = Math.min(found, pageRequest.getLimit());
+
+        List<Long> ids = new ArrayList<>(pageSize);
+        for (int i = 0; i < pageSize; i++) {
+            ids.add(pageIds[i]);
+        }
+        List<ProductResponseDto> items = findProductViews(ids).getProducts();
+        String nextCursor = hasMore
+                ? pageRequest.cursorAfter(pageIds[pageSize - 1], pageValues[pageSize - 1])
+                : null;
+        return new CursorPageDto<>(items, nextCursor, hasMore, pageRequest.getLimit());
+    }
+
+    /**
+     * Keyset sayfalama ile tek sayfa getirir. Bir fazla satır okunarak
+     * sonraki sayfanın olup olmadığı COUNT sorgusu olmadan anlaşılır.
+     * Satırlar DTO projeksiyonu olarak okunur; sayfa başına tek SQL çalışır.
+     */
+    private CursorPageDto<ProductResponseDto> findPage(Specification<Product> filter, ProductPageRequest pageRequest) {
+        if (pageRequest.getSortKey().isIndexOnly()) {
+            throw new BadRequestException(pageRequest.getSortKey().getProperty()
+                    + " sıralaması bu listede desteklenmiyor");
+        }
+        Specification<Product> spec = Specification.where(filter)
+                .and(ProductSpecifications.after(pageRequest));
+
+        List<ProductResponseDto> rows = productRepository.findViews(spec, pageRequest.toSort(),
+                pageRequest.getLimit() + 1);
+
+        boolean hasMore = rows.size() > pageRequest.getLimit();
+        List<ProductResponseDto> items = hasMore ? rows.subList(0, pageRequest.getLimit()) : rows;
+        String nextCursor = hasMore ? pageRequest.cursorAfter(items.get(items.size() - 1)) : null;
+
+        return new CursorPageDto<>(items, nextCursor, hasMore, pageRequest.getLimit());
     }
-}
\ No newline at end of file
+}
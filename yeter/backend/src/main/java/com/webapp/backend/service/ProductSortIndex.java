@@ -0,0 +1,572 @@
+package com.webapp.backend.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.webapp.backend.dto.ProductAttributeView;
+import com.webapp.backend.dto.ProductPageRequest.SortKey;
+import com.webapp.backend.dto.ProductRatingView;
+import com.webapp.backend.dto.ProductSalesView;
+import com.webapp.backend.event.ProductBatchChangedEvent;
+import com.webapp.backend.event.ProductChangedEvent;
+import com.webapp.backend.event.ReviewChangedEvent;
+import com.webapp.backend.model.Product;
+import com.webapp.backend.repository.OrderItemRepository;
+import com.webapp.backend.repository.ReviewRepository;
+
+/**
+ * Fiyat, yenilik, satış adedi ve puan sıralamaları için önceden hesaplanmış permütasyonlar.
+ * Her ürün sabit bir slot'a yerleşir; her sıralama için tüm katalogda ve her kategoride
+ * slot'ları (anahtar, id) artan sırasında tutan birer int[] vardır. Sıralı bir sayfa,
+ * cursor konumunun ikili aramayla bulunup sayfa boyu kadar slot okunmasıyla üretilir.
+ * Değişikliklerde yalnızca ilgili permütasyonlardaki tek konum kaydırılır; toplu değişikliklerde
+ * etkilenen slot'lar her permütasyondan tek geçişte ayıklanıp sıralı olarak geri birleştirilir.
+ */
+@Component
+public class ProductSortIndex implements SmartInitializingSingleton {
+
+    private static final Logger log = LoggerFactory.getLogger(ProductSortIndex.class);
+
+    private static final SortKey[] ORDERS = { SortKey.PRICE, SortKey.NEWEST, SortKey.BEST_SELLING, SortKey.TOP_RATED };
+    private static final int PRICE = 0;
+    private static final int NEWEST = 1;
+    private static final int BEST_SELLING = 2;
+    private static final int TOP_RATED = 3;
+
+    private static final int BUILD_BATCH_SIZE = 5000;
+    private static final int INITIAL_CAPACITY = 1024;
+    private static final long NO_CATEGORY = 0L;
+
+    // Az yorumlu ürünlerin tek bir 5 puanla en üste çıkmaması için Bayes ortalaması:
+    // (toplam + PRIOR_RATING * PRIOR_WEIGHT) / (adet + PRIOR_WEIGHT)
+    private static final double PRIOR_RATING = 3.0;
+    private static final double PRIOR_WEIGHT = 5.0;
+
+    private final CatalogSnapshot catalogSnapshot;
+    private final OrderItemRepository orderItemRepository;
+    private final ReviewRepository reviewRepository;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private long[] slotIds = new long[0];
+    private long[] slotCategories = new long[0];
+    private long[] unitsSold = new long[0];
+    private final double[][] keys = new double[ORDERS.length][0];
+    private int slotCount;
+    private int[] freeSlots = new int[0];
+    private int freeCount;
+    private final Map<Long, Integer> slotById = new HashMap<>();
+
+    private Permutation[] all = newPermutations(0);
+    private final Map<Long, Permutation[]> byCategory = new HashMap<>();
+
+    public ProductSortIndex(CatalogSnapshot catalogSnapshot, OrderItemRepository orderItemRepository,
+            ReviewRepository reviewRepository) {
+        this.catalogSnapshot = catalogSnapshot;
+        this.orderItemRepository = orderItemRepository;
+        this.reviewRepository = reviewRepository;
+    }
+
+    public static boolean supports(SortKey sortKey) {
+        return orderOf(sortKey) >= 0;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        rebuild();
+    }
+
+    public void rebuild() {
+        long start = System.currentTimeMillis();
+        Map<Long, Long> sold = new HashMap<>();
+        for (ProductSalesView view : orderItemRepository.findUnitsSoldByProduct()) {
+            sold.put(view.getProductId(), view.getUnitsSold());
+        }
+        Map<Long, ProductRatingView> ratings = new HashMap<>();
+        for (ProductRatingView view : reviewRepository.findRatingSummaries()) {
+            ratings.put(view.getProductId(), view);
+        }
+
+        lock.writeLock().lock();
+        try {
+            slotCount = 0;
+            freeCount = 0;
+            slotById.clear();
+            byCategory.clear();
+
+            long afterId = 0L;
+            List<ProductAttributeView> batch;
+            do {
+                batch = catalogSnapshot.findAttributeViewsAfter(afterId, BUILD_BATCH_SIZE);
+                ensureSlotCapacity(slotCount + batch.size());
+                for (ProductAttributeView view : batch) {
+                    int slot = slotCount++;
+                    long id = view.getId();
+                    slotById.put(id, slot);
+                    slotIds[slot] = id;
+                    slotCategories[slot] = view.getCategoryId() != null ? view.getCategoryId() : NO_CATEGORY;
+                    unitsSold[slot] = sold.getOrDefault(id, 0L);
+                    keys[PRICE][slot] = view.getPrice() != null ? view.getPrice() : 0.0;
+                    keys[NEWEST][slot] = id;
+                    keys[BEST_SELLING][slot] = unitsSold[slot];
+                    ProductRatingView rating = ratings.get(id);
+                    keys[TOP_RATED][slot] = rating != null ? score(rating.getRatingSum(), rating.getRatingCount())
+                            : score(0, 0);
+                    afterId = id;
+                }
+            } while (batch.size() == BUILD_BATCH_SIZE);
+
+            // Katalog sıraları paralel sıralanır; kategori sıraları bunlardan tek geçişte ayrılır
+            Map<Long, int[]> categorySizes = new HashMap<>();
+            for (int slot = 0; slot < slotCount; slot++) {
+                categorySizes.computeIfAbsent(slotCategories[slot], k -> new int[1])[0]++;
+            }
+            all = newPermutations(slotCount);
+            for (Map.Entry<Long, int[]> entry : categorySizes.entrySet()) {
+                byCategory.put(entry.getKey(), newPermutations(entry.getValue()[0]));
+            }
+            for (int order = 0; order < ORDERS.length; order++) {
+                int[] sorted = PermutationSort.sortedOrder(keys[order], slotIds, slotCount);
+                all[order].slots = Arrays.copyOf(sorted, Math.max(INITIAL_CAPACITY, sorted.length));
+                all[order].size = sorted.length;
+                for (int slot : sorted) {
+                    Permutation permutation = byCategory.get(slotCategories[slot])[order];
+                    permutation.slots[permutation.size++] = slot;
+                }
+            }
+            log.info("Ürün sıralama indeksi oluşturuldu: {} ürün, {} kategori, {} ms",
+                    slotCount, byCategory.size(), System.currentTimeMillis() - start);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Order(CatalogVersions.INDEX_LISTENER_ORDER)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        lock.writeLock().lock();
+        try {
+            switch (event.getType()) {
+                case SAVED -> put(event.getProduct());
+                case DELETED -> remove(event.getProductId());
+                case STOCK_CHANGED -> {
+                    // Satışta stok azalır (negatif fark); iptal ve iadeler satış adedini geri alır
+                    Integer slot = slotById.get(event.getProductId());
+                    if (slot != null) {
+                        unitsSold[slot] = Math.max(0, unitsSold[slot] - event.getStockDelta());
+                        reposition(slot, BEST_SELLING, unitsSold[slot]);
+                    }
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Yeni, silinen ve fiyatı ya da kategorisi değişen ürünlerin slot'ları her permütasyondan tek geçişte
+     * çıkarılır; kalanlar güncel anahtarlarıyla sıralanıp birleştirilir. Parti boyu k için permütasyon başına
+     * maliyet k kaydırma yerine O(n + k log k) olur. Başka düğümlerdeki satışlar yerel stok olayı üretmediği
+     * için değişiklik akışından gelen ürünlerin satış adetleri veritabanından yeniden okunur.
+     */
+    @Order(CatalogVersions.INDEX_LISTENER_ORDER)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductsChanged(ProductBatchChangedEvent event) {
+        Map<Long, Long> sold = event.isFromFeed() ? unitsSoldOf(event.getSaved()) : null;
+        lock.writeLock().lock();
+        try {
+            BitSet moved = new BitSet();
+            Set<Long> categories = new HashSet<>();
+            List<Integer> freed = new ArrayList<>();
+            for (Long productId : event.getDeletedIds()) {
+                Integer slot = slotById.remove(productId);
+                if (slot != null) {
+                    moved.set(slot);
+                    categories.add(slotCategories[slot]);
+                    freed.add(slot);
+                }
+            }
+
+            BitSet placedSlots = new BitSet();
+            List<Integer> placed = new ArrayList<>();
+            for (Product product : event.getSaved()) {
+                if (product.getId() == null) {
+                    continue;
+                }
+                long category = product.getCategory_id() != null ? product.getCategory_id() : NO_CATEGORY;
+                double price = product.getPrice() != null ? product.getPrice() : 0.0;
+                Integer existing = slotById.get(product.getId());
+                long units = sold != null ? sold.getOrDefault(product.getId(), 0L)
+                        : existing != null ? unitsSold[existing] : 0L;
+                int slot;
+                if (existing == null) {
+                    slot = allocateSlot();
+                    slotById.put(product.getId(), slot);
+                    slotIds[slot] = product.getId();
+                    keys[NEWEST][slot] = product.getId();
+                    keys[TOP_RATED][slot] = score(0, 0);
+                } else {
+                    slot = existing;
+                    if (!placedSlots.get(slot) && slotCategories[slot] == category && keys[PRICE][slot] == price
+                            && unitsSold[slot] == units) {
+                        continue;
+                    }
+                    moved.set(slot);
+                    categories.add(slotCategories[slot]);
+                }
+                slotCategories[slot] = category;
+                keys[PRICE][slot] = price;
+                unitsSold[slot] = units;
+                keys[BEST_SELLING][slot] = units;
+                categories.add(category);
+                if (!placedSlots.get(slot)) {
+                    placedSlots.set(slot);
+                    placed.add(slot);
+                }
+            }
+
+            for (int order = 0; order < ORDERS.length; order++) {
+                int[] sorted = sortedSlots(placed, order);
+                all[order].merge(moved, sorted, sorted.length);
+                int[] inCategory = new int[sorted.length];
+                for (Long category : categories) {
+                    int count = 0;
+                    for (int slot : sorted) {
+                        if (slotCategories[slot] == category) {
+                            inCategory[count++] = slot;
+                        }
+                    }
+                    Permutation[] permutations = count > 0
+                            ? byCategory.computeIfAbsent(category, k -> newPermutations(0))
+                            : byCategory.get(category);
+                    if (permutations != null) {
+                        permutations[order].merge(moved, inCategory, count);
+                    }
+                }
+            }
+            for (Long category : categories) {
+                Permutation[] permutations = byCategory.get(category);
+                if (permutations != null) {
+                    removeIfEmpty(category, permutations);
+                }
+            }
+            for (int slot : freed) {
+                if (freeCount == freeSlots.length) {
+                    freeSlots = Arrays.copyOf(freeSlots, Math.max(16, freeCount * 2));
+                }
+                freeSlots[freeCount++] = slot;
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Order(CatalogVersions.INDEX_LISTENER_ORDER)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onReviewChanged(ReviewChangedEvent event) {
+        double score = reviewRepository.findRatingSummary(event.getProductId())
+                .map(rating -> score(rating.getRatingSum(), rating.getRatingCount()))
+                .orElse(score(0, 0));
+        lock.writeLock().lock();
+        try {
+            Integer slot = slotById.get(event.getProductId());
+            if (slot != null) {
+                reposition(slot, TOP_RATED, score);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Sıralamadaki bir sonraki sayfanın ürün id'lerini ve sıralama değerlerini outIds/outValues
+     * dizilerine yazar; yazılan ürün sayısını döndürür. categoryId null ise tüm katalog sıralanır.
+     * afterId verilirse o üründen sonrasından başlanır; NEWEST için değer id'nin kendisidir.
+     */
+    public int page(SortKey sortKey, Long categoryId, boolean descending, Double afterValue, Long afterId,
+            long[] outIds, double[] outValues) {
+        int order = orderOf(sortKey);
+        if (order < 0) {
+            throw new IllegalArgumentException("Sıralama indeksi bu anahtarı desteklemiyor: " + sortKey);
+        }
+        lock.readLock().lock();
+        try {
+            Permutation[] permutations = categoryId == null ? all : byCategory.get(categoryId);
+            if (permutations == null) {
+                return 0;
+            }
+            Permutation permutation = permutations[order];
+
+            int position;
+            if (afterId == null) {
+                position = descending ? permutation.size - 1 : 0;
+            } else {
+                double afterKey = order == NEWEST ? afterId : (afterValue != null ? afterValue : 0.0);
+                int bound = permutation.lowerBound(afterKey, afterId);
+                if (descending) {
+                    position = bound - 1;
+                } else {
+                    boolean onCursor = bound < permutation.size && slotIds[permutation.slots[bound]] == afterId
+                            && keys[order][permutation.slots[bound]] == afterKey;
+                    position = onCursor ? bound + 1 : bound;
+                }
+            }
+
+            int written = 0;
+            int step = descending ? -1 : 1;
+            while (written < outIds.length && position >= 0 && position < permutation.size) {
+                int slot = permutation.slots[position];
+                outIds[written] = slotIds[slot];
+                outValues[written] = keys[order][slot];
+                written++;
+                position += step;
+            }
+            return written;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private Map<Long, Long> unitsSoldOf(List<Product> products) {
+        List<Long> ids = products.stream().map(Product::getId).filter(Objects::nonNull).toList();
+        Map<Long, Long> sold = new HashMap<>();
+        if (!ids.isEmpty()) {
+            for (ProductSalesView view : orderItemRepository.findUnitsSoldByProductIds(ids)) {
+                sold.put(view.getProductId(), view.getUnitsSold());
+            }
+        }
+        return sold;
+    }
+
+    private void put(Product product) {
+        if (product == null || product.getId() == null) {
+            return;
+        }
+        long category = product.getCategory_id() != null ? product.getCategory_id() : NO_CATEGORY;
+        double price = product.getPrice() != null ? product.getPrice() : 0.0;
+
+        Integer existing = slotById.get(product.getId());
+        if (existing == null) {
+            int slot = allocateSlot();
+            slotById.put(product.getId(), slot);
+            slotIds[slot] = product.getId();
+            slotCategories[slot] = category;
+            unitsSold[slot] = 0;
+            keys[PRICE][slot] = price;
+            keys[NEWEST][slot] = product.getId();
+            keys[BEST_SELLING][slot] = 0;
+            keys[TOP_RATED][slot] = score(0, 0);
+            Permutation[] categoryPermutations = byCategory.computeIfAbsent(category, k -> newPermutations(0));
+            for (int order = 0; order < ORDERS.length; order++) {
+                all[order].insert(slot);
+                categoryPermutations[order].insert(slot);
+            }
+            return;
+        }
+
+        int slot = existing;
+        if (slotCategories[slot] != category) {
+            Permutation[] previous = byCategory.get(slotCategories[slot]);
+            Permutation[] next = byCategory.computeIfAbsent(category, k -> newPermutations(0));
+            for (int order = 0; order < ORDERS.length; order++) {
+                previous[order].remove(slot);
+            }
+            removeIfEmpty(slotCategories[slot], previous);
+            slotCategories[slot] = category;
+            for (int order = 0; order < ORDERS.length; order++) {
+                next[order].insert(slot);
+            }
+        }
+        reposition(slot, PRICE, price);
+    }
+
+    private void remove(Long productId) {
+        Integer slot = slotById.remove(productId);
+        if (slot == null) {
+            return;
+        }
+        Permutation[] categoryPermutations = byCategory.get(slotCategories[slot]);
+        for (int order = 0; order < ORDERS.length; order++) {
+            all[order].remove(slot);
+            categoryPermutations[order].remove(slot);
+        }
+        removeIfEmpty(slotCategories[slot], categoryPermutations);
+        if (freeCount == freeSlots.length) {
+            freeSlots = Arrays.copyOf(freeSlots, Math.max(16, freeCount * 2));
+        }
+        freeSlots[freeCount++] = slot;
+    }
+
+    /**
+     * Slot'u eski anahtarıyla katalog ve kategori permütasyonundan çıkarıp yeni anahtarla geri ekler
+     */
+    private void reposition(int slot, int order, double key) {
+        if (keys[order][slot] == key) {
+            return;
+        }
+        Permutation categoryPermutation = byCategory.get(slotCategories[slot])[order];
+        all[order].remove(slot);
+        categoryPermutation.remove(slot);
+        keys[order][slot] = key;
+        all[order].insert(slot);
+        categoryPermutation.insert(slot);
+    }
+
+    /**
+     * Slot'ları verilen sıralamanın (anahtar, id) düzenine dizer
+     */
+    private int[] sortedSlots(List<Integer> slots, int order) {
+        int count = slots.size();
+        double[] slotKeys = new double[count];
+        long[] ids = new long[count];
+        for (int i = 0; i < count; i++) {
+            slotKeys[i] = keys[order][slots.get(i)];
+            ids[i] = slotIds[slots.get(i)];
+        }
+        int[] positions = PermutationSort.sortedOrder(slotKeys, ids, count);
+        int[] sorted = new int[count];
+        for (int i = 0; i < count; i++) {
+            sorted[i] = slots.get(positions[i]);
+        }
+        return sorted;
+    }
+
+    private void removeIfEmpty(long category, Permutation[] permutations) {
+        if (permutations[0].size == 0) {
+            byCategory.remove(category);
+        }
+    }
+
+    private int allocateSlot() {
+        if (freeCount > 0) {
+            return freeSlots[--freeCount];
+        }
+        ensureSlotCapacity(slotCount + 1);
+        return slotCount++;
+    }
+
+    private void ensureSlotCapacity(int required) {
+        if (required <= slotIds.length) {
+            return;
+        }
+        int capacity = Math.max(Math.max(INITIAL_CAPACITY, slotIds.length * 2), required);
+        slotIds = Arrays.copyOf(slotIds, capacity);
+        slotCategories = Arrays.copyOf(slotCategories, capacity);
+        unitsSold = Arrays.copyOf(unitsSold, capacity);
+        for (int order = 0; order < ORDERS.length; order++) {
+            keys[order] = Arrays.copyOf(keys[order], capacity);
+        }
+    }
+
+    private Permutation[] newPermutations(int capacity) {
+        Permutation[] permutations = new Permutation[ORDERS.length];
+        for (int order = 0; order < ORDERS.length; order++) {
+            permutations[order] = new Permutation(order, capacity);
+        }
+        return permutations;
+    }
+
+    private static int orderOf(SortKey sortKey) {
+        for (int order = 0; order < ORDERS.length; order++) {
+            if (ORDERS[order] == sortKey) {
+                return order;
+            }
+        }
+        return -1;
+    }
+
+    private static double score(long ratingSum, long ratingCount) {
+        return (ratingSum + PRIOR_RATING * PRIOR_WEIGHT) / (ratingCount + PRIOR_WEIGHT);
+    }
+
+    /**
+     * Bir sıralamadaki slot'lar, (anahtar, ürün id) artan sırasında
+     */
+    private final class Permutation {
+        private final int order;
+        private int[] slots;
+        private int size;
+
+        private Permutation(int order, int capacity) {
+            this.order = order;
+            this.slots = new int[capacity];
+        }
+
+        private int lowerBound(double key, long id) {
+            int low = 0;
+            int high = size;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                int slot = slots[mid];
+                if (PermutationSort.compare(keys[order][slot], slotIds[slot], key, id) < 0) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+
+        private void insert(int slot) {
+            if (size == slots.length) {
+                slots = Arrays.copyOf(slots, Math.max(16, size * 2));
+            }
+            int position = lowerBound(keys[order][slot], slotIds[slot]);
+            System.arraycopy(slots, position, slots, position + 1, size - position);
+            slots[position] = slot;
+            size++;
+        }
+
+        private void remove(int slot) {
+            int position = lowerBound(keys[order][slot], slotIds[slot]);
+            if (position < size && slots[position] == slot) {
+                System.arraycopy(slots, position + 1, slots, position, size - position - 1);
+                size--;
+            }
+        }
+
+        /**
+         * moved içindeki slot'ları tek geçişte çıkarır, ardından sıralı incoming slot'larını sondan başa birleştirir
+         */
+        private void merge(BitSet moved, int[] incoming, int incomingCount) {
+            int kept = 0;
+            for (int i = 0; i < size; i++) {
+                if (!moved.get(slots[i])) {
+                    slots[kept++] = slots[i];
+                }
+            }
+            if (kept + incomingCount > slots.length) {
+                slots = Arrays.copyOf(slots, Math.max(16, (kept + incomingCount) * 2));
+            }
+            int existing = kept - 1;
+            int next = incomingCount - 1;
+            for (int target = kept + incomingCount - 1; next >= 0; target--) {
+                int a = slots[Math.max(existing, 0)];
+                int b = incoming[next];
+                if (existing >= 0
+                        && PermutationSort.compare(keys[order][a], slotIds[a], keys[order][b], slotIds[b]) > 0) {
+                    slots[target] = a;
+                    existing--;
+                } else {
+                    slots[target] = b;
+                    next--;
+                }
+            }
+            size = kept + incomingCount;
+        }
+    }
+}
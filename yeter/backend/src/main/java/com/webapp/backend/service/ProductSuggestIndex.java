@@ -0,0 +1,444 @@
+package com.webapp.backend.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.webapp.backend.dto.CategorySummaryDto;
+import com.webapp.backend.dto.ProductSalesView;
+import com.webapp.backend.dto.ProductTextView;
+import com.webapp.backend.dto.SuggestionDto;
+import com.webapp.backend.event.CategoryChangedEvent;
+import com.webapp.backend.event.ProductBatchChangedEvent;
+import com.webapp.backend.event.ProductChangedEvent;
+import com.webapp.backend.model.Category;
+import com.webapp.backend.model.Product;
+import com.webapp.backend.repository.CategoryRepository;
+import com.webapp.backend.repository.OrderItemRepository;
+
+/**
+ * Ürün ve kategori adları üzerinde önek (prefix) tamamlama için bellek içi trie.
+ * Ad, hem başından hem de her kelimenin başından anahtar olarak eklenir; böylece
+ * "kulak" öneki "Kablosuz Kulaklık" adını da bulur.
+ *
+ * Her düğüm alt ağacındaki en yüksek ağırlığı tutar. Sorgu önek düğümünden başlayıp
+ * bu değere göre en iyi-önce (best-first) ilerler ve k sonuç bulunca durur; maliyet
+ * katalog büyüklüğünden değil k ve önek derinliğinden etkilenir.
+ * Ürün ağırlığı 1 + sipariş edilen adet, kategori ağırlığı içindeki ürün sayısıdır.
+ */
+@Component
+public class ProductSuggestIndex implements SmartInitializingSingleton {
+
+    private static final Logger log = LoggerFactory.getLogger(ProductSuggestIndex.class);
+
+    // Daha uzun önekler bu derinlikteki düğümün adayları süzülerek yanıtlanır
+    private static final int MAX_DEPTH = 24;
+    private static final int BUILD_BATCH_SIZE = 1000;
+
+    public enum Type {
+        PRODUCT,
+        CATEGORY
+    }
+
+    private final CatalogSnapshot catalogSnapshot;
+    private final CategoryRepository categoryRepository;
+    private final OrderItemRepository orderItemRepository;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final Node root = new Node();
+    private final Map<Long, Entry> products = new HashMap<>();
+    private final Map<Long, Entry> categories = new HashMap<>();
+
+    public ProductSuggestIndex(CatalogSnapshot catalogSnapshot, CategoryRepository categoryRepository,
+            OrderItemRepository orderItemRepository) {
+        this.catalogSnapshot = catalogSnapshot;
+        this.categoryRepository = categoryRepository;
+        this.orderItemRepository = orderItemRepository;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        rebuild();
+    }
+
+    public void rebuild() {
+        long start = System.currentTimeMillis();
+        Map<Long, Long> unitsSold = new HashMap<>();
+        for (ProductSalesView view : orderItemRepository.findUnitsSoldByProduct()) {
+            unitsSold.put(view.getProductId(), view.getUnitsSold());
+        }
+
+        lock.writeLock().lock();
+        try {
+            root.clear();
+            products.clear();
+            categories.clear();
+
+            long afterId = 0L;
+            List<ProductTextView> batch;
+            do {
+                batch = catalogSnapshot.findTextViewsAfter(afterId, BUILD_BATCH_SIZE);
+                for (ProductTextView view : batch) {
+                    put(products, Type.PRODUCT, view.getId(), view.getName(),
+                            1 + unitsSold.getOrDefault(view.getId(), 0L));
+                    afterId = view.getId();
+                }
+            } while (batch.size() == BUILD_BATCH_SIZE);
+
+            for (CategorySummaryDto summary : catalogSnapshot.findCategorySummaries()) {
+                put(categories, Type.CATEGORY, summary.getId(), summary.getName(), summary.getProductCount());
+            }
+            log.info("Öneri indeksi oluşturuldu: {} ürün, {} kategori, {} ms",
+                    products.size(), categories.size(), System.currentTimeMillis() - start);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Order(CatalogVersions.INDEX_LISTENER_ORDER)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        lock.writeLock().lock();
+        try {
+            switch (event.getType()) {
+                case SAVED -> {
+                    Entry existing = products.get(event.getProductId());
+                    put(products, Type.PRODUCT, event.getProductId(), event.getProduct().getName(),
+                            existing != null ? existing.weight : 1);
+                }
+                case DELETED -> remove(products, event.getProductId());
+                case STOCK_CHANGED -> {
+                    // Yalnızca satışlar popülerliği artırır; iade ve iptaller düşürmez
+                    Entry existing = products.get(event.getProductId());
+                    if (existing != null && event.getStockDelta() < 0) {
+                        put(products, Type.PRODUCT, existing.id, existing.text,
+                                existing.weight - event.getStockDelta());
+                    }
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Değişiklik akışından gelen ürünlerin ağırlığı, başka düğümlerdeki satışları da kapsaması için
+     * veritabanındaki satış adedinden yeniden hesaplanır
+     */
+    @Order(CatalogVersions.INDEX_LISTENER_ORDER)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductsChanged(ProductBatchChangedEvent event) {
+        Map<Long, Long> unitsSold = new HashMap<>();
+        List<Long> ids = event.getSaved().stream().map(Product::getId).toList();
+        if (event.isFromFeed() && !ids.isEmpty()) {
+            for (ProductSalesView view : orderItemRepository.findUnitsSoldByProductIds(ids)) {
+                unitsSold.put(view.getProductId(), view.getUnitsSold());
+            }
+        }
+        lock.writeLock().lock();
+        try {
+            event.getDeletedIds().forEach(productId -> remove(products, productId));
+            for (Product product : event.getSaved()) {
+                Entry existing = products.get(product.getId());
+                long weight = event.isFromFeed() ? 1 + unitsSold.getOrDefault(product.getId(), 0L)
+                        : existing != null ? existing.weight : 1;
+                put(products, Type.PRODUCT, product.getId(), product.getName(), weight);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Order(CatalogVersions.INDEX_LISTENER_ORDER)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCategoryChanged(CategoryChangedEvent event) {
+        String name = event.getType() == CategoryChangedEvent.Type.SAVED
+                ? categoryRepository.findById(event.getCategoryId()).map(Category::getName).orElse(null)
+                : null;
+        lock.writeLock().lock();
+        try {
+            if (name == null) {
+                remove(categories, event.getCategoryId());
+            } else {
+                Entry existing = categories.get(event.getCategoryId());
+                put(categories, Type.CATEGORY, event.getCategoryId(), name, existing != null ? existing.weight : 0);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Önekle başlayan (adın ya da bir kelimenin başından) en ağırlıklı limit adet öneriyi döndürür.
+     * Aynı metne sahip birden fazla kayıt tek öneri olarak döner.
+     */
+    public List<SuggestionDto> suggest(String prefix, int limit) {
+        String folded = TextNormalizer.fold(prefix).trim();
+        List<SuggestionDto> results = new ArrayList<>(limit);
+        if (folded.isEmpty()) {
+            return results;
+        }
+
+        lock.readLock().lock();
+        try {
+            Node node = root;
+            int depth = Math.min(folded.length(), MAX_DEPTH);
+            for (int i = 0; i < depth && node != null; i++) {
+                node = node.child(folded.charAt(i));
+            }
+            if (node == null) {
+                return results;
+            }
+            boolean needsFilter = folded.length() > MAX_DEPTH;
+
+            // Düğümler alt ağaç maksimumuyla, kayıtlar kendi ağırlığıyla sıralanır
+            PriorityQueue<Object> queue = new PriorityQueue<>(
+                    (a, b) -> Long.compare(priority(b), priority(a)));
+            queue.add(node);
+            Set<Entry> seen = Collections.newSetFromMap(new IdentityHashMap<>());
+            Set<String> seenTexts = new LinkedHashSet<>();
+            while (!queue.isEmpty() && results.size() < limit) {
+                Object next = queue.poll();
+                if (next instanceof Entry entry) {
+                    if (!seen.add(entry) || (needsFilter && !entry.matches(folded))) {
+                        continue;
+                    }
+                    if (seenTexts.add(entry.folded)) {
+                        results.add(new SuggestionDto(entry.text, entry.type.name(), entry.id));
+                    }
+                } else {
+                    Node current = (Node) next;
+                    for (int i = 0; i < current.entryCount; i++) {
+                        queue.add(current.entries[i]);
+                    }
+                    for (int i = 0; i < current.childCount; i++) {
+                        queue.add(current.children[i]);
+                    }
+                }
+            }
+            return results;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return products.size() + categories.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static long priority(Object item) {
+        return item instanceof Entry entry ? entry.weight : ((Node) item).max;
+    }
+
+    // ---- Trie bakımı (yazma kilidi altında çağrılır) ----
+
+    private void put(Map<Long, Entry> entries, Type type, Long id, String text, long weight) {
+        remove(entries, id);
+        if (text == null || text.isBlank()) {
+            return;
+        }
+        Entry entry = new Entry(type, id, text.trim(), weight);
+        entries.put(id, entry);
+        for (String key : entry.keys) {
+            insert(entry, key);
+        }
+    }
+
+    private void remove(Map<Long, Entry> entries, Long id) {
+        Entry entry = entries.remove(id);
+        if (entry == null) {
+            return;
+        }
+        for (String key : entry.keys) {
+            removeFrom(root, entry, key, 0);
+        }
+    }
+
+    private void insert(Entry entry, String key) {
+        Node node = root;
+        node.max = Math.max(node.max, entry.weight);
+        int depth = Math.min(key.length(), MAX_DEPTH);
+        for (int i = 0; i < depth; i++) {
+            node = node.childOrCreate(key.charAt(i));
+            node.max = Math.max(node.max, entry.weight);
+        }
+        node.addEntry(entry);
+    }
+
+    /**
+     * Kaydı anahtarın düğümünden siler, boşalan düğümleri budar ve yol üzerindeki
+     * maksimum ağırlıkları aşağıdan yukarı yeniden hesaplar
+     */
+    private void removeFrom(Node node, Entry entry, String key, int depth) {
+        if (depth == Math.min(key.length(), MAX_DEPTH)) {
+            node.removeEntry(entry);
+        } else {
+            char c = key.charAt(depth);
+            Node child = node.child(c);
+            if (child == null) {
+                return;
+            }
+            removeFrom(child, entry, key, depth + 1);
+            if (child.isEmpty()) {
+                node.removeChild(c);
+            }
+        }
+        node.recomputeMax();
+    }
+
+    /**
+     * Adın tamamı ve her kelimenin başından başlayan son ek; tekrarlar atılır
+     */
+    private static String[] keysFor(String folded) {
+        Set<String> keys = new LinkedHashSet<>();
+        for (int i = 0; i < folded.length(); i++) {
+            boolean wordStart = Character.isLetterOrDigit(folded.charAt(i))
+                    && (i == 0 || !Character.isLetterOrDigit(folded.charAt(i - 1)));
+            if (wordStart) {
+                keys.add(folded.substring(i));
+            }
+        }
+        return keys.toArray(new String[0]);
+    }
+
+    private static final class Entry {
+        final Type type;
+        final Long id;
+        final String text;
+        final String folded;
+        final String[] keys;
+        final long weight;
+
+        Entry(Type type, Long id, String text, long weight) {
+            this.type = type;
+            this.id = id;
+            this.text = text;
+            this.folded = TextNormalizer.fold(text);
+            this.keys = keysFor(folded);
+            this.weight = weight;
+        }
+
+        boolean matches(String foldedPrefix) {
+            for (String key : keys) {
+                if (key.startsWith(foldedPrefix)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    /**
+     * Çocuklar karaktere göre sıralı paralel dizilerde tutulur; harita yerine dizi
+     * kullanmak düğüm başına bellek maliyetini düşük tutar
+     */
+    private static final class Node {
+        private static final char[] NO_KEYS = new char[0];
+        private static final Node[] NO_CHILDREN = new Node[0];
+        private static final Entry[] NO_ENTRIES = new Entry[0];
+
+        char[] keys = NO_KEYS;
+        Node[] children = NO_CHILDREN;
+        int childCount;
+        Entry[] entries = NO_ENTRIES;
+        int entryCount;
+        long max;
+
+        Node child(char c) {
+            int index = Arrays.binarySearch(keys, 0, childCount, c);
+            return index >= 0 ? children[index] : null;
+        }
+
+        Node childOrCreate(char c) {
+            int index = Arrays.binarySearch(keys, 0, childCount, c);
+            if (index >= 0) {
+                return children[index];
+            }
+            int insertAt = -index - 1;
+            if (childCount == keys.length) {
+                int capacity = Math.max(2, childCount * 2);
+                keys = Arrays.copyOf(keys, capacity);
+                children = Arrays.copyOf(children, capacity);
+            }
+            System.arraycopy(keys, insertAt, keys, insertAt + 1, childCount - insertAt);
+            System.arraycopy(children, insertAt, children, insertAt + 1, childCount - insertAt);
+            Node child = new Node();
+            keys[insertAt] = c;
+            children[insertAt] = child;
+            childCount++;
+            return child;
+        }
+
+        void removeChild(char c) {
+            int index = Arrays.binarySearch(keys, 0, childCount, c);
+            if (index < 0) {
+                return;
+            }
+            System.arraycopy(keys, index + 1, keys, index, childCount - index - 1);
+            System.arraycopy(children, index + 1, children, index, childCount - index - 1);
+            childCount--;
+            children[childCount] = null;
+        }
+
+        void addEntry(Entry entry) {
+            if (entryCount == entries.length) {
+                entries = Arrays.copyOf(entries, Math.max(1, entryCount * 2));
+            }
+            entries[entryCount++] = entry;
+        }
+
+        void removeEntry(Entry entry) {
+            for (int i = 0; i < entryCount; i++) {
+                if (entries[i] == entry) {
+                    entries[i] = entries[--entryCount];
+                    entries[entryCount] = null;
+                    return;
+                }
+            }
+        }
+
+        void recomputeMax() {
+            long value = 0;
+            for (int i = 0; i < entryCount; i++) {
+                value = Math.max(value, entries[i].weight);
+            }
+            for (int i = 0; i < childCount; i++) {
+                value = Math.max(value, children[i].max);
+            }
+            max = value;
+        }
+
+        boolean isEmpty() {
+            return entryCount == 0 && childCount == 0;
+        }
+
+        void clear() {
+            keys = NO_KEYS;
+            children = NO_CHILDREN;
+            childCount = 0;
+            entries = NO_ENTRIES;
+            entryCount = 0;
+            max = 0;
+        }
+    }
+}
@@ -2,13 +2,17 @@ package com.webapp.backend.service;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import com.webapp.backend.event.ProductChangedEvent;
 import com.webapp.backend.model.Order;
 import com.webapp.backend.model.OrderItem;
 import com.webapp.backend.model.Product;
@@ -35,6 +39,9 @@ public class ReturnService {
     @Autowired
     private ProductRepository productRepository;
     
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+    
     public List<Return> getAllReturns() {
         return returnRepository.findAll();
     }
@@ -105,10 +112,16 @@ public class ReturnService {
         
         // Eğer iade onaylanmışsa ve ürünler teslim alınmışsa, stoka geri ekle
         if (newStatus == ReturnStatus.RECEIVED) {
+            Map<Long, Product> products = new HashMap<>();
+            Map<Long, Integer> quantities = new HashMap<>();
+            for (ReturnItem item : returnRequest.getReturnItems()) {
+                products.put(item.getProduct().getId(), item.getProduct());
+                quantities.merge(item.getProduct().getId(), item.getQuantity(), Integer::sum);
+            }
+            productRepository.incrementStock(quantities);
+            productRepository.refreshStockAndPrice(products.values());
             for (ReturnItem item : returnRequest.getReturnItems()) {
-                Product product = item.getProduct();
-                product.setStock_quantity(product.getStock_quantity() + item.getQuantity());
-                productRepository.save(product);
+                eventPublisher.publishEvent(ProductChangedEvent.stockChanged(item.getProduct(), item.getQuantity()));
             }
         }
         
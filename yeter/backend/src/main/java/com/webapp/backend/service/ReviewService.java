@@ -1,10 +1,15 @@
 package com.webapp.backend.service;
 
+import com.webapp.backend.event.ReviewChangedEvent;
+import com.webapp.backend.model.CatalogDeletion;
 import com.webapp.backend.model.Review;
+import com.webapp.backend.repository.CatalogDeletionRepository;
 import com.webapp.backend.repository.ReviewRepository;
 import com.webapp.backend.security.SecurityUtils;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 import java.util.Optional;
@@ -14,11 +19,16 @@ public class ReviewService {
 
     private final ReviewRepository reviewRepository;
     private final SecurityUtils securityUtils;
+    private final CatalogDeletionRepository deletionRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Autowired
-    public ReviewService(ReviewRepository reviewRepository, SecurityUtils securityUtils) {
+    public ReviewService(ReviewRepository reviewRepository, SecurityUtils securityUtils,
+            CatalogDeletionRepository deletionRepository, ApplicationEventPublisher eventPublisher) {
         this.reviewRepository = reviewRepository;
         this.securityUtils = securityUtils;
+        this.deletionRepository = deletionRepository;
+        this.eventPublisher = eventPublisher;
     }
 
     public List<Review> getReviewsByProductId(Long productId) {
@@ -30,11 +40,28 @@ public class ReviewService {
     }
 
     public Review saveReview(Review review) {
-        return reviewRepository.save(review);
+        // Güncellemede yorum başka bir ürüne taşınmışsa eski ürünün puanı da değişir
+        Long previousProductId = review.getId() != null
+                ? reviewRepository.findById(review.getId()).map(Review::getProductId).orElse(null)
+                : null;
+        Review saved = reviewRepository.save(review);
+        eventPublisher.publishEvent(ReviewChangedEvent.of(saved.getProductId()));
+        if (previousProductId != null && !previousProductId.equals(saved.getProductId())) {
+            eventPublisher.publishEvent(ReviewChangedEvent.of(previousProductId));
+        }
+        return saved;
     }
 
+    /**
+     * Silme kaydı aynı işlemde yazılır; diğer düğümler ürünün puanını değişiklik akışından yeniden okur
+     */
+    @Transactional
     public void deleteReview(Long id) {
-        reviewRepository.deleteById(id);
+        reviewRepository.findById(id).ifPresent(review -> {
+            reviewRepository.delete(review);
+            deletionRepository.save(new CatalogDeletion(CatalogDeletion.EntityType.REVIEW, id, review.getProductId()));
+            eventPublisher.publishEvent(ReviewChangedEvent.of(review.getProductId()));
+        });
     }
     
     public boolean canUserModifyReview(Review review) {
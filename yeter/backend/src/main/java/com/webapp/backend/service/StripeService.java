@@ -1,10 +1,12 @@
 package com.webapp.backend.service;
 
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Optional;
+import java.util.UUID;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
@@ -128,6 +130,70 @@ public class StripeService {
         return stripePaymentRepository.save(payment);
     }
     
+    /**
+     * Siparişin ödeme kaydını idempotency anahtarıyla PENDING olarak açar; anahtarın kaydı zaten varsa onu
+     * döndürür. Tahsilat bu kayıt commit edildikten sonra, işlem dışında capturePayment ile yapılır.
+     */
+    @Transactional
+    public StripePayment preparePayment(String idempotencyKey, Order order, StripePaymentMethod paymentMethod) {
+        StripePayment existing = stripePaymentRepository.findByIdempotencyKey(idempotencyKey);
+        if (existing != null) {
+            return existing;
+        }
+        StripeCustomer customer = getOrCreateStripeCustomer(order.getUser());
+        
+        // Sağlayıcıdaki kimlikler anahtardan türetilir; aynı anahtarla tekrar denemede aynı ödeme görülür
+        String keyHash = UUID.nameUUIDFromBytes(idempotencyKey.getBytes(StandardCharsets.UTF_8))
+                .toString().replace("-", "").substring(0, 14);
+        StripePayment payment = new StripePayment();
+        payment.setOrder(order);
+        payment.setIdempotencyKey(idempotencyKey);
+        payment.setStripePaymentId("py_" + keyHash);
+        payment.setStripeCustomerId(customer.getStripeCustomerId());
+        payment.setPaymentIntentId("pi_" + keyHash);
+        payment.setPaymentMethodId(paymentMethod.getStripePaymentMethodId());
+        payment.setAmount(order.getTotalAmount());
+        payment.setCurrency("TRY");
+        payment.setStatus(PaymentStatus.PENDING);
+        return stripePaymentRepository.save(payment);
+    }
+    
+    /**
+     * Tahsilatı ödeme sağlayıcısında yapar. Veritabanına dokunmaz ve bir veritabanı işlemi içinden
+     * çağrılmamalıdır. Gerçek entegrasyonda PaymentIntent, kaydın idempotency anahtarı Idempotency-Key
+     * başlığında gönderilerek oluşturulur; aynı anahtarla yinelenen çağrı ikinci kez tahsil etmez, ilk
+     * denemenin sonucunu döndürür. Kart reddedilirse false döner; sonucu belirsiz hatalarda istisna fırlatır.
+     */
+    public boolean capturePayment(StripePayment payment) {
+        // Bu örnek için sadece simüle ediyoruz
+        return payment.getIdempotencyKey() != null;
+    }
+    
+    /**
+     * Sağlayıcıda sonuçlanan tahsilatı kaydeder. Siparişin ödeme durumu sipariş hattında güncellenir.
+     */
+    @Transactional
+    public StripePayment completePayment(String idempotencyKey, boolean captured) {
+        StripePayment payment = stripePaymentRepository.findByIdempotencyKey(idempotencyKey);
+        if (payment == null) {
+            throw new IllegalArgumentException("Ödeme bulunamadı");
+        }
+        if (payment.getStatus() == PaymentStatus.PENDING) {
+            payment.setStatus(captured ? PaymentStatus.COMPLETED : PaymentStatus.FAILED);
+            payment.setPaymentDate(LocalDateTime.now());
+            payment.setLastError(captured ? null : "Ödeme reddedildi");
+            if (captured) {
+                payment.setReceiptUrl("https://stripe.com/receipts/" + payment.getStripePaymentId());
+            }
+            payment = stripePaymentRepository.save(payment);
+        }
+        return payment;
+    }
+    
+    public Optional<StripePayment> findPaymentByIdempotencyKey(String idempotencyKey) {
+        return Optional.ofNullable(stripePaymentRepository.findByIdempotencyKey(idempotencyKey));
+    }
+    
     // İade işlemi
     @Transactional
     public StripePayment refundPayment(StripePayment payment, BigDecimal refundAmount) {
@@ -0,0 +1,98 @@
+package com.webapp.backend.service;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Kilitsiz, parçalı (striped) stok sayacı. Stok parçalara bölünür; her talep rastgele bir parçadan
+ * başlayarak CAS ile düşer, parça yetmezse sıradaki parçalardan tamamlar. Eşzamanlı alıcılar çoğunlukla
+ * farklı parçalara dokunduğu için tek bir sayaç üzerindeki CAS çekişmesi oluşmaz. Parçalar ayrı önbellek
+ * satırlarına düşecek şekilde aralıklı tutulur.
+ */
+final class StripedStockCounter {
+
+    // 16 int = 64 bayt; komşu parçalar aynı önbellek satırını paylaşmaz
+    private static final int PADDING = 16;
+    private static final int MAX_ATTEMPTS = 3;
+
+    private final int stripes;
+    private final AtomicIntegerArray cells;
+
+    StripedStockCounter(int stock, int stripes) {
+        this.stripes = Math.max(1, stripes);
+        this.cells = new AtomicIntegerArray(this.stripes * PADDING);
+        int share = stock / this.stripes;
+        int remainder = stock % this.stripes;
+        for (int i = 0; i < this.stripes; i++) {
+            cells.set(i * PADDING, share + (i < remainder ? 1 : 0));
+        }
+    }
+
+    /**
+     * Miktarın tamamını ayırır veya hiç ayırmaz. Parçalardan toplanan miktar yetmezse alınanlar geri
+     * konur; bu sırada eşzamanlı başka bir talep geçici olarak eksik stok görebileceği için toplam
+     * yeterliyse birkaç kez yeniden denenir.
+     */
+    boolean claim(int quantity) {
+        if (quantity <= 0) {
+            return true;
+        }
+        for (int attempt = 0; attempt < MAX_ATTEMPTS; attempt++) {
+            int start = ThreadLocalRandom.current().nextInt(stripes);
+            int remaining = quantity;
+            for (int i = 0; i < stripes && remaining > 0; i++) {
+                remaining -= take((start + i) % stripes, remaining);
+            }
+            if (remaining == 0) {
+                return true;
+            }
+            cells.addAndGet(start * PADDING, quantity - remaining);
+            if (available() < quantity) {
+                return false;
+            }
+        }
+        return false;
+    }
+
+    void release(int quantity) {
+        if (quantity > 0) {
+            cells.addAndGet(ThreadLocalRandom.current().nextInt(stripes) * PADDING, quantity);
+        }
+    }
+
+    /**
+     * Tüm parçaları sıfırlar ve alınan toplamı döndürür; eşzamanlı talep kalmadığında çağrılmalıdır
+     */
+    int drain() {
+        int total = 0;
+        for (int i = 0; i < stripes; i++) {
+            total += cells.getAndSet(i * PADDING, 0);
+        }
+        return total;
+    }
+
+    /**
+     * Parçaların anlık toplamı; eşzamanlı taleplerde yaklaşık değerdir
+     */
+    int available() {
+        int total = 0;
+        for (int i = 0; i < stripes; i++) {
+            total += cells.get(i * PADDING);
+        }
+        return total;
+    }
+
+    private int take(int stripe, int wanted) {
+        int index = stripe * PADDING;
+        while (true) {
+            int current = cells.get(index);
+            if (current <= 0) {
+                return 0;
+            }
+            int taken = Math.min(current, wanted);
+            if (cells.compareAndSet(index, current, current - taken)) {
+                return taken;
+            }
+        }
+    }
+}
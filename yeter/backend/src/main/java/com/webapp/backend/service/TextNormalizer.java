@@ -0,0 +1,73 @@
+package com.webapp.backend.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Arama ve öneri indeksleri için Türkçe'ye duyarlı metin normalizasyonu.
+ * Küçük harfe çevirme Türkçe yerel ayarıyla yapılır (İ -> i, I -> ı), ardından
+ * Türkçe karakterler ASCII karşılıklarına katlanır (ı -> i, ş -> s, ğ -> g ...).
+ * Böylece "İPHONE", "iphone" ve "ıphone" aynı terime; "şeker" ile "seker" aynı terime düşer.
+ */
+public final class TextNormalizer {
+
+    private static final Locale TURKISH = Locale.forLanguageTag("tr-TR");
+
+    private TextNormalizer() {
+        // Utility sınıfı olduğu için constructor private
+    }
+
+    /**
+     * Metni küçük harfe çevirip Türkçe karakterleri katlar
+     */
+    public static String fold(String text) {
+        if (text == null || text.isEmpty()) {
+            return "";
+        }
+        String lower = text.toLowerCase(TURKISH);
+        StringBuilder sb = new StringBuilder(lower.length());
+        for (int i = 0; i < lower.length(); i++) {
+            sb.append(foldChar(lower.charAt(i)));
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Metni harf/rakam dışındaki karakterlerden bölerek katlanmış terimlere ayırır
+     */
+    public static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        String folded = fold(text);
+        int start = -1;
+        for (int i = 0; i < folded.length(); i++) {
+            if (Character.isLetterOrDigit(folded.charAt(i))) {
+                if (start < 0) {
+                    start = i;
+                }
+            } else if (start >= 0) {
+                tokens.add(folded.substring(start, i));
+                start = -1;
+            }
+        }
+        if (start >= 0) {
+            tokens.add(folded.substring(start));
+        }
+        return tokens;
+    }
+
+    private static char foldChar(char c) {
+        switch (c) {
+            case 'ı': return 'i';
+            case 'ş': return 's';
+            case 'ğ': return 'g';
+            case 'ç': return 'c';
+            case 'ö': return 'o';
+            case 'ü': return 'u';
+            case 'â': return 'a';
+            case 'î': return 'i';
+            case 'û': return 'u';
+            default: return c;
+        }
+    }
+}
@@ -7,22 +7,18 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
-import com.webapp.backend.model.Cart;
 import com.webapp.backend.model.User;
-import com.webapp.backend.repository.CartRepository;
 import com.webapp.backend.repository.UserRepository;
 
 @Service
 public class UserService {
 
     private final UserRepository userRepository;
-    private final CartRepository cartRepository;
     private final PasswordEncoder passwordEncoder;
 
     @Autowired
-    public UserService(UserRepository userRepository, CartRepository cartRepository, PasswordEncoder passwordEncoder) {
+    public UserService(UserRepository userRepository, PasswordEncoder passwordEncoder) {
         this.userRepository = userRepository;
-        this.cartRepository = cartRepository;
         this.passwordEncoder = passwordEncoder;
     }
 
@@ -33,6 +29,10 @@ public class UserService {
     public Optional<User> findById(Long id) {
         return userRepository.findById(id);
     }
+
+    public boolean existsById(Long id) {
+        return userRepository.existsById(id);
+    }
     
     /**
      * ID ile kullanıcıyı alır. ReviewController tarafından kullanılır.
@@ -62,15 +62,8 @@ public class UserService {
         // Şifreyi hashle
         user.setPassword(passwordEncoder.encode(user.getPassword()));
         
-        // Kullanıcıyı kaydet
-        User savedUser = userRepository.save(user);
-        
-        // Kullanıcıya bir sepet oluştur
-        Cart cart = new Cart();
-        cart.setUser(savedUser);
-        cartRepository.save(cart);
-        
-        return savedUser;
+        // Kullanıcıyı kaydet; sepet ilk kullanımda oluşturulur
+        return userRepository.save(user);
     }
 
     /**
@@ -3,7 +3,8 @@ package com.webapp.backend;
 import org.junit.jupiter.api.Test;
 import org.springframework.boot.test.context.SpringBootTest;
 
-@SpringBootTest
+// Misafir sepeti imza anahtarı zorunludur; testte sabit bir anahtar verilir
+@SpringBootTest(properties = "cart.guest.secret=test-guest-cart-secret-0123456789abcdef")
 class BackendApplicationTests {
 
 	@Test
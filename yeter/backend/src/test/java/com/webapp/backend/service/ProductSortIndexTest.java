@@ -0,0 +1,252 @@
+package com.webapp.backend.service;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.Test;
+
+import com.webapp.backend.dto.ProductAttributeView;
+import com.webapp.backend.dto.ProductPageRequest.SortKey;
+import com.webapp.backend.dto.ProductSalesView;
+import com.webapp.backend.event.ProductBatchChangedEvent;
+import com.webapp.backend.model.Category;
+import com.webapp.backend.model.Product;
+import com.webapp.backend.repository.OrderItemRepository;
+import com.webapp.backend.repository.ReviewRepository;
+
+/**
+ * Permütasyonla sıralama ve imleçle sayfalama, aynı verinin düz (anahtar, id) sıralamasıyla aynı
+ * sırayı vermeli. Fiyatlar bilerek çok tekrarlıdır; eşit anahtarlarda sıra id ile belirlenir.
+ */
+class ProductSortIndexTest {
+
+    private static final int PRODUCTS = 500;
+    private static final int PAGE_SIZE = 7;
+
+    @Test
+    void permutationMatchesPlainSort() {
+        // Paralel birleştirme yolunun da çalışması için sıralı eşiğin birkaç katı
+        int count = 50_000;
+        Random random = new Random(42);
+        double[] keys = new double[count];
+        long[] ids = new long[count];
+        for (int i = 0; i < count; i++) {
+            keys[i] = random.nextInt(100);
+            ids[i] = random.nextInt(count * 10);
+        }
+
+        int[] expected = IntStream.range(0, count).boxed()
+                .sorted(Comparator.<Integer>comparingDouble(i -> keys[i]).thenComparingLong(i -> ids[i]))
+                .mapToInt(Integer::intValue)
+                .toArray();
+        int[] actual = PermutationSort.sortedOrder(keys, ids, count);
+
+        // Eşit (anahtar, id) çiftlerinde konumlar farklı olabilir; karşılaştırma değerler üzerinden yapılır
+        assertArrayEquals(IntStream.of(expected).mapToDouble(i -> keys[i]).toArray(),
+                IntStream.of(actual).mapToDouble(i -> keys[i]).toArray());
+        assertArrayEquals(IntStream.of(expected).mapToLong(i -> ids[i]).toArray(),
+                IntStream.of(actual).mapToLong(i -> ids[i]).toArray());
+    }
+
+    @Test
+    void cursorPagesContinueInPlainSortOrder() {
+        List<ProductAttributeView> products = products();
+        ProductSortIndex index = index(products);
+
+        for (boolean descending : new boolean[] { false, true }) {
+            Comparator<ProductAttributeView> byPrice = Comparator.comparingDouble(ProductAttributeView::getPrice)
+                    .thenComparingLong(ProductAttributeView::getId);
+            Comparator<ProductAttributeView> order = descending ? byPrice.reversed() : byPrice;
+
+            assertEquals(products.stream().sorted(order).map(ProductAttributeView::getId).toList(),
+                    readAllPages(index, SortKey.PRICE, null, descending));
+            assertEquals(products.stream().filter(p -> p.getCategoryId() == 2L).sorted(order)
+                    .map(ProductAttributeView::getId).toList(),
+                    readAllPages(index, SortKey.PRICE, 2L, descending));
+            assertEquals(products.stream().map(ProductAttributeView::getId)
+                    .sorted(descending ? Comparator.reverseOrder() : Comparator.naturalOrder()).toList(),
+                    readAllPages(index, SortKey.NEWEST, null, descending));
+        }
+    }
+
+    @Test
+    void batchChangesKeepPlainSortOrder() {
+        List<ProductAttributeView> products = new ArrayList<>(products());
+        ProductSortIndex index = index(products);
+
+        // Yeni ürünler, fiyatı ve kategorisi değişenler ve silinenler tek partide uygulanır
+        Random random = new Random(11);
+        List<Product> saved = new ArrayList<>();
+        for (long id = PRODUCTS + 1; id <= PRODUCTS + 200; id++) {
+            saved.add(product(id, 1L + random.nextInt(4), 10.0 * random.nextInt(20)));
+        }
+        for (long id = 1; id <= 100; id++) {
+            saved.add(product(id, 1L + random.nextInt(4), 10.0 * random.nextInt(20)));
+        }
+        List<Long> deleted = List.of(101L, 150L, 499L);
+        index.onProductsChanged(ProductBatchChangedEvent.of(saved, deleted));
+
+        Map<Long, ProductAttributeView> expected = new HashMap<>();
+        products.forEach(p -> expected.put(p.getId(), p));
+        deleted.forEach(expected::remove);
+        saved.forEach(p -> expected.put(p.getId(), new View(p.getId(), p.getCategory_id(), p.getPrice())));
+
+        Comparator<ProductAttributeView> byPrice = Comparator.comparingDouble(ProductAttributeView::getPrice)
+                .thenComparingLong(ProductAttributeView::getId);
+        for (boolean descending : new boolean[] { false, true }) {
+            Comparator<ProductAttributeView> order = descending ? byPrice.reversed() : byPrice;
+            assertEquals(expected.values().stream().sorted(order).map(ProductAttributeView::getId).toList(),
+                    readAllPages(index, SortKey.PRICE, null, descending));
+            for (long category = 1; category <= 4; category++) {
+                long c = category;
+                assertEquals(expected.values().stream().filter(p -> p.getCategoryId() == c).sorted(order)
+                        .map(ProductAttributeView::getId).toList(),
+                        readAllPages(index, SortKey.PRICE, category, descending));
+            }
+            assertEquals(expected.keySet().stream()
+                    .sorted(descending ? Comparator.reverseOrder() : Comparator.naturalOrder()).toList(),
+                    readAllPages(index, SortKey.NEWEST, null, descending));
+        }
+    }
+
+    @Test
+    void feedBatchRereadsUnitsSold() {
+        List<ProductAttributeView> products = products();
+        // Başka bir düğümdeki satışlar yalnızca veritabanındaki satış adetlerinde görünür
+        Map<Long, Long> sales = Map.of(5L, 40L, 17L, 90L, 300L, 10L);
+        ProductSortIndex index = index(products, sales);
+
+        List<Product> saved = new ArrayList<>();
+        for (ProductAttributeView view : products) {
+            if (sales.containsKey(view.getId())) {
+                saved.add(product(view.getId(), view.getCategoryId(), view.getPrice()));
+            }
+        }
+        index.onProductsChanged(ProductBatchChangedEvent.fromFeed(saved, List.of()));
+
+        List<Long> bestSelling = readAllPages(index, SortKey.BEST_SELLING, null, true);
+        assertEquals(List.of(17L, 5L, 300L), bestSelling.subList(0, 3));
+        assertEquals(products.size(), bestSelling.size());
+    }
+
+    /**
+     * Her sayfa bir önceki sayfanın son (değer, id) çiftinden devam eder; sayfa bir fazla okunarak
+     * sonraki sayfanın varlığı anlaşılır
+     */
+    private static List<Long> readAllPages(ProductSortIndex index, SortKey sortKey, Long categoryId,
+            boolean descending) {
+        List<Long> ids = new ArrayList<>();
+        Double afterValue = null;
+        Long afterId = null;
+        while (true) {
+            long[] pageIds = new long[PAGE_SIZE + 1];
+            double[] pageValues = new double[pageIds.length];
+            int found = index.page(sortKey, categoryId, descending, afterValue, afterId, pageIds, pageValues);
+            int pageSize = Math.min(found, PAGE_SIZE);
+            for (int i = 0; i < pageSize; i++) {
+                ids.add(pageIds[i]);
+            }
+            if (found <= PAGE_SIZE) {
+                return ids;
+            }
+            afterValue = pageValues[pageSize - 1];
+            afterId = pageIds[pageSize - 1];
+        }
+    }
+
+    private static List<ProductAttributeView> products() {
+        Random random = new Random(7);
+        List<ProductAttributeView> products = new ArrayList<>(PRODUCTS);
+        for (long id = 1; id <= PRODUCTS; id++) {
+            products.add(new View(id, 1L + random.nextInt(3), 10.0 * random.nextInt(20)));
+        }
+        return products;
+    }
+
+    private static Product product(long id, long categoryId, double price) {
+        Category category = new Category();
+        category.setId(categoryId);
+        Product product = new Product();
+        product.setId(id);
+        product.setCategory(category);
+        product.setPrice(price);
+        return product;
+    }
+
+    private static ProductSortIndex index(List<ProductAttributeView> products) {
+        return index(products, Map.of());
+    }
+
+    private static ProductSortIndex index(List<ProductAttributeView> products, Map<Long, Long> sales) {
+        CatalogSnapshot snapshot = mock(CatalogSnapshot.class);
+        when(snapshot.findAttributeViewsAfter(any(), anyInt())).thenAnswer(invocation -> {
+            Long afterId = invocation.getArgument(0);
+            int size = invocation.getArgument(1);
+            return products.stream().filter(p -> p.getId() > afterId).limit(size).toList();
+        });
+        OrderItemRepository orderItems = mock(OrderItemRepository.class);
+        when(orderItems.findUnitsSoldByProduct()).thenReturn(List.of());
+        when(orderItems.findUnitsSoldByProductIds(any())).thenAnswer(invocation -> {
+            List<Long> ids = invocation.getArgument(0);
+            return ids.stream().filter(sales::containsKey)
+                    .map(id -> (ProductSalesView) new Sales(id, sales.get(id))).toList();
+        });
+        ReviewRepository reviews = mock(ReviewRepository.class);
+        when(reviews.findRatingSummaries()).thenReturn(List.of());
+
+        ProductSortIndex index = new ProductSortIndex(snapshot, orderItems, reviews);
+        index.rebuild();
+        return index;
+    }
+
+    private record Sales(Long productId, Long unitsSold) implements ProductSalesView {
+        @Override
+        public Long getProductId() {
+            return productId;
+        }
+
+        @Override
+        public Long getUnitsSold() {
+            return unitsSold;
+        }
+    }
+
+    private record View(Long id, Long categoryId, Double price) implements ProductAttributeView {
+        @Override
+        public Long getId() {
+            return id;
+        }
+
+        @Override
+        public Long getCategoryId() {
+            return categoryId;
+        }
+
+        @Override
+        public Long getSellerId() {
+            return 1L;
+        }
+
+        @Override
+        public Double getPrice() {
+            return price;
+        }
+
+        @Override
+        public Integer getStockQuantity() {
+            return 1;
+        }
+    }
+}
@@ -0,0 +1,232 @@
+package com.webapp.backend.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.webapp.backend.model.Cart;
+import com.webapp.backend.model.CartItem;
+import com.webapp.backend.model.Product;
+import com.webapp.backend.model.User;
+import com.webapp.backend.repository.ProductRepository;
+import com.webapp.backend.repository.UserRepository;
+
+/**
+ * Aynı ürünü aynı anda almaya çalışan alıcılar stoktan fazla satış yapamamalı. Her alıcı sipariş hattının
+ * stok aşamasını (OrderService.reserveStock) ayrı bir işlemde çalıştırır ve sıcak ürünle birlikte bol
+ * stoklu ikinci bir ürünü de alır; başarısız alıcının işlemi geri alındığında ikinci üründen düşülen stok
+ * da geri dönmelidir. Sıcak ürün veritabanı yolundan, flash-sale kirasından ve flash-sale kapandığında
+ * veritabanı yoluna düşerek satılır. Başarılı her alıcının sepetindeki ürünler veritabanından yenilenmelidir.
+ */
+@DataJpaTest(showSql = false, properties = {
+        "spring.datasource.url=jdbc:h2:mem:stock;MODE=MySQL;DATABASE_TO_LOWER=TRUE;LOCK_TIMEOUT=30000;DB_CLOSE_DELAY=-1",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.datasource.hikari.maximum-pool-size=32",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "flash-sale.log.path=target/test-flash-sale-claims.log",
+        "flash-sale.log.fsync=false"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({ OrderService.class, FlashSaleStock.class })
+class ProductStockConcurrencyTest {
+
+    private static final int BUYERS = 500;
+    // Flash-sale kirası sipariş işlemi açıkken ikinci bir bağlantı kullanır; havuzun yarısı alıcılara yeter
+    private static final int BUYER_THREADS = 16;
+    private static final int HOT_STOCK = 100;
+    private static final int OTHER_STOCK = 1000;
+    private static final double PRICE = 10.0;
+
+    private static final AtomicInteger sellers = new AtomicInteger();
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private FlashSaleStock flashSaleStock;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @MockitoBean
+    private CartService cartService;
+
+    @MockitoBean
+    private AddressService addressService;
+
+    @Test
+    void concurrentBuyersNeverOversell() throws Exception {
+        Stock stock = stock();
+
+        int succeeded = buyConcurrently(stock, false);
+
+        assertEquals(HOT_STOCK, succeeded);
+        assertEquals(0, databaseStock(stock.hotId()));
+        assertEquals(OTHER_STOCK - HOT_STOCK, databaseStock(stock.otherId()));
+    }
+
+    @Test
+    void flashSaleBuyersNeverOversell() throws Exception {
+        Stock stock = stock();
+        flashSaleStock.enable(stock.hotId());
+        long claimsBefore = claims();
+
+        int succeeded = buyConcurrently(stock, true);
+        // Başarılı her alıcı sıcak ürünü kiralık stoktan almış olmalı
+        assertEquals(succeeded, claims() - claimsBefore);
+        // Kapatma satılmamış kiralık birimleri veritabanına iade eder
+        flashSaleStock.disable(stock.hotId());
+
+        // Kiralar parça parça alındığından stok eksik satılabilir ama hiçbir birim kaybolmaz
+        assertTrue(succeeded > 0 && succeeded <= HOT_STOCK, "satılan: " + succeeded);
+        assertEquals(HOT_STOCK - succeeded, databaseStock(stock.hotId()));
+        assertEquals(OTHER_STOCK - succeeded, databaseStock(stock.otherId()));
+    }
+
+    @Test
+    void closedFlashSaleFallsBackToDatabaseStock() throws Exception {
+        // Sepetteki ürün flash-sale'de görünüyor ama ortak bayrak kapalı; kira alınamaz
+        Stock stock = stock();
+        long claimsBefore = claims();
+
+        int succeeded = buyConcurrently(stock, true);
+
+        assertEquals(HOT_STOCK, succeeded);
+        assertEquals(claimsBefore, claims());
+        assertEquals(0, flashSaleStock.leasedStock(stock.hotId()));
+        assertEquals(0, databaseStock(stock.hotId()));
+        assertEquals(OTHER_STOCK - HOT_STOCK, databaseStock(stock.otherId()));
+    }
+
+    /**
+     * Her alıcı kendi sepetiyle ayrı bir işlemde stok ayırır; başarılı alıcıların sayısını döndürür.
+     * Sepetteki ürünlerin fiyatı bilerek eskidir; ayırmadan sonra veritabanındaki fiyat ve stok okunmuş olmalıdır.
+     */
+    private int buyConcurrently(Stock stock, boolean hotInFlashSale) throws Exception {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        ExecutorService executor = Executors.newFixedThreadPool(BUYER_THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Boolean>> purchases = new ArrayList<>(BUYERS);
+        try {
+            for (int i = 0; i < BUYERS; i++) {
+                purchases.add(executor.submit(() -> {
+                    start.await();
+                    Product hot = cartProduct(stock.hotId(), hotInFlashSale);
+                    Product other = cartProduct(stock.otherId(), false);
+                    Cart cart = cart(hot, other);
+                    return transactionTemplate.execute(status -> {
+                        try {
+                            orderService.reserveStock(cart);
+                        } catch (IllegalStateException e) {
+                            status.setRollbackOnly();
+                            return false;
+                        }
+                        assertEquals(PRICE, hot.getPrice());
+                        assertEquals(PRICE, other.getPrice());
+                        assertTrue(hot.getStock_quantity() >= 0 && hot.getStock_quantity() < HOT_STOCK);
+                        assertTrue(other.getStock_quantity() < OTHER_STOCK);
+                        return true;
+                    });
+                }));
+            }
+            start.countDown();
+
+            int succeeded = 0;
+            for (Future<Boolean> purchase : purchases) {
+                if (purchase.get(60, TimeUnit.SECONDS)) {
+                    succeeded++;
+                }
+            }
+            return succeeded;
+        } finally {
+            executor.shutdownNow();
+            assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+        }
+    }
+
+    private Stock stock() {
+        int n = sellers.incrementAndGet();
+        User seller = new User();
+        seller.setUsername("seller" + n);
+        seller.setEmail("seller" + n + "@example.com");
+        seller.setPassword("secret");
+        seller = userRepository.save(seller);
+        Long hotId = productRepository.save(product("Sıcak ürün", HOT_STOCK, seller)).getId();
+        Long otherId = productRepository.save(product("Diğer ürün", OTHER_STOCK, seller)).getId();
+        return new Stock(hotId, otherId);
+    }
+
+    private long claims() {
+        return (Long) flashSaleStock.getMetrics().get("claims");
+    }
+
+    private int databaseStock(Long productId) {
+        return productRepository.findById(productId).orElseThrow().getStock_quantity();
+    }
+
+    private static Product product(String name, int stock, User seller) {
+        Product product = new Product();
+        product.setName(name);
+        product.setPrice(PRICE);
+        product.setStock_quantity(stock);
+        product.setSeller(seller);
+        return product;
+    }
+
+    /**
+     * Sepet satırının taşıdığı, veritabanındakinden eski fiyatlı ürün
+     */
+    private static Product cartProduct(Long id, boolean flashSale) {
+        Product product = new Product();
+        product.setId(id);
+        product.setName("Sepetteki ürün " + id);
+        product.setPrice(1.0);
+        product.setStock_quantity(0);
+        product.setFlashSale(flashSale);
+        return product;
+    }
+
+    private static Cart cart(Product... products) {
+        Cart cart = new Cart();
+        for (Product product : products) {
+            CartItem item = new CartItem();
+            item.setCart(cart);
+            item.setProduct(product);
+            item.setQuantity(1);
+            cart.getCartItems().add(item);
+        }
+        return cart;
+    }
+
+    private record Stock(Long hotId, Long otherId) {
+    }
+}
@@ -1,7 +1,8 @@
 import { Component, OnInit } from '@angular/core';
 import { CommonModule } from '@angular/common';
 import { ActivatedRoute, RouterLink } from '@angular/router';
-import { Product } from '../../models/product.model';
+import { Observable } from 'rxjs';
+import { CursorPage, Product } from '../../models/product.model';
 import { ProductService } from '../../services/product.service';
 import { CartService } from '../../services/cart.service';
 import { Category } from '../../models/category.model';
@@ -18,7 +19,10 @@ export class ProductListComponent implements OnInit {
   products: Product[] = [];
   categories: Category[] = [];
   selectedCategory: Category | null = null;
-  originalProducts: Product[] = [];
+  searchQuery: string | null = null;
+  // Sonraki sayfanın imleci; son sayfada null
+  nextCursor: string | null = null;
+  loadingMore = false;
 
   constructor(
     private productService: ProductService,
@@ -29,7 +33,6 @@ export class ProductListComponent implements OnInit {
 
   ngOnInit(): void {
     this.loadCategories();
-    this.loadProducts();
 
     // Subscribe to query parameter changes for search
     this.route.queryParams.subscribe(params => {
@@ -53,13 +56,53 @@ export class ProductListComponent implements OnInit {
   }
 
   loadProducts(): void {
-    this.productService.getProducts().subscribe({
-      next: (data) => {
-        this.products = data;
-        this.originalProducts = [...data];
+    this.searchQuery = null;
+    this.loadFirstPage();
+  }
+
+  // Seçili kategori veya arama için o anki listenin sayfası
+  private fetchPage(after: string | null): Observable<CursorPage<Product>> {
+    if (this.searchQuery) {
+      return this.productService.searchProductPage(this.searchQuery, after);
+    }
+    if (this.selectedCategory) {
+      return this.productService.getProductsByCategoryPage(this.selectedCategory.id, after);
+    }
+    return this.productService.getProductPage(after);
+  }
+
+  private loadFirstPage(): void {
+    this.nextCursor = null;
+    this.fetchPage(null).subscribe({
+      next: (page) => {
+        this.products = page.items;
+        this.nextCursor = page.hasMore ? page.nextCursor : null;
       },
       error: (error) => {
         console.error('Error fetching products:', error);
+        if (this.selectedCategory && !this.searchQuery) {
+          // Fallback to all products if there's an error
+          this.selectedCategory = null;
+          this.loadFirstPage();
+        }
+      }
+    });
+  }
+
+  loadMore(): void {
+    if (!this.nextCursor || this.loadingMore) {
+      return;
+    }
+    this.loadingMore = true;
+    this.fetchPage(this.nextCursor).subscribe({
+      next: (page) => {
+        this.products = this.products.concat(page.items);
+        this.nextCursor = page.hasMore ? page.nextCursor : null;
+        this.loadingMore = false;
+      },
+      error: (error) => {
+        console.error('Error fetching more products:', error);
+        this.loadingMore = false;
       }
     });
   }
@@ -71,36 +114,12 @@ export class ProductListComponent implements OnInit {
 
     console.log('Selecting category:', category);
     this.selectedCategory = category;
-
-    if (category) {
-      console.log('Fetching products for category:', category.id);
-      this.productService.getProductsByCategory(category.id).subscribe({
-        next: (products) => {
-          console.log('Products received:', products);
-          this.products = products;
-        },
-        error: (error) => {
-          console.error('Error loading products for category:', error);
-          // Fallback to all products if there's an error
-          this.loadProducts();
-        }
-      });
-    } else {
-      console.log('Loading all products');
-      this.loadProducts();
-    }
+    this.loadProducts();
   }
 
   filterProducts(searchQuery: string): void {
-    const query = searchQuery.toLowerCase();
-    this.products = this.originalProducts.filter(product =>
-      product.name.toLowerCase().includes(query) ||
-      (product.description?.toLowerCase().includes(query) ?? false)
-    );
-
-    if (this.selectedCategory) {
-      this.selectCategory(this.selectedCategory);
-    }
+    this.searchQuery = searchQuery;
+    this.loadFirstPage();
   }
 
   addToCart(product: Product): void {
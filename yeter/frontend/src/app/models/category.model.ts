@@ -2,4 +2,8 @@ export interface Category {
   id: number;
   name: string;
   description?: string;
+  // Yalnızca /categories/summary yanıtında dolu gelir
+  productCount?: number;
+  minPrice?: number | null;
+  maxPrice?: number | null;
 }
\ No newline at end of file
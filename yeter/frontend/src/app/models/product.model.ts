@@ -25,4 +25,12 @@ export interface Product {
     reviews?: Review[];
     averageRating?: number;
     reviewCount?: number;
-}
\ No newline at end of file
+}
+
+// Backend'in keyset (cursor) sayfalama cevabı
+export interface CursorPage<T> {
+    items: T[];
+    nextCursor: string | null;
+    hasMore: boolean;
+    limit: number;
+}
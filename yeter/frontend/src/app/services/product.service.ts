@@ -1,8 +1,8 @@
 import { Injectable } from '@angular/core';
 import { HttpClient } from '@angular/common/http';
-import { Observable, of, throwError } from 'rxjs';
-import { catchError, map } from 'rxjs/operators';
-import { Product } from '../models/product.model';
+import { EMPTY, Observable, of, throwError } from 'rxjs';
+import { catchError, expand, map, reduce } from 'rxjs/operators';
+import { CursorPage, Product } from '../models/product.model';
 import { Category } from '../models/category.model';
 import { AuthService } from './auth.service'; // Import AuthService
 
@@ -11,6 +11,9 @@ import { AuthService } from './auth.service'; // Import AuthService
 })
 export class ProductService {
   private apiUrl = `http://localhost:8080/api`;
+  // Backend'in kabul ettiği en büyük sayfa boyutu (ProductPageRequest.MAX_LIMIT)
+  static readonly MAX_PAGE_SIZE = 100;
+  static readonly DEFAULT_PAGE_SIZE = 20;
 
   private mockProducts: Product[] = [
     {
@@ -37,8 +40,9 @@ export class ProductService {
     private authService: AuthService // Inject AuthService
   ) { }
 
+  // Tüm ürünler; nextCursor takip edilerek bütün sayfalar okunur. Vitrin listeleri getProductPage kullanmalı
   getProducts(): Observable<Product[]> {
-    return this.http.get<Product[]>(`${this.apiUrl}/products`).pipe(
+    return this.fetchAllPages(`${this.apiUrl}/products`).pipe(
       catchError(error => {
         console.error('Error fetching products from API:', error);
         return of(this.mockProducts);
@@ -68,7 +72,7 @@ export class ProductService {
       catchError(error => {
         console.error('Error fetching seller products:', error);
         // If API fails, fallback to filtering (less reliable)
-        return this.http.get<Product[]>(`${this.apiUrl}/products`).pipe(
+        return this.fetchAllPages(`${this.apiUrl}/products/seller/${sellerId}`).pipe(
           map(products => products.filter(product => product.seller?.id === sellerId)),
           catchError(this.handleError)
         );
@@ -138,17 +142,49 @@ export class ProductService {
   }
 
   getCategories(): Observable<Category[]> {
-    return this.http.get<Category[]>(`${this.apiUrl}/categories`);
+    return this.http.get<Category[]>(`${this.apiUrl}/categories/summary`);
   }
 
   getProductsByCategory(categoryId: number): Observable<Product[]> {
-    return this.http.get<Product[]>(`${this.apiUrl}/products/category/${categoryId}`);
+    return this.fetchAllPages(`${this.apiUrl}/products/category/${categoryId}`);
   }
 
   searchProducts(query: string): Observable<Product[]> {
-    return this.http.get<Product[]>(`${this.apiUrl}/products/search`, {
-      params: { query }
-    });
+    return this.fetchAllPages(`${this.apiUrl}/products/search`, { name: query });
+  }
+
+  // Tek sayfa; sonraki sayfa için dönen nextCursor değeri after olarak verilir
+  getProductPage(after: string | null = null, limit = ProductService.DEFAULT_PAGE_SIZE): Observable<CursorPage<Product>> {
+    return this.fetchPage(`${this.apiUrl}/products`, {}, after, limit);
+  }
+
+  getProductsByCategoryPage(categoryId: number, after: string | null = null,
+    limit = ProductService.DEFAULT_PAGE_SIZE): Observable<CursorPage<Product>> {
+    return this.fetchPage(`${this.apiUrl}/products/category/${categoryId}`, {}, after, limit);
+  }
+
+  searchProductPage(query: string, after: string | null = null,
+    limit = ProductService.DEFAULT_PAGE_SIZE): Observable<CursorPage<Product>> {
+    return this.fetchPage(`${this.apiUrl}/products/search`, { name: query }, after, limit);
+  }
+
+  private fetchPage(url: string, params: Record<string, string | number>, after: string | null,
+    limit: number): Observable<CursorPage<Product>> {
+    const pageParams: Record<string, string | number> = { ...params, limit };
+    if (after) {
+      pageParams['after'] = after;
+    }
+    return this.http.get<CursorPage<Product>>(url, { params: pageParams });
+  }
+
+  // Sayfaları sırayla okuyup birleştirir; her istek bir öncekinin nextCursor değeriyle devam eder
+  private fetchAllPages(url: string, params: Record<string, string | number> = {}): Observable<Product[]> {
+    return this.fetchPage(url, params, null, ProductService.MAX_PAGE_SIZE).pipe(
+      expand(page => page.hasMore && page.nextCursor
+        ? this.fetchPage(url, params, page.nextCursor, ProductService.MAX_PAGE_SIZE)
+        : EMPTY),
+      reduce((products, page) => products.concat(page.items), [] as Product[])
+    );
   }
 
   private handleError(error: any): Observable<never> {